@@ -611,6 +611,22 @@ public final class AccountExceptionMessage {
   public static final String BATCH_AUTO_MOVE_LETTERING_PENDING_PROPOSAL_EXISTS = /*$$(*/
       "Warning, there are still reconcile group proposals pending that correspond to the filters you have entered." /*)*/;
 
+  /** Batch account balances */
+  public static final String BATCH_REBUILD_ACCOUNT_BALANCES_REPORT_TITLE = /*$$(*/
+      "Report for account balances rebuild batch:" /*)*/;
+
+  public static final String BATCH_REBUILD_ACCOUNT_BALANCES_PERIOD_DONE = /*$$(*/
+      "period(s) rebuilt successfully" /*)*/;
+
+  public static final String BATCH_ACCOUNT_BALANCES_CONSISTENCY_REPORT_TITLE = /*$$(*/
+      "Report for account balances consistency control batch:" /*)*/;
+
+  public static final String BATCH_ACCOUNT_BALANCES_CONSISTENCY_PERIOD_DONE = /*$$(*/
+      "period(s) consistent with their accounted move lines" /*)*/;
+
+  public static final String ACCOUNT_BALANCE_INCONSISTENCY = /*$$(*/
+      "The balance of the account %s for the partner %s on the period %s is inconsistent: debit %s and credit %s are stored while the accounted move lines give debit %s and credit %s." /*)*/;
+
   /** Cfonb export service */
   public static final String CFONB_EXPORT_1 = /*$$(*/
       "You must configure a RIB for the reimbursement" /*)*/;
@@ -1452,6 +1468,26 @@ public final class AccountExceptionMessage {
   public static final String IMPORT_FEC_PERIOD_NOT_FOUND = /*$$(*/
       "No period found for the date %s and the company %s. The move cannot be created." /*)*/;
 
+  public static final String IMPORT_FEC_MOVE_NOT_BALANCED = /*$$(*/
+      "The total debit (%s) and the total credit (%s) are not equal. The move cannot be created." /*)*/;
+
+  public static final String IMPORT_FEC_MOVE_LINES_NOT_CONSECUTIVE = /*$$(*/
+      "The lines of this move are not consecutive in the file. The move cannot be created." /*)*/;
+
+  public static final String IMPORT_FEC_MOVE_NOT_IMPORTED = /*$$(*/ "Move %s: %s" /*)*/;
+
+  public static final String IMPORT_FEC_FILE_NOT_READABLE = /*$$(*/
+      "The FEC file cannot be read: %s" /*)*/;
+
+  public static final String IMPORT_FEC_MOVE_NOT_ACCOUNTED = /*$$(*/
+      "The imported move %s could not be accounted, or its partner balances could not be updated. Please check the logs." /*)*/;
+
+  public static final String IMPORT_FEC_BULK_CUSTOM_BINDING = /*$$(*/
+      "The bulk import only supports the standard binding files (%s). Please uncheck the bulk import to use the binding file %s." /*)*/;
+
+  public static final String IMPORT_FEC_BULK_RESULT = /*$$(*/
+      "%s move(s) imported, %s move(s) in anomaly, %s move(s) not accounted." /*)*/;
+
   public static final String ACCOUNT_MANAGEMENT_CASH_ACCOUNT_MISSING_PAYMENT = /*$$(*/
       "Please select a cash account in config of the payment mode %s" /*)*/;
 
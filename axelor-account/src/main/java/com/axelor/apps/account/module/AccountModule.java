@@ -75,6 +75,8 @@ import com.axelor.apps.account.db.repo.ReconcileRepository;
 import com.axelor.apps.account.db.repo.SubrogationReleaseManagementRepository;
 import com.axelor.apps.account.db.repo.SubrogationReleaseRepository;
 import com.axelor.apps.account.service.*;
+import com.axelor.apps.account.service.AccountBalanceService;
+import com.axelor.apps.account.service.AccountBalanceServiceImpl;
 import com.axelor.apps.account.service.accountingsituation.AccountingSituationAttrsService;
 import com.axelor.apps.account.service.accountingsituation.AccountingSituationAttrsServiceImpl;
 import com.axelor.apps.account.service.accountingsituation.AccountingSituationCheckService;
@@ -137,6 +139,8 @@ import com.axelor.apps.account.service.debtrecovery.DebtRecoveryHistoryService;
 import com.axelor.apps.account.service.debtrecovery.DebtRecoveryHistoryServiceImpl;
 import com.axelor.apps.account.service.extract.ExtractContextMoveService;
 import com.axelor.apps.account.service.extract.ExtractContextMoveServiceImpl;
+import com.axelor.apps.account.service.fecimport.FECBulkImportService;
+import com.axelor.apps.account.service.fecimport.FECBulkImportServiceImpl;
 import com.axelor.apps.account.service.fecimport.FECImportService;
 import com.axelor.apps.account.service.fecimport.FECImportServiceImpl;
 import com.axelor.apps.account.service.fecimport.ImportFECTypeService;
@@ -682,6 +686,8 @@ public class AccountModule extends AxelorModule {
 
     bind(FECImportService.class).to(FECImportServiceImpl.class);
 
+    bind(FECBulkImportService.class).to(FECBulkImportServiceImpl.class);
+
     bind(AccountingSituationInitService.class).to(AccountingSituationInitServiceImpl.class);
 
     bind(InvoiceMergingService.class).to(InvoiceMergingServiceImpl.class);
@@ -978,5 +984,6 @@ public class AccountModule extends AxelorModule {
     bind(InvoiceTermDateComputeService.class).to(InvoiceTermDateComputeServiceImpl.class);
     bind(InvoiceLineCheckService.class).to(InvoiceLineCheckServiceImpl.class);
     bind(InvoiceGlobalDiscountService.class).to(InvoiceGlobalDiscountServiceImpl.class);
+    bind(AccountBalanceService.class).to(AccountBalanceServiceImpl.class);
   }
 }
@@ -0,0 +1,82 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service;
+
+import com.axelor.apps.account.db.Account;
+import com.axelor.apps.account.db.AccountType;
+import com.axelor.apps.account.db.Move;
+import com.axelor.apps.base.db.Partner;
+import com.axelor.apps.base.db.Period;
+import com.axelor.apps.base.db.Year;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Maintains the debit and credit sums of the accounted move lines per company, account, partner
+ * and period, so that account balances can be read without scanning the move lines.
+ */
+public interface AccountBalanceService {
+
+  /**
+   * Add the lines of a move which has just been accounted to the balances.
+   *
+   * @param move an accounted move
+   */
+  void addMove(Move move);
+
+  /**
+   * Get the accounted balance (debit - credit) of an account, or of every account of an account
+   * type when no account is given.
+   *
+   * @param account the account, can be null if an account type is given
+   * @param accountType the account type, ignored if an account is given
+   * @param year the fiscal year, can be null to get the balance of every period
+   * @return the accounted balance
+   */
+  BigDecimal getAccountedBalance(Account account, AccountType accountType, Year year);
+
+  /**
+   * Get the accounted balance (debit - credit) of an account on a fiscal year, without the year
+   * closure moves.
+   *
+   * @param year the fiscal year
+   * @param account the account
+   * @param partner the partner, used only if allocatePerPartner is true
+   * @param allocatePerPartner whether the balance is restricted to the partner for the accounts
+   *     used for partner balance
+   * @return the accounted balance
+   */
+  BigDecimal getClosureBalance(
+      Year year, Account account, Partner partner, boolean allocatePerPartner);
+
+  /**
+   * Replace the balances of a period by the sums computed from its accounted move lines.
+   *
+   * @param period the period to rebuild
+   */
+  void rebuild(Period period);
+
+  /**
+   * Compare the balances of a period with the sums computed from its accounted move lines.
+   *
+   * @param period the period to check
+   * @return a message for each inconsistent balance, empty if the period is consistent
+   */
+  List<String> checkConsistency(Period period);
+}
@@ -0,0 +1,425 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service;
+
+import com.axelor.apps.account.db.Account;
+import com.axelor.apps.account.db.AccountBalance;
+import com.axelor.apps.account.db.AccountType;
+import com.axelor.apps.account.db.Move;
+import com.axelor.apps.account.db.MoveLine;
+import com.axelor.apps.account.db.repo.AccountBalanceRepository;
+import com.axelor.apps.account.db.repo.AccountRepository;
+import com.axelor.apps.account.db.repo.MoveRepository;
+import com.axelor.apps.account.exception.AccountExceptionMessage;
+import com.axelor.apps.account.service.app.AppAccountService;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Partner;
+import com.axelor.apps.base.db.Period;
+import com.axelor.apps.base.db.Year;
+import com.axelor.apps.base.db.repo.PartnerRepository;
+import com.axelor.apps.base.utils.TransactionTools;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AccountBalanceServiceImpl implements AccountBalanceService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /** Orders the balance keys of a move by account id, then partner id. */
+  protected static final Comparator<List<Object>> BALANCE_KEY_COMPARATOR =
+      Comparator.comparing(
+              (List<Object> key) -> (Account) key.get(0),
+              Comparator.nullsFirst(
+                  Comparator.comparing(
+                      Account::getId, Comparator.nullsFirst(Comparator.naturalOrder()))))
+          .thenComparing(
+              key -> (Partner) key.get(1),
+              Comparator.nullsFirst(
+                  Comparator.comparing(
+                      Partner::getId, Comparator.nullsFirst(Comparator.naturalOrder()))));
+
+  protected AccountBalanceRepository accountBalanceRepository;
+  protected AccountRepository accountRepository;
+  protected PartnerRepository partnerRepository;
+  protected AppAccountService appAccountService;
+
+  @Inject
+  public AccountBalanceServiceImpl(
+      AccountBalanceRepository accountBalanceRepository,
+      AccountRepository accountRepository,
+      PartnerRepository partnerRepository,
+      AppAccountService appAccountService) {
+    this.accountBalanceRepository = accountBalanceRepository;
+    this.accountRepository = accountRepository;
+    this.partnerRepository = partnerRepository;
+    this.appAccountService = appAccountService;
+  }
+
+  @Override
+  @Transactional
+  public void addMove(Move move) {
+    if (move.getStatusSelect() != MoveRepository.STATUS_ACCOUNTED
+        || Boolean.TRUE.equals(move.getIgnoreInAccountingOk())
+        || move.getMoveLineList() == null) {
+      return;
+    }
+
+    // The balances are updated by account then partner: two moves accounted concurrently on the
+    // same accounts wait for each other instead of deadlocking
+    Map<List<Object>, BigDecimal[]> amountMap = new TreeMap<>(BALANCE_KEY_COMPARATOR);
+    for (MoveLine moveLine : move.getMoveLineList()) {
+      BigDecimal[] amounts =
+          amountMap.computeIfAbsent(
+              Arrays.asList(moveLine.getAccount(), moveLine.getPartner()),
+              key -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+      amounts[0] = amounts[0].add(moveLine.getDebit());
+      amounts[1] = amounts[1].add(moveLine.getCredit());
+    }
+
+    boolean autoYearClosureMove = Boolean.TRUE.equals(move.getAutoYearClosureMove());
+    for (Map.Entry<List<Object>, BigDecimal[]> entry : amountMap.entrySet()) {
+      addAmounts(
+          move.getCompany(),
+          (Account) entry.getKey().get(0),
+          (Partner) entry.getKey().get(1),
+          move.getPeriod(),
+          autoYearClosureMove,
+          entry.getValue()[0],
+          entry.getValue()[1]);
+    }
+  }
+
+  /**
+   * Add the amounts to the balance with an update statement, so that concurrent accountings on
+   * the same account wait for each other instead of losing an update. A missing balance is created
+   * in its own transaction first, then updated like an existing one.
+   */
+  protected void addAmounts(
+      Company company,
+      Account account,
+      Partner partner,
+      Period period,
+      boolean autoYearClosureMove,
+      BigDecimal debit,
+      BigDecimal credit) {
+    String balanceKey = getBalanceKey(account, partner, period, autoYearClosureMove);
+    if (updateAmounts(balanceKey, debit, credit) > 0) {
+      return;
+    }
+
+    createAccountBalanceInNewTransaction(
+        company, account, partner, period, autoYearClosureMove, balanceKey);
+    updateAmounts(balanceKey, debit, credit);
+  }
+
+  protected int updateAmounts(String balanceKey, BigDecimal debit, BigDecimal credit) {
+    return JPA.em()
+        .createQuery(
+            "UPDATE AccountBalance self "
+                + "SET self.debit = self.debit + :debit, self.credit = self.credit + :credit "
+                + "WHERE self.balanceKey = :balanceKey")
+        .setParameter("debit", debit)
+        .setParameter("credit", credit)
+        .setParameter("balanceKey", balanceKey)
+        .executeUpdate();
+  }
+
+  /**
+   * Create the missing balance with zero amounts in its own transaction. When a concurrent
+   * transaction creates the same balance first, the unique key makes this creation fail and the
+   * balance of the other transaction is used instead.
+   */
+  protected void createAccountBalanceInNewTransaction(
+      Company company,
+      Account account,
+      Partner partner,
+      Period period,
+      boolean autoYearClosureMove,
+      String balanceKey) {
+    try {
+      TransactionTools.runInNewTransaction(
+          em ->
+              em.persist(
+                  createAccountBalance(
+                      em.getReference(Company.class, company.getId()),
+                      em.getReference(Account.class, account.getId()),
+                      partner != null ? em.getReference(Partner.class, partner.getId()) : null,
+                      em.getReference(Period.class, period.getId()),
+                      autoYearClosureMove,
+                      BigDecimal.ZERO,
+                      BigDecimal.ZERO)));
+    } catch (PersistenceException e) {
+      if (!balanceExists(balanceKey)) {
+        throw e;
+      }
+      LOG.debug("Account balance created by a concurrent transaction: {}", e.getMessage());
+    }
+  }
+
+  protected boolean balanceExists(String balanceKey) {
+    return accountBalanceRepository
+            .all()
+            .filter("self.balanceKey = :balanceKey")
+            .bind("balanceKey", balanceKey)
+            .count()
+        > 0;
+  }
+
+  /**
+   * The unique key of a balance. The partner being optional, a unique constraint on the columns
+   * would not prevent two balances without partner, as null values are distinct for the database.
+   */
+  protected String getBalanceKey(
+      Account account, Partner partner, Period period, boolean autoYearClosureMove) {
+    return String.format(
+        "%s/%s/%s/%s/%s",
+        account.getId(),
+        period.getId(),
+        partner != null ? partner.getId() : "",
+        MoveRepository.STATUS_ACCOUNTED,
+        autoYearClosureMove);
+  }
+
+  protected AccountBalance createAccountBalance(
+      Company company,
+      Account account,
+      Partner partner,
+      Period period,
+      boolean autoYearClosureMove,
+      BigDecimal debit,
+      BigDecimal credit) {
+    AccountBalance accountBalance = new AccountBalance();
+    accountBalance.setCompany(company);
+    accountBalance.setAccount(account);
+    accountBalance.setPartner(partner);
+    accountBalance.setPeriod(period);
+    accountBalance.setStatusSelect(MoveRepository.STATUS_ACCOUNTED);
+    accountBalance.setAutoYearClosureMove(autoYearClosureMove);
+    accountBalance.setBalanceKey(getBalanceKey(account, partner, period, autoYearClosureMove));
+    accountBalance.setDebit(debit);
+    accountBalance.setCredit(credit);
+    return accountBalance;
+  }
+
+  @Override
+  public BigDecimal getAccountedBalance(Account account, AccountType accountType, Year year) {
+    boolean balancesComputed = areBalancesComputed();
+    Map<String, Object> params = new HashMap<>();
+    String filter;
+    if (account != null) {
+      filter = "self.account = :account";
+      params.put("account", account);
+    } else {
+      filter = "self.account.accountType = :accountType";
+      params.put("accountType", accountType);
+    }
+    if (year != null) {
+      filter +=
+          balancesComputed ? " AND self.period.year = :year" : " AND move.period.year = :year";
+      params.put("year", year);
+    }
+    return balancesComputed ? getBalance(filter, params) : getMoveLineBalance(filter, params);
+  }
+
+  @Override
+  public BigDecimal getClosureBalance(
+      Year year, Account account, Partner partner, boolean allocatePerPartner) {
+    boolean balancesComputed = areBalancesComputed();
+    Map<String, Object> params = new HashMap<>();
+    String filter =
+        balancesComputed
+            ? "self.period.year = :year AND self.account = :account "
+                + "AND self.autoYearClosureMove = false"
+            : "move.period.year = :year AND self.account = :account "
+                + "AND move.autoYearClosureMove IS NOT TRUE";
+    params.put("year", year);
+    params.put("account", account);
+
+    if (allocatePerPartner && account.getUseForPartnerBalance()) {
+      if (partner != null) {
+        filter += " AND self.partner = :partner";
+        params.put("partner", partner);
+      } else {
+        filter += " AND self.partner IS NULL";
+      }
+    }
+    return balancesComputed ? getBalance(filter, params) : getMoveLineBalance(filter, params);
+  }
+
+  /**
+   * The balances are maintained when moves are accounted, so the moves accounted before they were
+   * introduced are only counted once the rebuild batch has run for every fiscal year.
+   */
+  protected boolean areBalancesComputed() {
+    return appAccountService.getAppAccount().getAccountBalancesOk();
+  }
+
+  protected BigDecimal getBalance(String filter, Map<String, Object> params) {
+    return getSum(
+        "SELECT SUM(self.debit - self.credit) FROM AccountBalance self "
+            + "WHERE self.statusSelect = :statusSelect AND "
+            + filter,
+        params);
+  }
+
+  /** Sum the accounted move lines, used until the balances are computed. */
+  protected BigDecimal getMoveLineBalance(String filter, Map<String, Object> params) {
+    return getSum(
+        "SELECT SUM(self.debit - self.credit) FROM MoveLine self JOIN self.move move "
+            + "WHERE move.statusSelect = :statusSelect "
+            + "AND (move.ignoreInAccountingOk = false OR move.ignoreInAccountingOk IS NULL) AND "
+            + filter,
+        params);
+  }
+
+  protected BigDecimal getSum(String queryString, Map<String, Object> params) {
+    TypedQuery<BigDecimal> query =
+        JPA.em()
+            .createQuery(queryString, BigDecimal.class)
+            .setParameter("statusSelect", MoveRepository.STATUS_ACCOUNTED);
+    params.forEach(query::setParameter);
+
+    BigDecimal balance = query.getSingleResult();
+    return balance != null ? balance : BigDecimal.ZERO;
+  }
+
+  @Override
+  @Transactional
+  public void rebuild(Period period) {
+    deleteBalances(period);
+
+    Company company = period.getYear().getCompany();
+    for (Map.Entry<List<Object>, BigDecimal[]> entry : getMoveLineAmountMap(period).entrySet()) {
+      Long partnerId = (Long) entry.getKey().get(1);
+      accountBalanceRepository.save(
+          createAccountBalance(
+              company,
+              accountRepository.find((Long) entry.getKey().get(0)),
+              partnerId != null ? partnerRepository.find(partnerId) : null,
+              period,
+              (Boolean) entry.getKey().get(2),
+              entry.getValue()[0],
+              entry.getValue()[1]));
+    }
+  }
+
+  protected void deleteBalances(Period period) {
+    JPA.em()
+        .createQuery("DELETE FROM AccountBalance self WHERE self.period = :period")
+        .setParameter("period", period)
+        .executeUpdate();
+  }
+
+  @Override
+  public List<String> checkConsistency(Period period) {
+    Map<List<Object>, BigDecimal[]> moveLineAmountMap = getMoveLineAmountMap(period);
+    Map<List<Object>, BigDecimal[]> balanceAmountMap =
+        getAmountMap(
+            "SELECT self.account.id, partner.id, self.autoYearClosureMove, "
+                + "SUM(self.debit), SUM(self.credit) "
+                + "FROM AccountBalance self LEFT JOIN self.partner partner "
+                + "WHERE self.period = :period AND self.statusSelect = :statusSelect "
+                + "GROUP BY self.account.id, partner.id, self.autoYearClosureMove",
+            period);
+
+    Set<List<Object>> keySet = new LinkedHashSet<>(moveLineAmountMap.keySet());
+    keySet.addAll(balanceAmountMap.keySet());
+
+    BigDecimal[] zeroAmounts = {BigDecimal.ZERO, BigDecimal.ZERO};
+    List<String> inconsistencyList = new ArrayList<>();
+    for (List<Object> key : keySet) {
+      BigDecimal[] expected = moveLineAmountMap.getOrDefault(key, zeroAmounts);
+      BigDecimal[] stored = balanceAmountMap.getOrDefault(key, zeroAmounts);
+      if (expected[0].compareTo(stored[0]) == 0 && expected[1].compareTo(stored[1]) == 0) {
+        continue;
+      }
+      inconsistencyList.add(getInconsistencyMessage(key, period, stored, expected));
+    }
+    return inconsistencyList;
+  }
+
+  protected String getInconsistencyMessage(
+      List<Object> key, Period period, BigDecimal[] stored, BigDecimal[] expected) {
+    Long partnerId = (Long) key.get(1);
+    return String.format(
+        I18n.get(AccountExceptionMessage.ACCOUNT_BALANCE_INCONSISTENCY),
+        accountRepository.find((Long) key.get(0)).getCode(),
+        partnerId != null ? partnerRepository.find(partnerId).getFullName() : "-",
+        period.getName(),
+        stored[0],
+        stored[1],
+        expected[0],
+        expected[1]);
+  }
+
+  /**
+   * Sum the accounted move lines of a period per account, partner and year closure flag.
+   *
+   * @return the debit and credit sums keyed by account id, partner id and year closure flag
+   */
+  protected Map<List<Object>, BigDecimal[]> getMoveLineAmountMap(Period period) {
+    return getAmountMap(
+        "SELECT self.account.id, partner.id, move.autoYearClosureMove, "
+            + "SUM(self.debit), SUM(self.credit) "
+            + "FROM MoveLine self JOIN self.move move LEFT JOIN self.partner partner "
+            + "WHERE move.period = :period AND move.statusSelect = :statusSelect "
+            + "AND (move.ignoreInAccountingOk = false OR move.ignoreInAccountingOk IS NULL) "
+            + "GROUP BY self.account.id, partner.id, move.autoYearClosureMove",
+        period);
+  }
+
+  protected Map<List<Object>, BigDecimal[]> getAmountMap(String queryString, Period period) {
+    List<Object[]> resultList =
+        JPA.em()
+            .createQuery(queryString, Object[].class)
+            .setParameter("period", period)
+            .setParameter("statusSelect", MoveRepository.STATUS_ACCOUNTED)
+            .getResultList();
+
+    // A missing year closure flag counts as false, so its sums are merged with the false ones
+    Map<List<Object>, BigDecimal[]> amountMap = new LinkedHashMap<>();
+    for (Object[] result : resultList) {
+      BigDecimal[] amounts =
+          amountMap.computeIfAbsent(
+              Arrays.asList(result[0], result[1], Boolean.TRUE.equals(result[2])),
+              key -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+      amounts[0] = amounts[0].add((BigDecimal) result[3]);
+      amounts[1] = amounts[1].add((BigDecimal) result[4]);
+    }
+    return amountMap;
+  }
+}
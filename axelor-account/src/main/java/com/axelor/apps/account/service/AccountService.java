@@ -36,8 +36,6 @@ import com.axelor.common.StringUtils;
 import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.utils.helpers.StringHelper;
-import com.google.common.base.Joiner;
-import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import java.lang.invoke.MethodHandles;
@@ -66,15 +64,18 @@ public class AccountService {
   protected AccountRepository accountRepository;
   protected AccountConfigService accountConfigService;
   protected AnalyticRulesRepository analyticRulesRepository;
+  protected AccountBalanceService accountBalanceService;
 
   @Inject
   public AccountService(
       AccountRepository accountRepository,
       AccountConfigService accountConfigService,
-      AnalyticRulesRepository analyticRulesRepository) {
+      AnalyticRulesRepository analyticRulesRepository,
+      AccountBalanceService accountBalanceService) {
     this.accountRepository = accountRepository;
     this.accountConfigService = accountConfigService;
     this.analyticRulesRepository = analyticRulesRepository;
+    this.accountBalanceService = accountBalanceService;
   }
 
   /**
@@ -96,39 +97,42 @@ public class AccountService {
 
   protected BigDecimal computeBalance(
       Account account, AccountType accountType, Year year, int balanceType) {
+    BigDecimal balance =
+        accountBalanceService
+            .getAccountedBalance(account, accountType, year)
+            .add(computeDaybookBalance(account, accountType, year));
+
+    if (balanceType == BALANCE_TYPE_CREDIT_BALANCE) {
+      balance = balance.negate();
+    }
+    log.debug("Account balance : {}", balance);
+
+    return balance;
+  }
+
+  /**
+   * Daybook moves can still be modified, so they are not kept in the account balances and their
+   * lines are summed here.
+   */
+  protected BigDecimal computeDaybookBalance(Account account, AccountType accountType, Year year) {
     Query balanceQuery =
         JPA.em()
             .createQuery(
                 String.format(
                     "select sum(self.debit - self.credit) from MoveLine self where self.account%s = :account "
-                        + "and self.move.ignoreInAccountingOk IN ('false', null) and self.move.statusSelect IN ("
-                        + Joiner.on(',')
-                            .join(
-                                Lists.newArrayList(
-                                    MoveRepository.STATUS_ACCOUNTED, MoveRepository.STATUS_DAYBOOK))
-                        + ") %s",
+                        + "and self.move.ignoreInAccountingOk IN ('false', null) and self.move.statusSelect = :statusSelect %s",
                     account == null ? ".accountType" : "",
                     year != null ? " and self.move.period.year = :year" : ""));
 
     balanceQuery.setParameter("account", account != null ? account : accountType);
+    balanceQuery.setParameter("statusSelect", MoveRepository.STATUS_DAYBOOK);
 
     if (year != null) {
       balanceQuery.setParameter("year", year);
     }
 
     BigDecimal balance = (BigDecimal) balanceQuery.getSingleResult();
-
-    if (balance != null) {
-
-      if (balanceType == BALANCE_TYPE_CREDIT_BALANCE) {
-        balance = balance.negate();
-      }
-      log.debug("Account balance : {}", balance);
-
-      return balance;
-    } else {
-      return BigDecimal.ZERO;
-    }
+    return balance != null ? balance : BigDecimal.ZERO;
   }
 
   public List<Long> getAllAccountsSubAccountIncluded(List<Long> accountList) {
@@ -70,6 +70,7 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
   protected AccountRepository accountRepository;
   protected BankDetailsService bankDetailsService;
   protected MoveSimulateService moveSimulateService;
+  protected AccountBalanceService accountBalanceService;
   protected int counter = 0;
 
   @Inject
@@ -83,7 +84,8 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
       AccountRepository accountRepository,
       MoveLineCreateService moveLineCreateService,
       BankDetailsService bankDetailsService,
-      MoveSimulateService moveSimulateService) {
+      MoveSimulateService moveSimulateService,
+      AccountBalanceService accountBalanceService) {
 
     this.moveCreateService = moveCreateService;
     this.accountConfigService = accountConfigService;
@@ -95,6 +97,7 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
     this.moveLineCreateService = moveLineCreateService;
     this.bankDetailsService = bankDetailsService;
     this.moveSimulateService = moveSimulateService;
+    this.accountBalanceService = accountBalanceService;
   }
 
   @Override
@@ -385,40 +388,15 @@ public class AccountingCloseAnnualServiceImpl implements AccountingCloseAnnualSe
   protected BigDecimal computeBalance(
       Year year, Account account, Partner partner, boolean allocatePerPartner) {
 
-    String prepareQuery =
-        "select SUM(self.debit - self.credit) FROM MoveLine as self "
-            + "WHERE self.move.ignoreInAccountingOk = false AND self.move.period.year = ?1 AND self.account = ?2 "
-            + "AND self.move.statusSelect = ?3 AND self.move.autoYearClosureMove is not true";
-
-    if (allocatePerPartner && account.getUseForPartnerBalance()) {
-      if (partner != null) {
-        prepareQuery += " AND self.partner = ?4";
-      } else {
-        prepareQuery += " AND self.partner is null";
-      }
-    }
-
-    Query q = JPA.em().createQuery(prepareQuery, BigDecimal.class);
-    q.setParameter(1, year);
-    q.setParameter(2, account);
-    q.setParameter(3, MoveRepository.STATUS_ACCOUNTED);
-
-    if (partner != null) {
-      q.setParameter(4, partner);
-    }
-
-    BigDecimal result = (BigDecimal) q.getSingleResult();
+    BigDecimal result =
+        accountBalanceService.getClosureBalance(year, account, partner, allocatePerPartner);
     LOG.debug(
         "Balance : {} for the account : {} and the year : {}",
         result,
         account.getCode(),
         year.getCode());
 
-    if (result != null) {
-      return result;
-    } else {
-      return BigDecimal.ZERO;
-    }
+    return result;
   }
 
   protected void reconcile(Move move, Move reverseMove) throws AxelorException {
@@ -20,10 +20,8 @@ package com.axelor.apps.account.service;
 
 import com.axelor.apps.account.db.AccountingReport;
 import com.axelor.apps.account.db.AccountingReportType;
-import com.axelor.apps.account.db.Journal;
 import com.axelor.apps.account.db.Move;
 import com.axelor.apps.account.db.MoveLine;
-import com.axelor.apps.account.db.ReconcileGroup;
 import com.axelor.apps.account.db.repo.AccountRepository;
 import com.axelor.apps.account.db.repo.AccountingReportRepository;
 import com.axelor.apps.account.db.repo.JournalRepository;
@@ -43,6 +41,7 @@ import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.PartnerService;
 import com.axelor.apps.base.service.administration.SequenceService;
+import com.axelor.auth.AuthUtils;
 import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
@@ -51,24 +50,36 @@ import com.axelor.meta.db.MetaFile;
 import com.axelor.utils.helpers.file.CsvHelper;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
+import com.opencsv.CSVWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 import javax.persistence.Query;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -347,7 +358,6 @@ public class MoveLineExportServiceImpl implements MoveLineExportService {
       throws AxelorException, IOException {
 
     log.info("In Export type 1000 service : ");
-    List<String[]> allMoveLineData = new ArrayList<>();
     Company company = accountingReport.getCompany();
 
     LocalDate interfaceDate = accountingReport.getDate();
@@ -407,106 +417,205 @@ public class MoveLineExportServiceImpl implements MoveLineExportService {
 
     String moveLineQueryStr = StringUtils.join(moveLineQueryList, " AND ");
 
-    List<Long> idList =
-        moveLineRepo
-            .all()
-            .filter(moveLineQueryStr)
-            .order("move.accountingDate")
-            .order("date")
-            .order("name")
-            .select("id")
-            .fetch(0, 0)
-            .stream()
-            .map(m -> (Long) m.get("id"))
-            .collect(Collectors.toList());
-
-    int offset = 0;
-    List<Long> moveLineIdList;
-    List<Move> moveList = new ArrayList<>();
+    String fileName = this.setFileName(accountingReport);
+    String filePath = this.getExportFilePath(company);
+
+    Set<Long> moveIdSet = new LinkedHashSet<>();
     String exportNumber = null;
-    int endSubListIndex = Math.min(idList.size(), EXPORT_LINES_LIMIT);
+    long lineCount = 0;
 
-    while (!(moveLineIdList = idList.subList(offset, endSubListIndex)).isEmpty()) {
-      for (Long id : moveLineIdList) {
-        MoveLine moveLine = moveLineRepo.find(id);
-        offset++;
-        allMoveLineData.add(createItemForExportMoveLine(moveLine, moveList));
+    log.debug("Full path to export : {}{}", filePath, fileName);
+    CSVWriter csvWriter = CsvHelper.setCsvFile(filePath, fileName, '|');
+    csvWriter.writeNext(this.createHeaderForJournalEntry());
+    try (ScrollableResults results =
+        JPA.em()
+            .createQuery(this.getExportMoveLineQuery(moveLineQueryStr))
+            .unwrap(org.hibernate.query.Query.class)
+            .setReadOnly(true)
+            .setFetchSize(EXPORT_LINES_LIMIT)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+
+      while (results.next()) {
+        Object[] row = results.get();
+        csvWriter.writeNext(this.sanitizeItems(this.createItemForExportMoveLine(row)));
+        moveIdSet.add((Long) row[20]);
+
+        if (++lineCount % EXPORT_LINES_LIMIT == 0) {
+          exportNumber =
+              this.flagExportedMoves(
+                  moveIdSet, accountingReport, interfaceDate, exportNumber, administration);
+          log.debug("Exported move lines : {}", lineCount);
+        }
       }
+      exportNumber =
+          this.flagExportedMoves(
+              moveIdSet, accountingReport, interfaceDate, exportNumber, administration);
+    } finally {
+      csvWriter.close();
+    }
+
+    accountingReport = accountingReportRepo.find(accountingReport.getId());
+    accountingReportRepo.save(accountingReport);
+    return this.attachExportFile(filePath, fileName, accountingReport);
+  }
+
+  /**
+   * Select the FEC values of the move lines as rows, so that the lines can be exported through a
+   * cursor without loading their move, journal, account, partner and reconcile group.
+   */
+  protected String getExportMoveLineQuery(String moveLineQueryStr) {
+    return String.format(
+        "SELECT journal.code, journal.name, move.reference, self.date, "
+            + "account.code, account.name, partner.partnerSeq, partner.name, "
+            + "accountType.isManageSubsidiaryAccount, self.origin, self.originDate, "
+            + "self.description, self.debit, self.credit, "
+            + "reconcileGroup.code, reconcileGroup.statusSelect, reconcileGroup.letteringDateTime, "
+            + "move.accountingDate, self.currencyAmount, currency.codeISO, move.id "
+            + "FROM MoveLine self "
+            + "JOIN self.move move "
+            + "JOIN move.journal journal "
+            + "JOIN self.account account "
+            + "LEFT JOIN account.accountType accountType "
+            + "LEFT JOIN self.partner partner "
+            + "LEFT JOIN self.reconcileGroup reconcileGroup "
+            + "LEFT JOIN move.currency currency "
+            + "WHERE %s "
+            + "ORDER BY move.accountingDate, self.date, self.name",
+        moveLineQueryStr);
+  }
 
-      JPA.clear();
-      company = companyRepository.find(company.getId());
-      if (!administration) {
-        exportNumber = exportNumber != null ? exportNumber : this.getSaleExportNumber(company);
-        this.updateMoveList(moveList, accountingReport, interfaceDate, exportNumber);
+  /**
+   * Flag the moves of the exported lines with one update statement, then clear the set and the
+   * session. The statement bypasses the entity listeners, so it sets the audit fields itself.
+   *
+   * @return the export number, taken from the sequence on the first flagged moves
+   */
+  protected String flagExportedMoves(
+      Set<Long> moveIdSet,
+      AccountingReport accountingReport,
+      LocalDate interfaceDate,
+      String exportNumber,
+      boolean administration)
+      throws AxelorException {
+    if (!administration && !moveIdSet.isEmpty()) {
+      if (exportNumber == null) {
+        exportNumber =
+            this.getSaleExportNumber(companyRepository.find(accountingReport.getCompany().getId()));
       }
 
-      moveList.clear();
-      endSubListIndex = Math.min(idList.size(), (endSubListIndex + EXPORT_LINES_LIMIT));
+      JPA.em()
+          .createQuery(
+              "UPDATE Move self SET self.exportNumber = :exportNumber, "
+                  + "self.exportDate = :exportDate, self.accountingOk = true, "
+                  + "self.accountingReport = :accountingReport, self.version = self.version + 1, "
+                  + "self.updatedOn = :updatedOn, self.updatedBy = :updatedBy "
+                  + "WHERE self.id IN (:moveIdList)")
+          .setParameter("exportNumber", exportNumber)
+          .setParameter("exportDate", interfaceDate)
+          .setParameter("accountingReport", accountingReport)
+          .setParameter("updatedOn", LocalDateTime.now())
+          .setParameter("updatedBy", AuthUtils.getUser())
+          .setParameter("moveIdList", new ArrayList<>(moveIdSet))
+          .executeUpdate();
     }
 
-    accountingReport = accountingReportRepo.find(accountingReport.getId());
-
-    String fileName = this.setFileName(accountingReport);
-    accountingReportRepo.save(accountingReport);
-    return writeMoveLineToCsvFile(
-        company, fileName, this.createHeaderForJournalEntry(), allMoveLineData, accountingReport);
+    moveIdSet.clear();
+    JPA.clear();
+    return exportNumber;
   }
 
-  protected String[] createItemForExportMoveLine(MoveLine moveLine, List<Move> moveList) {
+  protected String[] createItemForExportMoveLine(Object[] row) {
+    DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(DATE_FORMAT_YYYYMMDD);
     String[] items = new String[18];
-    Move move = moveLine.getMove();
-    if (!moveList.contains(move)) {
-      moveList.add(move);
-    }
-    Journal journal = move.getJournal();
-    items[0] = journal.getCode();
-    items[1] = journal.getName();
-    items[2] = moveLine.getMove().getReference();
-    items[3] = moveLine.getDate().format(DateTimeFormatter.ofPattern(DATE_FORMAT_YYYYMMDD));
-    items[4] = moveLine.getAccount().getCode();
-    items[5] = moveLine.getAccount().getName();
+    items[0] = (String) row[0];
+    items[1] = (String) row[1];
+    items[2] = (String) row[2];
+    items[3] = ((LocalDate) row[3]).format(dateFormatter);
+    items[4] = (String) row[4];
+    items[5] = (String) row[5];
     items[6] = "";
     items[7] = "";
-    Partner partner = moveLine.getPartner();
-    if (partner != null && moveLine.getAccount().getAccountType().getIsManageSubsidiaryAccount()) {
-      items[6] = partner.getPartnerSeq();
-      items[7] = partner.getName();
+    if (row[6] != null && Boolean.TRUE.equals(row[8])) {
+      items[6] = (String) row[6];
+      items[7] = (String) row[7];
     }
-    String origin = moveLine.getOrigin();
+    String origin = (String) row[9];
     items[8] = Strings.isNullOrEmpty(origin) ? "NA" : origin;
-    if (moveLine.getOriginDate() != null) {
-      items[9] = moveLine.getOriginDate().format(DateTimeFormatter.ofPattern(DATE_FORMAT_YYYYMMDD));
+    if (row[10] != null) {
+      items[9] = ((LocalDate) row[10]).format(dateFormatter);
     }
-    items[10] = moveLine.getDescription();
-    items[11] = moveLine.getDebit().toString().replace('.', ',');
-    items[12] = moveLine.getCredit().toString().replace('.', ',');
-
-    ReconcileGroup reconcileGroup = moveLine.getReconcileGroup();
-    if (reconcileGroup != null
-        && reconcileGroup.getStatusSelect() == ReconcileGroupRepository.STATUS_BALANCED) {
-      items[13] = reconcileGroup.getCode();
-      items[14] =
-          reconcileGroup
-              .getLetteringDateTime()
-              .format(DateTimeFormatter.ofPattern(DATE_FORMAT_YYYYMMDD));
+    items[10] = (String) row[11];
+    items[11] = row[12].toString().replace('.', ',');
+    items[12] = row[13].toString().replace('.', ',');
+
+    if (row[14] != null
+        && Objects.equals(row[15], ReconcileGroupRepository.STATUS_BALANCED)) {
+      items[13] = (String) row[14];
+      items[14] = ((LocalDateTime) row[16]).format(dateFormatter);
     } else {
       items[13] = "";
       items[14] = "";
     }
 
-    if (move.getAccountingDate() != null) {
-      items[15] =
-          move.getAccountingDate().format(DateTimeFormatter.ofPattern(DATE_FORMAT_YYYYMMDD));
+    if (row[17] != null) {
+      items[15] = ((LocalDate) row[17]).format(dateFormatter);
     }
 
-    items[16] = moveLine.getCurrencyAmount().toString().replace('.', ',');
+    items[16] = row[18].toString().replace('.', ',');
+    items[17] = (String) row[19];
+    return items;
+  }
 
-    if (move.getCurrency() != null) {
-      items[17] = move.getCurrency().getCodeISO();
+  protected String[] sanitizeItems(String[] items) {
+    for (int i = 0; i < items.length; i++) {
+      if (items[i] != null) {
+        items[i] = items[i].replaceAll("(\r\n|\n\r|\r|\n|\\|)", " ");
+      }
     }
     return items;
   }
 
+  protected String getExportFilePath(Company company) throws AxelorException {
+    String filePath = accountConfigService.getAccountConfig(company).getExportPath();
+    String dataExportDir = appAccountService.getDataExportDir();
+
+    filePath = filePath == null ? dataExportDir : dataExportDir + filePath;
+    new File(filePath).mkdirs();
+    return filePath;
+  }
+
+  /**
+   * Attach the export file to the report, with a manifest holding its SHA-256 checksum in the
+   * sha256sum format, computed while the file is read for the attachment.
+   */
+  protected MetaFile attachExportFile(
+      String filePath, String fileName, AccountingReport accountingReport) throws IOException {
+    Path path = Paths.get(filePath, fileName);
+    MessageDigest messageDigest;
+    try {
+      messageDigest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException(e);
+    }
+
+    MetaFiles metaFiles = Beans.get(MetaFiles.class);
+    MetaFile metaFile;
+    try (InputStream is =
+        new DigestInputStream(new FileInputStream(path.toFile()), messageDigest)) {
+      metaFile = metaFiles.attach(is, fileName, accountingReport).getMetaFile();
+    }
+
+    String manifest =
+        String.format(
+            "%s  %s%n",
+            BaseEncoding.base16().lowerCase().encode(messageDigest.digest()), fileName);
+    try (InputStream is = new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8))) {
+      metaFiles.attach(is, fileName + ".sha256", accountingReport);
+    }
+
+    return metaFile;
+  }
+
   protected MetaFile writeMoveLineToCsvFile(
       Company company,
       String fileName,
@@ -515,20 +624,12 @@ public class MoveLineExportServiceImpl implements MoveLineExportService {
       AccountingReport accountingReport)
       throws AxelorException, IOException {
 
-    String filePath = accountConfigService.getAccountConfig(company).getExportPath();
-    String dataExportDir = appAccountService.getDataExportDir();
+    String filePath = this.getExportFilePath(company);
 
     for (String[] items : allMoveData) {
-      for (int i = 0; i < items.length; i++) {
-        if (items[i] != null) {
-          items[i] = items[i].replaceAll("(\r\n|\n\r|\r|\n|\\|)", " ");
-        }
-      }
+      this.sanitizeItems(items);
     }
 
-    filePath = filePath == null ? dataExportDir : dataExportDir + filePath;
-    new File(filePath).mkdirs();
-
     log.debug("Full path to export : {}{}", filePath, fileName);
     CsvHelper.csvWriter(filePath, fileName, '|', columnHeader, allMoveData);
     Path path = Paths.get(filePath, fileName);
@@ -93,6 +93,12 @@ public class AccountingBatchService extends AbstractBatchService {
       case AccountingBatchRepository.ACTION_AUTO_MOVE_LETTERING:
         batch = autoMoveLettering(accountingBatch);
         break;
+      case AccountingBatchRepository.ACTION_REBUILD_ACCOUNT_BALANCES:
+        batch = rebuildAccountBalances(accountingBatch);
+        break;
+      case AccountingBatchRepository.ACTION_ACCOUNT_BALANCES_CONSISTENCY_CONTROL:
+        batch = controlAccountBalancesConsistency(accountingBatch);
+        break;
       default:
         throw new AxelorException(
             TraceBackRepository.CATEGORY_INCONSISTENCY,
@@ -202,6 +208,14 @@ public class AccountingBatchService extends AbstractBatchService {
     return Beans.get(BatchAutoMoveLettering.class).run(accountingBatch);
   }
 
+  public Batch rebuildAccountBalances(AccountingBatch accountingBatch) {
+    return Beans.get(BatchRebuildAccountBalances.class).run(accountingBatch);
+  }
+
+  public Batch controlAccountBalancesConsistency(AccountingBatch accountingBatch) {
+    return Beans.get(BatchControlAccountBalancesConsistency.class).run(accountingBatch);
+  }
+
   @Transactional
   public AccountingBatch createNewAccountingBatch(int action, Company company) {
     if (company != null) {
@@ -27,7 +27,6 @@ import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.lang.invoke.MethodHandles;
@@ -71,7 +70,7 @@ public class BatchAccountCustomer extends BatchStrategy {
     List<AccountingSituation> accountingSituationList =
         accountingSituationRepo.all().filter("self.company = ?1", company).fetch();
     int i = 0;
-    JPA.clear();
+    clear();
     for (AccountingSituation accountingSituation : accountingSituationList) {
       try {
 
@@ -107,7 +106,7 @@ public class BatchAccountCustomer extends BatchStrategy {
       } finally {
 
         if (i % 1 == 0) {
-          JPA.clear();
+          clear();
         }
       }
     }
@@ -149,7 +148,7 @@ public class BatchAccountCustomer extends BatchStrategy {
     }
 
     int i = 0;
-    JPA.clear();
+    clear();
     for (AccountingSituation accountingSituation : accountingSituationList) {
       try {
 
@@ -181,7 +180,7 @@ public class BatchAccountCustomer extends BatchStrategy {
       } finally {
 
         if (i % 5 == 0) {
-          JPA.clear();
+          clear();
         }
       }
     }
@@ -29,7 +29,6 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -101,8 +100,7 @@ public class BatchAccountingCutOff extends PreviewBatch {
         }
       }
 
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
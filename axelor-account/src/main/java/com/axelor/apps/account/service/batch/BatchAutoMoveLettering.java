@@ -34,7 +34,6 @@ import com.axelor.apps.base.db.Partner;
 import com.axelor.apps.base.db.repo.CompanyRepository;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -239,7 +238,7 @@ public class BatchAutoMoveLettering extends BatchStrategy {
                 debitMoveLine.getName(),
                 creditMoveLine.getName());
           } finally {
-            JPA.clear();
+            clear();
           }
         }
       }
@@ -32,7 +32,6 @@ import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.base.service.exception.TraceBackService;
 import com.axelor.common.StringUtils;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -164,8 +163,7 @@ public class BatchBlockCustomersWithLatePayments extends BatchStrategy {
           }
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
     blockCustomers(customersToBlock);
     unblockCustomers(customerToUnblock);
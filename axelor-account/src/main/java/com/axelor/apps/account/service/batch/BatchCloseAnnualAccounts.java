@@ -412,7 +412,7 @@ public class BatchCloseAnnualAccounts extends BatchStrategy {
         LOG.error("Anomaly generated for the account {}", accountByPartner.account.getCode());
         break;
       } finally {
-        JPA.clear();
+        clear();
       }
     }
   }
@@ -0,0 +1,70 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.batch;
+
+import com.axelor.apps.account.exception.AccountExceptionMessage;
+import com.axelor.apps.account.service.AccountBalanceService;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Period;
+import com.axelor.apps.base.db.repo.PeriodRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.google.inject.Inject;
+import java.util.List;
+
+/**
+ * Compare the account balances with the accounted move lines, period by period. Each inconsistent
+ * balance is traced as an anomaly, and can be fixed with the rebuild batch.
+ */
+public class BatchControlAccountBalancesConsistency extends BatchRebuildAccountBalances {
+
+  @Inject
+  public BatchControlAccountBalancesConsistency(
+      AccountBalanceService accountBalanceService, PeriodRepository periodRepository) {
+    super(accountBalanceService, periodRepository);
+  }
+
+  @Override
+  protected void processPeriod(Period period) {
+    List<String> inconsistencyList = accountBalanceService.checkConsistency(period);
+    if (inconsistencyList.isEmpty()) {
+      incrementDone();
+      return;
+    }
+
+    for (String inconsistency : inconsistencyList) {
+      TraceBackService.trace(
+          new AxelorException(
+              period, TraceBackRepository.CATEGORY_INCONSISTENCY, "%s", inconsistency),
+          null,
+          batch.getId());
+      incrementAnomaly();
+    }
+  }
+
+  @Override
+  protected String getReportTitle() {
+    return AccountExceptionMessage.BATCH_ACCOUNT_BALANCES_CONSISTENCY_REPORT_TITLE;
+  }
+
+  @Override
+  protected String getProcessedMessage() {
+    return AccountExceptionMessage.BATCH_ACCOUNT_BALANCES_CONSISTENCY_PERIOD_DONE;
+  }
+}
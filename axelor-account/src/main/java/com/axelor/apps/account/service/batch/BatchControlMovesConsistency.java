@@ -27,7 +27,6 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.TraceBack;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.util.ArrayList;
@@ -77,7 +76,7 @@ public class BatchControlMovesConsistency extends BatchStrategy {
                 batch.getId());
             incrementAnomaly();
           } finally {
-            JPA.clear();
+            clear();
           }
         }
       }
@@ -147,8 +147,7 @@ public abstract class BatchCreditTransferInvoice extends BatchStrategy {
           break;
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
 
     return doneList;
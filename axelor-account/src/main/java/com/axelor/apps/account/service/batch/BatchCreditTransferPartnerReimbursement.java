@@ -89,7 +89,7 @@ public class BatchCreditTransferPartnerReimbursement extends BatchStrategy {
                 "Credit transfer batch for partner credit balance reimbursement: anomaly for partner %s",
                 partner.getName()));
       }
-      JPA.clear();
+      clear();
     }
   }
 
@@ -209,8 +209,7 @@ public class BatchDebtRecovery extends BatchStrategy {
         }
       }
 
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
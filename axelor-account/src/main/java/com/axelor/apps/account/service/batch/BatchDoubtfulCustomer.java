@@ -33,7 +33,6 @@ import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.lang.invoke.MethodHandles;
@@ -203,7 +202,7 @@ public class BatchDoubtfulCustomer extends PreviewBatch {
         log.error("Anomaly generated for the invoice {}", invoiceId);
       } finally {
         if (i % 10 == 0) {
-          JPA.clear();
+          clear();
 
           doubtfulCustomerAccount = accountRepo.find(doubtfulCustomerAccount.getId());
         }
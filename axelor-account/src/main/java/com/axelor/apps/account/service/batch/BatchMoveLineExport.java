@@ -29,7 +29,6 @@ import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.lang.invoke.MethodHandles;
@@ -99,7 +98,7 @@ public class BatchMoveLineExport extends BatchStrategy {
                 company, exportTypeSelect, startDate, endDate);
         moveLineExportService.exportMoveLine(accountingReport);
 
-        JPA.clear();
+        clear();
 
         accountingReport = accountingReportRepository.find(accountingReport.getId());
 
@@ -34,7 +34,6 @@ import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.base.service.exception.TraceBackService;
 import com.axelor.auth.AuthUtils;
 import com.axelor.auth.db.User;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.time.LocalDate;
@@ -130,7 +129,7 @@ public class BatchRealizeFixedAssetLine extends BatchStrategy {
         incrementAnomaly();
         TraceBackService.trace(e, null, this.batch.getId());
       }
-      JPA.clear();
+      clear();
     }
   }
 
@@ -152,7 +151,7 @@ public class BatchRealizeFixedAssetLine extends BatchStrategy {
         incrementAnomaly();
         TraceBackService.trace(e);
       }
-      JPA.clear();
+      clear();
     }
   }
 
@@ -0,0 +1,139 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.batch;
+
+import com.axelor.apps.account.db.AccountingBatch;
+import com.axelor.apps.account.exception.AccountExceptionMessage;
+import com.axelor.apps.account.service.AccountBalanceService;
+import com.axelor.apps.account.service.app.AppAccountService;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Period;
+import com.axelor.apps.base.db.repo.PeriodRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.db.repo.YearRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.db.JPA;
+import com.axelor.db.Query;
+import com.axelor.i18n.I18n;
+import com.google.inject.Inject;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.commons.collections.CollectionUtils;
+
+public class BatchRebuildAccountBalances extends BatchStrategy {
+
+  protected AccountBalanceService accountBalanceService;
+  protected PeriodRepository periodRepository;
+  protected AppAccountService appAccountService;
+
+  @Inject
+  public BatchRebuildAccountBalances(
+      AccountBalanceService accountBalanceService,
+      PeriodRepository periodRepository,
+      AppAccountService appAccountService) {
+    this.accountBalanceService = accountBalanceService;
+    this.periodRepository = periodRepository;
+    this.appAccountService = appAccountService;
+  }
+
+  @Override
+  protected void process() {
+    AccountingBatch accountingBatch = batch.getAccountingBatch();
+    boolean allYears =
+        CollectionUtils.isEmpty(accountingBatch.getYearSet())
+            && accountingBatch.getCompany() == null;
+
+    for (Long periodId : getPeriodIdList(accountingBatch)) {
+      Period period = periodRepository.find(periodId);
+      try {
+        processPeriod(period);
+      } catch (Exception e) {
+        TraceBackService.trace(
+            new AxelorException(e, period, TraceBackRepository.CATEGORY_INCONSISTENCY),
+            null,
+            batch.getId());
+        incrementAnomaly();
+      } finally {
+        clear();
+      }
+    }
+
+    // the balances of some fiscal years only do not replace the move lines
+    if (allYears && batch.getAnomaly() == 0) {
+      JPA.runInTransaction(() -> appAccountService.getAppAccount().setAccountBalancesOk(true));
+    }
+  }
+
+  protected void processPeriod(Period period) {
+    accountBalanceService.rebuild(period);
+    incrementDone();
+  }
+
+  /**
+   * Get the periods of the fiscal years selected on the batch, or of every fiscal year of the
+   * batch company if none is selected.
+   */
+  protected List<Long> getPeriodIdList(AccountingBatch accountingBatch) {
+    Query<Period> query;
+    if (CollectionUtils.isNotEmpty(accountingBatch.getYearSet())) {
+      query = periodRepository.all().filter("self.year IN (:yearSet)");
+    } else if (accountingBatch.getCompany() != null) {
+      query =
+          periodRepository
+              .all()
+              .filter("self.year.company = :company AND self.year.typeSelect = :typeSelect");
+    } else {
+      query = periodRepository.all().filter("self.year.typeSelect = :typeSelect");
+    }
+
+    return query
+        .bind("yearSet", accountingBatch.getYearSet())
+        .bind("company", accountingBatch.getCompany())
+        .bind("typeSelect", YearRepository.TYPE_FISCAL)
+        .order("fromDate")
+        .select("id")
+        .fetch(0, 0)
+        .stream()
+        .map(result -> (Long) result.get("id"))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  protected void stop() {
+    String comment =
+        String.format(
+            "%s\n\t* %s %s\n\t" + I18n.get(BaseExceptionMessage.BASE_BATCH_3),
+            I18n.get(getReportTitle()),
+            batch.getDone(),
+            I18n.get(getProcessedMessage()),
+            batch.getAnomaly());
+
+    super.stop();
+    addComment(comment);
+  }
+
+  protected String getReportTitle() {
+    return AccountExceptionMessage.BATCH_REBUILD_ACCOUNT_BALANCES_REPORT_TITLE;
+  }
+
+  protected String getProcessedMessage() {
+    return AccountExceptionMessage.BATCH_REBUILD_ACCOUNT_BALANCES_PERIOD_DONE;
+  }
+}
@@ -37,7 +37,6 @@ import com.axelor.apps.base.db.repo.PartnerRepository;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.service.BlockingService;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
 import com.google.common.collect.Lists;
@@ -253,7 +252,7 @@ public class BatchReimbursementExport extends BatchStrategy {
       } finally {
 
         if (i % 10 == 0) {
-          JPA.clear();
+          clear();
         }
       }
     }
@@ -339,7 +338,7 @@ public class BatchReimbursementExport extends BatchStrategy {
       } finally {
 
         if (i % 10 == 0) {
-          JPA.clear();
+          clear();
         }
       }
     }
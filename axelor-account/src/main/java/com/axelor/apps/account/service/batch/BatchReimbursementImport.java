@@ -31,7 +31,6 @@ import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.studio.app.service.AppService;
 import com.google.inject.Inject;
@@ -207,7 +206,7 @@ public class BatchReimbursementImport extends BatchStrategy {
           } finally {
 
             if (i % 10 == 0) {
-              JPA.clear();
+              clear();
             }
           }
         }
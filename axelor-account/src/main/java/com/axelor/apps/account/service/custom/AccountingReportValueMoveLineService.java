@@ -30,6 +30,14 @@ import java.util.Map;
 import java.util.Set;
 
 public interface AccountingReportValueMoveLineService {
+
+  /**
+   * Clear the move line amounts and the account sets kept during a report computation. To be
+   * called before and after computing a report, as the move lines or the report can change in
+   * between.
+   */
+  void clearCache();
+
   void createValueFromMoveLines(
       AccountingReport accountingReport,
       AccountingReportConfigLine groupColumn,
@@ -61,6 +61,7 @@ import java.util.TreeSet;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.persistence.TypedQuery;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -71,6 +72,10 @@ public class AccountingReportValueMoveLineServiceImpl extends AccountingReportVa
   protected Set<AnalyticAccount> groupColumnAnalyticAccountSet;
   protected Set<AnalyticAccount> columnAnalyticAccountSet;
   protected Set<AnalyticAccount> lineAnalyticAccountSet;
+  protected Map<List<Object>, Set<Long>> accountIdSetMap = new HashMap<>();
+  protected Map<List<Object>, Map<Long, BigDecimal[]>> accountCubeMap = new HashMap<>();
+  protected Map<List<Object>, Map<Long, Map<Long, BigDecimal[]>>> analyticCubeMap =
+      new HashMap<>();
 
   @Inject
   public AccountingReportValueMoveLineServiceImpl(
@@ -85,6 +90,13 @@ public class AccountingReportValueMoveLineServiceImpl extends AccountingReportVa
     this.moveToolService = moveToolService;
   }
 
+  @Override
+  public void clearCache() {
+    accountIdSetMap.clear();
+    accountCubeMap.clear();
+    analyticCubeMap.clear();
+  }
+
   @Override
   public void createValueFromMoveLines(
       AccountingReport accountingReport,
@@ -291,9 +303,22 @@ public class AccountingReportValueMoveLineServiceImpl extends AccountingReportVa
 
   protected Set<Long> getAccountIdSet(
       AccountingReportConfigLine configLine, Set<AccountType> accountTypeSet) {
-    return this.getAccountSet(configLine, accountTypeSet).stream()
-        .map(Account::getId)
-        .collect(Collectors.toSet());
+    List<Object> key =
+        Arrays.asList(
+            configLine.getId(),
+            accountTypeSet == null
+                ? null
+                : accountTypeSet.stream().map(AccountType::getId).collect(Collectors.toSet()));
+
+    Set<Long> accountIdSet = accountIdSetMap.get(key);
+    if (accountIdSet == null) {
+      accountIdSet =
+          this.getAccountSet(configLine, accountTypeSet).stream()
+              .map(Account::getId)
+              .collect(Collectors.toSet());
+      accountIdSetMap.put(key, accountIdSet);
+    }
+    return accountIdSet;
   }
 
   protected Set<Long> getAccountIdSet(AccountingReportConfigLine configLine) {
@@ -520,34 +545,67 @@ public class AccountingReportValueMoveLineServiceImpl extends AccountingReportVa
                 ? null
                 : new HashSet<>(Collections.singletonList(configAnalyticAccount)));
 
-    List<MoveLine> moveLineList =
-        this.getMoveLineQuery(
-                accountingReport,
-                groupColumn,
-                column,
-                line,
-                accountIdSet,
-                resultAnalyticAccountSet,
-                companySet,
-                startDate,
-                endDate)
-            .fetch();
+    BigDecimal result;
 
-    if (line.getHideDetailedLinesWithoutMoves() && moveLineList.isEmpty()) {
-      return;
-    }
+    if (this.canUseCubes(accountingReport, groupColumn, column, line, resultAnalyticAccountSet)) {
+      Pair<LocalDate, LocalDate> dates =
+          this.getDates(accountingReport, groupColumn, column, line, startDate, endDate);
+      List<Object> cubeKey = this.getCubeKey(accountingReport, companySet, dates);
 
-    BigDecimal result =
-        this.getResultFromMoveLine(
-            accountingReport,
-            groupColumn,
-            column,
-            line,
-            moveLineList,
-            resultAnalyticAccountSet,
-            startDate,
-            endDate,
-            this.getResultSelect(column, line, groupColumn));
+      if (line.getHideDetailedLinesWithoutMoves()
+          && !this.hasMoveLinesInCubes(
+              accountingReport,
+              groupColumn,
+              column,
+              line,
+              accountIdSet,
+              resultAnalyticAccountSet,
+              companySet,
+              cubeKey)) {
+        return;
+      }
+
+      result =
+          this.getResultFromCubes(
+              accountingReport,
+              groupColumn,
+              column,
+              line,
+              accountIdSet,
+              resultAnalyticAccountSet,
+              companySet,
+              cubeKey,
+              this.getResultSelect(column, line, groupColumn));
+    } else {
+      List<MoveLine> moveLineList =
+          this.getMoveLineQuery(
+                  accountingReport,
+                  groupColumn,
+                  column,
+                  line,
+                  accountIdSet,
+                  resultAnalyticAccountSet,
+                  companySet,
+                  startDate,
+                  endDate)
+              .fetch();
+
+      if (line.getHideDetailedLinesWithoutMoves() && moveLineList.isEmpty()) {
+        return;
+      }
+
+      result =
+          this.getResultFromMoveLine(
+              accountingReport,
+              groupColumn,
+              column,
+              line,
+              moveLineList,
+              resultAnalyticAccountSet,
+              startDate,
+              endDate,
+              this.getResultSelect(column, line, groupColumn));
+    }
 
     this.createReportValue(
         accountingReport,
@@ -681,32 +739,13 @@ public class AccountingReportValueMoveLineServiceImpl extends AccountingReportVa
       AccountingReportConfigLine groupColumn,
       AccountingReportConfigLine column,
       AccountingReportConfigLine line) {
-    List<String> queryList =
-        new ArrayList<>(Collections.singletonList("self.move.statusSelect IN :statusList"));
+    List<String> queryList = this.getReportQueryList(accountingReport, companySet);
 
     queryList.add(
         String.format(
             "(self.account.id IN %s)",
             CollectionUtils.isEmpty(accountIdSet) ? "(0)" : ":accountIdSet"));
 
-    this.addDateQueries(queryList, accountingReport);
-
-    if (accountingReport.getJournal() != null) {
-      queryList.add("(self.move.journal IS NULL OR self.move.journal = :journal)");
-    }
-
-    if (accountingReport.getPaymentMode() != null) {
-      queryList.add("(self.move.paymentMode IS NULL OR self.move.paymentMode = :paymentMode)");
-    }
-
-    if (accountingReport.getCurrency() != null) {
-      queryList.add("(self.move.currency IS NULL OR self.move.currency = :currency)");
-    }
-
-    if (CollectionUtils.isNotEmpty(companySet)) {
-      queryList.add("(self.move.company IS NULL OR self.move.company IN :companySet)");
-    }
-
     if (!this.areAllAnalyticAccountSetsEmpty(accountingReport, groupColumn, column, line)) {
       queryList.add(
           "EXISTS(SELECT 1 FROM AnalyticMoveLine aml WHERE aml.analyticAccount IN :analyticAccountSet AND aml.moveLine = self)");
@@ -730,6 +769,33 @@ public class AccountingReportValueMoveLineServiceImpl extends AccountingReportVa
     return String.join(" AND ", queryList);
   }
 
+  /** Get the filters of the move lines which only depend on the report and the companies. */
+  protected List<String> getReportQueryList(
+      AccountingReport accountingReport, Set<Company> companySet) {
+    List<String> queryList =
+        new ArrayList<>(Collections.singletonList("self.move.statusSelect IN :statusList"));
+
+    this.addDateQueries(queryList, accountingReport);
+
+    if (accountingReport.getJournal() != null) {
+      queryList.add("(self.move.journal IS NULL OR self.move.journal = :journal)");
+    }
+
+    if (accountingReport.getPaymentMode() != null) {
+      queryList.add("(self.move.paymentMode IS NULL OR self.move.paymentMode = :paymentMode)");
+    }
+
+    if (accountingReport.getCurrency() != null) {
+      queryList.add("(self.move.currency IS NULL OR self.move.currency = :currency)");
+    }
+
+    if (CollectionUtils.isNotEmpty(companySet)) {
+      queryList.add("(self.move.company IS NULL OR self.move.company IN :companySet)");
+    }
+
+    return queryList;
+  }
+
   protected void addDateQueries(List<String> queryList, AccountingReport accountingReport) {
     if (accountingReport.getDateFrom() != null) {
       queryList.add("(self.date IS NULL OR self.date >= :dateFrom)");
@@ -864,4 +930,248 @@ public class AccountingReportValueMoveLineServiceImpl extends AccountingReportVa
         || columnAnalyticAccountSet.contains(analyticAccount)
         || lineAnalyticAccountSet.contains(analyticAccount);
   }
+
+  /**
+   * A cell can be computed from the cubes when it has no analytic account code filter, as these
+   * filters require each move line to have several analytic move lines matching different
+   * criteria, which is lost once the amounts are summed per analytic account.
+   */
+  protected boolean canUseCubes(
+      AccountingReport accountingReport,
+      AccountingReportConfigLine groupColumn,
+      AccountingReportConfigLine column,
+      AccountingReportConfigLine line,
+      Set<AnalyticAccount> analyticAccountSet) {
+    return (groupColumn == null || StringUtils.isEmpty(groupColumn.getAnalyticAccountCode()))
+        && StringUtils.isEmpty(column.getAnalyticAccountCode())
+        && StringUtils.isEmpty(line.getAnalyticAccountCode())
+        && (CollectionUtils.isNotEmpty(analyticAccountSet)
+            || this.areAllAnalyticAccountSetsEmpty(accountingReport, groupColumn, column, line));
+  }
+
+  protected List<Object> getCubeKey(
+      AccountingReport accountingReport,
+      Set<Company> companySet,
+      Pair<LocalDate, LocalDate> dates) {
+    return Arrays.asList(
+        accountingReport.getId(),
+        companySet == null
+            ? null
+            : companySet.stream().map(Company::getId).collect(Collectors.toSet()),
+        dates.getLeft(),
+        dates.getRight());
+  }
+
+  protected boolean hasMoveLinesInCubes(
+      AccountingReport accountingReport,
+      AccountingReportConfigLine groupColumn,
+      AccountingReportConfigLine column,
+      AccountingReportConfigLine line,
+      Set<Long> accountIdSet,
+      Set<AnalyticAccount> analyticAccountSet,
+      Set<Company> companySet,
+      List<Object> cubeKey) {
+    if (CollectionUtils.isEmpty(accountIdSet)) {
+      return false;
+    }
+
+    if (this.areAllAnalyticAccountSetsEmpty(accountingReport, groupColumn, column, line)) {
+      Map<Long, BigDecimal[]> accountCube =
+          this.getAccountCube(accountingReport, companySet, cubeKey);
+      return accountIdSet.stream()
+          .map(accountCube::get)
+          .anyMatch(amounts -> amounts != null && amounts[2].signum() > 0);
+    }
+
+    Map<Long, Map<Long, BigDecimal[]>> analyticCube =
+        this.getAnalyticCube(accountingReport, companySet, cubeKey);
+    Set<Long> analyticAccountIdSet = this.getIdSet(analyticAccountSet);
+    return accountIdSet.stream()
+        .map(analyticCube::get)
+        .filter(Objects::nonNull)
+        .flatMap(map -> analyticAccountIdSet.stream().map(map::get))
+        .anyMatch(amounts -> amounts != null && amounts[2].signum() > 0);
+  }
+
+  protected BigDecimal getResultFromCubes(
+      AccountingReport accountingReport,
+      AccountingReportConfigLine groupColumn,
+      AccountingReportConfigLine column,
+      AccountingReportConfigLine line,
+      Set<Long> accountIdSet,
+      Set<AnalyticAccount> analyticAccountSet,
+      Set<Company> companySet,
+      List<Object> cubeKey,
+      int resultSelect) {
+    BigDecimal debit = BigDecimal.ZERO;
+    BigDecimal credit = BigDecimal.ZERO;
+
+    if (CollectionUtils.isNotEmpty(accountIdSet)) {
+      List<BigDecimal[]> amountList;
+
+      if (CollectionUtils.isNotEmpty(analyticAccountSet)) {
+        Map<Long, Map<Long, BigDecimal[]>> analyticCube =
+            this.getAnalyticCube(accountingReport, companySet, cubeKey);
+        Set<Long> analyticAccountIdSet = this.getIdSet(analyticAccountSet);
+        amountList =
+            accountIdSet.stream()
+                .map(analyticCube::get)
+                .filter(Objects::nonNull)
+                .flatMap(map -> analyticAccountIdSet.stream().map(map::get))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+      } else {
+        Map<Long, BigDecimal[]> accountCube =
+            this.getAccountCube(accountingReport, companySet, cubeKey);
+        amountList =
+            accountIdSet.stream()
+                .map(accountCube::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+      }
+
+      for (BigDecimal[] amounts : amountList) {
+        debit = debit.add(amounts[0]);
+        credit = credit.add(amounts[1]);
+      }
+    }
+
+    BigDecimal value = BigDecimal.ZERO;
+
+    switch (resultSelect) {
+      case AccountingReportConfigLineRepository.RESULT_DEBIT_MINUS_CREDIT:
+        value = debit.subtract(credit);
+        break;
+      case AccountingReportConfigLineRepository.RESULT_DEBIT:
+        value = debit;
+        break;
+      case AccountingReportConfigLineRepository.RESULT_CREDIT:
+        value = credit;
+        break;
+    }
+
+    if ((groupColumn != null && groupColumn.getNegateValue())
+        || column.getNegateValue()
+        || line.getNegateValue()) {
+      value = value.negate();
+    }
+
+    return value;
+  }
+
+  protected Set<Long> getIdSet(Set<AnalyticAccount> analyticAccountSet) {
+    return analyticAccountSet.stream().map(AnalyticAccount::getId).collect(Collectors.toSet());
+  }
+
+  /**
+   * Get the debit sum, the credit sum and the number of the move lines of each account, computed
+   * with one grouped query for the report, companies and dates of the key.
+   */
+  protected Map<Long, BigDecimal[]> getAccountCube(
+      AccountingReport accountingReport, Set<Company> companySet, List<Object> cubeKey) {
+    Map<Long, BigDecimal[]> accountCube = accountCubeMap.get(cubeKey);
+
+    if (accountCube == null) {
+      List<Object[]> resultList =
+          this.getCubeQuery(
+                  "SELECT self.account.id, SUM(self.debit), SUM(self.credit), COUNT(self.id) "
+                      + "FROM MoveLine self WHERE %s GROUP BY self.account.id",
+                  accountingReport,
+                  companySet,
+                  cubeKey)
+              .getResultList();
+
+      accountCube = new HashMap<>();
+      for (Object[] result : resultList) {
+        accountCube.put(
+            (Long) result[0],
+            new BigDecimal[] {
+              (BigDecimal) result[1], (BigDecimal) result[2], BigDecimal.valueOf((Long) result[3])
+            });
+      }
+      accountCubeMap.put(cubeKey, accountCube);
+    }
+
+    return accountCube;
+  }
+
+  /**
+   * Get the analytic amounts of the debit move lines, of the credit move lines and the number of
+   * analytic move lines of each account and analytic account, computed with one grouped query for
+   * the report, companies and dates of the key.
+   */
+  protected Map<Long, Map<Long, BigDecimal[]>> getAnalyticCube(
+      AccountingReport accountingReport, Set<Company> companySet, List<Object> cubeKey) {
+    Map<Long, Map<Long, BigDecimal[]>> analyticCube = analyticCubeMap.get(cubeKey);
+
+    if (analyticCube == null) {
+      List<Object[]> resultList =
+          this.getCubeQuery(
+                  "SELECT self.account.id, aml.analyticAccount.id, "
+                      + "SUM(CASE WHEN self.debit > 0 THEN aml.amount ELSE 0 END), "
+                      + "SUM(CASE WHEN self.debit <= 0 THEN aml.amount ELSE 0 END), "
+                      + "COUNT(aml.id) "
+                      + "FROM AnalyticMoveLine aml JOIN aml.moveLine self WHERE %s "
+                      + "GROUP BY self.account.id, aml.analyticAccount.id",
+                  accountingReport,
+                  companySet,
+                  cubeKey)
+              .getResultList();
+
+      analyticCube = new HashMap<>();
+      for (Object[] result : resultList) {
+        analyticCube
+            .computeIfAbsent((Long) result[0], key -> new HashMap<>())
+            .put(
+                (Long) result[1],
+                new BigDecimal[] {
+                  (BigDecimal) result[2],
+                  (BigDecimal) result[3],
+                  BigDecimal.valueOf((Long) result[4])
+                });
+      }
+      analyticCubeMap.put(cubeKey, analyticCube);
+    }
+
+    return analyticCube;
+  }
+
+  protected TypedQuery<Object[]> getCubeQuery(
+      String queryString,
+      AccountingReport accountingReport,
+      Set<Company> companySet,
+      List<Object> cubeKey) {
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(
+                String.format(
+                    queryString,
+                    String.join(" AND ", this.getReportQueryList(accountingReport, companySet))),
+                Object[].class)
+            .setParameter(
+                "statusList",
+                moveToolService.getMoveStatusSelect(
+                    accountingReport.getMoveStatusSelect(), companySet));
+
+    if (accountingReport.getDateFrom() != null) {
+      query.setParameter("dateFrom", cubeKey.get(2));
+    }
+    if (accountingReport.getDateTo() != null) {
+      query.setParameter("dateTo", cubeKey.get(3));
+    }
+    if (accountingReport.getJournal() != null) {
+      query.setParameter("journal", accountingReport.getJournal());
+    }
+    if (accountingReport.getPaymentMode() != null) {
+      query.setParameter("paymentMode", accountingReport.getPaymentMode());
+    }
+    if (accountingReport.getCurrency() != null) {
+      query.setParameter("currency", accountingReport.getCurrency());
+    }
+    if (CollectionUtils.isNotEmpty(companySet)) {
+      query.setParameter("companySet", companySet);
+    }
+
+    return query;
+  }
 }
@@ -0,0 +1,36 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.fecimport;
+
+import com.axelor.apps.account.db.FECImport;
+import com.axelor.apps.base.AxelorException;
+
+public interface FECBulkImportService {
+
+  /**
+   * Import the data file of the FEC import without going through the CSV importer: the file is
+   * read line by line, the lines are grouped into moves and the moves are saved by chunks. Each
+   * move which cannot be imported is traced as an anomaly of the FEC import.
+   *
+   * @param fecImport
+   * @return a summary of the import
+   * @throws AxelorException if the file cannot be read
+   */
+  String importFEC(FECImport fecImport) throws AxelorException;
+}
@@ -0,0 +1,767 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.fecimport;
+
+import com.axelor.apps.account.db.Account;
+import com.axelor.apps.account.db.FECImport;
+import com.axelor.apps.account.db.Journal;
+import com.axelor.apps.account.db.Move;
+import com.axelor.apps.account.db.MoveLine;
+import com.axelor.apps.account.db.ReconcileGroup;
+import com.axelor.apps.account.db.TaxLine;
+import com.axelor.apps.account.db.repo.AccountRepository;
+import com.axelor.apps.account.db.repo.FECImportRepository;
+import com.axelor.apps.account.db.repo.JournalRepository;
+import com.axelor.apps.account.db.repo.MoveRepository;
+import com.axelor.apps.account.db.repo.ReconcileGroupRepository;
+import com.axelor.apps.account.db.repo.TaxLineRepository;
+import com.axelor.apps.account.exception.AccountExceptionMessage;
+import com.axelor.apps.account.service.move.MoveValidateService;
+import com.axelor.apps.account.service.moveline.MoveLineToolService;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Partner;
+import com.axelor.apps.base.db.Period;
+import com.axelor.apps.base.db.repo.CompanyRepository;
+import com.axelor.apps.base.db.repo.CurrencyRepository;
+import com.axelor.apps.base.db.repo.PartnerRepository;
+import com.axelor.apps.base.db.repo.PeriodRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.db.repo.YearRepository;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.common.StringUtils;
+import com.axelor.common.csv.CSVFile;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.axelor.meta.MetaFiles;
+import com.axelor.meta.db.MetaFile;
+import com.google.common.base.Throwables;
+import com.google.inject.Inject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+public class FECBulkImportServiceImpl implements FECBulkImportService {
+
+  protected static final int IMPORT_CHUNK_SIZE = 100;
+  protected static final char[] FEC_DELIMITERS = {'|', '\t', ';'};
+  protected static final String BINDING_FILE_NAME = "import-FEC-config.xml";
+  protected static final String TAX_BINDING_FILE_NAME = "input-config-with-tva.xml";
+
+  protected FECImportRepository fecImportRepository;
+  protected FECImportService fecImportService;
+  protected CompanyRepository companyRepository;
+  protected MoveRepository moveRepository;
+  protected JournalRepository journalRepository;
+  protected AccountRepository accountRepository;
+  protected PartnerRepository partnerRepository;
+  protected PeriodRepository periodRepository;
+  protected CurrencyRepository currencyRepository;
+  protected TaxLineRepository taxLineRepository;
+  protected ReconcileGroupRepository reconcileGroupRepository;
+  protected MoveLineToolService moveLineToolService;
+  protected MoveValidateService moveValidateService;
+
+  protected Long fecImportId;
+  protected Long companyId;
+  protected boolean taxLineImported;
+  protected Map<String, Long> journalIdMap;
+  protected Map<String, Long> accountIdMap;
+  protected Map<String, Long> currencyIdMap;
+  protected List<Object[]> periodList;
+  protected List<Object[]> taxLineList;
+  protected Set<List<String>> importedMoveKeySet;
+  protected List<Long> importedMoveIdList;
+  protected int anomalyCount;
+
+  @Inject
+  public FECBulkImportServiceImpl(
+      FECImportRepository fecImportRepository,
+      FECImportService fecImportService,
+      CompanyRepository companyRepository,
+      MoveRepository moveRepository,
+      JournalRepository journalRepository,
+      AccountRepository accountRepository,
+      PartnerRepository partnerRepository,
+      PeriodRepository periodRepository,
+      CurrencyRepository currencyRepository,
+      TaxLineRepository taxLineRepository,
+      ReconcileGroupRepository reconcileGroupRepository,
+      MoveLineToolService moveLineToolService,
+      MoveValidateService moveValidateService) {
+    this.fecImportRepository = fecImportRepository;
+    this.fecImportService = fecImportService;
+    this.companyRepository = companyRepository;
+    this.moveRepository = moveRepository;
+    this.journalRepository = journalRepository;
+    this.accountRepository = accountRepository;
+    this.partnerRepository = partnerRepository;
+    this.periodRepository = periodRepository;
+    this.currencyRepository = currencyRepository;
+    this.taxLineRepository = taxLineRepository;
+    this.reconcileGroupRepository = reconcileGroupRepository;
+    this.moveLineToolService = moveLineToolService;
+    this.moveValidateService = moveValidateService;
+  }
+
+  @Override
+  public String importFEC(FECImport fecImport) throws AxelorException {
+    this.checkBindMetaFile(fecImport);
+    Company company =
+        fecImport.getCompany() != null
+            ? fecImport.getCompany()
+            : fecImportService.getCompany(fecImport.getDataMetaFile());
+    this.initReferenceData(fecImport, company);
+    this.saveFecImportCompany(company);
+    this.importFile(MetaFiles.getPath(fecImport.getDataMetaFile()), fecImport);
+
+    fecImport = fecImportRepository.find(fecImportId);
+    int notAccountedCount = 0;
+    if (Boolean.TRUE.equals(fecImport.getValidGeneratedMove())) {
+      notAccountedCount = this.accountImportedMoves(fecImport);
+    }
+
+    return String.format(
+        I18n.get(AccountExceptionMessage.IMPORT_FEC_BULK_RESULT),
+        importedMoveIdList.size(),
+        anomalyCount,
+        notAccountedCount);
+  }
+
+  /**
+   * The bulk import reads the columns of the standard binding files only, with or without the tax
+   * code. A binding file of the import type which differs from them is rejected, as the bulk
+   * import would ignore it.
+   */
+  protected void checkBindMetaFile(FECImport fecImport) throws AxelorException {
+    MetaFile bindMetaFile =
+        fecImport.getImportFECType() != null
+            ? fecImport.getImportFECType().getBindMetaFile()
+            : null;
+    String fileName = bindMetaFile != null ? bindMetaFile.getFileName() : null;
+    if ((BINDING_FILE_NAME.equals(fileName) || TAX_BINDING_FILE_NAME.equals(fileName))
+        && this.isStandardBindMetaFile(bindMetaFile)) {
+      taxLineImported = TAX_BINDING_FILE_NAME.equals(fileName);
+      return;
+    }
+
+    throw new AxelorException(
+        fecImport,
+        TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+        I18n.get(AccountExceptionMessage.IMPORT_FEC_BULK_CUSTOM_BINDING),
+        String.join(", ", BINDING_FILE_NAME, TAX_BINDING_FILE_NAME),
+        fileName);
+  }
+
+  protected boolean isStandardBindMetaFile(MetaFile bindMetaFile) throws AxelorException {
+    try (InputStream standardInputStream =
+        this.getClass().getResourceAsStream("/FEC-config/" + bindMetaFile.getFileName())) {
+      return standardInputStream != null
+          && Arrays.equals(
+              standardInputStream.readAllBytes(),
+              Files.readAllBytes(MetaFiles.getPath(bindMetaFile)));
+    } catch (IOException e) {
+      throw new AxelorException(
+          e, TraceBackRepository.CATEGORY_CONFIGURATION_ERROR, e.getMessage());
+    }
+  }
+
+  /**
+   * Read the file line by line, group the consecutive lines sharing the same journal code and move
+   * number into moves, and import the moves by chunks.
+   */
+  protected void importFile(Path filePath, FECImport fecImport) throws AxelorException {
+    List<List<CSVRecord>> moveRecordList = new ArrayList<>(IMPORT_CHUNK_SIZE);
+    List<String> moveKey = null;
+    List<CSVRecord> recordList = new ArrayList<>();
+
+    try {
+      CSVFile csvFormat =
+          CSVFile.DEFAULT.withDelimiter(this.getDelimiter(filePath)).withFirstRecordAsHeader();
+      try (CSVParser csvParser = csvFormat.parse(filePath.toFile(), StandardCharsets.UTF_8)) {
+        for (CSVRecord record : csvParser) {
+          List<String> recordMoveKey = this.getMoveKey(record);
+          if (StringUtils.isEmpty(recordMoveKey.get(1))) {
+            continue;
+          }
+
+          if (!recordMoveKey.equals(moveKey)) {
+            this.addMoveRecordList(moveRecordList, moveKey, recordList);
+            moveKey = recordMoveKey;
+            recordList = new ArrayList<>();
+          }
+          recordList.add(record);
+        }
+      }
+    } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+      throw new AxelorException(
+          e,
+          fecImport,
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(AccountExceptionMessage.IMPORT_FEC_FILE_NOT_READABLE),
+          e.getMessage());
+    }
+
+    this.addMoveRecordList(moveRecordList, moveKey, recordList);
+    this.importMoves(moveRecordList);
+  }
+
+  /**
+   * Load the ids of the journals, accounts and currencies by code, and the periods and tax lines
+   * of the company, so that the lines of the file are resolved without a query per line.
+   */
+  protected void initReferenceData(FECImport fecImport, Company company) {
+    fecImportId = fecImport.getId();
+    companyId = company.getId();
+    this.resetImportState();
+
+    journalIdMap =
+        this.getIdMap(
+            "SELECT self.code, self.id FROM Journal self WHERE self.company.id = :companyId");
+    accountIdMap =
+        this.getIdMap(
+            "SELECT self.code, self.id FROM Account self WHERE self.company.id = :companyId");
+    currencyIdMap =
+        JPA.em()
+            .createQuery("SELECT self.code, self.id FROM Currency self", Object[].class)
+            .getResultList()
+            .stream()
+            .collect(
+                Collectors.toMap(
+                    result -> (String) result[0], result -> (Long) result[1], (a, b) -> a));
+
+    periodList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, self.fromDate, self.toDate FROM Period self "
+                    + "WHERE self.year.company.id = :companyId "
+                    + "AND self.year.typeSelect = :typeSelect",
+                Object[].class)
+            .setParameter("companyId", companyId)
+            .setParameter("typeSelect", YearRepository.TYPE_FISCAL)
+            .getResultList();
+    taxLineList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, tax.code, self.startDate, self.endDate "
+                    + "FROM TaxLine self JOIN self.tax tax",
+                Object[].class)
+            .getResultList();
+  }
+
+  protected void resetImportState() {
+    importedMoveKeySet = new HashSet<>();
+    importedMoveIdList = new ArrayList<>();
+    anomalyCount = 0;
+  }
+
+  protected Map<String, Long> getIdMap(String query) {
+    Map<String, Long> idMap = new HashMap<>();
+    for (Object[] result :
+        JPA.em()
+            .createQuery(query, Object[].class)
+            .setParameter("companyId", companyId)
+            .getResultList()) {
+      idMap.putIfAbsent((String) result[0], (Long) result[1]);
+    }
+    return idMap;
+  }
+
+  protected void saveFecImportCompany(Company company) {
+    JPA.runInTransaction(
+        () -> {
+          FECImport fecImport = fecImportRepository.find(fecImportId);
+          if (fecImport.getCompany() == null) {
+            fecImport.setCompany(companyRepository.find(company.getId()));
+            fecImportRepository.save(fecImport);
+          }
+        });
+  }
+
+  protected char getDelimiter(Path filePath) throws IOException {
+    try (BufferedReader reader = Files.newBufferedReader(filePath, StandardCharsets.UTF_8)) {
+      String header = reader.readLine();
+      if (header != null) {
+        for (char delimiter : FEC_DELIMITERS) {
+          if (header.indexOf(delimiter) >= 0) {
+            return delimiter;
+          }
+        }
+      }
+    }
+    return FEC_DELIMITERS[0];
+  }
+
+  protected List<String> getMoveKey(CSVRecord record) {
+    return Arrays.asList(getValue(record, "JournalCode"), getValue(record, "EcritureNum"));
+  }
+
+  protected String getValue(CSVRecord record, String column) {
+    if (!record.isMapped(column) || !record.isSet(column)) {
+      return null;
+    }
+    String value = record.get(column).trim();
+    return value.isEmpty() ? null : value;
+  }
+
+  /**
+   * Add the lines of a move to the current chunk, and import the chunk once it is full. The lines
+   * of a move must be consecutive in the file: a move found again after other moves is rejected.
+   */
+  protected void addMoveRecordList(
+      List<List<CSVRecord>> moveRecordList, List<String> moveKey, List<CSVRecord> recordList) {
+    if (moveKey == null || recordList.isEmpty()) {
+      return;
+    }
+
+    if (!importedMoveKeySet.add(moveKey)) {
+      this.traceAnomaly(
+          moveKey.get(1),
+          new AxelorException(
+              TraceBackRepository.CATEGORY_INCONSISTENCY,
+              I18n.get(AccountExceptionMessage.IMPORT_FEC_MOVE_LINES_NOT_CONSECUTIVE)));
+      return;
+    }
+
+    moveRecordList.add(recordList);
+    if (moveRecordList.size() == IMPORT_CHUNK_SIZE) {
+      this.importMoves(moveRecordList);
+      moveRecordList.clear();
+    }
+  }
+
+  /**
+   * Save the moves of a chunk in one transaction. If the transaction fails, the moves of the chunk
+   * are saved again one by one, so that only the failing moves are lost.
+   */
+  protected void importMoves(List<List<CSVRecord>> moveRecordList) {
+    if (moveRecordList.isEmpty()) {
+      return;
+    }
+
+    List<Long> moveIdList = new ArrayList<>();
+    Map<String, Exception> anomalyMap = new LinkedHashMap<>();
+    try {
+      this.saveMovesInTransaction(moveRecordList, moveIdList, anomalyMap);
+    } catch (Exception e) {
+      moveIdList.clear();
+      anomalyMap.clear();
+
+      for (List<CSVRecord> recordList : moveRecordList) {
+        List<Long> singleMoveIdList = new ArrayList<>();
+        try {
+          this.saveMovesInTransaction(
+              Collections.singletonList(recordList), singleMoveIdList, anomalyMap);
+          moveIdList.addAll(singleMoveIdList);
+        } catch (Exception singleMoveException) {
+          anomalyMap.put(
+              getValue(recordList.get(0), "EcritureNum"),
+              (Exception) Throwables.getRootCause(singleMoveException));
+        }
+      }
+    }
+
+    importedMoveIdList.addAll(moveIdList);
+    anomalyMap.forEach(this::traceAnomaly);
+  }
+
+  /** Save the moves in one transaction, then clear the session whether it is committed or not. */
+  protected void saveMovesInTransaction(
+      List<List<CSVRecord>> moveRecordList,
+      List<Long> moveIdList,
+      Map<String, Exception> anomalyMap) {
+    try {
+      JPA.runInTransaction(() -> this.saveMoves(moveRecordList, moveIdList, anomalyMap));
+    } finally {
+      JPA.clear();
+    }
+  }
+
+  protected void saveMoves(
+      List<List<CSVRecord>> moveRecordList,
+      List<Long> moveIdList,
+      Map<String, Exception> anomalyMap) {
+    FECImport fecImport = fecImportRepository.find(fecImportId);
+    Company company = companyRepository.find(companyId);
+    Map<String, Partner> partnerMap = this.getPartnerMap(moveRecordList);
+    Map<String, ReconcileGroup> reconcileGroupMap = this.getReconcileGroupMap(moveRecordList);
+
+    for (List<CSVRecord> recordList : moveRecordList) {
+      String reference = getValue(recordList.get(0), "EcritureNum");
+      List<ReconcileGroup> newReconcileGroupList = new ArrayList<>();
+      try {
+        Move move =
+            this.createMove(
+                fecImport, company, reference, recordList, partnerMap, reconcileGroupMap);
+        move.getMoveLineList().stream()
+            .map(MoveLine::getReconcileGroup)
+            .filter(reconcileGroup -> reconcileGroup != null && reconcileGroup.getId() == null)
+            .distinct()
+            .forEach(newReconcileGroupList::add);
+        newReconcileGroupList.forEach(reconcileGroupRepository::save);
+        moveRepository.save(move);
+        if (move.getAccountingDate() == null) {
+          move.setReference(String.format("#%s", move.getId()));
+        }
+        moveIdList.add(move.getId());
+      } catch (Exception e) {
+        this.removeNewReconcileGroups(reconcileGroupMap, newReconcileGroupList);
+        anomalyMap.put(reference, e);
+      }
+    }
+  }
+
+  /**
+   * The reconcile groups created for a move which is not imported are dropped, so that no group is
+   * committed without lines.
+   */
+  protected void removeNewReconcileGroups(
+      Map<String, ReconcileGroup> reconcileGroupMap, List<ReconcileGroup> newReconcileGroupList) {
+    reconcileGroupMap
+        .values()
+        .removeIf(
+            reconcileGroup ->
+                reconcileGroup.getId() == null || newReconcileGroupList.contains(reconcileGroup));
+    for (ReconcileGroup reconcileGroup : newReconcileGroupList) {
+      if (reconcileGroup.getId() != null) {
+        reconcileGroupRepository.remove(reconcileGroup);
+      }
+    }
+  }
+
+  protected Map<String, Partner> getPartnerMap(List<List<CSVRecord>> moveRecordList) {
+    Set<String> partnerSeqSet = this.getValueSet(moveRecordList, "CompAuxNum");
+    if (partnerSeqSet.isEmpty()) {
+      return new HashMap<>();
+    }
+    return partnerRepository
+        .all()
+        .filter("self.partnerSeq IN (:partnerSeqList)")
+        .bind("partnerSeqList", new ArrayList<>(partnerSeqSet))
+        .fetch()
+        .stream()
+        .collect(Collectors.toMap(Partner::getPartnerSeq, partner -> partner, (a, b) -> a));
+  }
+
+  protected Map<String, ReconcileGroup> getReconcileGroupMap(
+      List<List<CSVRecord>> moveRecordList) {
+    Set<String> codeSet = this.getValueSet(moveRecordList, "EcritureLet");
+    if (codeSet.isEmpty()) {
+      return new HashMap<>();
+    }
+    return reconcileGroupRepository
+        .all()
+        .filter("self.code IN (:codeList)")
+        .bind("codeList", new ArrayList<>(codeSet))
+        .fetch()
+        .stream()
+        .collect(
+            Collectors.toMap(
+                ReconcileGroup::getCode, reconcileGroup -> reconcileGroup, (a, b) -> a));
+  }
+
+  protected Set<String> getValueSet(List<List<CSVRecord>> moveRecordList, String column) {
+    Set<String> valueSet = new HashSet<>();
+    for (List<CSVRecord> recordList : moveRecordList) {
+      for (CSVRecord record : recordList) {
+        String value = getValue(record, column);
+        if (StringUtils.notEmpty(value)) {
+          valueSet.add(value);
+        }
+      }
+    }
+    return valueSet;
+  }
+
+  /**
+   * Create a move with its lines from the lines of the file sharing the same journal code and move
+   * number. The move is checked to be balanced, and its journal, period and accounts to exist,
+   * before any line is created.
+   */
+  protected Move createMove(
+      FECImport fecImport,
+      Company company,
+      String reference,
+      List<CSVRecord> recordList,
+      Map<String, Partner> partnerMap,
+      Map<String, ReconcileGroup> reconcileGroupMap)
+      throws AxelorException {
+    this.checkBalance(recordList);
+
+    CSVRecord firstRecord = recordList.get(0);
+    String journalCode = getValue(firstRecord, "JournalCode");
+    Journal journal = null;
+    if (StringUtils.notEmpty(journalCode)) {
+      Long journalId = journalIdMap.get(journalCode);
+      if (journalId == null) {
+        throw new AxelorException(
+            fecImport,
+            TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+            I18n.get(AccountExceptionMessage.IMPORT_FEC_JOURNAL_NOT_FOUND),
+            journalCode);
+      }
+      journal = journalRepository.find(journalId);
+    }
+
+    LocalDate date = parseDate(getValue(firstRecord, "EcritureDate"));
+    Period period = this.getPeriod(date);
+    if (period == null) {
+      throw new AxelorException(
+          fecImport,
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(AccountExceptionMessage.IMPORT_FEC_PERIOD_NOT_FOUND),
+          date,
+          company);
+    }
+
+    List<Account> accountList = new ArrayList<>();
+    for (CSVRecord record : recordList) {
+      String accountCode = getValue(record, "CompteNum");
+      Long accountId = accountIdMap.get(accountCode);
+      if (accountId == null) {
+        throw new AxelorException(
+            fecImport,
+            TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+            I18n.get(AccountExceptionMessage.IMPORT_FEC_ACCOUNT_NOT_FOUND),
+            accountCode);
+      }
+      accountList.add(accountRepository.find(accountId));
+    }
+
+    Move move = new Move();
+    move.setFecImport(fecImport);
+    move.setDescription(fecImport.getMoveDescription());
+    move.setStatusSelect(MoveRepository.STATUS_NEW);
+    move.setTechnicalOriginSelect(MoveRepository.TECHNICAL_ORIGIN_IMPORT);
+    move.setCompany(company);
+    move.setCompanyCurrency(company.getCurrency());
+    move.setJournal(journal);
+    move.setPeriod(period);
+    move.setDate(date);
+    move.setAccountingDate(parseDate(getValue(firstRecord, "ValidDate")));
+    if (move.getAccountingDate() != null) {
+      move.setReference(reference);
+    }
+    move.setOrigin(getValue(firstRecord, "PieceRef"));
+    move.setOriginDate(parseDate(getValue(firstRecord, "PieceDate")));
+
+    String currencyCode = getValue(firstRecord, "Idevise");
+    Long currencyId = currencyIdMap.get(currencyCode);
+    move.setCurrency(
+        currencyId != null ? currencyRepository.find(currencyId) : company.getCurrency());
+    this.setFunctionalOriginSelect(fecImport, move);
+
+    for (int i = 0; i < recordList.size(); i++) {
+      this.createMoveLine(
+          move, recordList.get(i), accountList.get(i), i + 1, partnerMap, reconcileGroupMap);
+    }
+
+    List<Partner> partnerList =
+        move.getMoveLineList().stream()
+            .map(MoveLine::getPartner)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+    if (partnerList.size() == 1) {
+      move.setPartner(partnerList.get(0));
+    }
+
+    fecImportService.setVatSystemSelect(move);
+    return move;
+  }
+
+  protected void checkBalance(List<CSVRecord> recordList) throws AxelorException {
+    BigDecimal totalDebit = BigDecimal.ZERO;
+    BigDecimal totalCredit = BigDecimal.ZERO;
+    for (CSVRecord record : recordList) {
+      totalDebit = totalDebit.add(parseAmount(getValue(record, "Debit")));
+      totalCredit = totalCredit.add(parseAmount(getValue(record, "Credit")));
+    }
+
+    if (totalDebit.compareTo(totalCredit) != 0) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_INCONSISTENCY,
+          I18n.get(AccountExceptionMessage.IMPORT_FEC_MOVE_NOT_BALANCED),
+          totalDebit,
+          totalCredit);
+    }
+  }
+
+  protected Period getPeriod(LocalDate date) {
+    if (date == null) {
+      return null;
+    }
+    for (Object[] period : periodList) {
+      if (!date.isBefore((LocalDate) period[1]) && !date.isAfter((LocalDate) period[2])) {
+        return periodRepository.find((Long) period[0]);
+      }
+    }
+    return null;
+  }
+
+  protected void setFunctionalOriginSelect(FECImport fecImport, Move move) {
+    if (fecImport.getImportFECType().getFunctionalOriginSelect() > 0) {
+      move.setFunctionalOriginSelect(fecImport.getImportFECType().getFunctionalOriginSelect());
+    } else if (move.getJournal() != null) {
+      String authorizedFunctionalOriginSelect =
+          move.getJournal().getAuthorizedFunctionalOriginSelect();
+
+      if (StringUtils.notEmpty(authorizedFunctionalOriginSelect)
+          && authorizedFunctionalOriginSelect.split(",").length == 1) {
+        move.setFunctionalOriginSelect(Integer.parseInt(authorizedFunctionalOriginSelect));
+      }
+    }
+  }
+
+  protected MoveLine createMoveLine(
+      Move move,
+      CSVRecord record,
+      Account account,
+      int counter,
+      Map<String, Partner> partnerMap,
+      Map<String, ReconcileGroup> reconcileGroupMap) {
+    MoveLine moveLine = new MoveLine();
+    move.addMoveLineListItem(moveLine);
+    moveLine.setCounter(counter);
+    moveLine.setAccount(account);
+    moveLine.setDate(parseDate(getValue(record, "EcritureDate")));
+    moveLine.setPartner(partnerMap.get(getValue(record, "CompAuxNum")));
+    moveLine.setDebit(parseAmount(getValue(record, "Debit")));
+    moveLine.setCredit(parseAmount(getValue(record, "Credit")));
+    moveLine.setOrigin(getValue(record, "PieceRef"));
+    moveLine.setOriginDate(parseDate(getValue(record, "PieceDate")));
+    moveLine.setDescription(getValue(record, "EcritureLib"));
+
+    // A line is lettered only when it has both a lettering code and a lettering date
+    String reconcileGroupCode = getValue(record, "EcritureLet");
+    LocalDate letteringDate = parseDate(getValue(record, "DateLet"));
+    if (StringUtils.notEmpty(reconcileGroupCode) && letteringDate != null) {
+      ReconcileGroup reconcileGroup =
+          reconcileGroupMap.computeIfAbsent(reconcileGroupCode, this::createReconcileGroup);
+      reconcileGroup.setCompany(move.getCompany());
+      reconcileGroup.setLetteringDateTime(letteringDate.atTime(LocalTime.NOON));
+      moveLine.setReconcileGroup(reconcileGroup);
+    }
+
+    if (taxLineImported) {
+      TaxLine taxLine = this.getTaxLine(getValue(record, "taxCode"), moveLine.getDate());
+      if (taxLine != null) {
+        moveLine.addTaxLineSetItem(taxLine);
+      }
+    }
+
+    String currencyAmount = getValue(record, "Montantdevise");
+    if (StringUtils.isEmpty(currencyAmount)) {
+      moveLineToolService.setCurrencyAmount(moveLine);
+    } else if (moveLine.getDebit().signum() > 0) {
+      moveLine.setCurrencyAmount(parseAmount(currencyAmount).abs());
+    } else {
+      moveLine.setCurrencyAmount(parseAmount(currencyAmount).abs().negate());
+    }
+    return moveLine;
+  }
+
+  /** The group is saved with the first move using it, see saveMoves. */
+  protected ReconcileGroup createReconcileGroup(String code) {
+    ReconcileGroup reconcileGroup = new ReconcileGroup();
+    reconcileGroup.setCode(code);
+    return reconcileGroup;
+  }
+
+  protected TaxLine getTaxLine(String taxCode, LocalDate date) {
+    if (StringUtils.isEmpty(taxCode) || date == null) {
+      return null;
+    }
+    for (Object[] taxLine : taxLineList) {
+      if (taxCode.equals(taxLine[1])
+          && !date.isBefore((LocalDate) taxLine[2])
+          && (taxLine[3] == null || !date.isAfter((LocalDate) taxLine[3]))) {
+        return taxLineRepository.find((Long) taxLine[0]);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Account the imported moves by chunks, each move in its own transaction, and trace each move
+   * which could not be accounted on the import.
+   *
+   * @return the number of moves which could not be accounted
+   */
+  protected int accountImportedMoves(FECImport fecImport) {
+    List<String> referenceList = moveValidateService.accountingMultipleMoves(importedMoveIdList);
+    for (String reference : referenceList) {
+      this.traceMoveNotAccounted(fecImport, reference);
+    }
+    return referenceList.size();
+  }
+
+  protected void traceMoveNotAccounted(FECImport fecImport, String reference) {
+    TraceBackService.trace(
+        new AxelorException(
+            fecImport,
+            TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+            I18n.get(AccountExceptionMessage.IMPORT_FEC_MOVE_NOT_ACCOUNTED),
+            reference));
+  }
+
+  protected void traceAnomaly(String reference, Exception e) {
+    anomalyCount++;
+    TraceBackService.trace(
+        new AxelorException(
+            e,
+            fecImportRepository.find(fecImportId),
+            TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+            I18n.get(AccountExceptionMessage.IMPORT_FEC_MOVE_NOT_IMPORTED),
+            reference,
+            e.getMessage()));
+  }
+
+  protected LocalDate parseDate(String date) {
+    return StringUtils.isEmpty(date)
+        ? null
+        : LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE);
+  }
+
+  protected BigDecimal parseAmount(String amount) {
+    return StringUtils.isEmpty(amount)
+        ? BigDecimal.ZERO
+        : new BigDecimal(amount.replace(',', '.'));
+  }
+}
@@ -19,6 +19,7 @@
 package com.axelor.apps.account.service.fecimport;
 
 import com.axelor.apps.account.db.FECImport;
+import com.axelor.apps.account.db.Move;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.meta.db.MetaFile;
@@ -34,4 +35,13 @@ public interface FECImportService {
   Company getCompany(MetaFile dataMetaFile);
 
   void letterImportedReconcileGroup(FECImport fecImport) throws AxelorException;
+
+  /**
+   * Set the VAT system on the charge, income and immobilisation lines of an imported move, then on
+   * its tax lines when the other lines share the same VAT system.
+   *
+   * @param move
+   * @throws AxelorException
+   */
+  void setVatSystemSelect(Move move) throws AxelorException;
 }
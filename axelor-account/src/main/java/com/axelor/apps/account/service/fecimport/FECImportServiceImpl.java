@@ -19,10 +19,15 @@
 package com.axelor.apps.account.service.fecimport;
 
 import com.axelor.apps.account.db.FECImport;
+import com.axelor.apps.account.db.Move;
+import com.axelor.apps.account.db.MoveLine;
 import com.axelor.apps.account.db.ReconcileGroup;
+import com.axelor.apps.account.db.repo.AccountTypeRepository;
 import com.axelor.apps.account.db.repo.MoveRepository;
 import com.axelor.apps.account.db.repo.ReconcileGroupRepository;
+import com.axelor.apps.account.service.moveline.MoveLineTaxService;
 import com.axelor.apps.account.service.reconcilegroup.ReconcileGroupLetterService;
+import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.repo.CompanyRepository;
 import com.axelor.apps.base.service.exception.TraceBackService;
@@ -35,21 +40,31 @@ import com.google.inject.persist.Transactional;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class FECImportServiceImpl implements FECImportService {
 
   protected CompanyRepository companyRepository;
   protected ReconcileGroupLetterService reconcileGroupLetterService;
   protected ReconcileGroupRepository reconcileGroupRepo;
+  protected MoveLineTaxService moveLineTaxService;
+
+  protected static final List<String> VAT_SYSTEM_ACCOUNT_TYPE_LIST =
+      Arrays.asList(
+          AccountTypeRepository.TYPE_CHARGE,
+          AccountTypeRepository.TYPE_INCOME,
+          AccountTypeRepository.TYPE_IMMOBILISATION);
 
   @Inject
   public FECImportServiceImpl(
       CompanyRepository companyRepository,
       ReconcileGroupLetterService reconcileGroupLetterService,
-      ReconcileGroupRepository reconcileGroupRepo) {
+      ReconcileGroupRepository reconcileGroupRepo,
+      MoveLineTaxService moveLineTaxService) {
     this.companyRepository = companyRepository;
     this.reconcileGroupLetterService = reconcileGroupLetterService;
     this.reconcileGroupRepo = reconcileGroupRepo;
+    this.moveLineTaxService = moveLineTaxService;
   }
 
   @Override
@@ -107,4 +122,35 @@ public class FECImportServiceImpl implements FECImportService {
       JPA.clear();
     }
   }
+
+  @Override
+  public void setVatSystemSelect(Move move) throws AxelorException {
+    // Set vatSystemSelect on charge/income/immobilisation lines
+    for (MoveLine moveLine : move.getMoveLineList()) {
+      if (VAT_SYSTEM_ACCOUNT_TYPE_LIST.contains(
+          moveLine.getAccount().getAccountType().getTechnicalTypeSelect())) {
+        moveLine.setVatSystemSelect(moveLineTaxService.getVatSystem(move, moveLine));
+      }
+    }
+
+    // Set vatSystemSelect on tax lines
+    List<Integer> vatSystemSelectList =
+        move.getMoveLineList().stream()
+            .filter(
+                ml ->
+                    VAT_SYSTEM_ACCOUNT_TYPE_LIST.contains(
+                        ml.getAccount().getAccountType().getTechnicalTypeSelect()))
+            .map(MoveLine::getVatSystemSelect)
+            .distinct()
+            .collect(Collectors.toList());
+    if (vatSystemSelectList.size() == 1) {
+      int vatSystemSelect = vatSystemSelectList.get(0);
+      for (MoveLine moveLine : move.getMoveLineList()) {
+        String accountType = moveLine.getAccount().getAccountType().getTechnicalTypeSelect();
+        if (accountType.equals(AccountTypeRepository.TYPE_TAX)) {
+          moveLine.setVatSystemSelect(vatSystemSelect);
+        }
+      }
+    }
+  }
 }
@@ -21,12 +21,10 @@ package com.axelor.apps.account.service.fecimport;
 import com.axelor.apps.account.db.FECImport;
 import com.axelor.apps.account.db.Move;
 import com.axelor.apps.account.db.MoveLine;
-import com.axelor.apps.account.db.repo.AccountTypeRepository;
 import com.axelor.apps.account.db.repo.FECImportRepository;
 import com.axelor.apps.account.db.repo.MoveRepository;
 import com.axelor.apps.account.service.app.AppAccountService;
 import com.axelor.apps.account.service.move.MoveValidateService;
-import com.axelor.apps.account.service.moveline.MoveLineTaxService;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.ImportHistory;
@@ -39,7 +37,6 @@ import com.axelor.data.csv.CSVImporter;
 import com.axelor.db.JPA;
 import com.axelor.db.Model;
 import com.google.common.base.Throwables;
-import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import java.io.IOException;
@@ -47,7 +44,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class FECImporter extends Importer {
 
@@ -56,7 +52,7 @@ public class FECImporter extends Importer {
   protected MoveRepository moveRepository;
   protected FECImportRepository fecImportRepository;
   protected CompanyRepository companyRepository;
-  protected MoveLineTaxService moveLineTaxService;
+  protected FECImportService fecImportService;
   private final List<Move> moveList = new ArrayList<>();
   private FECImport fecImport;
   private Company company;
@@ -68,13 +64,13 @@ public class FECImporter extends Importer {
       MoveRepository moveRepository,
       FECImportRepository fecImportRepository,
       CompanyRepository companyRepository,
-      MoveLineTaxService moveLineTaxService) {
+      FECImportService fecImportService) {
     this.moveValidateService = moveValidateService;
     this.appAccountService = appAccountService;
     this.moveRepository = moveRepository;
     this.fecImportRepository = fecImportRepository;
     this.companyRepository = companyRepository;
-    this.moveLineTaxService = moveLineTaxService;
+    this.fecImportService = fecImportService;
   }
 
   @Override
@@ -194,41 +190,7 @@ public class FECImporter extends Importer {
   protected Move setVatSystemSelect(ImporterListener listener, Move move) {
     try {
       if (move != null) {
-        // Set vatSystemSelect on charge/income/immobilisation lines
-        for (MoveLine moveLine : move.getMoveLineList()) {
-          String accountType = moveLine.getAccount().getAccountType().getTechnicalTypeSelect();
-          boolean accountTypeCondition =
-              accountType.equals(AccountTypeRepository.TYPE_CHARGE)
-                  || accountType.equals(AccountTypeRepository.TYPE_INCOME)
-                  || accountType.equals(AccountTypeRepository.TYPE_IMMOBILISATION);
-          if (accountTypeCondition) {
-            moveLine.setVatSystemSelect(moveLineTaxService.getVatSystem(move, moveLine));
-          }
-        }
-
-        // Set vatSystemSelect on tax lines
-        List<Integer> vatSystemSelectList =
-            move.getMoveLineList().stream()
-                .filter(
-                    ml ->
-                        Lists.newArrayList(
-                                AccountTypeRepository.TYPE_CHARGE,
-                                AccountTypeRepository.TYPE_INCOME,
-                                AccountTypeRepository.TYPE_IMMOBILISATION)
-                            .contains(ml.getAccount().getAccountType().getTechnicalTypeSelect()))
-                .map(MoveLine::getVatSystemSelect)
-                .distinct()
-                .collect(Collectors.toList());
-        if (vatSystemSelectList.size() == 1) {
-          int vatSystemSelect = vatSystemSelectList.get(0);
-          for (MoveLine moveLine : move.getMoveLineList()) {
-            String accountType = moveLine.getAccount().getAccountType().getTechnicalTypeSelect();
-            if (accountType.equals(AccountTypeRepository.TYPE_TAX)) {
-              moveLine.setVatSystemSelect(vatSystemSelect);
-            }
-          }
-        }
-
+        fecImportService.setVatSystemSelect(move);
         return moveRepository.save(move);
       }
 
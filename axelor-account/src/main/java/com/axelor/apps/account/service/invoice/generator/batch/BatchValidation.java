@@ -25,7 +25,6 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.lang.invoke.MethodHandles;
@@ -71,7 +70,7 @@ public class BatchValidation extends BatchWkf {
 
       } finally {
 
-        JPA.clear();
+        clear();
       }
     }
   }
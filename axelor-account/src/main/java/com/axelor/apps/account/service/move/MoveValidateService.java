@@ -70,6 +70,16 @@ public interface MoveValidateService {
 
   String accountingMultiple(List<Integer> moveIds);
 
+  /**
+   * Account the moves by chunks, each move in its own transaction, and update the partner balances
+   * once per chunk.
+   *
+   * @param moveIdList the ids of the moves to account
+   * @return the references of the moves which could not be accounted, or whose partner balances
+   *     could not be updated
+   */
+  List<String> accountingMultipleMoves(List<Long> moveIdList);
+
   void freezeFieldsOnMoveLines(Move move) throws AxelorException;
 
   void accountingMultiple(Query<Move> moveListQuery) throws AxelorException;
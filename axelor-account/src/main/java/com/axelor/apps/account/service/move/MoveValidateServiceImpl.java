@@ -41,6 +41,7 @@ import com.axelor.apps.account.db.repo.JournalTypeRepository;
 import com.axelor.apps.account.db.repo.MoveLineRepository;
 import com.axelor.apps.account.db.repo.MoveRepository;
 import com.axelor.apps.account.exception.AccountExceptionMessage;
+import com.axelor.apps.account.service.AccountBalanceService;
 import com.axelor.apps.account.service.TaxAccountService;
 import com.axelor.apps.account.service.app.AppAccountService;
 import com.axelor.apps.account.service.config.AccountConfigService;
@@ -70,6 +71,7 @@ import com.axelor.i18n.I18n;
 import com.axelor.meta.MetaStore;
 import com.axelor.meta.schema.views.Selection.Option;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import com.google.inject.servlet.RequestScoped;
@@ -80,6 +82,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -118,6 +121,7 @@ public class MoveValidateServiceImpl implements MoveValidateService {
   protected MoveLineFinancialDiscountService moveLineFinancialDiscountService;
   protected TaxAccountService taxAccountService;
   protected UserService userService;
+  protected AccountBalanceService accountBalanceService;
 
   @Inject
   public MoveValidateServiceImpl(
@@ -143,7 +147,8 @@ public class MoveValidateServiceImpl implements MoveValidateService {
       CurrencyScaleService currencyScaleService,
       MoveLineFinancialDiscountService moveLineFinancialDiscountService,
       TaxAccountService taxAccountService,
-      UserService userService) {
+      UserService userService,
+      AccountBalanceService accountBalanceService) {
     this.moveLineControlService = moveLineControlService;
     this.moveLineToolService = moveLineToolService;
     this.accountConfigService = accountConfigService;
@@ -167,6 +172,7 @@ public class MoveValidateServiceImpl implements MoveValidateService {
     this.moveLineFinancialDiscountService = moveLineFinancialDiscountService;
     this.taxAccountService = taxAccountService;
     this.userService = userService;
+    this.accountBalanceService = accountBalanceService;
   }
 
   /**
@@ -480,6 +486,7 @@ public class MoveValidateServiceImpl implements MoveValidateService {
     this.completeMoveLines(move);
     this.setMoveLineAccountingDate(move, dayBookMode);
     this.freezeFieldsOnMoveLines(move);
+    boolean wasAccounted = move.getStatusSelect() == MoveRepository.STATUS_ACCOUNTED;
     this.updateValidateStatus(move, dayBookMode);
 
     if (move.getStatusSelect() == MoveRepository.STATUS_ACCOUNTED) {
@@ -488,6 +495,10 @@ public class MoveValidateServiceImpl implements MoveValidateService {
 
     moveRepository.save(move);
 
+    if (!wasAccounted && move.getStatusSelect() == MoveRepository.STATUS_ACCOUNTED) {
+      accountBalanceService.addMove(move);
+    }
+
     if (updateCustomerAccount) {
       moveCustAccountService.updateCustomerAccount(move);
     }
@@ -679,48 +690,149 @@ public class MoveValidateServiceImpl implements MoveValidateService {
 
   @Override
   public String accountingMultiple(List<Integer> moveIds) {
-    String errors = "";
     if (moveIds == null) {
-      return errors;
+      return "";
     }
+    return String.join(
+        ", ",
+        accountingMultipleMoves(
+            moveIds.stream().map(Integer::longValue).collect(Collectors.toList())));
+  }
+
+  @Override
+  public List<String> accountingMultipleMoves(List<Long> moveIds) {
+    List<String> errorList = new ArrayList<>();
     User user = userService.getUser();
-    int i = 0;
-    for (Integer moveId : moveIds) {
-      Move move = moveRepository.find(moveId.longValue());
-      try {
-        if (!periodCheckService.isAuthorizedToAccountOnPeriod(move, user)) {
-          throw new AxelorException(
-              TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-              String.format(
-                  I18n.get(AccountExceptionMessage.ACCOUNT_PERIOD_TEMPORARILY_CLOSED),
-                  move.getReference()));
-        }
-        if (move.getStatusSelect() != MoveRepository.STATUS_ACCOUNTED
-            && move.getStatusSelect() != MoveRepository.STATUS_CANCELED) {
-          accounting(move);
+    Map<List<Object>, Boolean> periodAuthorizationMap = new HashMap<>();
+
+    for (List<Long> moveIdList : Lists.partition(moveIds, jpaLimit)) {
+      Map<Long, Set<Long>> partnerIdMap = new HashMap<>();
+      List<String> accountedReferenceList = new ArrayList<>();
+      for (Long moveId : loadMovesToAccount(moveIdList)) {
+        Move move = moveRepository.find(moveId);
+        try {
+          if (!isAuthorizedToAccountOnPeriod(move, user, periodAuthorizationMap)) {
+            throw new AxelorException(
+                TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+                String.format(
+                    I18n.get(AccountExceptionMessage.ACCOUNT_PERIOD_TEMPORARILY_CLOSED),
+                    move.getReference()));
+          }
+          if (move.getStatusSelect() != MoveRepository.STATUS_ACCOUNTED
+              && move.getStatusSelect() != MoveRepository.STATUS_CANCELED) {
+            accounting(move, false);
+            addPartnerOfMove(move, partnerIdMap);
+            accountedReferenceList.add(move.getReference());
+          }
+        } catch (Exception e) {
+          TraceBackService.trace(e);
+          errorList.add(move.getReference());
+          // Only the failed move is reloaded, the other moves of the chunk stay loaded
+          JPA.em().detach(move);
         }
+      }
+
+      try {
+        updateCustomerAccounts(partnerIdMap);
       } catch (Exception e) {
         TraceBackService.trace(e);
-        if (errors.length() > 0) {
-          errors = errors.concat(", ");
-        }
-        errors = errors.concat(move.getReference());
-      } finally {
+        // The moves are accounted but their partner balances are not up to date
+        errorList.addAll(accountedReferenceList);
+      }
+      JPA.clear();
+    }
+
+    return errorList;
+  }
+
+  public void accountingMultiple(Query<Move> moveListQuery) throws AxelorException {
+    Map<Long, Set<Long>> partnerIdMap = new HashMap<>();
+    Move move;
+    int i = 0;
+
+    try {
+      while (!((move = moveListQuery.fetchOne()) == null)) {
+        accounting(move, false);
+        addPartnerOfMove(move, partnerIdMap);
         if (++i % jpaLimit == 0) {
+          updateCustomerAccounts(partnerIdMap);
+          partnerIdMap.clear();
           JPA.clear();
         }
       }
+    } finally {
+      updateCustomerAccounts(partnerIdMap);
     }
+  }
 
-    return errors;
+  /**
+   * Load the moves of a chunk with their journal, period, lines and accounts in one query, so
+   * that accounting them does not load these one by one.
+   *
+   * @return the ids of the moves, grouped by journal so that their sequences are consecutive
+   */
+  protected List<Long> loadMovesToAccount(List<Long> moveIdList) {
+    List<Move> moveList =
+        JPA.em()
+            .createQuery(
+                "SELECT DISTINCT self FROM Move self "
+                    + "LEFT JOIN FETCH self.journal LEFT JOIN FETCH self.period "
+                    + "LEFT JOIN FETCH self.moveLineList moveLine "
+                    + "LEFT JOIN FETCH moveLine.account "
+                    + "WHERE self.id IN (:moveIdList)",
+                Move.class)
+            .setParameter("moveIdList", moveIdList)
+            .getResultList();
+
+    return moveList.stream()
+        .sorted(
+            Comparator.comparing(
+                    (Move move) -> move.getJournal() != null ? move.getJournal().getId() : 0L)
+                .thenComparing(Move::getDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Move::getId))
+        .map(Move::getId)
+        .collect(Collectors.toList());
   }
 
-  public void accountingMultiple(Query<Move> moveListQuery) throws AxelorException {
-    Move move;
+  /**
+   * The authorization only depends on the company, the period and the functional origin of the
+   * move, so it is checked once for each of them.
+   */
+  protected boolean isAuthorizedToAccountOnPeriod(
+      Move move, User user, Map<List<Object>, Boolean> periodAuthorizationMap)
+      throws AxelorException {
+    List<Object> key =
+        Arrays.asList(
+            move.getCompany() != null ? move.getCompany().getId() : null,
+            move.getPeriod() != null ? move.getPeriod().getId() : null,
+            move.getFunctionalOriginSelect());
+    Boolean authorized = periodAuthorizationMap.get(key);
+    if (authorized == null) {
+      authorized = periodCheckService.isAuthorizedToAccountOnPeriod(move, user);
+      periodAuthorizationMap.put(key, authorized);
+    }
+    return authorized;
+  }
 
-    while (!((move = moveListQuery.fetchOne()) == null)) {
-      accounting(move);
-      JPA.clear();
+  protected void addPartnerOfMove(Move move, Map<Long, Set<Long>> partnerIdMap) {
+    Set<Long> partnerIdSet =
+        partnerIdMap.computeIfAbsent(move.getCompany().getId(), id -> new HashSet<>());
+    for (Partner partner : moveCustAccountService.getPartnerOfMove(move)) {
+      partnerIdSet.add(partner.getId());
+    }
+  }
+
+  /**
+   * Update the partner balances of a chunk of accounted moves once per company, in one
+   * transaction.
+   */
+  @Transactional(rollbackOn = {Exception.class})
+  protected void updateCustomerAccounts(Map<Long, Set<Long>> partnerIdMap) throws AxelorException {
+    for (Map.Entry<Long, Set<Long>> entry : partnerIdMap.entrySet()) {
+      List<Partner> partnerList =
+          entry.getValue().stream().map(partnerRepository::find).collect(Collectors.toList());
+      moveCustAccountService.updateCustomerAccount(
+          partnerList, JPA.em().find(Company.class, entry.getKey()));
     }
   }
 
@@ -148,6 +148,16 @@ public class AccountingBatchController {
     runBatch(AccountingBatchRepository.ACTION_CLOSE_OR_OPEN_THE_ANNUAL_ACCOUNTS, request, response);
   }
 
+  public void actionRebuildAccountBalances(ActionRequest request, ActionResponse response) {
+    runBatch(AccountingBatchRepository.ACTION_REBUILD_ACCOUNT_BALANCES, request, response);
+  }
+
+  public void actionControlAccountBalancesConsistency(
+      ActionRequest request, ActionResponse response) {
+    runBatch(
+        AccountingBatchRepository.ACTION_ACCOUNT_BALANCES_CONSISTENCY_CONTROL, request, response);
+  }
+
   public void runBatch(Integer actionSelect, ActionRequest request, ActionResponse response) {
     try {
 
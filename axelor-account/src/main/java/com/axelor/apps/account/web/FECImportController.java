@@ -20,6 +20,7 @@ package com.axelor.apps.account.web;
 
 import com.axelor.apps.account.db.FECImport;
 import com.axelor.apps.account.db.repo.FECImportRepository;
+import com.axelor.apps.account.service.fecimport.FECBulkImportService;
 import com.axelor.apps.account.service.fecimport.FECImportService;
 import com.axelor.apps.account.service.fecimport.FECImporter;
 import com.axelor.apps.base.db.ImportConfiguration;
@@ -43,6 +44,14 @@ public class FECImportController {
       FECImport fecImport = request.getContext().asType(FECImport.class);
       fecImport = Beans.get(FECImportRepository.class).find(fecImport.getId());
 
+      if (Boolean.TRUE.equals(fecImport.getBulkImport())) {
+        String result = Beans.get(FECBulkImportService.class).importFEC(fecImport);
+        Beans.get(FECImportService.class).letterImportedReconcileGroup(fecImport);
+        response.setNotify(result);
+        response.setReload(true);
+        return;
+      }
+
       ImportConfiguration importConfig = new ImportConfiguration();
       importConfig.setBindMetaFile(fecImport.getImportFECType().getBindMetaFile());
       importConfig.setDataMetaFile(
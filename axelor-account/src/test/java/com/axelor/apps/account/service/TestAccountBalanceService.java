@@ -0,0 +1,415 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.account.db.Account;
+import com.axelor.apps.account.db.AccountBalance;
+import com.axelor.apps.account.db.Move;
+import com.axelor.apps.account.db.MoveLine;
+import com.axelor.apps.account.db.repo.AccountBalanceRepository;
+import com.axelor.apps.account.db.repo.AccountRepository;
+import com.axelor.apps.account.db.repo.MoveRepository;
+import com.axelor.apps.account.service.app.AppAccountService;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Partner;
+import com.axelor.apps.base.db.Period;
+import com.axelor.apps.base.db.Year;
+import com.axelor.apps.base.db.repo.PartnerRepository;
+import com.axelor.studio.db.AppAccount;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class TestAccountBalanceService {
+
+  private TestableAccountBalanceService accountBalanceService;
+  private AccountBalanceRepository accountBalanceRepository;
+  private AppAccount appAccount;
+  private Company company;
+  private Period period;
+  private Account account1;
+  private Account account2;
+  private Partner partner1;
+  private Partner partner2;
+
+  @BeforeEach
+  void prepare() {
+    accountBalanceRepository = mock(AccountBalanceRepository.class);
+    AccountRepository accountRepository = mock(AccountRepository.class);
+    PartnerRepository partnerRepository = mock(PartnerRepository.class);
+    AppAccountService appAccountService = mock(AppAccountService.class);
+    appAccount = new AppAccount();
+    appAccount.setAccountBalancesOk(true);
+    when(appAccountService.getAppAccount()).thenReturn(appAccount);
+    accountBalanceService =
+        new TestableAccountBalanceService(
+            accountBalanceRepository, accountRepository, partnerRepository, appAccountService);
+
+    company = new Company();
+    Year year = new Year();
+    year.setCompany(company);
+    period = new Period();
+    period.setId(1L);
+    period.setYear(year);
+    account1 = createAccount(1L);
+    account2 = createAccount(2L);
+    partner1 = createPartner(1L);
+    partner2 = createPartner(2L);
+    when(accountRepository.find(1L)).thenReturn(account1);
+    when(accountRepository.find(2L)).thenReturn(account2);
+    when(partnerRepository.find(1L)).thenReturn(partner1);
+    when(partnerRepository.find(2L)).thenReturn(partner2);
+  }
+
+  @Test
+  void addMove_sumsTheLinesAndUpdatesTheBalancesByAccountThenPartner() {
+    Move move =
+        createMove(
+            createMoveLine(account2, partner2, 10, 0),
+            createMoveLine(account1, partner2, 0, 30),
+            createMoveLine(account2, null, 0, 5),
+            createMoveLine(account1, partner1, 20, 0),
+            createMoveLine(account2, partner2, 5, 0));
+
+    accountBalanceService.addMove(move);
+
+    Assertions.assertEquals(
+        Arrays.asList("1/1 20/0", "1/2 0/30", "2/- 0/5", "2/2 15/0"),
+        accountBalanceService.addedAmountList);
+  }
+
+  @Test
+  void addMove_missingBalances_createdThenUpdated() {
+    accountBalanceService.addMove(
+        createMove(
+            createMoveLine(account1, partner1, 20, 0), createMoveLine(account2, null, 0, 20)));
+    accountBalanceService.addMove(
+        createMove(
+            createMoveLine(account1, partner1, 5, 0), createMoveLine(account2, null, 0, 5)));
+
+    Assertions.assertEquals(
+        Arrays.asList("1/1/1/3/false", "2/1//3/false"), accountBalanceService.createdKeyList);
+    assertAmounts(25, 0, accountBalanceService.balanceMap.get("1/1/1/3/false"));
+    assertAmounts(0, 25, accountBalanceService.balanceMap.get("2/1//3/false"));
+  }
+
+  @Test
+  void addMove_balanceCreatedByAConcurrentTransaction_amountsAddedOnce() {
+    // the other transaction created the balance after the update of this one found nothing
+    AccountBalanceServiceImpl concurrentService =
+        new TestableAccountBalanceService(
+            accountBalanceRepository, mock(AccountRepository.class), null, null) {
+          @Override
+          protected void createAccountBalanceInNewTransaction(
+              Company company,
+              Account account,
+              Partner partner,
+              Period period,
+              boolean autoYearClosureMove,
+              String balanceKey) {
+            accountBalanceService.balanceMap.put(balanceKey, createAmounts(10, 0));
+            super.createAccountBalanceInNewTransaction(
+                company, account, partner, period, autoYearClosureMove, balanceKey);
+          }
+
+          @Override
+          protected int updateAmounts(String balanceKey, BigDecimal debit, BigDecimal credit) {
+            return accountBalanceService.updateAmounts(balanceKey, debit, credit);
+          }
+        };
+
+    concurrentService.addMove(createMove(createMoveLine(account1, null, 20, 0)));
+
+    Assertions.assertEquals(1, accountBalanceService.balanceMap.size());
+    assertAmounts(30, 0, accountBalanceService.balanceMap.get("1/1//3/false"));
+  }
+
+  @Test
+  void rebuild_setsTheBalanceKey() {
+    accountBalanceService.moveLineAmountMap.put(
+        Arrays.asList(1L, null, true), createAmounts(0, 5));
+
+    accountBalanceService.rebuild(period);
+
+    ArgumentCaptor<AccountBalance> captor = ArgumentCaptor.forClass(AccountBalance.class);
+    verify(accountBalanceRepository).save(captor.capture());
+    Assertions.assertEquals("1/1//3/true", captor.getValue().getBalanceKey());
+  }
+
+  @Test
+  void addMove_notAccounted_ignored() {
+    Move move = createMove(createMoveLine(account1, partner1, 10, 0));
+    move.setStatusSelect(MoveRepository.STATUS_DAYBOOK);
+    accountBalanceService.addMove(move);
+
+    Move ignoredMove = createMove(createMoveLine(account1, partner1, 10, 0));
+    ignoredMove.setIgnoreInAccountingOk(true);
+    accountBalanceService.addMove(ignoredMove);
+
+    Assertions.assertTrue(accountBalanceService.addedAmountList.isEmpty());
+  }
+
+  @Test
+  void rebuild_replacesTheBalancesOfThePeriod() {
+    accountBalanceService.moveLineAmountMap.put(
+        Arrays.asList(1L, 2L, false), createAmounts(20, 30));
+    accountBalanceService.moveLineAmountMap.put(
+        Arrays.asList(2L, null, true), createAmounts(0, 5));
+
+    accountBalanceService.rebuild(period);
+
+    Assertions.assertTrue(accountBalanceService.deleted);
+    ArgumentCaptor<AccountBalance> captor = ArgumentCaptor.forClass(AccountBalance.class);
+    verify(accountBalanceRepository, times(2)).save(captor.capture());
+    AccountBalance accountBalance = captor.getAllValues().get(0);
+    Assertions.assertSame(company, accountBalance.getCompany());
+    Assertions.assertSame(account1, accountBalance.getAccount());
+    Assertions.assertSame(partner2, accountBalance.getPartner());
+    Assertions.assertSame(period, accountBalance.getPeriod());
+    Assertions.assertFalse(accountBalance.getAutoYearClosureMove());
+    Assertions.assertEquals(0, new BigDecimal(20).compareTo(accountBalance.getDebit()));
+    Assertions.assertEquals(0, new BigDecimal(30).compareTo(accountBalance.getCredit()));
+    accountBalance = captor.getAllValues().get(1);
+    Assertions.assertSame(account2, accountBalance.getAccount());
+    Assertions.assertNull(accountBalance.getPartner());
+    Assertions.assertTrue(accountBalance.getAutoYearClosureMove());
+  }
+
+  @Test
+  void checkConsistency_reportsTheDifferentAndMissingBalances() {
+    accountBalanceService.moveLineAmountMap.put(
+        Arrays.asList(1L, 1L, false), createAmounts(20, 0));
+    accountBalanceService.moveLineAmountMap.put(
+        Arrays.asList(1L, 2L, false), createAmounts(0, 30));
+    accountBalanceService.moveLineAmountMap.put(
+        Arrays.asList(2L, null, false), createAmounts(0, 5));
+    accountBalanceService.balanceAmountMap.put(
+        Arrays.asList(1L, 1L, false), createAmounts(20, 0));
+    accountBalanceService.balanceAmountMap.put(
+        Arrays.asList(1L, 2L, false), createAmounts(0, 25));
+    accountBalanceService.balanceAmountMap.put(
+        Arrays.asList(2L, 2L, true), createAmounts(5, 0));
+
+    Assertions.assertEquals(
+        Arrays.asList("1/2 0/25 0/30", "2/- 0/0 0/5", "2/2 5/0 0/0"),
+        accountBalanceService.checkConsistency(period));
+  }
+
+  @Test
+  void checkConsistency_consistentPeriod_noMessage() {
+    accountBalanceService.moveLineAmountMap.put(
+        Arrays.asList(1L, 1L, false), createAmounts(20, 0));
+    accountBalanceService.balanceAmountMap.put(
+        Arrays.asList(1L, 1L, false), new BigDecimal[] {new BigDecimal("20.00"), BigDecimal.ZERO});
+
+    Assertions.assertTrue(accountBalanceService.checkConsistency(period).isEmpty());
+  }
+
+  protected Move createMove(MoveLine... moveLines) {
+    Move move = new Move();
+    move.setStatusSelect(MoveRepository.STATUS_ACCOUNTED);
+    move.setCompany(company);
+    move.setPeriod(period);
+    move.setMoveLineList(new ArrayList<>(Arrays.asList(moveLines)));
+    return move;
+  }
+
+  protected MoveLine createMoveLine(Account account, Partner partner, int debit, int credit) {
+    MoveLine moveLine = new MoveLine();
+    moveLine.setAccount(account);
+    moveLine.setPartner(partner);
+    moveLine.setDebit(new BigDecimal(debit));
+    moveLine.setCredit(new BigDecimal(credit));
+    return moveLine;
+  }
+
+  @Test
+  void getAccountedBalance_balancesComputed_readsTheBalances() {
+    Year year = period.getYear();
+
+    Assertions.assertEquals(
+        BigDecimal.TEN, accountBalanceService.getAccountedBalance(account1, null, year));
+
+    Assertions.assertTrue(
+        accountBalanceService.sumQuery.contains("FROM AccountBalance self"),
+        accountBalanceService.sumQuery);
+    Assertions.assertTrue(accountBalanceService.sumQuery.contains("self.period.year = :year"));
+    Assertions.assertEquals(account1, accountBalanceService.sumParams.get("account"));
+  }
+
+  @Test
+  void getAccountedBalance_balancesNotComputed_sumsTheMoveLines() {
+    appAccount.setAccountBalancesOk(false);
+    Year year = period.getYear();
+
+    Assertions.assertEquals(
+        BigDecimal.TEN, accountBalanceService.getAccountedBalance(account1, null, year));
+
+    Assertions.assertTrue(
+        accountBalanceService.sumQuery.contains("FROM MoveLine self JOIN self.move move"),
+        accountBalanceService.sumQuery);
+    Assertions.assertTrue(accountBalanceService.sumQuery.contains("move.period.year = :year"));
+    Assertions.assertEquals(year, accountBalanceService.sumParams.get("year"));
+  }
+
+  @Test
+  void getClosureBalance_balancesNotComputed_sumsTheMoveLinesWithoutClosureMoves() {
+    appAccount.setAccountBalancesOk(false);
+    account1.setUseForPartnerBalance(true);
+
+    accountBalanceService.getClosureBalance(period.getYear(), account1, partner1, true);
+
+    Assertions.assertTrue(
+        accountBalanceService.sumQuery.contains("FROM MoveLine self JOIN self.move move"),
+        accountBalanceService.sumQuery);
+    Assertions.assertTrue(
+        accountBalanceService.sumQuery.contains("move.autoYearClosureMove IS NOT TRUE"));
+    Assertions.assertEquals(partner1, accountBalanceService.sumParams.get("partner"));
+  }
+
+  protected void assertAmounts(int debit, int credit, BigDecimal[] amounts) {
+    Assertions.assertEquals(0, new BigDecimal(debit).compareTo(amounts[0]));
+    Assertions.assertEquals(0, new BigDecimal(credit).compareTo(amounts[1]));
+  }
+
+  protected BigDecimal[] createAmounts(int debit, int credit) {
+    return new BigDecimal[] {new BigDecimal(debit), new BigDecimal(credit)};
+  }
+
+  protected Account createAccount(Long id) {
+    Account account = new Account();
+    account.setId(id);
+    return account;
+  }
+
+  protected Partner createPartner(Long id) {
+    Partner partner = new Partner();
+    partner.setId(id);
+    return partner;
+  }
+
+  /** Records the balance updates and keeps the balances and the sums in maps. */
+  private static class TestableAccountBalanceService extends AccountBalanceServiceImpl {
+
+    protected final List<String> addedAmountList = new ArrayList<>();
+    protected final List<String> createdKeyList = new ArrayList<>();
+    protected final Map<String, BigDecimal[]> balanceMap = new LinkedHashMap<>();
+    protected final Map<List<Object>, BigDecimal[]> moveLineAmountMap = new LinkedHashMap<>();
+    protected final Map<List<Object>, BigDecimal[]> balanceAmountMap = new LinkedHashMap<>();
+    protected boolean deleted;
+
+    protected String sumQuery;
+    protected Map<String, Object> sumParams;
+
+    TestableAccountBalanceService(
+        AccountBalanceRepository accountBalanceRepository,
+        AccountRepository accountRepository,
+        PartnerRepository partnerRepository,
+        AppAccountService appAccountService) {
+      super(accountBalanceRepository, accountRepository, partnerRepository, appAccountService);
+    }
+
+    @Override
+    protected BigDecimal getSum(String queryString, Map<String, Object> params) {
+      sumQuery = queryString;
+      sumParams = params;
+      return BigDecimal.TEN;
+    }
+
+    @Override
+    protected void addAmounts(
+        Company company,
+        Account account,
+        Partner partner,
+        Period period,
+        boolean autoYearClosureMove,
+        BigDecimal debit,
+        BigDecimal credit) {
+      addedAmountList.add(
+          String.format(
+              "%s/%s %s/%s",
+              account.getId(), partner != null ? partner.getId() : "-", debit, credit));
+      super.addAmounts(company, account, partner, period, autoYearClosureMove, debit, credit);
+    }
+
+    @Override
+    protected int updateAmounts(String balanceKey, BigDecimal debit, BigDecimal credit) {
+      BigDecimal[] amounts = balanceMap.get(balanceKey);
+      if (amounts == null) {
+        return 0;
+      }
+      amounts[0] = amounts[0].add(debit);
+      amounts[1] = amounts[1].add(credit);
+      return 1;
+    }
+
+    @Override
+    protected void createAccountBalanceInNewTransaction(
+        Company company,
+        Account account,
+        Partner partner,
+        Period period,
+        boolean autoYearClosureMove,
+        String balanceKey) {
+      createdKeyList.add(balanceKey);
+      // a balance created meanwhile by another transaction is kept as it is
+      balanceMap.putIfAbsent(balanceKey, new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+    }
+
+    @Override
+    protected void deleteBalances(Period period) {
+      deleted = true;
+    }
+
+    @Override
+    protected Map<List<Object>, BigDecimal[]> getMoveLineAmountMap(Period period) {
+      return moveLineAmountMap;
+    }
+
+    @Override
+    protected Map<List<Object>, BigDecimal[]> getAmountMap(String queryString, Period period) {
+      return balanceAmountMap;
+    }
+
+    @Override
+    protected String getInconsistencyMessage(
+        List<Object> key, Period period, BigDecimal[] stored, BigDecimal[] expected) {
+      return String.format(
+          "%s/%s %s/%s %s/%s",
+          key.get(0),
+          key.get(1) != null ? key.get(1) : "-",
+          stored[0],
+          stored[1],
+          expected[0],
+          expected[1]);
+    }
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.account.service.fecimport;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.account.db.Account;
+import com.axelor.apps.account.db.FECImport;
+import com.axelor.apps.account.db.Move;
+import com.axelor.apps.account.db.MoveLine;
+import com.axelor.apps.account.db.ReconcileGroup;
+import com.axelor.apps.account.db.repo.ReconcileGroupRepository;
+import com.axelor.apps.account.service.move.MoveValidateService;
+import com.axelor.apps.account.service.moveline.MoveLineToolService;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.common.csv.CSVFile;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.persistence.PersistenceException;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestFECBulkImportService {
+
+  private static final String HEADER =
+      "JournalCode|EcritureNum|CompteNum|Debit|Credit|EcritureLet|DateLet\n";
+
+  @TempDir Path tempDir;
+
+  private TestableFECBulkImportService fecBulkImportService;
+  private ReconcileGroupRepository reconcileGroupRepository;
+  private MoveValidateService moveValidateService;
+
+  @BeforeEach
+  void prepare() {
+    reconcileGroupRepository = mock(ReconcileGroupRepository.class);
+    moveValidateService = mock(MoveValidateService.class);
+    fecBulkImportService =
+        new TestableFECBulkImportService(
+            reconcileGroupRepository, mock(MoveLineToolService.class), moveValidateService);
+  }
+
+  @Test
+  void importFile_groupsConsecutiveLinesByJournalAndMoveNumber() throws Exception {
+    fecBulkImportService.chunkRecorded = true;
+
+    fecBulkImportService.importFile(
+        writeFile(
+            HEADER
+                + "VT|1|411|10||\n"
+                + "VT|1|706||10||\n"
+                + "VT|2|411|5||\n"
+                + "VT|2|706||5||\n"
+                + "AC|2|607|7||\n"
+                + "AC|2|401||7||\n"
+                + "VT||411|1||\n"
+                + "VT|1|411|3||\n"
+                + "VT|1|706||3||\n"
+                + "VT|3|411|2||\n"
+                + "VT|3|706||2||\n"),
+        null);
+
+    Assertions.assertEquals(
+        Collections.singletonList(Arrays.asList("VT/1:2", "VT/2:2", "AC/2:2", "VT/3:2")),
+        fecBulkImportService.chunkList);
+    Assertions.assertEquals(
+        Collections.singletonList("1"), new ArrayList<>(fecBulkImportService.anomalyMap.keySet()));
+  }
+
+  @Test
+  void importFile_importsTheMovesByChunks() throws Exception {
+    fecBulkImportService.chunkRecorded = true;
+    StringBuilder content = new StringBuilder(HEADER);
+    for (int i = 1; i <= 205; i++) {
+      content.append(String.format("VT|%d|411|0||%n", i));
+    }
+
+    fecBulkImportService.importFile(writeFile(content.toString()), null);
+
+    Assertions.assertEquals(
+        Arrays.asList(100, 100, 5),
+        fecBulkImportService.chunkList.stream().map(List::size).collect(Collectors.toList()));
+    Assertions.assertEquals("VT/101:1", fecBulkImportService.chunkList.get(1).get(0));
+  }
+
+  @Test
+  void checkBalance_balancedMove() throws Exception {
+    fecBulkImportService.checkBalance(
+        parseRecords(HEADER + "VT|1|411|10,50||\n" + "VT|1|706||10.5||\n" + "VT|1|445|||\n"));
+  }
+
+  @Test
+  void checkBalance_unbalancedMove_rejected() throws Exception {
+    List<CSVRecord> recordList = parseRecords(HEADER + "VT|1|411|10||\n" + "VT|1|706||9.99||\n");
+
+    Assertions.assertThrows(
+        AxelorException.class, () -> fecBulkImportService.checkBalance(recordList));
+  }
+
+  @Test
+  void importMoves_committedChunk_savedOnce() throws Exception {
+    fecBulkImportService.importMoves(createMoveRecordList("1", "2", "3"));
+
+    Assertions.assertEquals(
+        Collections.singletonList(Arrays.asList("1", "2", "3")),
+        fecBulkImportService.transactionList);
+    Assertions.assertEquals(Arrays.asList(1L, 2L, 3L), fecBulkImportService.importedMoveIdList);
+    Assertions.assertTrue(fecBulkImportService.anomalyMap.isEmpty());
+  }
+
+  @Test
+  void importMoves_failedChunk_savesTheMovesOneByOne() throws Exception {
+    fecBulkImportService.failingReference = "2";
+
+    fecBulkImportService.importMoves(createMoveRecordList("1", "2", "3"));
+
+    Assertions.assertEquals(
+        Arrays.asList(
+            Arrays.asList("1", "2", "3"),
+            Collections.singletonList("1"),
+            Collections.singletonList("2"),
+            Collections.singletonList("3")),
+        fecBulkImportService.transactionList);
+    Assertions.assertEquals(Arrays.asList(1L, 2L), fecBulkImportService.importedMoveIdList);
+    Assertions.assertEquals(
+        Collections.singletonList("2"), new ArrayList<>(fecBulkImportService.anomalyMap.keySet()));
+    Assertions.assertTrue(
+        fecBulkImportService.anomalyMap.get("2") instanceof IllegalStateException);
+  }
+
+  @Test
+  void accountImportedMoves_tracesEachMoveNotAccounted() {
+    fecBulkImportService.importedMoveIdList.addAll(Arrays.asList(1L, 2L, 3L));
+    when(moveValidateService.accountingMultipleMoves(Arrays.asList(1L, 2L, 3L)))
+        .thenReturn(Arrays.asList("VT-2", "VT-3"));
+
+    int notAccountedCount = fecBulkImportService.accountImportedMoves(new FECImport());
+
+    Assertions.assertEquals(2, notAccountedCount);
+    Assertions.assertEquals(
+        Arrays.asList("VT-2", "VT-3"), fecBulkImportService.notAccountedReferenceList);
+  }
+
+  @Test
+  void createMoveLine_letteredOnlyWithCodeAndDate() throws Exception {
+    List<CSVRecord> recordList =
+        parseRecords(
+            HEADER + "VT|1|411|10|0|AA|20250115\n" + "VT|1|411|0|5|BB|\n" + "VT|1|706|0|5||\n");
+    Move move = new Move();
+    move.setCompany(new Company());
+    Map<String, ReconcileGroup> reconcileGroupMap = new HashMap<>();
+
+    List<MoveLine> moveLineList = new ArrayList<>();
+    for (int i = 0; i < recordList.size(); i++) {
+      moveLineList.add(
+          fecBulkImportService.createMoveLine(
+              move, recordList.get(i), new Account(), i + 1, new HashMap<>(), reconcileGroupMap));
+    }
+
+    ReconcileGroup reconcileGroup = moveLineList.get(0).getReconcileGroup();
+    Assertions.assertNotNull(reconcileGroup);
+    Assertions.assertEquals("AA", reconcileGroup.getCode());
+    Assertions.assertEquals(
+        "2025-01-15T12:00", reconcileGroup.getLetteringDateTime().toString());
+    Assertions.assertNull(moveLineList.get(1).getReconcileGroup());
+    Assertions.assertNull(moveLineList.get(2).getReconcileGroup());
+    Assertions.assertEquals(Collections.singleton("AA"), reconcileGroupMap.keySet());
+    // the group is only saved with its move
+    verifyNoInteractions(reconcileGroupRepository);
+  }
+
+  protected Path writeFile(String content) throws IOException {
+    return Files.write(
+        Files.createTempFile(tempDir, "FEC", ".txt"), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  protected List<CSVRecord> parseRecords(String content) throws IOException {
+    try (CSVParser csvParser =
+        CSVFile.DEFAULT
+            .withDelimiter('|')
+            .withFirstRecordAsHeader()
+            .parse(writeFile(content).toFile(), StandardCharsets.UTF_8)) {
+      return csvParser.getRecords();
+    }
+  }
+
+  protected List<List<CSVRecord>> createMoveRecordList(String... references) throws IOException {
+    StringBuilder content = new StringBuilder(HEADER);
+    for (String reference : references) {
+      content.append(String.format("VT|%s|411|0||%n", reference));
+    }
+    return parseRecords(content.toString()).stream()
+        .map(Collections::singletonList)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Records the chunks, the transactions, the anomalies and the moves not accounted instead of
+   * saving and tracing them. A transaction holding the failing reference fails as it would at
+   * commit.
+   */
+  private static class TestableFECBulkImportService extends FECBulkImportServiceImpl {
+
+    protected final List<List<String>> chunkList = new ArrayList<>();
+    protected final List<List<String>> transactionList = new ArrayList<>();
+    protected final Map<String, Exception> anomalyMap = new LinkedHashMap<>();
+    protected boolean chunkRecorded;
+    protected String failingReference;
+    protected final List<String> notAccountedReferenceList = new ArrayList<>();
+    protected long nextMoveId = 1;
+
+    TestableFECBulkImportService(
+        ReconcileGroupRepository reconcileGroupRepository,
+        MoveLineToolService moveLineToolService,
+        MoveValidateService moveValidateService) {
+      super(
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          reconcileGroupRepository,
+          moveLineToolService,
+          moveValidateService);
+      resetImportState();
+    }
+
+    @Override
+    protected void importMoves(List<List<CSVRecord>> moveRecordList) {
+      if (!chunkRecorded) {
+        super.importMoves(moveRecordList);
+        return;
+      }
+      if (!moveRecordList.isEmpty()) {
+        chunkList.add(
+            moveRecordList.stream()
+                .map(
+                    recordList -> {
+                      List<String> moveKey = getMoveKey(recordList.get(0));
+                      return String.format(
+                          "%s/%s:%d", moveKey.get(0), moveKey.get(1), recordList.size());
+                    })
+                .collect(Collectors.toList()));
+      }
+    }
+
+    @Override
+    protected void saveMovesInTransaction(
+        List<List<CSVRecord>> moveRecordList,
+        List<Long> moveIdList,
+        Map<String, Exception> anomalyMap) {
+      List<String> referenceList =
+          moveRecordList.stream()
+              .map(recordList -> getValue(recordList.get(0), "EcritureNum"))
+              .collect(Collectors.toList());
+      transactionList.add(referenceList);
+      if (referenceList.contains(failingReference)) {
+        throw new PersistenceException(
+            "Transaction rolled back", new IllegalStateException("Duplicate reference"));
+      }
+      referenceList.forEach(reference -> moveIdList.add(nextMoveId++));
+    }
+
+    @Override
+    protected void traceMoveNotAccounted(FECImport fecImport, String reference) {
+      notAccountedReferenceList.add(reference);
+    }
+
+    @Override
+    protected void traceAnomaly(String reference, Exception e) {
+      anomalyCount++;
+      anomalyMap.put(reference, e);
+    }
+  }
+}
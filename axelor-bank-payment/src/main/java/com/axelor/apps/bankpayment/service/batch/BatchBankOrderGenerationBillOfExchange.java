@@ -171,7 +171,7 @@ public class BatchBankOrderGenerationBillOfExchange extends AbstractBatch {
           break;
         }
       }
-      JPA.clear();
+      clear();
     }
     return invoicePaymentIdList;
   }
@@ -42,7 +42,6 @@ import com.axelor.apps.base.db.BankDetails;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.common.collect.Lists;
@@ -134,8 +133,7 @@ public class BatchBillOfExchange extends BatchStrategy {
           break;
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
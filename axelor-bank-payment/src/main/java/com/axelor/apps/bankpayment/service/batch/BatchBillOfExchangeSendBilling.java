@@ -42,7 +42,6 @@ import com.axelor.apps.base.service.administration.AbstractBatch;
 import com.axelor.apps.base.service.administration.SequenceService;
 import com.axelor.apps.base.service.exception.TraceBackService;
 import com.axelor.common.StringUtils;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.message.db.Message;
@@ -130,8 +129,7 @@ public class BatchBillOfExchangeSendBilling extends AbstractBatch {
     while (!(invoicesList = query.fetch(getFetchLimit(), offSet)).isEmpty()) {
       sortInvoicesPerPartner(invoicesList, mapPartnerInvoices);
       offSet += getFetchLimit();
-      JPA.clear();
-      findBatch();
+      clear();
     }
 
     try {
@@ -140,7 +138,7 @@ public class BatchBillOfExchangeSendBilling extends AbstractBatch {
           .forEach(
               partner -> {
                 generateNoteBillsAndSend(partner);
-                JPA.clear();
+                clear();
               });
     } catch (Exception e) {
       incrementAnomaly();
@@ -163,7 +161,7 @@ public class BatchBillOfExchangeSendBilling extends AbstractBatch {
       addBatchSet(batch, invoice);
       counter++;
       if (counter % getFetchLimit() == 0) {
-        JPA.clear();
+        clear();
       }
     }
 
@@ -179,7 +179,7 @@ public class BatchDirectDebitCustomerInvoice extends BatchDirectDebit {
         }
       }
 
-      JPA.clear();
+      clear();
     }
 
     return doneList;
@@ -43,7 +43,6 @@ import com.axelor.apps.base.db.repo.BlockingRepository;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
@@ -246,7 +245,7 @@ public class BatchDirectDebitPaymentSchedule extends BatchDirectDebit {
         }
       }
 
-      JPA.clear();
+      clear();
     }
   }
 
@@ -0,0 +1,46 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.db.repo;
+
+import com.axelor.apps.base.db.PricingRule;
+import com.axelor.apps.base.service.pricing.PricingRuleScriptService;
+import com.axelor.apps.base.utils.TransactionTools;
+import com.google.inject.Inject;
+
+public class PricingRuleBaseRepository extends PricingRuleRepository {
+
+  protected PricingRuleScriptService pricingRuleScriptService;
+
+  @Inject
+  public PricingRuleBaseRepository(PricingRuleScriptService pricingRuleScriptService) {
+    this.pricingRuleScriptService = pricingRuleScriptService;
+  }
+
+  @Override
+  public PricingRule save(PricingRule pricingRule) {
+    TransactionTools.runAfterCommit(() -> pricingRuleScriptService.invalidate(pricingRule));
+    return super.save(pricingRule);
+  }
+
+  @Override
+  public void remove(PricingRule pricingRule) {
+    TransactionTools.runAfterCommit(() -> pricingRuleScriptService.invalidate(pricingRule));
+    super.remove(pricingRule);
+  }
+}
@@ -19,9 +19,24 @@
 package com.axelor.apps.base.db.repo;
 
 import com.axelor.apps.base.db.Sequence;
+import com.axelor.apps.base.service.administration.SequenceBlockReservationService;
+import com.google.inject.Inject;
 
 public class SequenceBaseRepository extends SequenceRepository {
 
+  protected SequenceBlockReservationService sequenceBlockReservationService;
+
+  @Inject
+  public SequenceBaseRepository(SequenceBlockReservationService sequenceBlockReservationService) {
+    this.sequenceBlockReservationService = sequenceBlockReservationService;
+  }
+
+  @Override
+  public Sequence save(Sequence sequence) {
+    sequenceBlockReservationService.invalidate(sequence);
+    return super.save(sequence);
+  }
+
   @Override
   public Sequence copy(Sequence sequence, boolean deep) {
 
@@ -40,6 +40,12 @@ public final class BaseExceptionMessage {
   public static final String SEQUENCE_PREFIX = /*$$(*/
       "Sequence prefix cannot start with the draft prefix '%s'." /*)*/;
 
+  public static final String SEQUENCE_RESERVED_BLOCK_NOT_ALLOWED = /*$$(*/
+      "Numbers cannot be reserved by block for this document, as its sequence must not contain gaps." /*)*/;
+
+  public static final String SEQUENCE_BLOCK_RESERVATION_FAILED = /*$$(*/
+      "Unable to reserve a new block of numbers for the sequence." /*)*/;
+
   public static final String CURRENCY_2 = /*$$(*/
       "The currency exchange rate from '%s' to '%s' for date %s must be different from zero." /*)*/;
   public static final String CURRENCY_3 = /*$$(*/
@@ -455,6 +461,17 @@ public final class BaseExceptionMessage {
       "Action does not exists or invalid for the object(%s)" /*)*/;
   public static final String ADVANCED_IMPORT_LOG_11 = /*$$(*/
       "Invalid Search call for the object(%s)" /*)*/;
+  public static final String ADVANCED_IMPORT_LOG_12 = /*$$(*/
+      "Bulk import is only possible for the object(%s) when it creates new records without actions, from simple fields or references searched on one field" /*)*/;
+  public static final String ADVANCED_IMPORT_BULK_CHUNK_ERROR = /*$$(*/
+      "Bulk import of the object(%s), records %s to %s: %s record(s) not imported" /*)*/;
+  public static final String ADVANCED_IMPORT_BULK_RECORD_ERROR = /*$$(*/ "Record %s: %s" /*)*/;
+  public static final String ADVANCED_IMPORT_BULK_MISSING_VALUE = /*$$(*/
+      "Missing data for the required field %s" /*)*/;
+  public static final String ADVANCED_IMPORT_BULK_INVALID_VALUE = /*$$(*/
+      "Invalid data for the field %s: %s" /*)*/;
+  public static final String ADVANCED_IMPORT_BULK_REFERENCE_NOT_FOUND = /*$$(*/
+      "No record found for the field %s with the value %s" /*)*/;
   public static final String ADVANCED_IMPORT_RESET = /*$$(*/
       "Reset imported data successfully" /*)*/;
   public static final String ADVANCED_IMPORT_NO_RESET = /*$$(*/ "No imported data to reset" /*)*/;
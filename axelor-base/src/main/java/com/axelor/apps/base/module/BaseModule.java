@@ -55,6 +55,8 @@ import com.axelor.apps.base.db.repo.MailingListMessageRepository;
 import com.axelor.apps.base.db.repo.PartnerAddressRepository;
 import com.axelor.apps.base.db.repo.PartnerBaseRepository;
 import com.axelor.apps.base.db.repo.PartnerRepository;
+import com.axelor.apps.base.db.repo.PricingRuleBaseRepository;
+import com.axelor.apps.base.db.repo.PricingRuleRepository;
 import com.axelor.apps.base.db.repo.ProductBaseRepository;
 import com.axelor.apps.base.db.repo.ProductRepository;
 import com.axelor.apps.base.db.repo.SequenceBaseRepository;
@@ -150,6 +152,8 @@ import com.axelor.apps.base.service.ProductCategoryDomainCreatorService;
 import com.axelor.apps.base.service.ProductCategoryDomainCreatorServiceImpl;
 import com.axelor.apps.base.service.ProductCategoryService;
 import com.axelor.apps.base.service.ProductCategoryServiceImpl;
+import com.axelor.apps.base.service.ProductCompanyFieldCacheService;
+import com.axelor.apps.base.service.ProductCompanyFieldCacheServiceImpl;
 import com.axelor.apps.base.service.ProductCompanyService;
 import com.axelor.apps.base.service.ProductCompanyServiceImpl;
 import com.axelor.apps.base.service.ProductConversionService;
@@ -172,6 +176,8 @@ import com.axelor.apps.base.service.TeamTaskService;
 import com.axelor.apps.base.service.TeamTaskServiceImpl;
 import com.axelor.apps.base.service.TradingNameService;
 import com.axelor.apps.base.service.TradingNameServiceImpl;
+import com.axelor.apps.base.service.UnitConversionCacheService;
+import com.axelor.apps.base.service.UnitConversionCacheServiceImpl;
 import com.axelor.apps.base.service.UnitConversionService;
 import com.axelor.apps.base.service.UnitConversionServiceImpl;
 import com.axelor.apps.base.service.YearService;
@@ -194,6 +200,8 @@ import com.axelor.apps.base.service.address.CityService;
 import com.axelor.apps.base.service.address.CityServiceImpl;
 import com.axelor.apps.base.service.address.CountryService;
 import com.axelor.apps.base.service.address.CountryServiceImpl;
+import com.axelor.apps.base.service.administration.SequenceBlockReservationService;
+import com.axelor.apps.base.service.administration.SequenceBlockReservationServiceImpl;
 import com.axelor.apps.base.service.administration.SequenceVersionGeneratorQueryService;
 import com.axelor.apps.base.service.administration.SequenceVersionGeneratorQueryServiceImpl;
 import com.axelor.apps.base.service.administration.SequenceVersionGeneratorService;
@@ -202,6 +210,8 @@ import com.axelor.apps.base.service.advanced.imports.ActionService;
 import com.axelor.apps.base.service.advanced.imports.ActionServiceImpl;
 import com.axelor.apps.base.service.advanced.imports.AdvancedImportService;
 import com.axelor.apps.base.service.advanced.imports.AdvancedImportServiceImpl;
+import com.axelor.apps.base.service.advanced.imports.DataImportBulkService;
+import com.axelor.apps.base.service.advanced.imports.DataImportBulkServiceImpl;
 import com.axelor.apps.base.service.advanced.imports.DataImportService;
 import com.axelor.apps.base.service.advanced.imports.DataImportServiceImpl;
 import com.axelor.apps.base.service.advanced.imports.FileFieldService;
@@ -224,6 +234,8 @@ import com.axelor.apps.base.service.connectormapper.ConnectorMapperManagementSer
 import com.axelor.apps.base.service.connectormapper.ConnectorMapperManagementServiceImpl;
 import com.axelor.apps.base.service.connectormapper.ConnectorMapperReferenceService;
 import com.axelor.apps.base.service.connectormapper.ConnectorMapperReferenceServiceImpl;
+import com.axelor.apps.base.service.currency.CurrencyRateTableService;
+import com.axelor.apps.base.service.currency.CurrencyRateTableServiceImpl;
 import com.axelor.apps.base.service.dayplanning.DayPlanningService;
 import com.axelor.apps.base.service.dayplanning.DayPlanningServiceImpl;
 import com.axelor.apps.base.service.filesourceconnector.FileSourceConnectorService;
@@ -273,6 +285,8 @@ import com.axelor.apps.base.service.pricing.PricingMetaService;
 import com.axelor.apps.base.service.pricing.PricingMetaServiceImpl;
 import com.axelor.apps.base.service.pricing.PricingObserver;
 import com.axelor.apps.base.service.pricing.PricingObserverImpl;
+import com.axelor.apps.base.service.pricing.PricingRuleScriptService;
+import com.axelor.apps.base.service.pricing.PricingRuleScriptServiceImpl;
 import com.axelor.apps.base.service.pricing.PricingService;
 import com.axelor.apps.base.service.pricing.PricingServiceImpl;
 import com.axelor.apps.base.service.print.PrintHtmlGenerationService;
@@ -317,6 +331,8 @@ import com.axelor.apps.base.tracking.ExportObserver;
 import com.axelor.apps.base.tracking.GlobalAuditInterceptor;
 import com.axelor.apps.base.tracking.GlobalTrackingLogService;
 import com.axelor.apps.base.tracking.GlobalTrackingLogServiceImpl;
+import com.axelor.apps.base.tracking.GlobalTrackingLogWriter;
+import com.axelor.apps.base.tracking.GlobalTrackingLogWriterImpl;
 import com.axelor.auth.db.repo.UserRepository;
 import com.axelor.auth.pac4j.AuthPac4jUserService;
 import com.axelor.auth.service.PermissionService;
@@ -430,6 +446,7 @@ public class BaseModule extends AxelorModule {
     bind(DMSImportWizardService.class).to(DMSImportWizardServiceImpl.class);
     bind(AdvancedImportService.class).to(AdvancedImportServiceImpl.class);
     bind(DataImportService.class).to(DataImportServiceImpl.class);
+    bind(DataImportBulkService.class).to(DataImportBulkServiceImpl.class);
     bind(FileTabService.class).to(FileTabServiceImpl.class);
     bind(FileFieldService.class).to(FileFieldServiceImpl.class);
     bind(ActionService.class).to(ActionServiceImpl.class);
@@ -439,6 +456,7 @@ public class BaseModule extends AxelorModule {
     bind(SearchCallService.class).to(SearchCallServiceImpl.class);
     bind(ProductCategoryService.class).to(ProductCategoryServiceImpl.class);
     bind(GlobalTrackingLogService.class).to(GlobalTrackingLogServiceImpl.class);
+    bind(GlobalTrackingLogWriter.class).to(GlobalTrackingLogWriterImpl.class);
     if (AppSettings.get()
         .get("hibernate.session_factory.interceptor", "")
         .equals(GlobalAuditInterceptor.class.getName())) {
@@ -464,6 +482,7 @@ public class BaseModule extends AxelorModule {
     bind(PricedOrderDomainService.class).to(PricedOrderDomainServiceImpl.class);
     bind(InternationalService.class).to(InternationalServiceImpl.class);
     bind(SequenceVersionGeneratorService.class).to(SequenceVersionGeneratorServiceImpl.class);
+    bind(SequenceBlockReservationService.class).to(SequenceBlockReservationServiceImpl.class);
     bind(SequenceVersionGeneratorQueryService.class)
         .to(SequenceVersionGeneratorQueryServiceImpl.class);
     bind(TranslationRestService.class).to(TranslationRestServiceImpl.class);
@@ -494,6 +513,7 @@ public class BaseModule extends AxelorModule {
     bind(TaxEquivService.class).to(TaxEquivServiceImpl.class);
     bind(OrderLineTaxService.class).to(OrderLineTaxServiceImpl.class);
     bind(CurrencyService.class).to(CurrencyServiceImpl.class);
+    bind(CurrencyRateTableService.class).to(CurrencyRateTableServiceImpl.class);
     bind(CurrencyScaleService.class).to(CurrencyScaleServiceImpl.class);
     bind(PricingMetaService.class).to(PricingMetaServiceImpl.class);
     bind(LanguageService.class).to(LanguageServiceImpl.class);
@@ -545,5 +565,9 @@ public class BaseModule extends AxelorModule {
     bind(PartnerRestService.class).to(PartnerRestServiceImpl.class);
     bind(ProductPriceListService.class).to(ProductPriceListServiceImpl.class);
     bind(AlternativeBarcodeService.class).to(AlternativeBarcodeServiceImpl.class);
+    bind(PricingRuleScriptService.class).to(PricingRuleScriptServiceImpl.class);
+    bind(PricingRuleRepository.class).to(PricingRuleBaseRepository.class);
+    bind(UnitConversionCacheService.class).to(UnitConversionCacheServiceImpl.class);
+    bind(ProductCompanyFieldCacheService.class).to(ProductCompanyFieldCacheServiceImpl.class);
   }
 }
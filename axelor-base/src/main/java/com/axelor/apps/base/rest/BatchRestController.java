@@ -0,0 +1,78 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.rest;
+
+import com.axelor.apps.base.db.Batch;
+import com.axelor.apps.base.rest.dto.BatchMetricsResponse;
+import com.axelor.apps.base.service.administration.BatchTelemetry;
+import com.axelor.utils.api.HttpExceptionHandler;
+import com.axelor.utils.api.ObjectFinder;
+import com.axelor.utils.api.ResponseConstructor;
+import com.axelor.utils.api.SecurityCheck;
+import io.swagger.v3.oas.annotations.Operation;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+@Path("/aos/batch")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class BatchRestController {
+
+  @Operation(
+      summary = "Get the metrics of the running batches",
+      tags = {"Batch"})
+  @Path("/metrics")
+  @GET
+  @HttpExceptionHandler
+  public Response getRunningBatchMetrics() {
+    new SecurityCheck().readAccess(Batch.class).check();
+
+    List<BatchMetricsResponse> metricsList =
+        BatchTelemetry.getRunningTelemetries().stream()
+            .map(BatchMetricsResponse::new)
+            .collect(Collectors.toList());
+
+    return ResponseConstructor.build(Response.Status.OK, metricsList);
+  }
+
+  @Operation(
+      summary = "Get the metrics of a batch",
+      tags = {"Batch"})
+  @Path("/{batchId}/metrics")
+  @GET
+  @HttpExceptionHandler
+  public Response getBatchMetrics(@PathParam("batchId") Long batchId) {
+    new SecurityCheck().readAccess(Batch.class, batchId).check();
+
+    BatchTelemetry telemetry = BatchTelemetry.get(batchId);
+    if (telemetry != null) {
+      return ResponseConstructor.build(Response.Status.OK, new BatchMetricsResponse(telemetry));
+    }
+
+    Batch batch = ObjectFinder.find(Batch.class, batchId, ObjectFinder.NO_VERSION);
+    return ResponseConstructor.build(Response.Status.OK, new BatchMetricsResponse(batch));
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.rest.dto;
+
+import com.axelor.apps.base.db.Batch;
+import com.axelor.apps.base.service.administration.BatchTelemetry;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+public class BatchMetricsResponse {
+
+  private final Long batchId;
+  private final boolean running;
+  private final Long duration;
+  private final Long itemCount;
+  private final BigDecimal itemsPerSecond;
+  private final Long statementCount;
+  private final Long flushCount;
+  private final Long flushDuration;
+  private final Long clearCount;
+  private final Long clearDuration;
+  private final Map<String, Long> phaseDurations;
+
+  public BatchMetricsResponse(BatchTelemetry telemetry) {
+    this.batchId = telemetry.getBatchId();
+    this.running = !telemetry.isFinished();
+    this.duration = telemetry.getElapsedMillis();
+    this.itemCount = telemetry.getItemCount();
+    this.itemsPerSecond = telemetry.getItemsPerSecond();
+    this.statementCount = telemetry.getStatementCount();
+    this.flushCount = telemetry.getFlushCount();
+    this.flushDuration = telemetry.getFlushMillis();
+    this.clearCount = telemetry.getClearCount();
+    this.clearDuration = telemetry.getClearMillis();
+    this.phaseDurations = telemetry.getPhaseMillis();
+  }
+
+  /** Metrics of a finished batch, from the summary stored on the batch. */
+  public BatchMetricsResponse(Batch batch) {
+    this.batchId = batch.getId();
+    this.running = false;
+    this.duration = batch.getDuration() != null ? batch.getDuration() * 1000 : null;
+    this.itemCount = (long) batch.getDone() + batch.getAnomaly();
+    this.itemsPerSecond = batch.getItemsPerSecond();
+    this.statementCount = batch.getStatementCount();
+    this.flushCount = null;
+    this.flushDuration = batch.getFlushDuration();
+    this.clearCount = null;
+    this.clearDuration = batch.getClearDuration();
+    this.phaseDurations = Collections.emptyMap();
+  }
+
+  public Long getBatchId() {
+    return batchId;
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  public Long getDuration() {
+    return duration;
+  }
+
+  public Long getItemCount() {
+    return itemCount;
+  }
+
+  public BigDecimal getItemsPerSecond() {
+    return itemsPerSecond;
+  }
+
+  public Long getStatementCount() {
+    return statementCount;
+  }
+
+  public Long getFlushCount() {
+    return flushCount;
+  }
+
+  public Long getFlushDuration() {
+    return flushDuration;
+  }
+
+  public Long getClearCount() {
+    return clearCount;
+  }
+
+  public Long getClearDuration() {
+    return clearDuration;
+  }
+
+  public Map<String, Long> getPhaseDurations() {
+    return phaseDurations;
+  }
+}
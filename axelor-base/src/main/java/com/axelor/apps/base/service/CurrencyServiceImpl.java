@@ -25,6 +25,8 @@ import com.axelor.apps.base.db.repo.CurrencyConversionLineRepository;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.base.service.currency.CurrencyRateTableService;
+import com.axelor.apps.base.service.currency.CurrencyRateTableService.Rate;
 import com.axelor.auth.AuthUtils;
 import com.axelor.auth.db.User;
 import com.axelor.i18n.I18n;
@@ -47,13 +49,17 @@ public class CurrencyServiceImpl implements CurrencyService {
 
   protected AppBaseService appBaseService;
   protected CurrencyConversionLineRepository currencyConversionLineRepo;
+  protected CurrencyRateTableService currencyRateTableService;
 
   @Inject
   public CurrencyServiceImpl(
-      AppBaseService appBaseService, CurrencyConversionLineRepository currencyConversionLineRepo) {
+      AppBaseService appBaseService,
+      CurrencyConversionLineRepository currencyConversionLineRepo,
+      CurrencyRateTableService currencyRateTableService) {
 
     this.appBaseService = appBaseService;
     this.currencyConversionLineRepo = currencyConversionLineRepo;
+    this.currencyRateTableService = currencyRateTableService;
   }
 
   @CallMethod
@@ -83,17 +89,15 @@ public class CurrencyServiceImpl implements CurrencyService {
       boolean isInverse = true;
       BigDecimal exchangeRate = null;
 
-      CurrencyConversionLine currencyConversionLine =
-          this.getCurrencyConversionLine(startCurrency, endCurrency, dateToConvert);
-      if (currencyConversionLine != null) {
-        exchangeRate = currencyConversionLine.getExchangeRate();
+      Rate rate = this.getCurrencyRate(startCurrency, endCurrency, dateToConvert);
+      if (rate != null) {
+        exchangeRate = rate.getExchangeRate();
         isInverse = false;
 
       } else {
-        currencyConversionLine =
-            this.getCurrencyConversionLine(endCurrency, startCurrency, dateToConvert);
+        rate = this.getCurrencyRate(endCurrency, startCurrency, dateToConvert);
 
-        if (currencyConversionLine == null) {
+        if (rate == null) {
           throw new AxelorException(
               TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
               I18n.get(BaseExceptionMessage.CURRENCY_1),
@@ -101,7 +105,7 @@ public class CurrencyServiceImpl implements CurrencyService {
               endCurrency.getName(),
               dateToConvert);
         }
-        exchangeRate = currencyConversionLine.getExchangeRate();
+        exchangeRate = rate.getExchangeRate();
       }
 
       if (exchangeRate == null || exchangeRate.compareTo(BigDecimal.ZERO) == 0) {
@@ -124,37 +128,14 @@ public class CurrencyServiceImpl implements CurrencyService {
     return BigDecimal.ONE;
   }
 
-  protected CurrencyConversionLine getCurrencyConversionLine(
+  protected Rate getCurrencyRate(
       Currency startCurrency, Currency endCurrency, LocalDate localDate) {
 
-    List<CurrencyConversionLine> currencyConversionLineList =
-        appBaseService.getCurrencyConfigurationLineList();
-
-    if (currencyConversionLineList == null) {
-      return null;
-    }
-
     log.debug(
         "Currency from: {}, Currency to: {}, localDate: {}", startCurrency, endCurrency, localDate);
 
-    for (CurrencyConversionLine ccl : currencyConversionLineList) {
-
-      String cclStartCode = ccl.getStartCurrency().getCodeISO();
-      String cclEndCode = ccl.getEndCurrency().getCodeISO();
-      String startCode = startCurrency.getCodeISO();
-      String endCode = endCurrency.getCodeISO();
-      LocalDate fromDate = ccl.getFromDate();
-      LocalDate toDate = ccl.getToDate();
-
-      if (cclStartCode.equals(startCode) && cclEndCode.equals(endCode)) {
-        if ((fromDate.isBefore(localDate) || fromDate.equals(localDate))
-            && (toDate == null || toDate.isAfter(localDate) || toDate.isEqual(localDate))) {
-          return ccl;
-        }
-      }
-    }
-
-    return null;
+    return currencyRateTableService.findRate(
+        startCurrency.getCodeISO(), endCurrency.getCodeISO(), localDate);
   }
 
   /**
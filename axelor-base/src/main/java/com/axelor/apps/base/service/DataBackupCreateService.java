@@ -39,6 +39,9 @@ import com.axelor.db.internal.DBHelper;
 import com.axelor.db.mapper.Mapper;
 import com.axelor.db.mapper.Property;
 import com.axelor.db.mapper.PropertyType;
+import com.axelor.db.tenants.TenantAware;
+import com.axelor.db.tenants.TenantResolver;
+import com.axelor.inject.Beans;
 import com.axelor.meta.MetaFiles;
 import com.axelor.meta.db.MetaFile;
 import com.axelor.meta.db.MetaJsonField;
@@ -49,38 +52,60 @@ import com.axelor.utils.helpers.date.LocalDateHelper;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
+import com.google.inject.persist.UnitOfWork;
+import com.google.inject.servlet.RequestScoper;
+import com.google.inject.servlet.ServletScopes;
 import com.thoughtworks.xstream.XStream;
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 import javax.naming.NamingException;
+import javax.persistence.EntityTransaction;
 import javax.persistence.OneToOne;
 import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -89,6 +114,12 @@ public class DataBackupCreateService {
   protected static final char SEPARATOR = ',';
   protected static final char REFERENCE_FIELD_SEPARATOR = '|';
   protected static final int BUFFER_SIZE = 1000;
+  protected static final String MODEL_FILE_EXTENSION = ".csv.zip";
+  protected static final String CHECKPOINT_FILE_EXTENSION = ".checkpoint.xml";
+  protected static final String WORK_DIRECTORY_NAME = "data-backup-work";
+  protected static final long WORK_DIRECTORY_EXPIRE_HOURS = 24;
+  protected static final Set<PosixFilePermission> WORK_DIRECTORY_PERMISSIONS =
+      PosixFilePermissions.fromString("rwx------");
 
   protected boolean notNullReferenceFlag;
   protected boolean referenceFlag;
@@ -131,6 +162,7 @@ public class DataBackupCreateService {
   protected AnonymizerLineRepository anonymizerLineRepository;
   protected Logger LOG = LoggerFactory.getLogger(getClass());
   protected DataBackupAnonymizeService dataBackupAnonymizeService;
+  protected UnitOfWork unitOfWork;
 
   @Inject
   public DataBackupCreateService(
@@ -139,18 +171,29 @@ public class DataBackupCreateService {
       MetaFiles metaFiles,
       AnonymizeService anonymizeService,
       AnonymizerLineRepository anonymizerLineRepository,
-      DataBackupAnonymizeService dataBackupAnonymizeService) {
+      DataBackupAnonymizeService dataBackupAnonymizeService,
+      UnitOfWork unitOfWork) {
     this.dataBackupRepository = dataBackupRepository;
     this.metaModelRepo = metaModelRepo;
     this.metaFiles = metaFiles;
     this.anonymizeService = anonymizeService;
     this.anonymizerLineRepository = anonymizerLineRepository;
     this.dataBackupAnonymizeService = dataBackupAnonymizeService;
+    this.unitOfWork = unitOfWork;
   }
 
-  /* Generate csv Files for each individual MetaModel and single config file */
+  /*
+   * Generate a compressed csv file for each individual MetaModel and single config file. Files are
+   * generated in a work directory dedicated to the backup, where each exported model is
+   * checkpointed. When the backup resumes after a failure, the models already exported are not
+   * exported again, otherwise the work directory is removed after a failure.
+   */
   public DataBackup create(DataBackup dataBackup) throws IOException {
-    File tempDir = Files.createTempDirectory(null).toFile();
+    File tempDir = getWorkDirectory(dataBackup).toFile();
+    boolean resume = dataBackup.getResumeOk();
+    if (!resume) {
+      FileUtils.cleanDirectory(tempDir);
+    }
     String tempDirectoryPath = tempDir.getAbsolutePath();
     int fetchLimit = dataBackup.getFetchLimit();
     int errorsCount = 0;
@@ -167,7 +210,10 @@ public class DataBackupCreateService {
     if (dataBackup.getCheckAllErrorFirst()) {
       dataBackup.setFetchLimit(1);
 
-      errorsCount = checkErrors(dataBackup, metaModelList, tempDirectoryPath, subClassesMap);
+      File checkDir = Files.createTempDirectory(null).toFile();
+      errorsCount =
+          checkErrors(dataBackup, metaModelList, checkDir.getAbsolutePath(), subClassesMap);
+      FileUtils.deleteQuietly(checkDir);
 
       dataBackup.setFetchLimit(fetchLimit);
       fileNameList.clear();
@@ -178,66 +224,47 @@ public class DataBackupCreateService {
     }
 
     if (errorsCount == 0) {
-      for (MetaModel metaModel : metaModelList) {
-
-        try {
-          List<String> subClasses = subClassesMap.get(metaModel.getFullName());
-          long totalRecord = getMetaModelDataCount(metaModel, subClasses);
-          if (!dataBackup.getIsProcessEmptyTable() && totalRecord < 1) {
-            continue;
+      List<ModelBackup> modelBackupList = new ArrayList<>();
+      errorsCount =
+          exportModels(
+              dataBackup, metaModelList, subClassesMap, tempDirectoryPath, salt, modelBackupList);
+      dataBackup = dataBackupRepository.find(dataBackup.getId());
+
+      for (int i = 0; i < metaModelList.size(); i++) {
+        MetaModel metaModel = metaModelList.get(i);
+        ModelBackup modelBackup = modelBackupList.get(i);
+        if (modelBackup == null) {
+          continue;
+        }
+        CSVInput csvInput = modelBackup.getCsvInput();
+
+        if (modelBackup.isNotNullReference()) {
+          notNullReferenceCsvs.add(csvInput);
+        } else if (modelBackup.isReference()) {
+          refernceCsvs.add(csvInput);
+          CSVInput temcsv = new CSVInput();
+          temcsv.setFileName(csvInput.getFileName());
+          temcsv.setTypeName(csvInput.getTypeName());
+
+          if (dataBackup.getIsRelativeDate()) {
+            temcsv.setBindings(new ArrayList<>());
+            getCsvInputForDateorDateTime(metaModel, temcsv);
           }
-
-          LOG.debug("Exporting Model : " + metaModel.getFullName());
-          notNullReferenceFlag = false;
-          referenceFlag = false;
-
-          File templateFile = new File(tempDirectoryPath, metaModel.getName() + ".csv");
-          CSVFile csvFormat =
-              CSVFile.DEFAULT.withDelimiter(SEPARATOR).withQuoteAll().withFirstRecordAsHeader();
-          CSVPrinter printer = csvFormat.write(templateFile);
-          CSVInput csvInput =
-              writeCSVData(
-                  metaModel, printer, dataBackup, totalRecord, subClasses, tempDirectoryPath, salt);
-          printer.close();
-
-          if (notNullReferenceFlag) {
-            notNullReferenceCsvs.add(csvInput);
-          } else if (referenceFlag) {
-            refernceCsvs.add(csvInput);
-            CSVInput temcsv = new CSVInput();
-            temcsv.setFileName(csvInput.getFileName());
-            temcsv.setTypeName(csvInput.getTypeName());
-
-            if (dataBackup.getIsRelativeDate()) {
-              temcsv.setBindings(new ArrayList<>());
-              getCsvInputForDateorDateTime(metaModel, temcsv);
-            }
-            if (AutoImportModelMap.containsKey(csvInput.getTypeName())) {
-              temcsv.setSearch(AutoImportModelMap.get(csvInput.getTypeName()).toString());
-            } else if (metaModel.getName().startsWith("App")
-                && isAppOneToOneProperty(metaModel.getFullName())) {
-              temcsv.setSearch("self.app.code = :code");
-            } else {
-              temcsv.setSearch("self.importId = :importId");
-            }
-            simpleCsvs.add(temcsv);
+          if (AutoImportModelMap.containsKey(csvInput.getTypeName())) {
+            temcsv.setSearch(AutoImportModelMap.get(csvInput.getTypeName()).toString());
+          } else if (metaModel.getName().startsWith("App")
+              && isAppOneToOneProperty(metaModel.getFullName())) {
+            temcsv.setSearch("self.app.code = :code");
           } else {
-            simpleCsvs.add(csvInput);
-          }
-
-          fileNameList.add(metaModel.getName() + ".csv");
-        } catch (ClassNotFoundException | IOException e) {
-          TraceBackService.trace(e, DataBackupService.class.getName());
-        } catch (Exception e) {
-          JPA.em().getTransaction().rollback();
-          if (!dataBackup.getCheckAllErrorFirst()) {
-            sb.append("\nError occured while processing model : " + metaModel.getFullName() + "\n");
-            sb.append(e.getMessage() + "\n");
+            temcsv.setSearch("self.importId = :importId");
           }
-          JPA.em().getTransaction().begin();
-          dataBackup = dataBackupRepository.find(dataBackup.getId());
-          errorsCount++;
+          simpleCsvs.add(temcsv);
+        } else {
+          simpleCsvs.add(csvInput);
         }
+
+        fileNameList.add(metaModel.getName() + MODEL_FILE_EXTENSION);
+        fileNameList.addAll(modelBackup.getBinaryFileNameList());
       }
 
       CSVConfig csvConfig = new CSVConfig();
@@ -269,8 +296,13 @@ public class DataBackupCreateService {
       if (errorsCount == 0) {
         File zippedFile = generateZIP(tempDirectoryPath, fileNameList);
         dataBackup.setBackupMetaFile(metaFiles.upload(zippedFile));
+        // the backup is complete, checkpoints are not needed anymore
+        FileUtils.deleteDirectory(tempDir);
       } else {
         dataBackup.setStatusSelect(DataBackupRepository.DATA_BACKUP_STATUS_ERROR);
+        if (!resume) {
+          FileUtils.deleteDirectory(tempDir);
+        }
       }
     } catch (IOException e) {
       e.printStackTrace();
@@ -279,6 +311,292 @@ public class DataBackupCreateService {
     return dataBackup;
   }
 
+  /*
+   * Work directory of the backup, in a directory of the current tenant under the upload directory,
+   * only readable by the server. It depends on the tenant and on the options which change the
+   * exported data, so that the checkpoints of another tenant or of an attempt with other options
+   * are never reused. The work directories of the tenant left by failures are removed once expired.
+   */
+  protected Path getWorkDirectory(DataBackup dataBackup) throws IOException {
+    String tenantId = TenantResolver.currentTenantIdentifier();
+    if (StringUtils.isBlank(tenantId)) {
+      tenantId = "default";
+    }
+    Path tenantDirectory = MetaFiles.getPath(WORK_DIRECTORY_NAME).resolve(tenantId);
+    createPrivateDirectory(tenantDirectory.getParent());
+    createPrivateDirectory(tenantDirectory);
+    deleteExpiredWorkDirectories(tenantDirectory);
+
+    int optionsHash =
+        Objects.hash(
+            tenantId,
+            dataBackup.getIsRelativeDate(),
+            dataBackup.getUpdateImportId(),
+            dataBackup.getIsProcessEmptyTable(),
+            dataBackup.getAnonymizer() != null ? dataBackup.getAnonymizer().getId() : null);
+    Path workDirectory =
+        tenantDirectory.resolve(dataBackup.getId() + "_" + Integer.toHexString(optionsHash));
+    createPrivateDirectory(workDirectory);
+    return workDirectory;
+  }
+
+  protected void createPrivateDirectory(Path directory) throws IOException {
+    if (Files.isSymbolicLink(directory)) {
+      throw new IOException("Data backup work directory must not be a symbolic link: " + directory);
+    }
+    if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createDirectories(directory);
+      return;
+    }
+    if (!Files.isDirectory(directory)) {
+      Files.createDirectories(
+          directory, PosixFilePermissions.asFileAttribute(WORK_DIRECTORY_PERMISSIONS));
+    }
+    Files.setPosixFilePermissions(directory, WORK_DIRECTORY_PERMISSIONS);
+  }
+
+  protected void deleteExpiredWorkDirectories(Path tenantDirectory) throws IOException {
+    File[] workDirectories = tenantDirectory.toFile().listFiles(File::isDirectory);
+    if (workDirectories == null) {
+      return;
+    }
+    for (File workDirectory : workDirectories) {
+      if (isExpired(workDirectory)) {
+        LOG.debug("Removing expired data backup work directory : " + workDirectory);
+        FileUtils.deleteQuietly(workDirectory);
+      }
+    }
+  }
+
+  protected boolean isExpired(File file) {
+    return file.lastModified()
+        < System.currentTimeMillis() - TimeUnit.HOURS.toMillis(WORK_DIRECTORY_EXPIRE_HOURS);
+  }
+
+  /*
+   * Export the models, in parallel when more than one worker is configured. The backup of each
+   * model, or null if it is not exported, is added to the given list in the order of the models.
+   * Return the number of models in error.
+   */
+  protected int exportModels(
+      DataBackup dataBackup,
+      List<MetaModel> metaModelList,
+      Map<String, List<String>> subClassesMap,
+      String dirPath,
+      byte[] salt,
+      List<ModelBackup> modelBackupList) {
+    int workerCount = dataBackup.getWorkerCount() == null ? 1 : dataBackup.getWorkerCount();
+    if (workerCount <= 1) {
+      return exportModelsSequentially(
+          dataBackup, metaModelList, subClassesMap, dirPath, salt, modelBackupList);
+    }
+
+    Long dataBackupId = dataBackup.getId();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            workerCount,
+            new ThreadFactoryBuilder()
+                .setNameFormat("data-backup-" + dataBackupId + "-%d")
+                .build());
+    List<FutureTask<ModelBackup>> futureList = new ArrayList<>();
+    int errorsCount = 0;
+
+    try {
+      for (MetaModel metaModel : metaModelList) {
+        Long metaModelId = metaModel.getId();
+        List<String> subClasses = subClassesMap.get(metaModel.getFullName());
+        FutureTask<ModelBackup> task =
+            new FutureTask<>(
+                () -> exportModelInWorker(dataBackupId, metaModelId, subClasses, dirPath, salt));
+        futureList.add(task);
+        executor.submit(new TenantAware(task).withTransaction(false));
+      }
+
+      for (int i = 0; i < futureList.size(); i++) {
+        try {
+          modelBackupList.add(futureList.get(i).get());
+        } catch (ExecutionException e) {
+          modelBackupList.add(null);
+          sb.append(
+              "\nError occured while processing model : "
+                  + metaModelList.get(i).getFullName()
+                  + "\n");
+          sb.append(e.getCause().getMessage() + "\n");
+          errorsCount++;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      TraceBackService.trace(e, DataBackupService.class.getName());
+      errorsCount++;
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return errorsCount;
+  }
+
+  protected int exportModelsSequentially(
+      DataBackup dataBackup,
+      List<MetaModel> metaModelList,
+      Map<String, List<String>> subClassesMap,
+      String dirPath,
+      byte[] salt,
+      List<ModelBackup> modelBackupList) {
+    int errorsCount = 0;
+
+    for (MetaModel metaModel : metaModelList) {
+      ModelBackup modelBackup = null;
+      try {
+        modelBackup =
+            exportModel(
+                dataBackup,
+                metaModel,
+                subClassesMap.get(metaModel.getFullName()),
+                dirPath,
+                salt);
+      } catch (ClassNotFoundException | IOException e) {
+        TraceBackService.trace(e, DataBackupService.class.getName());
+      } catch (Exception e) {
+        JPA.em().getTransaction().rollback();
+        if (!dataBackup.getCheckAllErrorFirst()) {
+          sb.append("\nError occured while processing model : " + metaModel.getFullName() + "\n");
+          sb.append(e.getMessage() + "\n");
+        }
+        JPA.em().getTransaction().begin();
+        dataBackup = dataBackupRepository.find(dataBackup.getId());
+        errorsCount++;
+      }
+      modelBackupList.add(modelBackup);
+    }
+
+    return errorsCount;
+  }
+
+  /*
+   * Export a model from a worker thread, with a service instance, an entity manager and a
+   * transaction of its own.
+   */
+  protected ModelBackup exportModelInWorker(
+      Long dataBackupId, Long metaModelId, List<String> subClasses, String dirPath, byte[] salt)
+      throws Exception {
+    final RequestScoper scope = ServletScopes.scopeRequest(Collections.emptyMap());
+    try (RequestScoper.CloseableScope ignored = scope.open()) {
+      DataBackupCreateService workerService = Beans.get(DataBackupCreateService.class);
+      EntityTransaction transaction = JPA.em().getTransaction();
+      transaction.begin();
+      try {
+        ModelBackup modelBackup =
+            workerService.exportModel(
+                dataBackupRepository.find(dataBackupId),
+                metaModelRepo.find(metaModelId),
+                subClasses,
+                dirPath,
+                salt);
+        if (workerService.sb.length() > 0) {
+          synchronized (sb) {
+            sb.append(workerService.sb);
+          }
+        }
+        return modelBackup;
+      } catch (ClassNotFoundException | IOException e) {
+        TraceBackService.trace(e, DataBackupService.class.getName());
+        return null;
+      } finally {
+        if (transaction.isActive()) {
+          transaction.rollback();
+        }
+      }
+    } finally {
+      unitOfWork.end();
+    }
+  }
+
+  /*
+   * Export a model into a zip file holding its csv file, streamed straight into the compressed
+   * entry. The model is reloaded from its checkpoint when it was exported by a previous attempt
+   * which has not expired; the log of the backup lists such models, as they hold the data at the
+   * time of that attempt. Return null if the model is not exported.
+   */
+  protected ModelBackup exportModel(
+      DataBackup dataBackup,
+      MetaModel metaModel,
+      List<String> subClasses,
+      String dirPath,
+      byte[] salt)
+      throws AxelorException, ClassNotFoundException, IOException {
+    File modelFile = new File(dirPath, metaModel.getName() + MODEL_FILE_EXTENSION);
+    File checkpointFile = new File(dirPath, metaModel.getName() + CHECKPOINT_FILE_EXTENSION);
+
+    if (modelFile.exists() && checkpointFile.exists() && !isExpired(checkpointFile)) {
+      LOG.debug("Model already exported : " + metaModel.getFullName());
+      sb.append(
+          "\nModel resumed from the export of "
+              + LocalDateTime.ofInstant(
+                  Instant.ofEpochMilli(checkpointFile.lastModified()), ZoneId.systemDefault())
+              + " : "
+              + metaModel.getFullName()
+              + "\n");
+      return readCheckpoint(checkpointFile);
+    }
+
+    long totalRecord = getMetaModelDataCount(metaModel, subClasses);
+    if (!dataBackup.getIsProcessEmptyTable() && totalRecord < 1) {
+      return null;
+    }
+
+    LOG.debug("Exporting Model : " + metaModel.getFullName());
+    notNullReferenceFlag = false;
+    referenceFlag = false;
+    // collect the binary files written for this model only
+    List<String> backupFileNameList = fileNameList;
+    List<String> binaryFileNameList = new ArrayList<>();
+    fileNameList = binaryFileNameList;
+
+    File partFile = new File(dirPath, modelFile.getName() + ".part");
+    CSVInput csvInput;
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(partFile));
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      out.putNextEntry(new ZipEntry(metaModel.getName() + ".csv"));
+      CSVFile csvFormat =
+          CSVFile.DEFAULT.withDelimiter(SEPARATOR).withQuoteAll().withFirstRecordAsHeader();
+      CSVPrinter printer = csvFormat.write(writer);
+      csvInput =
+          writeCSVData(metaModel, printer, dataBackup, totalRecord, subClasses, dirPath, salt);
+      printer.flush();
+      out.closeEntry();
+    } finally {
+      fileNameList = backupFileNameList;
+    }
+    Files.move(partFile.toPath(), modelFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+    ModelBackup modelBackup =
+        new ModelBackup(csvInput, referenceFlag, notNullReferenceFlag, binaryFileNameList);
+    writeCheckpoint(checkpointFile, modelBackup);
+    return modelBackup;
+  }
+
+  protected XStream getCheckpointXStream() {
+    XStream xStream = new XStream();
+    xStream.processAnnotations(CSVConfig.class);
+    xStream.alias("model-backup", ModelBackup.class);
+    xStream.allowTypes(new Class[] {ModelBackup.class, CSVInput.class, CSVBind.class});
+    return xStream;
+  }
+
+  protected void writeCheckpoint(File checkpointFile, ModelBackup modelBackup) throws IOException {
+    File partFile = new File(checkpointFile.getParent(), checkpointFile.getName() + ".part");
+    try (Writer writer =
+        new OutputStreamWriter(new FileOutputStream(partFile), StandardCharsets.UTF_8)) {
+      getCheckpointXStream().toXML(modelBackup, writer);
+    }
+    Files.move(partFile.toPath(), checkpointFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  protected ModelBackup readCheckpoint(File checkpointFile) {
+    return (ModelBackup) getCheckpointXStream().fromXML(checkpointFile);
+  }
+
   protected void getCsvInputForDateorDateTime(MetaModel metaModel, CSVInput csvInput) {
     try {
       Mapper metaModelMapper = Mapper.of(Class.forName(metaModel.getFullName()));
@@ -354,6 +672,20 @@ public class DataBackupCreateService {
     return null;
   }
 
+  /*
+   * Get the next data page of specific MetaModel, after the given id. Pages are read in id order,
+   * so that each page is found through the primary key index instead of skipping the previous rows.
+   */
+  protected List<Model> getMetaModelDataList(Query<Model> query, long lastId, Integer fetchLimit) {
+    return query.bind("lastId", lastId).fetch(fetchLimit);
+  }
+
+  protected Query<Model> getKeysetQuery(MetaModel metaModel, List<String> subClasses)
+      throws ClassNotFoundException {
+    Query<Model> query = getQuery(metaModel, subClasses, "self.id > :lastId");
+    return query != null ? query.order("id") : null;
+  }
+
   protected long getMetaModelDataCount(MetaModel metaModel, List<String> subClasses)
       throws ClassNotFoundException {
     Query<Model> query = getQuery(metaModel, subClasses);
@@ -366,6 +698,11 @@ public class DataBackupCreateService {
 
   protected Query<Model> getQuery(MetaModel metaModel, List<String> subClasses)
       throws ClassNotFoundException {
+    return getQuery(metaModel, subClasses, null);
+  }
+
+  protected Query<Model> getQuery(MetaModel metaModel, List<String> subClasses, String filter)
+      throws ClassNotFoundException {
     StringBuilder whereStr = new StringBuilder();
     if (subClasses != null && !subClasses.isEmpty()) {
       for (String subClassName : subClasses) {
@@ -373,6 +710,9 @@ public class DataBackupCreateService {
         whereStr.append("id NOT IN (select id from ").append(subClassName).append(")");
       }
     }
+    if (StringUtils.notEmpty(filter)) {
+      whereStr.append(whereStr.length() > 0 ? " AND " : "").append(filter);
+    }
     @SuppressWarnings("unchecked")
     Class<Model> klass = (Class<Model>) Class.forName(metaModel.getFullName());
     JpaRepository<Model> model = null;
@@ -453,11 +793,14 @@ public class DataBackupCreateService {
       csvInput.setBindings(new ArrayList<>());
 
       if (totalRecord > 0) {
-        for (int i = 0; i < totalRecord; i = i + fetchLimit) {
+        Query<Model> query = getKeysetQuery(metaModel, subClasses);
+        long lastId = 0;
+        for (int i = 0; i < totalRecord && query != null; i = i + fetchLimit) {
 
-          dataList = getMetaModelDataList(metaModel, i, fetchLimit, subClasses);
+          dataList = getMetaModelDataList(query, lastId, fetchLimit);
 
           if (dataList != null && !dataList.isEmpty()) {
+            lastId = dataList.get(dataList.size() - 1).getId();
             dataBackup = dataBackupRepository.find(dataBackup.getId());
             for (Object dataObject : dataList) {
               dataArr = new ArrayList<>();
@@ -688,7 +1031,7 @@ public class DataBackupCreateService {
         String fileName = metaModelName + "_" + property.getName() + "_" + id + ".png";
 
         try {
-          org.apache.commons.io.FileUtils.writeByteArrayToFile(
+          FileUtils.writeByteArrayToFile(
               new File(dirPath, fileName), (byte[]) value);
           fileNameList.add(fileName);
         } catch (IOException e) {
@@ -814,24 +1157,15 @@ public class DataBackupCreateService {
     try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
 
       for (String fileName : fileNameList) {
+        // model files are already compressed
+        out.setLevel(
+            fileName.endsWith(MODEL_FILE_EXTENSION)
+                ? Deflater.NO_COMPRESSION
+                : Deflater.DEFAULT_COMPRESSION);
         ZipEntry e = new ZipEntry(fileName);
         out.putNextEntry(e);
-        File file = new File(dirPath, fileName);
-        try (BufferedInputStream bin = new BufferedInputStream(new FileInputStream(file))) {
-          byte[] data;
-          while (bin.available() > 0) {
-            if (bin.available() < BUFFER_SIZE) {
-              data = new byte[bin.available()];
-            } else {
-              data = new byte[BUFFER_SIZE];
-            }
-            bin.read(data, 0, data.length);
-            out.write(data, 0, data.length);
-          }
-          out.closeEntry();
-
-          file.delete();
-        }
+        Files.copy(new File(dirPath, fileName).toPath(), out);
+        out.closeEntry();
       }
     } catch (IOException e) {
       TraceBackService.trace(e, "Error From DataBackupCreateService - generateZIP()");
@@ -911,4 +1245,40 @@ public class DataBackupCreateService {
       return false;
     }
   }
+
+  /* Result of the export of a model, also saved as its checkpoint. */
+  protected static class ModelBackup {
+
+    private CSVInput csvInput;
+    private boolean reference;
+    private boolean notNullReference;
+    private List<String> binaryFileNameList;
+
+    public ModelBackup(
+        CSVInput csvInput,
+        boolean reference,
+        boolean notNullReference,
+        List<String> binaryFileNameList) {
+      this.csvInput = csvInput;
+      this.reference = reference;
+      this.notNullReference = notNullReference;
+      this.binaryFileNameList = binaryFileNameList;
+    }
+
+    public CSVInput getCsvInput() {
+      return csvInput;
+    }
+
+    public boolean isReference() {
+      return reference;
+    }
+
+    public boolean isNotNullReference() {
+      return notNullReference;
+    }
+
+    public List<String> getBinaryFileNameList() {
+      return binaryFileNameList;
+    }
+  }
 }
@@ -114,19 +114,29 @@ public class DataBackupRestoreService {
     File zipFile = MetaFiles.getPath(zipMetaFile).toFile();
     try (ZipInputStream zis =
         new ZipInputStream(new BufferedInputStream(new FileInputStream(zipFile)))) {
-      ZipEntry ze;
-      byte[] buffer = new byte[1024];
-      int count;
-      while ((ze = zis.getNextEntry()) != null) {
+      unZip(zis, destinationDirectoryPath);
+      return true;
+    }
+  }
+
+  /* Extract the entries of the zip stream, model files being zip files themselves */
+  protected void unZip(ZipInputStream zis, String destinationDirectoryPath) throws IOException {
+    ZipEntry ze;
+    byte[] buffer = new byte[1024];
+    int count;
+    while ((ze = zis.getNextEntry()) != null) {
+      if (ze.getName().endsWith(DataBackupCreateService.MODEL_FILE_EXTENSION)) {
+        // the nested stream must not be closed, as it would close the enclosing one
+        unZip(new ZipInputStream(zis), destinationDirectoryPath);
+      } else {
         try (FileOutputStream fout =
             new FileOutputStream(new File(destinationDirectoryPath, ze.getName()))) {
           while ((count = zis.read(buffer)) != -1) {
             fout.write(buffer, 0, count);
           }
         }
-        zis.closeEntry();
       }
-      return true;
+      zis.closeEntry();
     }
   }
 
@@ -0,0 +1,44 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.db.mapper.Property;
+import java.util.Set;
+
+public interface ProductCompanyFieldCacheService {
+
+  /**
+   * Returns the names of the product fields which can be overridden by company, loading them from
+   * the base app configuration on first use.
+   *
+   * @return the names of the company-specific product fields
+   */
+  Set<String> getCompanySpecificFieldNames();
+
+  /**
+   * Returns the property of the product model with the given name.
+   *
+   * @param fieldName the name of the field
+   * @return the property, or null if the product has no such field
+   */
+  Property getProperty(String fieldName);
+
+  /** Drops the loaded field names, to be called when the base app configuration is changed. */
+  void invalidate();
+}
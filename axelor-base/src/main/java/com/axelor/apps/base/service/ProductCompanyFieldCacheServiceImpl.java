@@ -0,0 +1,87 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.db.mapper.Mapper;
+import com.axelor.db.mapper.Property;
+import com.axelor.meta.db.MetaField;
+import com.axelor.studio.db.AppBase;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Singleton
+public class ProductCompanyFieldCacheServiceImpl implements ProductCompanyFieldCacheService {
+
+  protected final AppBaseService appBaseService;
+
+  protected final Map<String, Property> propertyMap;
+
+  protected volatile Set<String> companySpecificFieldNames;
+
+  @Inject
+  public ProductCompanyFieldCacheServiceImpl(AppBaseService appBaseService) {
+    this.appBaseService = appBaseService;
+    this.propertyMap = createPropertyMap();
+  }
+
+  @Override
+  public Set<String> getCompanySpecificFieldNames() {
+    Set<String> fieldNames = companySpecificFieldNames;
+    if (fieldNames == null) {
+      fieldNames = fetchCompanySpecificFieldNames();
+      companySpecificFieldNames = fieldNames;
+    }
+    return fieldNames;
+  }
+
+  @Override
+  public Property getProperty(String fieldName) {
+    return propertyMap.get(fieldName);
+  }
+
+  @Override
+  public void invalidate() {
+    companySpecificFieldNames = null;
+  }
+
+  protected Set<String> fetchCompanySpecificFieldNames() {
+    AppBase appBase = appBaseService.getAppBase();
+    if (appBase == null || appBase.getCompanySpecificProductFieldsSet() == null) {
+      return Collections.emptySet();
+    }
+
+    return appBase.getCompanySpecificProductFieldsSet().stream()
+        .map(MetaField::getName)
+        .collect(Collectors.toUnmodifiableSet());
+  }
+
+  protected Map<String, Property> createPropertyMap() {
+    Mapper mapper = Mapper.of(Product.class);
+    return Collections.unmodifiableMap(
+        Arrays.stream(mapper.getProperties())
+            .collect(Collectors.toMap(Property::getName, property -> property)));
+  }
+}
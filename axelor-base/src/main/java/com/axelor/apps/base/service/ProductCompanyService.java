@@ -21,6 +21,8 @@ package com.axelor.apps.base.service;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
+import java.util.Collection;
+import java.util.Map;
 
 public interface ProductCompanyService {
 
@@ -63,6 +65,21 @@ public interface ProductCompanyService {
   Object getWithNoDefault(Product originalProduct, String fieldName, Company company)
       throws AxelorException;
 
+  /**
+   * Bulk version of get(Product originalProduct, String fieldName, Company company), resolving
+   * several fields of many products with a single lookup of their company-specific versions.
+   *
+   * @param originalProducts the products which fields we want to get
+   * @param fieldNames the fields we want to obtain from the products
+   * @param company the company to search for company-specific versions of the products
+   * @return for each product, the value of each field, either the value specified for the company,
+   *     or the default value
+   * @throws AxelorException
+   */
+  Map<Product, Map<String, Object>> get(
+      Collection<Product> originalProducts, Collection<String> fieldNames, Company company)
+      throws AxelorException;
+
   /**
    * Method that checks if field name is a company specific product field
    *
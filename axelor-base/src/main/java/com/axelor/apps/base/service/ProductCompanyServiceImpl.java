@@ -25,41 +25,52 @@ import com.axelor.apps.base.db.ProductCompany;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
 import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.db.Query;
 import com.axelor.db.mapper.Mapper;
+import com.axelor.db.mapper.Property;
 import com.axelor.i18n.I18n;
 import com.axelor.meta.CallMethod;
-import com.axelor.meta.db.MetaField;
 import com.google.inject.Inject;
-import java.util.Set;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 public class ProductCompanyServiceImpl implements ProductCompanyService {
 
   @Inject protected AppBaseService appBaseService;
 
+  @Inject protected ProductCompanyFieldCacheService productCompanyFieldCacheService;
+
   @Override
   @CallMethod
   public Object get(Product originalProduct, String fieldName, Company company)
       throws AxelorException {
-    Mapper mapper = Mapper.of(Product.class);
     Product product = findAppropriateProductCompany(originalProduct, fieldName, company);
 
-    return mapper.get(product, fieldName);
+    return getFieldValue(product, fieldName);
   }
 
   @Override
   @CallMethod
   public void set(Product originalProduct, String fieldName, Object fieldValue, Company company)
       throws AxelorException {
-    Mapper mapper = Mapper.of(Product.class);
     Product product = findAppropriateProductCompany(originalProduct, fieldName, company);
 
-    mapper.set(product, fieldName, fieldValue);
+    Property property = productCompanyFieldCacheService.getProperty(fieldName);
+    if (property != null) {
+      property.set(product, fieldValue);
+    } else {
+      Mapper.of(Product.class).set(product, fieldName, fieldValue);
+    }
   }
 
   @Override
   public Object getWithNoDefault(Product originalProduct, String fieldName, Company company)
       throws AxelorException {
-    Mapper mapper = Mapper.of(Product.class);
     Product product =
         findAppropriateProductCompanyWithNoDefault(originalProduct, fieldName, company);
 
@@ -67,7 +78,47 @@ public class ProductCompanyServiceImpl implements ProductCompanyService {
       return null;
     }
 
-    return mapper.get(product, fieldName);
+    return getFieldValue(product, fieldName);
+  }
+
+  @Override
+  public Map<Product, Map<String, Object>> get(
+      Collection<Product> originalProducts, Collection<String> fieldNames, Company company)
+      throws AxelorException {
+    Map<Product, Map<String, Object>> valueMap = new LinkedHashMap<>();
+    if (originalProducts == null || originalProducts.isEmpty()) {
+      return valueMap;
+    }
+
+    for (Product originalProduct : originalProducts) {
+      for (String fieldName : fieldNames) {
+        checkProductAndFieldName(originalProduct, fieldName);
+      }
+    }
+
+    boolean hasCompanySpecificField =
+        fieldNames.stream().anyMatch(this::isCompanySpecificProductFields);
+    Map<Long, ProductCompany> productCompanyMap =
+        hasCompanySpecificField ? getProductCompanyMap(originalProducts, company) : new HashMap<>();
+
+    for (Product originalProduct : originalProducts) {
+      Product productCompany =
+          originalProduct.getId() != null
+              ? productCompanyMap.get(originalProduct.getId())
+              : findProductCompany(originalProduct, company);
+
+      Map<String, Object> fieldValueMap = new LinkedHashMap<>();
+      for (String fieldName : fieldNames) {
+        Product product =
+            productCompany != null && isCompanySpecificProductFields(fieldName)
+                ? productCompany
+                : originalProduct;
+        fieldValueMap.put(fieldName, getFieldValue(product, fieldName));
+      }
+      valueMap.put(originalProduct, fieldValueMap);
+    }
+
+    return valueMap;
   }
 
   /**
@@ -88,18 +139,9 @@ public class ProductCompanyServiceImpl implements ProductCompanyService {
       return originalProduct;
     }
 
-    Product product = originalProduct;
-
-    if (company != null && originalProduct.getProductCompanyList() != null) {
-      for (ProductCompany productCompany : originalProduct.getProductCompanyList()) {
-        if (company.equals(productCompany.getCompany())) {
-          product = productCompany;
-          break;
-        }
-      }
-    }
+    Product product = findProductCompany(originalProduct, company);
 
-    return product;
+    return product != null ? product : originalProduct;
   }
 
   /**
@@ -120,18 +162,69 @@ public class ProductCompanyServiceImpl implements ProductCompanyService {
       return null;
     }
 
-    Product product = null;
+    return findProductCompany(originalProduct, company);
+  }
 
-    if (company != null && originalProduct.getProductCompanyList() != null) {
-      for (ProductCompany productCompany : originalProduct.getProductCompanyList()) {
-        if (company.equals(productCompany.getCompany())) {
-          product = productCompany;
-          break;
-        }
+  protected ProductCompany findProductCompany(Product originalProduct, Company company) {
+    if (company == null || originalProduct.getProductCompanyList() == null) {
+      return null;
+    }
+
+    for (ProductCompany productCompany : originalProduct.getProductCompanyList()) {
+      if (company.equals(productCompany.getCompany())) {
+        return productCompany;
       }
     }
 
-    return product;
+    return null;
+  }
+
+  /**
+   * Indexes by product id the company-specific versions of the given products, fetched in one
+   * query instead of loading the company list of each product.
+   *
+   * @param originalProducts
+   * @param company
+   * @return
+   */
+  protected Map<Long, ProductCompany> getProductCompanyMap(
+      Collection<Product> originalProducts, Company company) {
+    Map<Long, ProductCompany> productCompanyMap = new HashMap<>();
+    if (company == null) {
+      return productCompanyMap;
+    }
+
+    List<Long> productIdList =
+        originalProducts.stream()
+            .map(Product::getId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+    if (productIdList.isEmpty()) {
+      return productCompanyMap;
+    }
+
+    List<ProductCompany> productCompanyList =
+        Query.of(ProductCompany.class)
+            .filter("self.product.id IN (:productIdList) AND self.company = :company")
+            .bind("productIdList", productIdList)
+            .bind("company", company)
+            .order("id")
+            .fetch();
+    for (ProductCompany productCompany : productCompanyList) {
+      productCompanyMap.putIfAbsent(productCompany.getProduct().getId(), productCompany);
+    }
+
+    return productCompanyMap;
+  }
+
+  protected Object getFieldValue(Product product, String fieldName) {
+    Property property = productCompanyFieldCacheService.getProperty(fieldName);
+    if (property != null) {
+      return property.get(product);
+    }
+
+    return Mapper.of(Product.class).get(product, fieldName);
   }
 
   protected void checkProductAndFieldName(Product originalProduct, String fieldName)
@@ -151,10 +244,6 @@ public class ProductCompanyServiceImpl implements ProductCompanyService {
 
   @Override
   public boolean isCompanySpecificProductFields(String fieldName) {
-    Set<MetaField> companySpecificFields =
-        appBaseService.getAppBase().getCompanySpecificProductFieldsSet();
-
-    return companySpecificFields.stream()
-        .anyMatch(metaField -> metaField.getName().equals(fieldName));
+    return productCompanyFieldCacheService.getCompanySpecificFieldNames().contains(fieldName);
   }
 }
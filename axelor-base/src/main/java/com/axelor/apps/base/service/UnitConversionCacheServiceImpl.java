@@ -0,0 +1,140 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.UnitConversion;
+import com.axelor.apps.base.utils.TransactionTools;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Singleton;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManager;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ImportCustomizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+public class UnitConversionCacheServiceImpl implements UnitConversionCacheService {
+
+  protected static final Pattern TEMPLATE_EXPRESSION_PATTERN = Pattern.compile("\\$([^$]*)\\$");
+  protected static final Pattern PROPERTY_PATH_PATTERN =
+      Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*");
+
+  protected final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * Conversions are only invalidated on the node where they are changed, the graphs are reloaded
+   * periodically for the changes made on the other nodes.
+   */
+  protected static final long CACHE_EXPIRE_MINUTES = 10;
+
+  protected final LoadingCache<Integer, UnitConversionGraph> graphCache =
+      CacheBuilder.newBuilder()
+          .expireAfterWrite(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+          .build(CacheLoader.from(this::loadGraph));
+
+  protected final CompilerConfiguration compilerConfiguration;
+
+  public UnitConversionCacheServiceImpl() {
+    this.compilerConfiguration = createCompilerConfiguration();
+  }
+
+  @Override
+  public UnitConversionGraph getGraph(int entitySelect) {
+    return graphCache.getUnchecked(entitySelect);
+  }
+
+  @Override
+  public void invalidate() {
+    graphCache.invalidateAll();
+  }
+
+  /** Loads the graph from the committed conversions only. */
+  protected UnitConversionGraph loadGraph(Integer entitySelect) {
+    return TransactionTools.readInNewTransaction(
+        em -> UnitConversionGraph.of(fetchUnitConversionList(em, entitySelect), this::compile));
+  }
+
+  protected List<UnitConversion> fetchUnitConversionList(EntityManager em, int entitySelect) {
+    return em.createQuery(
+            "SELECT self FROM UnitConversion self"
+                + " WHERE self.entitySelect = :entitySelect ORDER BY self.id",
+            UnitConversion.class)
+        .setParameter("entitySelect", entitySelect)
+        .getResultList();
+  }
+
+  /**
+   * Compiles a conversion formula, where each template expression like {@code $Product.netMass$}
+   * becomes a property read on the model bound in the script.
+   *
+   * @return the compiled formula, or null if the formula uses a template syntax which can not be
+   *     translated and has to be rendered at each evaluation.
+   */
+  protected Class<? extends Script> compile(String formula) {
+    String script = toScript(formula);
+    if (script == null) {
+      return null;
+    }
+
+    try (GroovyClassLoader classLoader =
+        new GroovyClassLoader(getClass().getClassLoader(), compilerConfiguration)) {
+      return classLoader.parseClass(script).asSubclass(Script.class);
+    } catch (CompilationFailedException | IOException e) {
+      log.warn("Unit conversion formula {} could not be compiled", formula, e);
+      return null;
+    }
+  }
+
+  protected String toScript(String formula) {
+    if (formula == null) {
+      return null;
+    }
+
+    Matcher matcher = TEMPLATE_EXPRESSION_PATTERN.matcher(formula);
+    StringBuffer script = new StringBuffer();
+    while (matcher.find()) {
+      String expression = matcher.group(1).trim();
+      if (!PROPERTY_PATH_PATTERN.matcher(expression).matches()) {
+        return null;
+      }
+      matcher.appendReplacement(script, Matcher.quoteReplacement("(" + expression + ")"));
+    }
+    matcher.appendTail(script);
+    return script.toString();
+  }
+
+  protected CompilerConfiguration createCompilerConfiguration() {
+    CompilerConfiguration configuration = new CompilerConfiguration();
+    ImportCustomizer customizer = new ImportCustomizer();
+    customizer.addStaticStars("java.lang.Math");
+    configuration.addCompilationCustomizers(customizer);
+    return configuration;
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.UnitConversion;
+import com.axelor.apps.base.db.repo.UnitConversionRepository;
+import groovy.lang.Script;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable index of unit conversions by start and end unit. Each conversion can be used in both
+ * directions, and conversions can be chained when there is no conversion between two units.
+ */
+public class UnitConversionGraph {
+
+  /** Edges by start unit id, then by end unit id. */
+  protected final Map<Long, Map<Long, Edge>> edgeMap;
+
+  protected UnitConversionGraph(Map<Long, Map<Long, Edge>> edgeMap) {
+    this.edgeMap = edgeMap;
+  }
+
+  /**
+   * Builds the graph of the given conversions. Values are copied from the conversions, so that the
+   * graph can be shared between sessions.
+   *
+   * @param unitConversionList the conversions
+   * @param formulaCompiler compiles the formula of a conversion, returns null if the formula can
+   *     only be evaluated as a template
+   * @return the graph
+   */
+  public static UnitConversionGraph of(
+      List<UnitConversion> unitConversionList,
+      Function<String, Class<? extends Script>> formulaCompiler) {
+    Map<Long, Map<Long, Edge>> edgeMap = new HashMap<>();
+
+    for (UnitConversion unitConversion : unitConversionList) {
+      Long startUnitId = unitConversion.getStartUnit().getId();
+      Long endUnitId = unitConversion.getEndUnit().getId();
+      boolean isFormula = unitConversion.getTypeSelect() == UnitConversionRepository.TYPE_FORMULA;
+      Class<? extends Script> scriptClass =
+          isFormula ? formulaCompiler.apply(unitConversion.getFormula()) : null;
+
+      // a conversion defined in the requested direction has priority over a reversed one
+      edgeMap
+          .computeIfAbsent(startUnitId, id -> new LinkedHashMap<>())
+          .compute(
+              endUnitId,
+              (id, edge) ->
+                  edge == null || edge.isReversed()
+                      ? new Edge(unitConversion, false, scriptClass)
+                      : edge);
+      edgeMap
+          .computeIfAbsent(endUnitId, id -> new LinkedHashMap<>())
+          .putIfAbsent(startUnitId, new Edge(unitConversion, true, scriptClass));
+    }
+
+    return new UnitConversionGraph(edgeMap);
+  }
+
+  /**
+   * Finds the shortest chain of conversions from the start unit to the end unit.
+   *
+   * @param startUnitId the start unit id
+   * @param endUnitId the end unit id
+   * @param isFormulaAllowed whether conversions defined by a formula can be used
+   * @param isChainingAllowed whether conversions can be chained when there is no conversion
+   *     between the two units
+   * @return the chain of conversions, or null if the units can not be converted
+   */
+  public List<Edge> findPath(
+      Long startUnitId, Long endUnitId, boolean isFormulaAllowed, boolean isChainingAllowed) {
+    Edge directEdge = edgeMap.getOrDefault(startUnitId, Collections.emptyMap()).get(endUnitId);
+    if (directEdge != null && directEdge.isUsable(isFormulaAllowed)) {
+      return Collections.singletonList(directEdge);
+    }
+    if (!isChainingAllowed) {
+      return null;
+    }
+
+    Map<Long, Edge> previousEdgeMap = new HashMap<>();
+    Deque<Long> unitIdQueue = new ArrayDeque<>();
+    unitIdQueue.add(startUnitId);
+    previousEdgeMap.put(startUnitId, null);
+
+    while (!unitIdQueue.isEmpty()) {
+      Long unitId = unitIdQueue.poll();
+      for (Edge edge : edgeMap.getOrDefault(unitId, Collections.emptyMap()).values()) {
+        Long nextUnitId = edge.getEndUnitId();
+        if (previousEdgeMap.containsKey(nextUnitId) || !edge.isUsable(isFormulaAllowed)) {
+          continue;
+        }
+        previousEdgeMap.put(nextUnitId, edge);
+        if (nextUnitId.equals(endUnitId)) {
+          return buildPath(previousEdgeMap, endUnitId);
+        }
+        unitIdQueue.add(nextUnitId);
+      }
+    }
+
+    return null;
+  }
+
+  protected List<Edge> buildPath(Map<Long, Edge> previousEdgeMap, Long endUnitId) {
+    List<Edge> path = new ArrayList<>();
+    Edge edge = previousEdgeMap.get(endUnitId);
+    while (edge != null) {
+      path.add(0, edge);
+      edge = previousEdgeMap.get(edge.getStartUnitId());
+    }
+    return path;
+  }
+
+  public static class Edge {
+
+    private final Long startUnitId;
+    private final Long endUnitId;
+    private final boolean reversed;
+    private final int typeSelect;
+    private final BigDecimal coef;
+    private final String formula;
+    private final Class<? extends Script> scriptClass;
+
+    protected Edge(
+        UnitConversion unitConversion, boolean reversed, Class<? extends Script> scriptClass) {
+      this.startUnitId =
+          reversed ? unitConversion.getEndUnit().getId() : unitConversion.getStartUnit().getId();
+      this.endUnitId =
+          reversed ? unitConversion.getStartUnit().getId() : unitConversion.getEndUnit().getId();
+      this.reversed = reversed;
+      this.typeSelect = unitConversion.getTypeSelect();
+      this.coef = unitConversion.getCoef();
+      this.formula = unitConversion.getFormula();
+      this.scriptClass = scriptClass;
+    }
+
+    protected boolean isUsable(boolean isFormulaAllowed) {
+      if (typeSelect == UnitConversionRepository.TYPE_COEFF) {
+        return coef != null && (!reversed || coef.signum() != 0);
+      }
+      return isFormulaAllowed;
+    }
+
+    public Long getStartUnitId() {
+      return startUnitId;
+    }
+
+    public Long getEndUnitId() {
+      return endUnitId;
+    }
+
+    public boolean isReversed() {
+      return reversed;
+    }
+
+    public int getTypeSelect() {
+      return typeSelect;
+    }
+
+    public BigDecimal getCoef() {
+      return coef;
+    }
+
+    public String getFormula() {
+      return formula;
+    }
+
+    /**
+     * @return the compiled formula, or null if the formula has to be evaluated as a template.
+     */
+    public Class<? extends Script> getScriptClass() {
+      return scriptClass;
+    }
+  }
+}
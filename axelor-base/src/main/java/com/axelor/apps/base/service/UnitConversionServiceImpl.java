@@ -23,7 +23,6 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
 import com.axelor.apps.base.db.Unit;
-import com.axelor.apps.base.db.UnitConversion;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.db.repo.UnitConversionRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
@@ -45,6 +44,7 @@ import java.util.Optional;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.customizers.ImportCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
 
 public class UnitConversionServiceImpl implements UnitConversionService {
 
@@ -55,11 +55,16 @@ public class UnitConversionServiceImpl implements UnitConversionService {
 
   protected UnitConversionRepository unitConversionRepo;
 
+  protected UnitConversionCacheService unitConversionCacheService;
+
   @Inject
   public UnitConversionServiceImpl(
-      AppBaseService appBaseService, UnitConversionRepository unitConversionRepo) {
+      AppBaseService appBaseService,
+      UnitConversionRepository unitConversionRepo,
+      UnitConversionCacheService unitConversionCacheService) {
     this.appBaseService = appBaseService;
     this.unitConversionRepo = unitConversionRepo;
+    this.unitConversionCacheService = unitConversionCacheService;
   }
 
   /**
@@ -77,12 +82,12 @@ public class UnitConversionServiceImpl implements UnitConversionService {
   public BigDecimal convert(
       Unit startUnit, Unit endUnit, BigDecimal value, int scale, Product product)
       throws AxelorException {
-    List<UnitConversion> unitConversionList = fetchUnitConversionList();
-    return convert(unitConversionList, startUnit, endUnit, value, scale, product, "Product");
+    return convert(
+        UnitConversionRepository.ENTITY_ALL, startUnit, endUnit, value, scale, product, "Product");
   }
 
   protected BigDecimal convert(
-      List<UnitConversion> unitConversionList,
+      int entitySelect,
       Unit startUnit,
       Unit endUnit,
       BigDecimal value,
@@ -112,7 +117,7 @@ public class UnitConversionServiceImpl implements UnitConversionService {
     else {
       try {
         BigDecimal coefficient =
-            this.getCoefficient(unitConversionList, startUnit, endUnit, model, nameInContext);
+            this.getCoefficient(entitySelect, startUnit, endUnit, model, nameInContext);
 
         if (coefficient.signum() == 0) {
           throw new AxelorException(
@@ -146,91 +151,95 @@ public class UnitConversionServiceImpl implements UnitConversionService {
   @Override
   public BigDecimal getCoefficient(Unit startUnit, Unit endUnit, Product product)
       throws AxelorException, CompilationFailedException, ClassNotFoundException, IOException {
-    List<UnitConversion> unitConversionList = fetchUnitConversionList();
-    return getCoefficient(unitConversionList, startUnit, endUnit, product, "Product");
+    return getCoefficient(
+        UnitConversionRepository.ENTITY_ALL, startUnit, endUnit, product, "Product");
   }
 
+  /**
+   * Get the conversion coefficient between two units from the cached conversion graph of the given
+   * entity. When there is no conversion between the two units and it is enabled in the base app,
+   * the conversions leading from the start unit to the end unit are chained.
+   */
   protected BigDecimal getCoefficient(
-      List<UnitConversion> unitConversionList,
-      Unit startUnit,
-      Unit endUnit,
-      Model model,
-      String nameInContext)
+      int entitySelect, Unit startUnit, Unit endUnit, Model model, String nameInContext)
       throws AxelorException, CompilationFailedException, ClassNotFoundException, IOException {
-    /* Looking for the start unit and the end unit in the unitConversionList to get the coefficient */
-    TemplateMaker maker = null;
-    if (model != null) {
-      maker =
-          new TemplateMaker(
-              Optional.ofNullable(AuthUtils.getUser()).map(User::getActiveCompany).orElse(null)
-                      != null
-                  ? Optional.ofNullable(AuthUtils.getUser())
-                      .map(User::getActiveCompany)
-                      .map(Company::getTimezone)
-                      .orElse(null)
-                  : "",
-              AppFilter.getLocale(),
-              TEMPLATE_DELIMITER,
-              TEMPLATE_DELIMITER);
-      maker.setContext(model, nameInContext);
+    List<UnitConversionGraph.Edge> path =
+        unitConversionCacheService
+            .getGraph(entitySelect)
+            .findPath(
+                startUnit.getId(),
+                endUnit.getId(),
+                model != null,
+                appBaseService.getAppBase().getChainUnitConversionsOk());
+
+    /* If there is no startUnit and endUnit in the UnitConversion list so we throw an exception */
+    if (path == null) {
+      throw new AxelorException(
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(BaseExceptionMessage.UNIT_CONVERSION_1),
+          startUnit.getName(),
+          endUnit.getName());
     }
-    String eval = null;
-    for (UnitConversion unitConversion : unitConversionList) {
-
-      if (unitConversion.getStartUnit().equals(startUnit)
-          && unitConversion.getEndUnit().equals(endUnit)) {
-        if (unitConversion.getTypeSelect() == UnitConversionRepository.TYPE_COEFF) {
-          return unitConversion.getCoef();
-        } else if (model != null) {
-          maker.setTemplate(unitConversion.getFormula());
-          eval = maker.make();
-          CompilerConfiguration conf = new CompilerConfiguration();
-          ImportCustomizer customizer = new ImportCustomizer();
-          customizer.addStaticStars("java.lang.Math");
-          conf.addCompilationCustomizers(customizer);
-          Binding binding = new Binding();
-          GroovyShell shell = new GroovyShell(binding, conf);
-          return new BigDecimal(shell.evaluate(eval).toString());
-        }
-      }
 
-      /* The endUnit become the start unit and the startUnit become the end unit */
-
-      if (unitConversion.getStartUnit().equals(endUnit)
-          && unitConversion.getEndUnit().equals(startUnit)) {
-        if (unitConversion.getTypeSelect() == UnitConversionRepository.TYPE_COEFF
-            && unitConversion.getCoef().compareTo(BigDecimal.ZERO) != 0) {
-          return BigDecimal.ONE.divide(
-              unitConversion.getCoef(), DEFAULT_COEFFICIENT_SCALE, RoundingMode.HALF_UP);
-        } else if (model != null) {
-          maker.setTemplate(unitConversion.getFormula());
-          eval = maker.make();
-          CompilerConfiguration conf = new CompilerConfiguration();
-          ImportCustomizer customizer = new ImportCustomizer();
-          customizer.addStaticStars("java.lang.Math");
-          conf.addCompilationCustomizers(customizer);
-          Binding binding = new Binding();
-          GroovyShell shell = new GroovyShell(binding, conf);
-          BigDecimal result = new BigDecimal(shell.evaluate(eval).toString());
-          if (result.compareTo(BigDecimal.ZERO) != 0) {
-            return BigDecimal.ONE.divide(result, DEFAULT_COEFFICIENT_SCALE, RoundingMode.HALF_UP);
-          }
-        }
-      }
+    BigDecimal coefficient = BigDecimal.ONE;
+    for (UnitConversionGraph.Edge edge : path) {
+      coefficient = coefficient.multiply(getCoefficient(edge, model, nameInContext));
     }
-    /* If there is no startUnit and endUnit in the UnitConversion list so we throw an exception */
-    throw new AxelorException(
-        TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-        I18n.get(BaseExceptionMessage.UNIT_CONVERSION_1),
-        startUnit.getName(),
-        endUnit.getName());
+    return coefficient;
+  }
+
+  protected BigDecimal getCoefficient(
+      UnitConversionGraph.Edge edge, Model model, String nameInContext)
+      throws CompilationFailedException, ClassNotFoundException, IOException {
+    BigDecimal coefficient =
+        edge.getTypeSelect() == UnitConversionRepository.TYPE_COEFF
+            ? edge.getCoef()
+            : evaluateFormula(edge, model, nameInContext);
+
+    /* The endUnit become the start unit and the startUnit become the end unit */
+    if (edge.isReversed() && coefficient.signum() != 0) {
+      return BigDecimal.ONE.divide(coefficient, DEFAULT_COEFFICIENT_SCALE, RoundingMode.HALF_UP);
+    }
+    return coefficient;
+  }
+
+  protected BigDecimal evaluateFormula(
+      UnitConversionGraph.Edge edge, Model model, String nameInContext)
+      throws CompilationFailedException, ClassNotFoundException, IOException {
+    if (edge.getScriptClass() == null) {
+      return evaluateTemplateFormula(edge.getFormula(), model, nameInContext);
+    }
+
+    Binding binding = new Binding();
+    binding.setVariable(nameInContext, model);
+    return new BigDecimal(
+        InvokerHelper.createScript(edge.getScriptClass(), binding).run().toString());
   }
 
-  protected List<UnitConversion> fetchUnitConversionList() {
-    return unitConversionRepo
-        .all()
-        .filter("self.entitySelect = :entitySelect")
-        .bind("entitySelect", UnitConversionRepository.ENTITY_ALL)
-        .fetch();
+  /** Renders the formula as a template before evaluating it, for formulas which can't be cached. */
+  protected BigDecimal evaluateTemplateFormula(String formula, Model model, String nameInContext)
+      throws CompilationFailedException, ClassNotFoundException, IOException {
+    TemplateMaker maker =
+        new TemplateMaker(
+            Optional.ofNullable(AuthUtils.getUser()).map(User::getActiveCompany).orElse(null)
+                    != null
+                ? Optional.ofNullable(AuthUtils.getUser())
+                    .map(User::getActiveCompany)
+                    .map(Company::getTimezone)
+                    .orElse(null)
+                : "",
+            AppFilter.getLocale(),
+            TEMPLATE_DELIMITER,
+            TEMPLATE_DELIMITER);
+    maker.setContext(model, nameInContext);
+    maker.setTemplate(formula);
+    String eval = maker.make();
+    CompilerConfiguration conf = new CompilerConfiguration();
+    ImportCustomizer customizer = new ImportCustomizer();
+    customizer.addStaticStars("java.lang.Math");
+    conf.addCompilationCustomizers(customizer);
+    Binding binding = new Binding();
+    GroovyShell shell = new GroovyShell(binding, conf);
+    return new BigDecimal(shell.evaluate(eval).toString());
   }
 }
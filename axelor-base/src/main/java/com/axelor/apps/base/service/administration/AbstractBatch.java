@@ -35,6 +35,9 @@ import com.axelor.utils.helpers.MetaSelectHelper;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.inject.persist.Transactional;
+import com.google.inject.persist.UnitOfWork;
+import com.google.inject.servlet.RequestScoper;
+import com.google.inject.servlet.ServletScopes;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -43,14 +46,20 @@ import java.sql.SQLException;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Inject;
 import org.apache.commons.collections.CollectionUtils;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public abstract class AbstractBatch {
   private static final ThreadLocal<Long> threadBatchId = new ThreadLocal<>();
+  private static final ThreadLocal<AtomicInteger> threadPartitionItemCount =
+      new ThreadLocal<>();
 
   public static final int FETCH_LIMIT = 10;
 
@@ -63,20 +72,23 @@ public abstract class AbstractBatch {
   protected Model model;
 
   @Inject protected BatchRepository batchRepo;
+  @Inject protected UnitOfWork unitOfWork;
 
-  private int done;
-  private int anomaly;
+  private final AtomicInteger done;
+  private final AtomicInteger anomaly;
+
+  protected BatchTelemetry telemetry;
 
   protected AbstractBatch() {
     this.batch = new Batch();
 
     this.batch.setStartDate(ZonedDateTime.now());
 
-    this.done = 0;
-    this.anomaly = 0;
+    this.done = new AtomicInteger();
+    this.anomaly = new AtomicInteger();
 
-    this.batch.setDone(this.done);
-    this.batch.setAnomaly(this.anomaly);
+    this.batch.setDone(this.done.get());
+    this.batch.setAnomaly(this.anomaly.get());
 
     JPA.runInTransaction(() -> batch = JPA.persist(batch));
   }
@@ -114,15 +126,25 @@ public abstract class AbstractBatch {
     if (isRunnable(model)) {
       try {
         threadBatchId.set(batch.getId());
+        telemetry = BatchTelemetry.start(batch.getId());
+        bindTelemetry();
         setHistoryInformation(model);
         start();
-        process();
+        try (BatchTelemetry.Phase phase = telemetry.startPhase(BatchTelemetry.PHASE_PROCESS)) {
+          if (this instanceof PartitionedBatch && getPartitionWorkerCount() > 1) {
+            processPartitions((PartitionedBatch) this);
+          } else {
+            process();
+          }
+        }
         stop();
         return batch;
       } catch (Exception e) {
         throw new RuntimeException(e);
       } finally {
         threadBatchId.remove();
+        telemetry.finish();
+        BatchTelemetry.unbind();
         unarchived();
       }
     } else {
@@ -132,6 +154,89 @@ public abstract class AbstractBatch {
 
   protected abstract void process() throws SQLException;
 
+  protected int getPartitionWorkerCount() {
+    Integer defaultBatchWorkerCount = appBaseService.getAppBase().getDefaultBatchWorkerCount();
+    return defaultBatchWorkerCount == null ? 0 : defaultBatchWorkerCount;
+  }
+
+  protected void processPartitions(PartitionedBatch partitionedBatch) throws SQLException {
+    Map<Long, Long> partitionSizeMap = partitionedBatch.getPartitionSizeMap();
+    if (partitionSizeMap.isEmpty()) {
+      return;
+    }
+
+    partitionedBatch.preparePartitions();
+
+    LOG.info(
+        "Processing batch {} on {} partitions with {} workers",
+        model,
+        partitionSizeMap.size(),
+        Math.min(getPartitionWorkerCount(), partitionSizeMap.size()));
+
+    try {
+      new BatchPartitionExecutor(getPartitionWorkerCount())
+          .execute(
+              partitionSizeMap,
+              partitionKey -> runPartition(partitionedBatch, partitionKey),
+              new BatchPartitionExecutor.PartitionListener() {
+                @Override
+                public void partitionProcessed(Long partitionKey) {
+                  LOG.debug("Partition {} processed", partitionKey);
+                  mergeCounters();
+                }
+
+                @Override
+                public void partitionFailed(Throwable cause, int unprocessedCount) {
+                  TraceBackService.trace(cause, null, batch.getId());
+                  anomaly.addAndGet(unprocessedCount);
+                  for (int i = 0; i < unprocessedCount; i++) {
+                    incrementTelemetryItemCount();
+                  }
+                  mergeCounters();
+                }
+              });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  protected void runPartition(PartitionedBatch partitionedBatch, Long partitionKey)
+      throws PartitionException {
+    final RequestScoper scope = ServletScopes.scopeRequest(Collections.emptyMap());
+    threadPartitionItemCount.set(new AtomicInteger());
+    try (RequestScoper.CloseableScope ignored = scope.open()) {
+      threadBatchId.set(batch.getId());
+      bindTelemetry();
+      partitionedBatch.processPartition(partitionKey);
+    } catch (Exception e) {
+      throw new PartitionException(partitionKey, threadPartitionItemCount.get().get(), e);
+    } finally {
+      threadBatchId.remove();
+      threadPartitionItemCount.remove();
+      BatchTelemetry.unbind();
+      unitOfWork.end();
+    }
+  }
+
+  /** Binds the telemetry of the batch to the current thread and to its persistence context. */
+  protected void bindTelemetry() {
+    telemetry.bind();
+    BatchSessionEventListener.register(JPA.em().unwrap(Session.class));
+  }
+
+  protected boolean isPartitionWorker() {
+    return threadPartitionItemCount.get() != null;
+  }
+
+  /** Writes the counters incremented by the partition workers on the batch. */
+  protected void mergeCounters() {
+    findBatch();
+    batch.setDone(done.get());
+    batch.setAnomaly(anomaly.get());
+    checkPoint();
+  }
+
   protected boolean isRunnable(Model model) {
     this.model = model;
     return !Boolean.TRUE.equals(model.getArchived());
@@ -207,23 +312,43 @@ public abstract class AbstractBatch {
 
     batch.setEndDate(ZonedDateTime.now());
     batch.setDuration(getDuring());
+    setTelemetrySummary();
 
     checkPoint();
 
     LOG.info("Ending batch {} ::: {}", model, batch.getEndDate());
   }
 
+  /** Writes the summary of the telemetry of the batch run on the batch. */
+  protected void setTelemetrySummary() {
+    if (telemetry == null) {
+      return;
+    }
+    telemetry.finish();
+    batch.setItemsPerSecond(telemetry.getItemsPerSecond());
+    batch.setStatementCount(telemetry.getStatementCount());
+    batch.setFlushDuration(telemetry.getFlushMillis());
+    batch.setClearDuration(telemetry.getClearMillis());
+    batch.setPhaseDurations(telemetry.getPhaseSummary());
+  }
+
   protected void incrementDone() {
     findBatch();
     _incrementDone();
   }
 
   protected void _incrementDone() {
-    done += 1;
-    batch.setDone(done);
+    int currentDone = done.incrementAndGet();
+    incrementTelemetryItemCount();
+    incrementPartitionItemCount();
+
+    // counters of the partition workers are merged by the batch thread
+    if (!isPartitionWorker()) {
+      batch.setDone(currentDone);
+    }
     checkPoint();
 
-    LOG.debug("Done ::: {}", done);
+    LOG.debug("Done ::: {}", currentDone);
   }
 
   protected void incrementAnomaly() {
@@ -232,11 +357,42 @@ public abstract class AbstractBatch {
   }
 
   protected void _incrementAnomaly() {
-    anomaly += 1;
-    batch.setAnomaly(anomaly);
+    int currentAnomaly = anomaly.incrementAndGet();
+    incrementTelemetryItemCount();
+    incrementPartitionItemCount();
+
+    if (!isPartitionWorker()) {
+      batch.setAnomaly(currentAnomaly);
+    }
     checkPoint();
 
-    LOG.debug("Anomaly ::: {}", anomaly);
+    LOG.debug("Anomaly ::: {}", currentAnomaly);
+  }
+
+  protected void incrementTelemetryItemCount() {
+    if (telemetry != null) {
+      telemetry.incrementItemCount();
+    }
+  }
+
+  protected void incrementPartitionItemCount() {
+    AtomicInteger partitionItemCount = threadPartitionItemCount.get();
+    if (partitionItemCount != null) {
+      partitionItemCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Clears the persistence context, recording the time spent in the telemetry, and gets the batch
+   * entity back in the persistence context.
+   */
+  protected void clear() {
+    long startTime = System.nanoTime();
+    JPA.clear();
+    if (telemetry != null) {
+      telemetry.addClearTime(System.nanoTime() - startTime);
+    }
+    findBatch();
   }
 
   protected void addComment(String comment) {
@@ -294,6 +450,11 @@ public abstract class AbstractBatch {
   }
 
   protected Batch findBatch() {
+    if (isPartitionWorker()) {
+      // the batch entity is shared with the batch thread and must not be replaced by a worker
+      return batch;
+    }
+
     if (!JPA.em().contains(batch)) {
       batch = JPA.find(Batch.class, batch.getId());
     }
@@ -0,0 +1,111 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+
+/**
+ * Runs the partitions of a {@link PartitionedBatch} on a pool of workers. The workers run as the
+ * user of the calling thread, and the results of the partitions are handed back to the calling
+ * thread as they complete.
+ */
+public class BatchPartitionExecutor {
+
+  public interface PartitionWorker {
+
+    /**
+     * Process a partition in a worker thread.
+     *
+     * @throws PartitionException if the processing stopped on an error.
+     */
+    void process(Long partitionKey) throws PartitionException;
+  }
+
+  public interface PartitionListener {
+
+    void partitionProcessed(Long partitionKey);
+
+    /**
+     * Called when a partition stopped on an error.
+     *
+     * @param cause the error.
+     * @param unprocessedCount the number of records of the partition which were not processed,
+     *     one at least.
+     */
+    void partitionFailed(Throwable cause, int unprocessedCount);
+  }
+
+  protected final int workerCount;
+
+  public BatchPartitionExecutor(int workerCount) {
+    this.workerCount = workerCount;
+  }
+
+  public void execute(
+      Map<Long, Long> partitionSizeMap, PartitionWorker worker, PartitionListener listener)
+      throws InterruptedException {
+    if (partitionSizeMap.isEmpty()) {
+      return;
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(Math.min(workerCount, partitionSizeMap.size()));
+    CompletionService<Long> completionService = new ExecutorCompletionService<>(executor);
+    Subject subject = ThreadContext.getSubject();
+
+    try {
+      for (Long partitionKey : partitionSizeMap.keySet()) {
+        Callable<Long> task =
+            () -> {
+              worker.process(partitionKey);
+              return partitionKey;
+            };
+        completionService.submit(subject != null ? subject.associateWith(task) : task);
+      }
+
+      for (int i = 0; i < partitionSizeMap.size(); i++) {
+        try {
+          listener.partitionProcessed(completionService.take().get());
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          int unprocessedCount = 1;
+          if (cause instanceof PartitionException) {
+            PartitionException partitionException = (PartitionException) cause;
+            long partitionSize =
+                partitionSizeMap.getOrDefault(partitionException.getPartitionKey(), 0L);
+            unprocessedCount =
+                (int) Math.max(1, partitionSize - partitionException.getProcessedCount());
+            cause = partitionException.getCause();
+          }
+          listener.partitionFailed(cause, unprocessedCount);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
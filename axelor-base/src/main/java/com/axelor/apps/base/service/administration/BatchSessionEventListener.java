@@ -0,0 +1,95 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+
+/**
+ * Reports the statements prepared, the time spent executing them and the flushes of a Hibernate
+ * session to the {@link BatchTelemetry} bound to the current thread. Outside of a batch run, events
+ * are ignored.
+ */
+@SuppressWarnings("serial")
+public class BatchSessionEventListener extends BaseSessionEventListener {
+
+  private static final Set<Session> registeredSessions =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private long executeStartTime;
+  private long flushStartTime;
+
+  /** Registers a listener on the given session, unless one is already registered. */
+  public static void register(Session session) {
+    if (registeredSessions.add(session)) {
+      session.addEventListeners(new BatchSessionEventListener());
+    }
+  }
+
+  @Override
+  public void jdbcPrepareStatementStart() {
+    BatchTelemetry telemetry = BatchTelemetry.current();
+    if (telemetry != null) {
+      telemetry.incrementStatementCount();
+    }
+  }
+
+  @Override
+  public void jdbcExecuteStatementStart() {
+    executeStartTime = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    addQueryTime();
+  }
+
+  @Override
+  public void jdbcExecuteBatchStart() {
+    executeStartTime = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    addQueryTime();
+  }
+
+  protected void addQueryTime() {
+    BatchTelemetry telemetry = BatchTelemetry.current();
+    if (telemetry != null) {
+      telemetry.addPhaseTime(BatchTelemetry.PHASE_QUERY, System.nanoTime() - executeStartTime);
+    }
+  }
+
+  @Override
+  public void flushStart() {
+    flushStartTime = System.nanoTime();
+  }
+
+  @Override
+  public void flushEnd(int numberOfEntities, int numberOfCollections) {
+    BatchTelemetry telemetry = BatchTelemetry.current();
+    if (telemetry != null) {
+      telemetry.addFlushTime(System.nanoTime() - flushStartTime);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Performance counters of a batch run: processed items, time spent by phase, SQL statements and
+ * time spent flushing and clearing the persistence context. The counters can be updated from the
+ * batch thread and from its partition workers, and are readable while the batch is running.
+ */
+public class BatchTelemetry {
+
+  public static final String PHASE_PROCESS = "process";
+  public static final String PHASE_QUERY = "query";
+  public static final String PHASE_SEQUENCE = "sequence";
+  public static final String PHASE_SCRIPT = "script";
+
+  private static final ThreadLocal<BatchTelemetry> currentTelemetry = new ThreadLocal<>();
+  private static final Map<Long, BatchTelemetry> runningTelemetryMap = new ConcurrentHashMap<>();
+
+  private final Long batchId;
+  private final long startTime;
+  private volatile long endTime;
+
+  private final LongAdder itemCount = new LongAdder();
+  private final LongAdder statementCount = new LongAdder();
+  private final LongAdder flushCount = new LongAdder();
+  private final LongAdder flushTime = new LongAdder();
+  private final LongAdder clearCount = new LongAdder();
+  private final LongAdder clearTime = new LongAdder();
+  private final Map<String, LongAdder> phaseTimeMap = new ConcurrentHashMap<>();
+
+  protected BatchTelemetry(Long batchId) {
+    this.batchId = batchId;
+    this.startTime = System.nanoTime();
+  }
+
+  /** Creates the telemetry of a batch run, available with {@link #get(Long)} until finished. */
+  public static BatchTelemetry start(Long batchId) {
+    BatchTelemetry telemetry = new BatchTelemetry(batchId);
+    runningTelemetryMap.put(batchId, telemetry);
+    return telemetry;
+  }
+
+  public static BatchTelemetry get(Long batchId) {
+    return runningTelemetryMap.get(batchId);
+  }
+
+  public static Collection<BatchTelemetry> getRunningTelemetries() {
+    return Collections.unmodifiableCollection(runningTelemetryMap.values());
+  }
+
+  /** Returns the telemetry bound to the current thread, or <code>null</code> outside batches. */
+  public static BatchTelemetry current() {
+    return currentTelemetry.get();
+  }
+
+  public void bind() {
+    currentTelemetry.set(this);
+  }
+
+  public static void unbind() {
+    currentTelemetry.remove();
+  }
+
+  /** Stops the clock of the batch run. Calling it again has no effect. */
+  public void finish() {
+    if (endTime == 0) {
+      endTime = System.nanoTime();
+    }
+    runningTelemetryMap.remove(batchId, this);
+  }
+
+  /**
+   * Starts timing a phase of the batch, to be used in a try-with-resources statement. The time of
+   * every run of a phase is added up, including the runs from partition workers. Phases can be
+   * nested, the time of a query run while generating a sequence counts in both phases.
+   */
+  public Phase startPhase(String name) {
+    return new Phase(this, name);
+  }
+
+  /**
+   * Starts timing a phase of the batch bound to the current thread. Outside of a batch run, the
+   * returned phase records nothing, so services can be instrumented whoever calls them.
+   */
+  public static Phase startCurrentPhase(String name) {
+    return new Phase(current(), name);
+  }
+
+  public void addPhaseTime(String name, long nanos) {
+    phaseTimeMap.computeIfAbsent(name, key -> new LongAdder()).add(nanos);
+  }
+
+  public void incrementItemCount() {
+    itemCount.increment();
+  }
+
+  public void incrementStatementCount() {
+    statementCount.increment();
+  }
+
+  public void addFlushTime(long nanos) {
+    flushCount.increment();
+    flushTime.add(nanos);
+  }
+
+  public void addClearTime(long nanos) {
+    clearCount.increment();
+    clearTime.add(nanos);
+  }
+
+  public Long getBatchId() {
+    return batchId;
+  }
+
+  public boolean isFinished() {
+    return endTime != 0;
+  }
+
+  public long getElapsedMillis() {
+    long end = isFinished() ? endTime : System.nanoTime();
+    return TimeUnit.NANOSECONDS.toMillis(end - startTime);
+  }
+
+  public long getItemCount() {
+    return itemCount.sum();
+  }
+
+  public BigDecimal getItemsPerSecond() {
+    long elapsedMillis = getElapsedMillis();
+    if (elapsedMillis == 0) {
+      return BigDecimal.ZERO;
+    }
+    return BigDecimal.valueOf(getItemCount() * 1000)
+        .divide(BigDecimal.valueOf(elapsedMillis), 2, RoundingMode.HALF_UP);
+  }
+
+  public long getStatementCount() {
+    return statementCount.sum();
+  }
+
+  public long getFlushCount() {
+    return flushCount.sum();
+  }
+
+  public long getFlushMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(flushTime.sum());
+  }
+
+  public long getClearCount() {
+    return clearCount.sum();
+  }
+
+  public long getClearMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(clearTime.sum());
+  }
+
+  /** Returns the time spent in each phase in milliseconds, sorted by phase name. */
+  public Map<String, Long> getPhaseMillis() {
+    Map<String, Long> phaseMillis = new TreeMap<>();
+    phaseTimeMap.forEach(
+        (name, time) -> phaseMillis.put(name, TimeUnit.NANOSECONDS.toMillis(time.sum())));
+    return phaseMillis;
+  }
+
+  /** Returns the time spent in each phase, one phase per line, as stored on the batch. */
+  public String getPhaseSummary() {
+    StringBuilder summary = new StringBuilder();
+    getPhaseMillis()
+        .forEach(
+            (name, millis) -> {
+              if (summary.length() > 0) {
+                summary.append('\n');
+              }
+              summary.append(name).append(": ").append(millis).append(" ms");
+            });
+    return summary.toString();
+  }
+
+  public static class Phase implements AutoCloseable {
+
+    private final BatchTelemetry telemetry;
+    private final String name;
+    private final long phaseStartTime;
+
+    protected Phase(BatchTelemetry telemetry, String name) {
+      this.telemetry = telemetry;
+      this.name = name;
+      this.phaseStartTime = System.nanoTime();
+    }
+
+    @Override
+    public void close() {
+      if (telemetry != null) {
+        telemetry.addPhaseTime(name, System.nanoTime() - phaseStartTime);
+      }
+    }
+  }
+}
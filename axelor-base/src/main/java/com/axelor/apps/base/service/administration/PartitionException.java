@@ -0,0 +1,43 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+/** Thrown by a partition worker when the processing of its partition stopped on an error. */
+public class PartitionException extends Exception {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Long partitionKey;
+  private final int processedCount;
+
+  public PartitionException(Long partitionKey, int processedCount, Throwable cause) {
+    super(cause);
+    this.partitionKey = partitionKey;
+    this.processedCount = processedCount;
+  }
+
+  public Long getPartitionKey() {
+    return partitionKey;
+  }
+
+  /** Returns the number of records of the partition processed before the error. */
+  public int getProcessedCount() {
+    return processedCount;
+  }
+}
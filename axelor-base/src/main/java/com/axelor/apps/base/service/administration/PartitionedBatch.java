@@ -0,0 +1,55 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * A batch which can split its work on a partition key (company, partner, product, account...).
+ * When more than one worker is configured, the partitions are processed concurrently by a pool of
+ * workers, each one with its own entity manager; otherwise the batch is processed with {@link
+ * AbstractBatch#process()}.
+ */
+public interface PartitionedBatch {
+
+  /**
+   * Returns the ids of the partition keys to process, with the number of records of each
+   * partition. Two partitions must never update the same records, as they are processed
+   * concurrently.
+   *
+   * @return the number of records by partition key id.
+   */
+  Map<Long, Long> getPartitionSizeMap();
+
+  /**
+   * Process every record belonging to the given partition key. This method is called from a worker
+   * thread with its own entity manager: the {@code batch} entity must only be used for its id and
+   * the values read in {@link #preparePartitions()}.
+   *
+   * @param partitionKey the id of the partition key.
+   */
+  void processPartition(Long partitionKey) throws SQLException;
+
+  /**
+   * Called once before the partitions are dispatched to the workers, to read the values shared by
+   * every partition in the batch thread.
+   */
+  default void preparePartitions() {}
+}
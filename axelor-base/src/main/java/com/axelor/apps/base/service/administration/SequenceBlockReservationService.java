@@ -0,0 +1,49 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Sequence;
+import com.axelor.apps.base.db.SequenceVersion;
+
+/**
+ * Serves sequence numbers from blocks reserved in the database by a short separate transaction, so
+ * that sequences allowed to contain gaps do not lock their version until the end of the calling
+ * transaction.
+ */
+public interface SequenceBlockReservationService {
+
+  /**
+   * Returns the next number of the given persisted sequence version, reserving a new block of
+   * numbers if the block held by this node is exhausted.
+   *
+   * @param sequenceVersion a persisted sequence version
+   * @return the next number
+   * @throws AxelorException if the block could not be reserved
+   */
+  long getNextNum(SequenceVersion sequenceVersion) throws AxelorException;
+
+  /**
+   * Drops the blocks held by this node for the versions of the given sequence. The remaining
+   * numbers of these blocks are lost.
+   *
+   * @param sequence a sequence
+   */
+  void invalidate(Sequence sequence);
+}
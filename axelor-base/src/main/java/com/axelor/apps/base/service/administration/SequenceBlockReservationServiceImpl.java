@@ -0,0 +1,238 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Sequence;
+import com.axelor.apps.base.db.SequenceVersion;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.UnitOfWork;
+import com.google.inject.servlet.RequestScoper;
+import com.google.inject.servlet.ServletScopes;
+import java.lang.invoke.MethodHandles;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@ThreadSafe
+@Singleton
+public class SequenceBlockReservationServiceImpl implements SequenceBlockReservationService {
+
+  protected static final int DEFAULT_BLOCK_SIZE = 50;
+
+  protected final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  protected final UnitOfWork unitOfWork;
+
+  /** Blocks held by this node, by sequence version id. */
+  protected final ConcurrentMap<Long, ReservedBlock> reservedBlockMap = new ConcurrentHashMap<>();
+
+  /** Maximum time to wait for a reservation before falling back to the current transaction. */
+  protected static final long RESERVATION_TIMEOUT_SECONDS = 10;
+
+  /**
+   * Reservations are made from dedicated threads, in order to commit them independently of the
+   * transaction which asked for a number. Reservations of a same version are already serialized by
+   * its block, so different sequences are reserved concurrently.
+   */
+  protected final ExecutorService reservationExecutor =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setNameFormat("sequence-block-reservation-%d")
+              .setDaemon(true)
+              .build());
+
+  @Inject
+  public SequenceBlockReservationServiceImpl(UnitOfWork unitOfWork) {
+    this.unitOfWork = unitOfWork;
+  }
+
+  @Override
+  public long getNextNum(SequenceVersion sequenceVersion) throws AxelorException {
+    Sequence sequence = sequenceVersion.getSequence();
+    ReservedBlock reservedBlock =
+        reservedBlockMap.computeIfAbsent(
+            sequenceVersion.getId(), id -> new ReservedBlock(sequence.getId()));
+
+    synchronized (reservedBlock) {
+      if (reservedBlock.isExhausted()) {
+        int toBeAdded = sequence.getToBeAdded();
+        int blockSize = getBlockSize(sequence);
+        Long firstNum =
+            isLockedByCurrentTransaction(sequenceVersion)
+                ? null
+                : reserveBlock(sequenceVersion.getId(), (long) toBeAdded * blockSize);
+        if (firstNum == null) {
+          return reserveInCurrentTransaction(sequenceVersion);
+        }
+        reservedBlock.reset(firstNum, firstNum + (long) toBeAdded * blockSize, toBeAdded);
+      }
+      return reservedBlock.next();
+    }
+  }
+
+  @Override
+  public void invalidate(Sequence sequence) {
+    if (sequence.getId() == null) {
+      return;
+    }
+    reservedBlockMap.values().removeIf(block -> sequence.getId().equals(block.getSequenceId()));
+  }
+
+  protected int getBlockSize(Sequence sequence) {
+    Integer blockSize = sequence.getReservedBlockSize();
+    return blockSize == null || blockSize <= 0 ? DEFAULT_BLOCK_SIZE : blockSize;
+  }
+
+  /**
+   * A separate transaction would wait for the lock held by the current one until it ends, which
+   * never happens while the current transaction waits for the reservation.
+   */
+  protected boolean isLockedByCurrentTransaction(SequenceVersion sequenceVersion) {
+    EntityManager em = JPA.em();
+    return em.getTransaction().isActive()
+        && em.contains(sequenceVersion)
+        && em.getLockMode(sequenceVersion) == LockModeType.PESSIMISTIC_WRITE;
+  }
+
+  /**
+   * Moves the next number of the sequence version forward in a separate transaction.
+   *
+   * @return the first number of the reserved block, or null if the version could not be reserved
+   *     in time or is not visible outside of the current transaction yet
+   */
+  protected Long reserveBlock(Long sequenceVersionId, long increment) throws AxelorException {
+    Future<Long> future =
+        reservationExecutor.submit(
+            () -> reserveBlockInNewTransaction(sequenceVersionId, increment));
+    try {
+      return future.get(RESERVATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (TimeoutException e) {
+      // The reservation may still succeed later on, its numbers are then lost.
+      future.cancel(true);
+      log.warn(
+          "Sequence version {} : block reservation timed out, reserved in current transaction",
+          sequenceVersionId);
+      return null;
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new AxelorException(
+          e,
+          TraceBackRepository.CATEGORY_INCONSISTENCY,
+          I18n.get(BaseExceptionMessage.SEQUENCE_BLOCK_RESERVATION_FAILED));
+    } catch (ExecutionException e) {
+      throw new AxelorException(
+          e.getCause(),
+          TraceBackRepository.CATEGORY_INCONSISTENCY,
+          I18n.get(BaseExceptionMessage.SEQUENCE_BLOCK_RESERVATION_FAILED));
+    }
+  }
+
+  protected Long reserveBlockInNewTransaction(Long sequenceVersionId, long increment) {
+    final RequestScoper scope = ServletScopes.scopeRequest(Collections.emptyMap());
+    try (RequestScoper.CloseableScope ignored = scope.open()) {
+      AtomicReference<Long> firstNum = new AtomicReference<>();
+      JPA.runInTransaction(
+          () -> {
+            SequenceVersion sequenceVersion =
+                JPA.em()
+                    .find(SequenceVersion.class, sequenceVersionId, LockModeType.PESSIMISTIC_WRITE);
+            if (sequenceVersion == null) {
+              return;
+            }
+            firstNum.set(sequenceVersion.getNextNum());
+            sequenceVersion.setNextNum(sequenceVersion.getNextNum() + increment);
+          });
+      log.debug(
+          "Sequence version {} : numbers reserved from {} (+{})",
+          sequenceVersionId,
+          firstNum.get(),
+          increment);
+      return firstNum.get();
+    } finally {
+      unitOfWork.end();
+    }
+  }
+
+  /**
+   * Serves a single number by locking the version in the current transaction, as for gapless
+   * sequences. No block is kept, as the number is lost if the current transaction is rolled back.
+   */
+  protected long reserveInCurrentTransaction(SequenceVersion sequenceVersion) {
+    EntityManager em = JPA.em();
+    if (!isLockedByCurrentTransaction(sequenceVersion)) {
+      em.flush();
+      em.refresh(sequenceVersion, LockModeType.PESSIMISTIC_WRITE);
+    }
+    long nextNum = sequenceVersion.getNextNum();
+    sequenceVersion.setNextNum(nextNum + sequenceVersion.getSequence().getToBeAdded());
+    return nextNum;
+  }
+
+  protected static class ReservedBlock {
+
+    private final Long sequenceId;
+    private long nextNum;
+    private long endNum;
+    private int toBeAdded;
+
+    protected ReservedBlock(Long sequenceId) {
+      this.sequenceId = sequenceId;
+    }
+
+    protected Long getSequenceId() {
+      return sequenceId;
+    }
+
+    protected boolean isExhausted() {
+      return nextNum >= endNum;
+    }
+
+    protected void reset(long firstNum, long endNum, int toBeAdded) {
+      this.nextNum = firstNum;
+      this.endNum = endNum;
+      this.toBeAdded = toBeAdded;
+    }
+
+    protected long next() {
+      long num = nextNum;
+      nextNum += toBeAdded;
+      return num;
+    }
+  }
+}
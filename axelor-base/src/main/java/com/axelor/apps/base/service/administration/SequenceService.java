@@ -91,17 +91,21 @@ public class SequenceService {
 
   protected final SequenceRepository sequenceRepo;
 
+  protected final SequenceBlockReservationService sequenceBlockReservationService;
+
   @Inject
   public SequenceService(
       SequenceVersionRepository sequenceVersionRepository,
       AppBaseService appBaseService,
       SequenceRepository sequenceRepo,
-      SequenceVersionGeneratorService sequenceVersionGeneratorService) {
+      SequenceVersionGeneratorService sequenceVersionGeneratorService,
+      SequenceBlockReservationService sequenceBlockReservationService) {
 
     this.sequenceVersionRepository = sequenceVersionRepository;
     this.appBaseService = appBaseService;
     this.sequenceRepo = sequenceRepo;
     this.sequenceVersionGeneratorService = sequenceVersionGeneratorService;
+    this.sequenceBlockReservationService = sequenceBlockReservationService;
   }
 
   public static boolean isYearValid(Sequence sequence) {
@@ -217,10 +221,12 @@ public class SequenceService {
   }
 
   protected String getSequenceValue(SequenceVersion sequenceVersion) throws AxelorException {
+    return getSequenceValue(sequenceVersion.getSequence(), sequenceVersion.getNextNum());
+  }
+
+  protected String getSequenceValue(Sequence sequence, Long nextNum) throws AxelorException {
 
-    Sequence sequence = sequenceVersion.getSequence();
     SequenceTypeSelect sequenceTypeSelect = sequence.getSequenceTypeSelect();
-    Long nextNum = sequenceVersion.getNextNum();
 
     String padStr;
     String nextSequence;
@@ -245,7 +251,7 @@ public class SequenceService {
 
       default:
         throw new AxelorException(
-            sequenceVersion,
+            sequence,
             TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
             I18n.get(BaseExceptionMessage.SEQUENCE_TYPE_UNHANDLED),
             sequenceTypeSelect);
@@ -496,6 +502,22 @@ public class SequenceService {
           TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
           BaseExceptionMessage.SEQUENCE_PREFIX,
           draftPrefix);
+
+    if (sequence.getReservedBlockOk() && !isReservedBlockAllowed(sequence))
+      throw new AxelorException(
+          sequence,
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(BaseExceptionMessage.SEQUENCE_RESERVED_BLOCK_NOT_ALLOWED));
+  }
+
+  /**
+   * Numbers reserved by block can contain gaps, which is not allowed for gapless sequences.
+   *
+   * @param sequence
+   * @return
+   */
+  public boolean isReservedBlockAllowed(Sequence sequence) {
+    return !sequence.getGaplessOk();
   }
 
   public String getSequenceNumber(
@@ -540,6 +562,27 @@ public class SequenceService {
   public String getSequenceNumber(
       Sequence sequence, LocalDate refDate, Class objectClass, String fieldName, Model model)
       throws AxelorException {
+    try (BatchTelemetry.Phase phase =
+        BatchTelemetry.startCurrentPhase(BatchTelemetry.PHASE_SEQUENCE)) {
+      return generateSequenceNumber(sequence, refDate, objectClass, fieldName, model);
+    }
+  }
+
+  protected String generateSequenceNumber(
+      Sequence sequence, LocalDate refDate, Class objectClass, String fieldName, Model model)
+      throws AxelorException {
+    if (sequence.getReservedBlockOk() && isReservedBlockAllowed(sequence)) {
+      String nextSeq = getReservedSequenceNumber(sequence, refDate, model);
+      if (nextSeq != null) {
+        if (appBaseService.getAppBase().getCheckExistingSequenceOnGeneration()
+            && objectClass != null
+            && !Strings.isNullOrEmpty(fieldName)) {
+          this.isSequenceAlreadyExisting(objectClass, fieldName, nextSeq, sequence);
+        }
+        return nextSeq;
+      }
+    }
+
     Sequence seq =
         JPA.em()
             .createQuery("SELECT self FROM Sequence self WHERE id = :id", Sequence.class)
@@ -563,9 +606,33 @@ public class SequenceService {
     return nextSeq;
   }
 
+  /**
+   * Returns a sequence number served from a block reserved by this node, without locking the
+   * sequence in the current transaction.
+   *
+   * @return the sequence number, or null if the sequence version has not been saved yet, in which
+   *     case the number has to be computed by the locking path which creates the version.
+   */
+  protected String getReservedSequenceNumber(Sequence sequence, LocalDate refDate, Model model)
+      throws AxelorException {
+    Sequence seq = sequenceRepo.find(sequence.getId());
+    SequenceVersion sequenceVersion = getVersion(seq, refDate);
+    if (sequenceVersion.getId() == null) {
+      return null;
+    }
+
+    long nextNum = sequenceBlockReservationService.getNextNum(sequenceVersion);
+    return computeSequenceNumber(seq, nextNum, refDate, model);
+  }
+
   protected String computeSequenceNumber(
       SequenceVersion sequenceVersion, Sequence sequence, LocalDate refDate, Model model)
       throws AxelorException {
+    return computeSequenceNumber(sequence, sequenceVersion.getNextNum(), refDate, model);
+  }
+
+  protected String computeSequenceNumber(
+      Sequence sequence, Long nextNum, LocalDate refDate, Model model) throws AxelorException {
     String seqPrefixe = StringUtils.defaultString(sequence.getPrefixe(), "");
     String seqSuffixe = StringUtils.defaultString(sequence.getSuffixe(), "");
     if (sequence.getPrefixGroovyOk()) {
@@ -575,7 +642,7 @@ public class SequenceService {
       seqSuffixe = StringUtils.defaultString(getGroovyValue(sequence.getSuffixGroovy(), model), "");
     }
 
-    String sequenceValue = getSequenceValue(sequenceVersion);
+    String sequenceValue = getSequenceValue(sequence, nextNum);
 
     String nextSeq =
         (seqPrefixe + sequenceValue + seqSuffixe)
@@ -597,7 +664,10 @@ public class SequenceService {
     if (!Strings.isNullOrEmpty(prefixOrSuffix) && Objects.nonNull(model)) {
       try {
         Context cxt = new Context(Mapper.toMap(model), EntityHelper.getEntityClass(model));
-        return String.valueOf(new GroovyScriptHelper(cxt).eval(prefixOrSuffix));
+        try (BatchTelemetry.Phase phase =
+            BatchTelemetry.startCurrentPhase(BatchTelemetry.PHASE_SCRIPT)) {
+          return String.valueOf(new GroovyScriptHelper(cxt).eval(prefixOrSuffix));
+        }
 
       } catch (Exception e) {
         throw new AxelorException(
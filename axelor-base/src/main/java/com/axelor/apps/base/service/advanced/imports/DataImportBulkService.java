@@ -0,0 +1,44 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.advanced.imports;
+
+import com.axelor.apps.base.db.FileTab;
+import com.axelor.apps.base.service.imports.listener.ImporterListener;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+public interface DataImportBulkService {
+
+  /**
+   * Check whether the records of the tab can be imported in bulk: the tab only creates records,
+   * has no action, and its fields are either simple values or references searched on a single
+   * field of the referenced object.
+   */
+  public boolean isBulkImportable(FileTab fileTab) throws ClassNotFoundException;
+
+  /**
+   * Import the data file generated for the tab by chunks of records, reporting the records which
+   * could not be imported in the listener.
+   *
+   * @return the ids of the created records
+   */
+  public List<Long> importData(FileTab fileTab, File dataFile, ImporterListener listener)
+      throws IOException, ClassNotFoundException;
+}
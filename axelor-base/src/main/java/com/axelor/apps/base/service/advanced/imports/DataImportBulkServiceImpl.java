@@ -0,0 +1,573 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.advanced.imports;
+
+import com.axelor.app.AppSettings;
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.FileField;
+import com.axelor.apps.base.db.FileTab;
+import com.axelor.apps.base.db.repo.FileFieldRepository;
+import com.axelor.apps.base.db.repo.TraceBackRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.imports.listener.ImporterListener;
+import com.axelor.common.StringUtils;
+import com.axelor.common.csv.CSVFile;
+import com.axelor.db.JPA;
+import com.axelor.db.JpaRepository;
+import com.axelor.db.Model;
+import com.axelor.db.mapper.Mapper;
+import com.axelor.db.mapper.Property;
+import com.axelor.i18n.I18n;
+import com.google.common.base.Strings;
+import com.google.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DataImportBulkServiceImpl implements DataImportBulkService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final char CSV_SEPRATOR = ';';
+
+  protected static final int DEFAULT_CHUNK_SIZE = 1000;
+
+  protected static final List<Class<?>> SUPPORTED_TYPES =
+      Arrays.asList(
+          String.class,
+          Integer.class,
+          int.class,
+          Long.class,
+          long.class,
+          BigDecimal.class,
+          Boolean.class,
+          boolean.class,
+          LocalDate.class,
+          LocalDateTime.class,
+          LocalTime.class,
+          ZonedDateTime.class);
+
+  protected AdvancedImportService advancedImportService;
+
+  @Inject
+  public DataImportBulkServiceImpl(AdvancedImportService advancedImportService) {
+    this.advancedImportService = advancedImportService;
+  }
+
+  @Override
+  public boolean isBulkImportable(FileTab fileTab) throws ClassNotFoundException {
+    if (fileTab.getMetaModel() == null
+        || fileTab.getImportType() != FileFieldRepository.IMPORT_TYPE_NEW
+        || StringUtils.notBlank(fileTab.getActions())
+        || CollectionUtils.isEmpty(fileTab.getFileFieldList())) {
+      return false;
+    }
+
+    Mapper mapper = advancedImportService.getMapper(fileTab.getMetaModel().getFullName());
+    if (overridesSave(getRepositoryClass(mapper))) {
+      return false;
+    }
+
+    for (FileField fileField : fileTab.getFileFieldList()) {
+      if (fileField.getImportType() != FileFieldRepository.IMPORT_TYPE_IGNORE_EMPTY
+          && createBulkField(fileField, mapper) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Class<?> getRepositoryClass(Mapper mapper) {
+    return JpaRepository.of((Class<? extends Model>) mapper.getBeanClass()).getClass();
+  }
+
+  /**
+   * The bulk import persists the records directly, so the records of a model whose repository
+   * computes values on save (names, sequences...) must be imported one by one with the repository.
+   *
+   * @return true if a repository class, other than the classes generated by Guice, declares a save
+   *     method
+   */
+  protected boolean overridesSave(Class<?> repositoryClass) {
+    for (Class<?> klass = repositoryClass;
+        klass != null && klass != JpaRepository.class;
+        klass = klass.getSuperclass()) {
+      if (klass.isSynthetic() || klass.getName().contains("$$")) {
+        continue;
+      }
+      for (Method method : klass.getDeclaredMethods()) {
+        if ("save".equals(method.getName()) && method.getParameterCount() == 1) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public List<Long> importData(FileTab fileTab, File dataFile, ImporterListener listener)
+      throws IOException, ClassNotFoundException {
+
+    Mapper mapper = advancedImportService.getMapper(fileTab.getMetaModel().getFullName());
+
+    // Same columns, in the same order, as the data written for the tab: the tab is reloaded for
+    // the import, so its fields are sorted again as ValidatorService.sortFileFieldList does.
+    List<FileField> fileFieldList = new ArrayList<>(fileTab.getFileFieldList());
+    fileFieldList.sort(Comparator.comparing(FileField::getSequence));
+    List<BulkField> fieldList = new ArrayList<>();
+    for (FileField fileField : fileFieldList) {
+      if (fileField.getImportType() != FileFieldRepository.IMPORT_TYPE_IGNORE_EMPTY) {
+        fieldList.add(createBulkField(fileField, mapper));
+      }
+    }
+
+    int chunkSize = getChunkSize();
+    List<Long> idList = new ArrayList<>();
+    List<String[]> rowList = new ArrayList<>(chunkSize);
+    int recordCount = 0;
+
+    CSVFile csvFormat =
+        CSVFile.DEFAULT.withDelimiter(CSV_SEPRATOR).withQuoteAll().withFirstRecordAsHeader();
+    try (CSVParser csvParser = csvFormat.parse(dataFile, StandardCharsets.UTF_8)) {
+      for (CSVRecord record : csvParser) {
+        rowList.add(CSVFile.values(record));
+        recordCount++;
+
+        if (rowList.size() == chunkSize) {
+          int firstRecord = recordCount - rowList.size() + 1;
+          importChunk(fileTab, mapper, fieldList, rowList, firstRecord, listener, idList);
+          rowList.clear();
+        }
+      }
+    }
+
+    if (!rowList.isEmpty()) {
+      int firstRecord = recordCount - rowList.size() + 1;
+      importChunk(fileTab, mapper, fieldList, rowList, firstRecord, listener, idList);
+    }
+
+    LOG.debug(
+        "Bulk import of {} : {} records imported out of {}",
+        fileTab.getName(),
+        idList.size(),
+        recordCount);
+    return idList;
+  }
+
+  protected int getChunkSize() {
+    int chunkSize = AppSettings.get().getInt("advanced.import.bulk.chunk-size", DEFAULT_CHUNK_SIZE);
+    return chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+  }
+
+  protected BulkField createBulkField(FileField fileField, Mapper mapper)
+      throws ClassNotFoundException {
+
+    if (fileField.getImportField() == null
+        || !fileField.getIsMatchWithFile()
+        || StringUtils.notBlank(fileField.getExpression())
+        || StringUtils.notBlank(fileField.getNoImportIf())) {
+      return null;
+    }
+
+    Property prop = mapper.getProperty(fileField.getImportField().getName());
+    if (prop == null || prop.isCollection() || prop.isVirtual()) {
+      return null;
+    }
+
+    DateTimeFormatter formatter =
+        StringUtils.notBlank(fileField.getDateFormat())
+            ? DateTimeFormatter.ofPattern(fileField.getDateFormat().trim())
+            : null;
+
+    String subField = fileField.getSubImportField();
+    if (Strings.isNullOrEmpty(subField)) {
+      if (prop.getTarget() != null || !SUPPORTED_TYPES.contains(prop.getJavaType())) {
+        return null;
+      }
+      return new BulkField(prop, null, formatter);
+    }
+
+    if (prop.getTarget() == null
+        || subField.contains(".")
+        || fileField.getImportType() != FileFieldRepository.IMPORT_TYPE_FIND) {
+      return null;
+    }
+
+    Property referenceProp =
+        advancedImportService.getMapper(prop.getTarget().getName()).getProperty(subField.trim());
+    if (referenceProp == null
+        || referenceProp.getTarget() != null
+        || referenceProp.isVirtual()
+        || !SUPPORTED_TYPES.contains(referenceProp.getJavaType())) {
+      return null;
+    }
+    return new BulkField(prop, referenceProp, formatter);
+  }
+
+  protected void importChunk(
+      FileTab fileTab,
+      Mapper mapper,
+      List<BulkField> fieldList,
+      List<String[]> rowList,
+      int firstRecord,
+      ImporterListener listener,
+      List<Long> idList) {
+
+    List<String> errorList = new ArrayList<>();
+    List<Map<Object, Long>> referenceList = findReferences(fieldList, rowList);
+    List<Model> beanList = new ArrayList<>(rowList.size());
+    List<Integer> beanIndexList = new ArrayList<>(rowList.size());
+
+    for (int index = 0; index < rowList.size(); index++) {
+      try {
+        beanList.add(createBean(mapper, fieldList, referenceList, rowList.get(index)));
+        beanIndexList.add(index);
+      } catch (AxelorException e) {
+        errorList.add(
+            String.format(
+                I18n.get(BaseExceptionMessage.ADVANCED_IMPORT_BULK_RECORD_ERROR),
+                firstRecord + index,
+                e.getMessage()));
+      }
+    }
+
+    int success;
+    try {
+      persist(beanList);
+      beanList.stream().map(Model::getId).forEach(idList::add);
+      success = beanList.size();
+    } catch (Exception e) {
+      LOG.debug("Bulk import of {} : chunk rejected, retrying record by record", fileTab.getName());
+      success =
+          persistOneByOne(
+              mapper, fieldList, rowList, beanIndexList, firstRecord, errorList, idList);
+    }
+
+    listener.imported(rowList.size(), success);
+    if (!errorList.isEmpty()) {
+      errorList.add(
+          0,
+          String.format(
+              I18n.get(BaseExceptionMessage.ADVANCED_IMPORT_BULK_CHUNK_ERROR),
+              fileTab.getName(),
+              firstRecord,
+              firstRecord + rowList.size() - 1,
+              rowList.size() - success));
+      listener.handle(
+          null,
+          new AxelorException(
+              TraceBackRepository.CATEGORY_INCONSISTENCY, String.join("\n", errorList)));
+    }
+  }
+
+  /**
+   * Find the ids of the records referenced by the chunk, with one query for each reference field.
+   *
+   * @return for each field, the ids of the referenced records by searched value, or null if the
+   *     field is not a reference
+   */
+  protected List<Map<Object, Long>> findReferences(
+      List<BulkField> fieldList, List<String[]> rowList) {
+
+    List<Map<Object, Long>> referenceList = new ArrayList<>(fieldList.size());
+
+    for (int index = 0; index < fieldList.size(); index++) {
+      BulkField field = fieldList.get(index);
+      Property referenceProp = field.getReferenceProperty();
+      if (referenceProp == null) {
+        referenceList.add(null);
+        continue;
+      }
+
+      Set<Object> valueSet = new HashSet<>();
+      for (String[] row : rowList) {
+        String value = getValue(row, index);
+        if (Strings.isNullOrEmpty(value)) {
+          continue;
+        }
+        try {
+          valueSet.add(convert(referenceProp, field.getFormatter(), value));
+        } catch (AxelorException e) {
+          // Reported when the record is created.
+        }
+      }
+
+      Map<Object, Long> idMap = new HashMap<>();
+      if (!valueSet.isEmpty()) {
+        String query =
+            String.format(
+                "SELECT self.%1$s, self.id FROM %2$s self WHERE self.%1$s IN :values",
+                referenceProp.getName(),
+                field.getProperty().getTarget().getSimpleName());
+
+        List<Object[]> resultList =
+            JPA.em()
+                .createQuery(query, Object[].class)
+                .setParameter("values", valueSet)
+                .getResultList();
+        for (Object[] result : resultList) {
+          idMap.putIfAbsent(result[0], (Long) result[1]);
+        }
+      }
+      referenceList.add(idMap);
+    }
+    return referenceList;
+  }
+
+  protected Model createBean(
+      Mapper mapper,
+      List<BulkField> fieldList,
+      List<Map<Object, Long>> referenceList,
+      String[] row)
+      throws AxelorException {
+
+    Model bean;
+    try {
+      bean = (Model) mapper.getBeanClass().getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new AxelorException(
+          e, TraceBackRepository.CATEGORY_CONFIGURATION_ERROR, e.getMessage());
+    }
+
+    for (int index = 0; index < fieldList.size(); index++) {
+      BulkField field = fieldList.get(index);
+      Property prop = field.getProperty();
+      String value = getValue(row, index);
+
+      if (Strings.isNullOrEmpty(value)) {
+        if (prop.isRequired() && prop.get(bean) == null) {
+          throw new AxelorException(
+              TraceBackRepository.CATEGORY_MISSING_FIELD,
+              I18n.get(BaseExceptionMessage.ADVANCED_IMPORT_BULK_MISSING_VALUE),
+              prop.getName());
+        }
+        continue;
+      }
+
+      if (field.getReferenceProperty() == null) {
+        prop.set(bean, convert(prop, field.getFormatter(), value));
+        continue;
+      }
+
+      Object searchValue = convert(field.getReferenceProperty(), field.getFormatter(), value);
+      Long id = referenceList.get(index).get(searchValue);
+      if (id == null) {
+        throw new AxelorException(
+            TraceBackRepository.CATEGORY_NO_VALUE,
+            I18n.get(BaseExceptionMessage.ADVANCED_IMPORT_BULK_REFERENCE_NOT_FOUND),
+            prop.getName(),
+            value);
+      }
+      prop.set(bean, JPA.em().getReference(prop.getTarget(), id));
+    }
+    return bean;
+  }
+
+  /**
+   * Import again the valid records of a chunk which could not be saved at once, each one in its
+   * own transaction, so that the records really in error are reported. The records are created
+   * again as the rejected ones may hold an id given before the rollback.
+   *
+   * @return the number of persisted records
+   */
+  protected int persistOneByOne(
+      Mapper mapper,
+      List<BulkField> fieldList,
+      List<String[]> rowList,
+      List<Integer> beanIndexList,
+      int firstRecord,
+      List<String> errorList,
+      List<Long> idList) {
+
+    int success = 0;
+    for (int index : beanIndexList) {
+      List<String[]> recordRowList = Collections.singletonList(rowList.get(index));
+      try {
+        List<Map<Object, Long>> referenceList = findReferences(fieldList, recordRowList);
+        Model bean = createBean(mapper, fieldList, referenceList, rowList.get(index));
+        persist(Collections.singletonList(bean));
+        idList.add(bean.getId());
+        success++;
+      } catch (Exception e) {
+        errorList.add(
+            String.format(
+                I18n.get(BaseExceptionMessage.ADVANCED_IMPORT_BULK_RECORD_ERROR),
+                firstRecord + index,
+                getRootCauseMessage(e)));
+      }
+    }
+    return success;
+  }
+
+  /**
+   * Persist records in one transaction, with their inserts sent in JDBC batches. The persistence
+   * context is cleared afterwards, whatever the outcome, to keep it small and to never reuse it
+   * after a failed flush.
+   */
+  protected void persist(List<Model> beanList) {
+    if (beanList.isEmpty()) {
+      return;
+    }
+
+    EntityManager em = JPA.em();
+    Session session = em.unwrap(Session.class);
+    Integer jdbcBatchSize = session.getJdbcBatchSize();
+    session.setJdbcBatchSize(beanList.size());
+
+    try {
+      JPA.runInTransaction(
+          () -> {
+            beanList.forEach(em::persist);
+            em.flush();
+          });
+    } finally {
+      session.setJdbcBatchSize(jdbcBatchSize);
+      em.clear();
+    }
+  }
+
+  protected String getRootCauseMessage(Throwable e) {
+    Throwable cause = e;
+    while (cause.getCause() != null && cause.getCause() != cause) {
+      cause = cause.getCause();
+    }
+    return cause.getMessage();
+  }
+
+  protected Object convert(Property prop, DateTimeFormatter formatter, String value)
+      throws AxelorException {
+
+    Class<?> type = prop.getJavaType();
+    try {
+      if (type == String.class) {
+        if (prop.getMaxSize() != null
+            && (int) prop.getMaxSize() > 0
+            && value.length() > (int) prop.getMaxSize()) {
+          throw new IllegalArgumentException(value);
+        }
+        return value;
+      }
+      if (type == Integer.class || type == int.class) {
+        return Integer.valueOf(value);
+      }
+      if (type == Long.class || type == long.class) {
+        return Long.valueOf(value);
+      }
+      if (type == BigDecimal.class) {
+        return new BigDecimal(value);
+      }
+      if (type == Boolean.class || type == boolean.class) {
+        return convertBoolean(value);
+      }
+      if (type == LocalDate.class) {
+        return formatter != null ? LocalDate.parse(value, formatter) : LocalDate.parse(value);
+      }
+      if (type == LocalDateTime.class) {
+        return formatter != null
+            ? LocalDateTime.parse(value, formatter)
+            : LocalDateTime.parse(value);
+      }
+      if (type == LocalTime.class) {
+        return formatter != null ? LocalTime.parse(value, formatter) : LocalTime.parse(value);
+      }
+      if (type == ZonedDateTime.class) {
+        return formatter != null
+            ? ZonedDateTime.parse(value, formatter)
+            : ZonedDateTime.parse(value);
+      }
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      // Reported below as an invalid value.
+    }
+    throw new AxelorException(
+        TraceBackRepository.CATEGORY_INCONSISTENCY,
+        I18n.get(BaseExceptionMessage.ADVANCED_IMPORT_BULK_INVALID_VALUE),
+        prop.getName(),
+        value);
+  }
+
+  protected Boolean convertBoolean(String value) {
+    switch (value.trim().toLowerCase()) {
+      case "true":
+      case "1":
+      case "yes":
+        return Boolean.TRUE;
+      case "false":
+      case "0":
+      case "no":
+        return Boolean.FALSE;
+      default:
+        throw new IllegalArgumentException(value);
+    }
+  }
+
+  protected String getValue(String[] row, int index) {
+    return row != null && index < row.length ? row[index] : null;
+  }
+
+  protected static class BulkField {
+
+    private final Property property;
+    private final Property referenceProperty;
+    private final DateTimeFormatter formatter;
+
+    public BulkField(Property property, Property referenceProperty, DateTimeFormatter formatter) {
+      this.property = property;
+      this.referenceProperty = referenceProperty;
+      this.formatter = formatter;
+    }
+
+    public Property getProperty() {
+      return property;
+    }
+
+    /** The searched field of the referenced object, null when the field is not a reference. */
+    public Property getReferenceProperty() {
+      return referenceProperty;
+    }
+
+    public DateTimeFormatter getFormatter() {
+      return formatter;
+    }
+  }
+}
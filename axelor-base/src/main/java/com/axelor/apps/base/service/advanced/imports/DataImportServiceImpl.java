@@ -24,6 +24,7 @@ import com.axelor.apps.base.db.FileField;
 import com.axelor.apps.base.db.FileTab;
 import com.axelor.apps.base.db.ImportHistory;
 import com.axelor.apps.base.db.repo.FileFieldRepository;
+import com.axelor.apps.base.db.repo.FileTabRepository;
 import com.axelor.apps.base.service.exception.TraceBackService;
 import com.axelor.apps.base.service.imports.listener.ImporterListener;
 import com.axelor.auth.AuthUtils;
@@ -37,6 +38,8 @@ import com.axelor.data.csv.CSVBind;
 import com.axelor.data.csv.CSVConfig;
 import com.axelor.data.csv.CSVImporter;
 import com.axelor.data.csv.CSVInput;
+import com.axelor.db.EntityHelper;
+import com.axelor.db.JPA;
 import com.axelor.db.Model;
 import com.axelor.db.mapper.Mapper;
 import com.axelor.db.mapper.Property;
@@ -65,6 +68,7 @@ import java.lang.invoke.MethodHandles;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -104,6 +108,7 @@ public class DataImportServiceImpl implements DataImportService {
   private Map<String, Object> fieldMap;
   private Map<String, Object> titleMap;
   private Map<String, DataAdapter> adapterMap;
+  private Map<String, FileTab> bulkFileTabMap;
 
   private List<String> ifList;
 
@@ -130,12 +135,17 @@ public class DataImportServiceImpl implements DataImportService {
 
   @Inject private MetaSelectRepository metaSelectRepo;
 
+  @Inject private DataImportBulkService dataImportBulkService;
+
+  @Inject private FileTabRepository fileTabRepo;
+
   @Override
   public ImportHistory importData(AdvancedImport advancedImport)
       throws IOException, AxelorException, ClassNotFoundException {
 
     adapterMap = new HashMap<String, DataAdapter>();
     importContext = new HashMap<String, Object>();
+    bulkFileTabMap = new HashMap<String, FileTab>();
     language = advancedImport.getLanguageSelect();
     dataDir = Files.createTempDir();
 
@@ -189,12 +199,11 @@ public class DataImportServiceImpl implements DataImportService {
       }
 
       Mapper mapper = advancedImportService.getMapper(fileTab.getMetaModel().getFullName());
-      List<String[]> allLines = new ArrayList<String[]>();
       int startIndex = isConfig ? 1 : linesToIgnore;
 
       String[] row = reader.read(fileTab.getName(), startIndex, 0);
       String[] headers = this.createHeader(row, fileTab, isConfig, mapper);
-      allLines.add(headers);
+      printer.printRecord((Object[]) headers);
 
       int tabConfigRowCount = 0;
       if (isTabConfig) {
@@ -214,12 +223,14 @@ public class DataImportServiceImpl implements DataImportService {
           continue;
         }
         String[] data = this.createData(dataRow, fileTab, isConfig, mapper);
-        allLines.add(data);
+        printer.printRecord((Object[]) data);
       }
-      printer.printRecords(allLines);
       printer.close();
 
       inputList.add(csvInput);
+      if (fileTab.getBulkImportOk() && dataImportBulkService.isBulkImportable(fileTab)) {
+        bulkFileTabMap.put(fileName, fileTab);
+      }
       importContext.put("ifConditions" + fileTab.getId(), ifList);
       importContext.put("jsonContextValues" + fileTab.getId(), createJsonContext(fileTab));
       importContext.put("actionsToApply" + fileTab.getId(), fileTab.getActions());
@@ -915,23 +926,88 @@ public class DataImportServiceImpl implements DataImportService {
       return null;
     }
 
+    ImporterListener listener = new ImporterListener("importData");
+
+    // Tabs are imported in their sequence, the CSV importer runs on the inputs between bulk tabs.
+    List<CSVInput> csvInputs = new ArrayList<>();
+    for (CSVInput input : inputs) {
+      FileTab fileTab = bulkFileTabMap.get(input.getFileName());
+      if (fileTab == null) {
+        csvInputs.add(input);
+        continue;
+      }
+      this.importCSVData(csvInputs, listener);
+      csvInputs.clear();
+      this.importBulkData(fileTab, new File(dataDir, input.getFileName()), listener);
+    }
+    this.importCSVData(csvInputs, listener);
+
+    if (!listener.isImported()) {
+      MetaFile logFile = this.createImportLogFile(listener);
+      return logFile;
+    }
+    return null;
+  }
+
+  protected void importCSVData(List<CSVInput> inputs, ImporterListener listener) {
+    if (CollectionUtils.isEmpty(inputs)) {
+      return;
+    }
+
     CSVConfig config = new CSVConfig();
-    config.setInputs(inputs);
+    config.setInputs(new ArrayList<>(inputs));
     if (!CollectionUtils.isEmpty(adapterMap.values())) {
       config.getAdapters().addAll(adapterMap.values());
     }
 
     CSVImporter importer = new CSVImporter(config, dataDir.getAbsolutePath());
-    ImporterListener listener = new ImporterListener("importData");
     importer.addListener(listener);
     importer.setContext(importContext);
     importer.run();
+  }
 
-    if (!listener.isImported()) {
-      MetaFile logFile = this.createImportLogFile(listener);
-      return logFile;
+  protected void importBulkData(FileTab fileTab, File dataFile, ImporterListener listener)
+      throws IOException {
+    try {
+      // the bulk import clears the persistence context after each chunk
+      List<Long> idList =
+          dataImportBulkService.importData(fileTabRepo.find(fileTab.getId()), dataFile, listener);
+      this.addJsonObjectRecords(fileTabRepo.find(fileTab.getId()), idList);
+    } catch (ClassNotFoundException e) {
+      listener.handle(null, e);
     }
-    return null;
+  }
+
+  /**
+   * Keep the records created by a bulk import on the tab, as the import script does for each
+   * record, so that they can be removed by resetting the import.
+   */
+  @SuppressWarnings("unchecked")
+  protected void addJsonObjectRecords(FileTab fileTab, List<Long> idList) {
+    if (CollectionUtils.isEmpty(idList)) {
+      return;
+    }
+
+    Map<String, Object> jsonContextValues =
+        (Map<String, Object>) importContext.get("jsonContextValues" + fileTab.getId());
+    JsonContext jsonContext = (JsonContext) jsonContextValues.get("jsonContext");
+    Context context = (Context) jsonContextValues.get("context");
+    String field = inflector.camelize(fileTab.getMetaModel().getName(), true) + "Set";
+
+    List<Object> recordList = new ArrayList<>();
+    if (jsonContext.containsKey(field)) {
+      for (Object obj : (List<Object>) jsonContext.get(field)) {
+        Object id = Mapper.toMap(EntityHelper.getEntity(obj)).get("id");
+        recordList.add(id != null ? Collections.singletonMap("id", id) : obj);
+      }
+    }
+    for (Long id : idList) {
+      recordList.add(Collections.singletonMap("id", id));
+    }
+    jsonContext.put(field, recordList);
+
+    JPA.runInTransaction(
+        () -> fileTabRepo.find(fileTab.getId()).setAttrs(context.get("attrs").toString()));
   }
 
   protected void setImportIf(Property prop, CSVBind bind, String column) {
@@ -97,6 +97,8 @@ public class ValidatorService {
 
   @Inject private SearchCallService searchCallService;
 
+  @Inject private DataImportBulkService dataImportBulkService;
+
   public boolean validate(AdvancedImport advancedImport)
       throws AxelorException, IOException, ClassNotFoundException {
 
@@ -169,6 +171,7 @@ public class ValidatorService {
       this.validateObjectRequiredFields(fileTab);
       this.validateFieldAndData(reader, sheet, fileTab, isConfig, isTabConfig, tabConfigRowCount);
       this.validateActions(fileTab);
+      this.validateBulkImport(fileTab);
 
       if (fileTab.getValidationLog() != null) {
         fileTab.setValidationLog(null);
@@ -735,6 +738,16 @@ public class ValidatorService {
     }
   }
 
+  protected void validateBulkImport(FileTab fileTab) throws ClassNotFoundException {
+    if (!fileTab.getBulkImportOk() || dataImportBulkService.isBulkImportable(fileTab)) {
+      return;
+    }
+    logService.addLog(
+        LogService.COMMON_KEY,
+        String.format(I18n.get(BaseExceptionMessage.ADVANCED_IMPORT_LOG_12), fileTab.getName()),
+        1);
+  }
+
   protected void validateSearchCall(FileTab fileTab) {
     String searchCall = fileTab.getSearchCall();
     if (!searchCallService.validate(searchCall)) {
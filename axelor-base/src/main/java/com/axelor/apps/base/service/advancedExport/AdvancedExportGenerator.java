@@ -20,12 +20,16 @@ package com.axelor.apps.base.service.advancedExport;
 
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.AdvancedExport;
+import com.axelor.db.JPA;
 import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import javax.persistence.EntityTransaction;
 import javax.persistence.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -102,6 +106,12 @@ public abstract class AdvancedExportGenerator {
 
     generateHeader();
 
+    if (advancedExport.getStreamingOk() && isStreamingSupported()) {
+      generateBodyFromCursor(query);
+      close();
+      return getExportFile();
+    }
+
     int startPosition = 0;
     int reachLimit = 0;
     int maxExportLimit = advancedExport.getMaxExportLimit();
@@ -121,6 +131,7 @@ public abstract class AdvancedExportGenerator {
 
       startPosition = startPosition + queryFetchLimit;
       reachLimit += dataList.size();
+      notifyProgress(reachLimit);
     }
     if (maxExportLimit == reachLimit) {
       isReachMaxExportLimit = true;
@@ -129,6 +140,72 @@ public abstract class AdvancedExportGenerator {
     return getExportFile();
   }
 
+  /**
+   * Walks the query with a forward-only cursor and generates the body by chunks of <i>Query fetch
+   * size</i> rows, so that only one chunk is held in memory whatever the number of exported
+   * records.
+   *
+   * <p>Some JDBC drivers only fetch the rows through a cursor inside a transaction, so a
+   * transaction is opened, and rolled back at the end, if none is active.
+   *
+   * @param query
+   * @throws AxelorException
+   */
+  @SuppressWarnings("rawtypes")
+  protected void generateBodyFromCursor(Query query) throws AxelorException {
+    int chunkSize = getAdvancedExport().getQueryFetchSize();
+    List<List> chunk = new ArrayList<>(chunkSize);
+    long exportedCount = 0;
+
+    EntityTransaction transaction = JPA.em().getTransaction();
+    boolean isOwnTransaction = !transaction.isActive();
+    if (isOwnTransaction) {
+      transaction.begin();
+    }
+
+    try (ScrollableResults results =
+        query
+            .unwrap(org.hibernate.query.Query.class)
+            .setReadOnly(true)
+            .setFetchSize(chunkSize)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+
+      while (results.next()) {
+        chunk.add((List) results.get(0));
+        if (chunk.size() == chunkSize) {
+          generateBody(chunk);
+          exportedCount += chunk.size();
+          chunk.clear();
+          notifyProgress(exportedCount);
+        }
+      }
+    } finally {
+      if (isOwnTransaction) {
+        // nothing was written, so nothing has to be flushed
+        transaction.rollback();
+      }
+    }
+
+    if (!chunk.isEmpty()) {
+      generateBody(chunk);
+      exportedCount += chunk.size();
+      notifyProgress(exportedCount);
+    }
+  }
+
+  /**
+   * Whether this generator can write an unbounded number of rows without keeping them in memory.
+   *
+   * @return
+   */
+  public boolean isStreamingSupported() {
+    return false;
+  }
+
+  protected void notifyProgress(long exportedCount) {
+    log.debug("Export file : {}, {} records exported", getFileName(), exportedCount);
+  }
+
   public boolean getIsReachMaxExportLimit() {
     return isReachMaxExportLimit;
   }
@@ -96,6 +96,11 @@ public class CsvExportGenerator extends AdvancedExportGenerator {
     }
   }
 
+  @Override
+  public boolean isStreamingSupported() {
+    return true;
+  }
+
   @Override
   public void close() throws AxelorException {
     try {
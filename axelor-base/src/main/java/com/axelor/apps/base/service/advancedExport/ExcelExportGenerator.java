@@ -37,20 +37,34 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.DateFormatConverter;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 public class ExcelExportGenerator extends AdvancedExportGenerator {
 
+  /** Number of rows kept in memory, older rows being flushed to a temporary file. */
+  protected static final int ROW_ACCESS_WINDOW_SIZE = 100;
+
+  protected static final int MAX_SHEET_NAME_LENGTH = 31;
+
   private Workbook workbook;
 
   private Sheet sheet;
 
+  private int sheetCount;
+
+  private CellStyle dateCellStyle;
+
+  private CellStyle dateTimeCellStyle;
+
   private AdvancedExport advancedExport;
 
   private File exportFile;
@@ -66,13 +80,19 @@ public class ExcelExportGenerator extends AdvancedExportGenerator {
       TraceBackService.trace(e);
       throw new AxelorException(e, TraceBackRepository.CATEGORY_CONFIGURATION_ERROR);
     }
-    workbook = new XSSFWorkbook();
+    // Streaming exports are not limited, other ones keep the whole workbook in memory
+    workbook =
+        advancedExport.getStreamingOk()
+            ? new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE)
+            : new XSSFWorkbook();
     sheet = workbook.createSheet(advancedExport.getMetaModel().getName());
+    sheetCount = 1;
+    createDateCellStyles();
   }
 
   @Override
   public void generateHeader() {
-    Row headerRow = sheet.createRow(sheet.getFirstRowNum());
+    Row headerRow = sheet.createRow(0);
     int colHeaderNum = 0;
     for (AdvancedExportLine advancedExportLine : advancedExport.getAdvancedExportLineList()) {
       Cell headerCell = headerRow.createCell(colHeaderNum++);
@@ -80,11 +100,9 @@ public class ExcelExportGenerator extends AdvancedExportGenerator {
     }
   }
 
-  @SuppressWarnings("rawtypes")
-  @Override
-  public void generateBody(List<List> dataList) {
-    CellStyle dateCellStyle = workbook.createCellStyle();
-    CellStyle dateTimeCellStyle = workbook.createCellStyle();
+  protected void createDateCellStyles() {
+    dateCellStyle = workbook.createCellStyle();
+    dateTimeCellStyle = workbook.createCellStyle();
 
     DateFormat fmt = DateFormat.getDateInstance(DateFormat.SHORT, AppFilter.getLocale());
     if (fmt instanceof SimpleDateFormat) {
@@ -108,8 +126,15 @@ public class ExcelExportGenerator extends AdvancedExportGenerator {
               .createDataFormat()
               .getFormat(DateFormatConverter.convert(AppFilter.getLocale(), pattern)));
     }
+  }
 
+  @SuppressWarnings("rawtypes")
+  @Override
+  public void generateBody(List<List> dataList) {
     for (List listObj : dataList) {
+      if (sheet.getLastRowNum() >= SpreadsheetVersion.EXCEL2007.getLastRowIndex()) {
+        createNextSheet();
+      }
       Row row = sheet.createRow(sheet.getLastRowNum() + 1);
       for (int colIndex = 0; colIndex < listObj.size(); colIndex++) {
         Object value = listObj.get(colIndex);
@@ -151,9 +176,28 @@ public class ExcelExportGenerator extends AdvancedExportGenerator {
     } catch (IOException e) {
       TraceBackService.trace(e);
       throw new AxelorException(e, TraceBackRepository.CATEGORY_CONFIGURATION_ERROR);
+    } finally {
+      if (workbook instanceof SXSSFWorkbook) {
+        ((SXSSFWorkbook) workbook).dispose();
+      }
     }
   }
 
+  /** Continue the export on a new sheet, once the current one is full. */
+  protected void createNextSheet() {
+    String suffix = " (" + (++sheetCount) + ")";
+    String name =
+        StringUtils.left(
+            advancedExport.getMetaModel().getName(), MAX_SHEET_NAME_LENGTH - suffix.length());
+    sheet = workbook.createSheet(name + suffix);
+    generateHeader();
+  }
+
+  @Override
+  public boolean isStreamingSupported() {
+    return true;
+  }
+
   @Override
   public AdvancedExport getAdvancedExport() {
     return advancedExport;
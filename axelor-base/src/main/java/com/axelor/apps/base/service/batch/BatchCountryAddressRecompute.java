@@ -26,7 +26,6 @@ import com.axelor.apps.base.db.repo.CountryRepository;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.service.address.AddressService;
 import com.axelor.apps.base.service.exception.TraceBackService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -97,8 +96,7 @@ public class BatchCountryAddressRecompute extends BatchStrategy {
           incrementAnomaly();
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
@@ -25,7 +25,6 @@ import com.axelor.apps.base.service.exception.TraceBackService;
 import com.axelor.apps.base.service.user.UserService;
 import com.axelor.auth.db.User;
 import com.axelor.auth.db.repo.UserRepository;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -114,8 +113,7 @@ public class BatchPasswordChange extends BatchStrategy {
           incrementAnomaly();
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
@@ -0,0 +1,82 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * In-memory table of the currency conversion lines of the application, indexed by currency pair
+ * and sorted by date.
+ */
+public interface CurrencyRateTableService {
+
+  /**
+   * Finds the conversion line of the currency pair applicable at the given date.
+   *
+   * @param startCurrencyCode ISO code of the source currency
+   * @param endCurrencyCode ISO code of the destination currency
+   * @param date the date of the conversion
+   * @return the applicable rate, or null if there is no conversion line for this pair at this date
+   */
+  Rate findRate(String startCurrencyCode, String endCurrencyCode, LocalDate date);
+
+  /** Drops the table, which will be loaded again on next lookup. */
+  void invalidate();
+
+  /**
+   * @return the number of lookups answered by the loaded table.
+   */
+  long getHitCount();
+
+  /**
+   * @return the number of lookups which needed to load the table.
+   */
+  long getMissCount();
+
+  /** Exchange rate of a conversion line, which can be empty. */
+  class Rate {
+
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final BigDecimal exchangeRate;
+
+    public Rate(LocalDate fromDate, LocalDate toDate, BigDecimal exchangeRate) {
+      this.fromDate = fromDate;
+      this.toDate = toDate;
+      this.exchangeRate = exchangeRate;
+    }
+
+    public LocalDate getFromDate() {
+      return fromDate;
+    }
+
+    public LocalDate getToDate() {
+      return toDate;
+    }
+
+    public BigDecimal getExchangeRate() {
+      return exchangeRate;
+    }
+
+    public boolean contains(LocalDate date) {
+      return !fromDate.isAfter(date) && (toDate == null || !toDate.isBefore(date));
+    }
+  }
+}
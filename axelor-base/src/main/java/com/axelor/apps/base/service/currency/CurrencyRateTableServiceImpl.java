@@ -0,0 +1,166 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.currency;
+
+import com.axelor.apps.base.utils.TransactionTools;
+import com.google.inject.Singleton;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Singleton
+public class CurrencyRateTableServiceImpl implements CurrencyRateTableService {
+
+  protected final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * The table is only invalidated on the node where the lines are changed, it is reloaded
+   * periodically for the changes made on the other nodes.
+   */
+  protected static final long TABLE_EXPIRE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  /** Rates by currency pair, sorted by from date. Replaced as a whole on reload. */
+  protected volatile Map<String, Rate[]> rateTable;
+
+  protected volatile long rateTableLoadTime;
+
+  protected final AtomicLong hitCount = new AtomicLong();
+  protected final AtomicLong missCount = new AtomicLong();
+
+  @Override
+  public Rate findRate(String startCurrencyCode, String endCurrencyCode, LocalDate date) {
+    Map<String, Rate[]> table = rateTable;
+    if (table == null || isExpired()) {
+      missCount.incrementAndGet();
+      table = loadRateTable();
+    } else {
+      hitCount.incrementAndGet();
+    }
+
+    Rate[] rates = table.get(getPairKey(startCurrencyCode, endCurrencyCode));
+    if (rates == null) {
+      return null;
+    }
+
+    // Lines of a pair normally do not overlap, so the last line starting before the date is the
+    // applicable one. Earlier lines which are still open are checked as well. If lines overlap
+    // anyway, the one with the latest from date wins.
+    for (int index = findLastRateIndex(rates, date); index >= 0; index--) {
+      if (rates[index].contains(date)) {
+        return rates[index];
+      }
+    }
+    return null;
+  }
+
+  /** Synchronized with the loading, so that a table being loaded is not kept after this call. */
+  @Override
+  public synchronized void invalidate() {
+    rateTable = null;
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /** Binary search of the index of the last rate starting on or before the given date. */
+  protected int findLastRateIndex(Rate[] rates, LocalDate date) {
+    int low = 0;
+    int high = rates.length - 1;
+    int result = -1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      if (rates[middle].getFromDate().isAfter(date)) {
+        high = middle - 1;
+      } else {
+        result = middle;
+        low = middle + 1;
+      }
+    }
+
+    return result;
+  }
+
+  protected boolean isExpired() {
+    return System.currentTimeMillis() - rateTableLoadTime > TABLE_EXPIRE_MILLIS;
+  }
+
+  protected synchronized Map<String, Rate[]> loadRateTable() {
+    Map<String, Rate[]> table = rateTable;
+    if (table != null && !isExpired()) {
+      return table;
+    }
+
+    long loadTime = System.currentTimeMillis();
+    List<Object[]> rowList = fetchRateRowList();
+
+    Map<String, List<Rate>> rateListMap = new HashMap<>();
+    for (Object[] row : rowList) {
+      rateListMap
+          .computeIfAbsent(getPairKey((String) row[0], (String) row[1]), key -> new ArrayList<>())
+          .add(new Rate((LocalDate) row[2], (LocalDate) row[3], (BigDecimal) row[4]));
+    }
+
+    table = new HashMap<>();
+    for (Map.Entry<String, List<Rate>> entry : rateListMap.entrySet()) {
+      table.put(entry.getKey(), entry.getValue().toArray(new Rate[0]));
+    }
+    table = Collections.unmodifiableMap(table);
+
+    log.debug("Currency rate table loaded with {} conversion lines", rowList.size());
+    rateTableLoadTime = loadTime;
+    rateTable = table;
+    return table;
+  }
+
+  /**
+   * Reads the committed conversion lines, the table being shared with the transactions which can
+   * not see the changes of the current one.
+   */
+  protected List<Object[]> fetchRateRowList() {
+    return TransactionTools.readInNewTransaction(
+        em ->
+            em.createQuery(
+                    "SELECT self.startCurrency.codeISO, self.endCurrency.codeISO, self.fromDate, "
+                        + "self.toDate, self.exchangeRate FROM CurrencyConversionLine self "
+                        + "WHERE self.appBase IS NOT NULL ORDER BY self.fromDate, self.id",
+                    Object[].class)
+                .getResultList());
+  }
+
+  protected String getPairKey(String startCurrencyCode, String endCurrencyCode) {
+    return startCurrencyCode + "/" + endCurrencyCode;
+  }
+}
@@ -34,7 +34,6 @@ import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
 import com.axelor.meta.db.MetaField;
 import com.axelor.rpc.Context;
-import com.axelor.script.GroovyScriptHelper;
 import com.axelor.utils.helpers.MetaHelper;
 import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
@@ -61,12 +60,14 @@ public class PricingComputer extends AbstractObservablePricing {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   protected PricingService pricingService;
+  protected PricingRuleScriptService pricingRuleScriptService;
 
   protected PricingComputer(Context context, Pricing pricing, Model model) {
     this.context = Objects.requireNonNull(context);
     this.pricing = Objects.requireNonNull(pricing);
     this.model = Objects.requireNonNull(model);
     this.pricingService = Beans.get(PricingService.class);
+    this.pricingRuleScriptService = Beans.get(PricingRuleScriptService.class);
   }
 
   /**
@@ -201,8 +202,6 @@ public class PricingComputer extends AbstractObservablePricing {
       throws AxelorException {
     Objects.requireNonNull(pricingLine);
 
-    GroovyScriptHelper scriptHelper = new GroovyScriptHelper(context);
-
     List<PricingRule> resultPricingRuleList = new ArrayList<>();
     resultPricingRuleList.add(pricing.getResult1PricingRule());
     resultPricingRuleList.add(pricing.getResult2PricingRule());
@@ -212,7 +211,7 @@ public class PricingComputer extends AbstractObservablePricing {
     for (PricingRule resultPricingRule : resultPricingRuleList) {
       if (resultPricingRule != null) {
         MetaField fieldToPopulate = resultPricingRule.getFieldToPopulate();
-        Object result = scriptHelper.eval(resultPricingRule.getFormula());
+        Object result = pricingRuleScriptService.eval(resultPricingRule, context);
         notifyResultPricingRule(resultPricingRule, result);
         notifyFieldToPopulate(fieldToPopulate);
         String typeName = getTypeNameFieldToPopulate(resultPricingRule);
@@ -295,15 +294,13 @@ public class PricingComputer extends AbstractObservablePricing {
     }
     Objects.requireNonNull(pricing);
 
-    GroovyScriptHelper scriptHelper = new GroovyScriptHelper(context);
-
     return searchPricingLine(
         pricing,
         new Object[] {
-          computeClassificationFormula(scriptHelper, pricing.getClass1PricingRule()),
-          computeClassificationFormula(scriptHelper, pricing.getClass2PricingRule()),
-          computeClassificationFormula(scriptHelper, pricing.getClass3PricingRule()),
-          computeClassificationFormula(scriptHelper, pricing.getClass4PricingRule())
+          computeClassificationFormula(pricing.getClass1PricingRule()),
+          computeClassificationFormula(pricing.getClass2PricingRule()),
+          computeClassificationFormula(pricing.getClass3PricingRule()),
+          computeClassificationFormula(pricing.getClass4PricingRule())
         });
   }
 
@@ -315,11 +312,10 @@ public class PricingComputer extends AbstractObservablePricing {
     return getMatchedPricingLines(this.pricing);
   }
 
-  protected Object computeClassificationFormula(
-      GroovyScriptHelper scriptHelper, PricingRule classPricingRule) {
+  protected Object computeClassificationFormula(PricingRule classPricingRule) {
 
     if (classPricingRule != null) {
-      Object result = scriptHelper.eval(classPricingRule.getFormula());
+      Object result = pricingRuleScriptService.eval(classPricingRule, context);
       if (classPricingRule.getFieldTypeSelect() == PricingRuleRepository.FIELD_TYPE_DECIMAL) {
         result = ((BigDecimal) result).setScale(classPricingRule.getScale(), RoundingMode.HALF_UP);
       }
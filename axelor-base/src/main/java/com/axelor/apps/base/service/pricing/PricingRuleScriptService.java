@@ -0,0 +1,42 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.pricing;
+
+import com.axelor.apps.base.db.PricingRule;
+import java.util.Map;
+
+public interface PricingRuleScriptService {
+
+  /**
+   * Evaluates the formula of the pricing rule with the given variables. The formula is compiled
+   * once per version of the pricing rule and kept in a shared cache.
+   *
+   * @param pricingRule the pricing rule to evaluate
+   * @param variables the variables available in the formula, usually the pricing context
+   * @return the result of the formula
+   */
+  Object eval(PricingRule pricingRule, Map<String, Object> variables);
+
+  /**
+   * Removes the compiled formula of the pricing rule from the cache.
+   *
+   * @param pricingRule the pricing rule
+   */
+  void invalidate(PricingRule pricingRule);
+}
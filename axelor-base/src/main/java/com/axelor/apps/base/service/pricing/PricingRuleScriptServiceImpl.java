@@ -0,0 +1,145 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.pricing;
+
+import com.axelor.apps.base.db.PricingRule;
+import com.axelor.apps.base.service.administration.BatchTelemetry;
+import com.axelor.db.JpaRepository;
+import com.axelor.db.JpaScanner;
+import com.axelor.script.ScriptBindings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Singleton;
+import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.Script;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ImportCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+@Singleton
+public class PricingRuleScriptServiceImpl implements PricingRuleScriptService {
+
+  protected static final int CACHE_MAXIMUM_SIZE = 1000;
+
+  /** Compiled formulas by pricing rule id. */
+  protected final Cache<Long, CompiledFormula> compiledFormulaCache =
+      CacheBuilder.newBuilder()
+          .maximumSize(CACHE_MAXIMUM_SIZE)
+          .expireAfterAccess(1, TimeUnit.DAYS)
+          .build();
+
+  protected final CompilerConfiguration compilerConfiguration = createCompilerConfiguration();
+
+  @Override
+  public Object eval(PricingRule pricingRule, Map<String, Object> variables) {
+    Class<? extends Script> scriptClass = getScriptClass(pricingRule);
+    Script script = InvokerHelper.createScript(scriptClass, new Binding(createBindings(variables)));
+    try (BatchTelemetry.Phase phase =
+        BatchTelemetry.startCurrentPhase(BatchTelemetry.PHASE_SCRIPT)) {
+      return script.run();
+    }
+  }
+
+  @Override
+  public void invalidate(PricingRule pricingRule) {
+    if (pricingRule.getId() != null) {
+      compiledFormulaCache.invalidate(pricingRule.getId());
+    }
+  }
+
+  protected Class<? extends Script> getScriptClass(PricingRule pricingRule) {
+    String formula = pricingRule.getFormula();
+    if (pricingRule.getId() == null) {
+      return compile(formula);
+    }
+
+    CompiledFormula compiledFormula = compiledFormulaCache.getIfPresent(pricingRule.getId());
+    if (compiledFormula == null || !compiledFormula.isUpToDate(pricingRule)) {
+      compiledFormula = new CompiledFormula(pricingRule.getVersion(), formula, compile(formula));
+      compiledFormulaCache.put(pricingRule.getId(), compiledFormula);
+    }
+    return compiledFormula.getScriptClass();
+  }
+
+  /**
+   * Each formula is compiled with its own class loader, so that the classes of the formulas evicted
+   * from the cache can be unloaded.
+   */
+  @SuppressWarnings("unchecked")
+  protected Class<? extends Script> compile(String formula) {
+    try (GroovyClassLoader classLoader =
+        new GroovyClassLoader(JpaScanner.getClassLoader(), compilerConfiguration)) {
+      return (Class<? extends Script>) classLoader.parseClass(formula);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  protected Map<String, Object> createBindings(Map<String, Object> variables) {
+    return new ScriptBindings(variables);
+  }
+
+  /**
+   * Same configuration as {@link com.axelor.script.GroovyScriptHelper}, which does not expose it,
+   * so that formulas written for it keep working, including the {@code __repo__} alias.
+   */
+  protected CompilerConfiguration createCompilerConfiguration() {
+    CompilerConfiguration configuration = new CompilerConfiguration();
+    configuration.getOptimizationOptions().put("indy", Boolean.TRUE);
+    configuration.getOptimizationOptions().put("int", Boolean.FALSE);
+    ImportCustomizer importCustomizer = new ImportCustomizer();
+    importCustomizer.addImport("__repo__", JpaRepository.class.getName());
+    importCustomizer.addImports(
+        "java.time.LocalDate",
+        "java.time.LocalDateTime",
+        "java.time.LocalTime",
+        "java.time.ZonedDateTime");
+    configuration.addCompilationCustomizers(importCustomizer);
+    return configuration;
+  }
+
+  protected static class CompiledFormula {
+
+    private final Integer version;
+    private final String formula;
+    private final Class<? extends Script> scriptClass;
+
+    protected CompiledFormula(
+        Integer version, String formula, Class<? extends Script> scriptClass) {
+      this.version = version;
+      this.formula = formula;
+      this.scriptClass = scriptClass;
+    }
+
+    /** The formula of a pricing rule being edited can differ from its saved version. */
+    protected boolean isUpToDate(PricingRule pricingRule) {
+      return Objects.equals(version, pricingRule.getVersion())
+          && Objects.equals(formula, pricingRule.getFormula());
+    }
+
+    protected Class<? extends Script> getScriptClass() {
+      return scriptClass;
+    }
+  }
+}
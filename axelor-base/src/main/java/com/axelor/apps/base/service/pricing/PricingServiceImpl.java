@@ -26,6 +26,7 @@ import com.axelor.apps.base.db.repo.PricingLineRepository;
 import com.axelor.apps.base.db.repo.PricingRepository;
 import com.axelor.apps.base.db.repo.TraceBackRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.administration.BatchTelemetry;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.base.service.exception.TraceBackService;
 import com.axelor.auth.AuthUtils;
@@ -170,7 +171,8 @@ public class PricingServiceImpl implements PricingService {
     ScriptHelper scriptHelper = new GroovyScriptHelper(scriptContext);
     List<Pricing> filteredPricings = new ArrayList<>();
     for (Pricing pricing : pricings) {
-      try {
+      try (BatchTelemetry.Phase phase =
+          BatchTelemetry.startCurrentPhase(BatchTelemetry.PHASE_SCRIPT)) {
         if (Boolean.TRUE.equals(scriptHelper.eval(pricing.getFormula()))) {
           filteredPricings.add(pricing);
         }
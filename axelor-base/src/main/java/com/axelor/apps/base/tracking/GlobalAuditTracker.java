@@ -56,11 +56,15 @@ import org.hibernate.Transaction;
 import org.hibernate.collection.internal.AbstractPersistentCollection;
 import org.hibernate.collection.internal.PersistentBag;
 import org.hibernate.collection.internal.PersistentSet;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
 
 public class GlobalAuditTracker {
 
   private static final ThreadLocal<List<GlobalTrackingLog>> LOGS = new ThreadLocal<>();
 
+  /** Logs to be written once the transaction is committed, in write-behind mode. */
+  private final List<GlobalTrackingEvent> eventList = new ArrayList<>();
+
   /**
    * This method should be called from {@link
    * AuditInterceptor#beforeTransactionCompletion(Transaction)} method to finish change recording.
@@ -84,6 +88,7 @@ public class GlobalAuditTracker {
     GlobalTrackingConfigurationLine configLine;
     List<GlobalTrackingConfigurationLine> configLineList;
     ScriptBindings bindings;
+    boolean writeBehind = Beans.get(GlobalTrackingLogWriter.class).isEnabled();
 
     for (GlobalTrackingLog log : logList) {
 
@@ -97,6 +102,7 @@ public class GlobalAuditTracker {
       log.setMetaModel(modelRepo.findByName(log.getMetaModelName()));
 
       List<GlobalTrackingLogLine> logLinesToSave = new ArrayList<>();
+      List<GlobalTrackingEvent.FieldChange> fieldChangeList = new ArrayList<>();
 
       if ((CollectionUtils.isNotEmpty(log.getGlobalTrackingLogLineList()))) {
         try {
@@ -125,6 +131,16 @@ public class GlobalAuditTracker {
             continue;
           }
 
+          if (writeBehind) {
+            fieldChangeList.add(
+                new GlobalTrackingEvent.FieldChange(
+                    configLine.getMetaField().getId(),
+                    line.getPreviousValue(),
+                    line.getNewValue()));
+            logLinesToSave.add(line);
+            continue;
+          }
+
           line.setMetaField(
               fieldRepo
                   .all()
@@ -140,6 +156,18 @@ public class GlobalAuditTracker {
           || (GlobalTrackingLogRepository.TYPE_DELETE == log.getTypeSelect()
               && configLineList.stream()
                   .anyMatch(l -> Boolean.TRUE.equals(l.getTrackDeletion())))) {
+        if (writeBehind) {
+          eventList.add(
+              new GlobalTrackingEvent(
+                  log.getMetaModel().getId(),
+                  log.getRelatedId(),
+                  log.getRelatedReference(),
+                  log.getTypeSelect(),
+                  log.getDateT(),
+                  user != null ? user.getId() : null,
+                  fieldChangeList));
+          continue;
+        }
         log.getGlobalTrackingLogLineList().stream().forEach(l -> l.setGlobalTrackingLog(null));
         logLinesToSave.stream().forEach(l -> l.setGlobalTrackingLog(log));
         log.setUser(user);
@@ -148,6 +176,20 @@ public class GlobalAuditTracker {
     }
   }
 
+  /**
+   * This method should be called from {@link
+   * AuditInterceptor#afterTransactionCompletion(Transaction)} method to hand the logs recorded in
+   * write-behind mode to the {@link GlobalTrackingLogWriter}, if the transaction was committed.
+   *
+   * @param tx the completed transaction
+   */
+  protected void afterComplete(Transaction tx) {
+    if (!eventList.isEmpty() && tx.getStatus() == TransactionStatus.COMMITTED) {
+      Beans.get(GlobalTrackingLogWriter.class).submit(new ArrayList<>(eventList));
+    }
+    eventList.clear();
+  }
+
   protected boolean canTrack(GlobalTrackingConfigurationLine confLine, int typeSelect) {
 
     switch (typeSelect) {
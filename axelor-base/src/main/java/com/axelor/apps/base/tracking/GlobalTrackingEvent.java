@@ -0,0 +1,109 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.tracking;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of a {@link com.axelor.apps.base.db.GlobalTrackingLog} to be written after the
+ * transaction which produced it, only holding ids of the related records.
+ */
+public final class GlobalTrackingEvent {
+
+  private final Long metaModelId;
+  private final Long relatedId;
+  private final String relatedReference;
+  private final int typeSelect;
+  private final LocalDateTime dateT;
+  private final Long userId;
+  private final List<FieldChange> fieldChangeList;
+
+  public GlobalTrackingEvent(
+      Long metaModelId,
+      Long relatedId,
+      String relatedReference,
+      int typeSelect,
+      LocalDateTime dateT,
+      Long userId,
+      List<FieldChange> fieldChangeList) {
+    this.metaModelId = metaModelId;
+    this.relatedId = relatedId;
+    this.relatedReference = relatedReference;
+    this.typeSelect = typeSelect;
+    this.dateT = dateT;
+    this.userId = userId;
+    this.fieldChangeList = Collections.unmodifiableList(fieldChangeList);
+  }
+
+  public Long getMetaModelId() {
+    return metaModelId;
+  }
+
+  public Long getRelatedId() {
+    return relatedId;
+  }
+
+  public String getRelatedReference() {
+    return relatedReference;
+  }
+
+  public int getTypeSelect() {
+    return typeSelect;
+  }
+
+  public LocalDateTime getDateT() {
+    return dateT;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public List<FieldChange> getFieldChangeList() {
+    return fieldChangeList;
+  }
+
+  /** Immutable copy of a {@link com.axelor.apps.base.db.GlobalTrackingLogLine}. */
+  public static final class FieldChange {
+
+    private final Long metaFieldId;
+    private final String previousValue;
+    private final String newValue;
+
+    public FieldChange(Long metaFieldId, String previousValue, String newValue) {
+      this.metaFieldId = metaFieldId;
+      this.previousValue = previousValue;
+      this.newValue = newValue;
+    }
+
+    public Long getMetaFieldId() {
+      return metaFieldId;
+    }
+
+    public String getPreviousValue() {
+      return previousValue;
+    }
+
+    public String getNewValue() {
+      return newValue;
+    }
+  }
+}
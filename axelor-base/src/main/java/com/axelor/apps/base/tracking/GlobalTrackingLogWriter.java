@@ -0,0 +1,38 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.tracking;
+
+import java.util.List;
+
+/**
+ * Writes global tracking logs outside of the transactions which produced them, when enabled with
+ * the <code>global.tracking.write-behind</code> application setting.
+ */
+public interface GlobalTrackingLogWriter {
+
+  boolean isEnabled();
+
+  /**
+   * Queues the events of a committed transaction. Waits for room in the queue for a short time
+   * when the writer is late, then appends the remaining events to the spill file.
+   *
+   * @param eventList the events to write
+   */
+  void submit(List<GlobalTrackingEvent> eventList);
+}
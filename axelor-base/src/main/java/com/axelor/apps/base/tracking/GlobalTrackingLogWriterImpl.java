@@ -0,0 +1,217 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.tracking;
+
+import com.axelor.app.AppSettings;
+import com.axelor.apps.base.db.GlobalTrackingLog;
+import com.axelor.apps.base.db.GlobalTrackingLogLine;
+import com.axelor.auth.db.User;
+import com.axelor.db.JPA;
+import com.axelor.meta.db.MetaField;
+import com.axelor.meta.db.MetaModel;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.UnitOfWork;
+import com.google.inject.servlet.RequestScoper;
+import com.google.inject.servlet.ServletScopes;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind implementation of {@link GlobalTrackingLogWriter}.
+ *
+ * <p>Events are pushed to a bounded queue, drained by a single background thread which persists
+ * them by batches, each batch in its own transaction. When the queue stays full, or when a batch
+ * cannot be written, events are appended to a spill file which is replayed once the writer is idle
+ * (see {@link GlobalTrackingSpillFile}).
+ */
+@Singleton
+public class GlobalTrackingLogWriterImpl implements GlobalTrackingLogWriter {
+
+  protected static final String DEFAULT_SPILL_DIR = "{user.home}/.axelor/global-tracking";
+
+  protected final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  protected final UnitOfWork unitOfWork;
+
+  protected final boolean enabled;
+  protected final int batchSize;
+  protected final long offerTimeout;
+  protected final GlobalTrackingSpillFile spillFile;
+
+  protected final BlockingQueue<GlobalTrackingEvent> queue;
+
+  @Inject
+  public GlobalTrackingLogWriterImpl(UnitOfWork unitOfWork) {
+    this.unitOfWork = unitOfWork;
+
+    AppSettings settings = AppSettings.get();
+    this.enabled = settings.getBoolean("global.tracking.write-behind", false);
+    this.batchSize = Math.max(1, settings.getInt("global.tracking.write-behind.batch-size", 200));
+    this.offerTimeout = settings.getInt("global.tracking.write-behind.offer-timeout", 100);
+    this.spillFile =
+        new GlobalTrackingSpillFile(
+            Paths.get(
+                settings.getPath("global.tracking.write-behind.spill-dir", DEFAULT_SPILL_DIR)));
+    this.queue =
+        new ArrayBlockingQueue<>(
+            Math.max(1, settings.getInt("global.tracking.write-behind.queue-size", 10000)));
+
+    if (enabled) {
+      new ThreadFactoryBuilder()
+          .setNameFormat("global-tracking-writer-%d")
+          .setDaemon(true)
+          .build()
+          .newThread(this::writeLoop)
+          .start();
+      Runtime.getRuntime().addShutdownHook(new Thread(this::spillQueue));
+    }
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void submit(List<GlobalTrackingEvent> eventList) {
+    int queued = 0;
+    try {
+      while (queued < eventList.size()
+          && queue.offer(eventList.get(queued), offerTimeout, TimeUnit.MILLISECONDS)) {
+        queued++;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    List<GlobalTrackingEvent> overflowList = eventList.subList(queued, eventList.size());
+    if (!overflowList.isEmpty()) {
+      log.warn("Global tracking queue is full, {} events spilled to disk", overflowList.size());
+      spill(overflowList);
+    }
+  }
+
+  protected void writeLoop() {
+    List<GlobalTrackingEvent> batch = new ArrayList<>(batchSize);
+    replaySpillFile();
+
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        GlobalTrackingEvent event = queue.poll(1, TimeUnit.SECONDS);
+        if (event == null) {
+          replaySpillFile();
+          continue;
+        }
+        batch.add(event);
+        queue.drainTo(batch, batchSize - 1);
+        try {
+          writeInNewTransaction(batch);
+        } catch (Exception e) {
+          log.error("Global tracking logs could not be written, spilling them to disk", e);
+          spill(batch);
+        }
+        batch.clear();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  protected void writeInNewTransaction(List<GlobalTrackingEvent> batch) {
+    final RequestScoper scope = ServletScopes.scopeRequest(Collections.emptyMap());
+    try (RequestScoper.CloseableScope ignored = scope.open()) {
+      JPA.runInTransaction(
+          () -> {
+            EntityManager em = JPA.em();
+            for (GlobalTrackingEvent event : batch) {
+              em.persist(createGlobalTrackingLog(em, event));
+            }
+            em.flush();
+          });
+      log.debug("{} global tracking logs written", batch.size());
+    } finally {
+      unitOfWork.end();
+    }
+  }
+
+  protected GlobalTrackingLog createGlobalTrackingLog(EntityManager em, GlobalTrackingEvent event) {
+    GlobalTrackingLog globalTrackingLog = new GlobalTrackingLog();
+    globalTrackingLog.setMetaModel(getReference(em, MetaModel.class, event.getMetaModelId()));
+    globalTrackingLog.setRelatedId(event.getRelatedId());
+    globalTrackingLog.setRelatedReference(event.getRelatedReference());
+    globalTrackingLog.setTypeSelect(event.getTypeSelect());
+    globalTrackingLog.setDateT(event.getDateT());
+    globalTrackingLog.setUser(getReference(em, User.class, event.getUserId()));
+
+    for (GlobalTrackingEvent.FieldChange fieldChange : event.getFieldChangeList()) {
+      GlobalTrackingLogLine line = new GlobalTrackingLogLine();
+      line.setMetaField(getReference(em, MetaField.class, fieldChange.getMetaFieldId()));
+      line.setPreviousValue(fieldChange.getPreviousValue());
+      line.setNewValue(fieldChange.getNewValue());
+      globalTrackingLog.addGlobalTrackingLogLineListItem(line);
+    }
+
+    return globalTrackingLog;
+  }
+
+  protected <T> T getReference(EntityManager em, Class<T> klass, Long id) {
+    return id == null ? null : em.getReference(klass, id);
+  }
+
+  protected void spill(List<GlobalTrackingEvent> eventList) {
+    try {
+      spillFile.append(eventList);
+    } catch (IOException e) {
+      log.error("{} global tracking logs could not be spilled and are lost", eventList.size(), e);
+    }
+  }
+
+  protected void spillQueue() {
+    List<GlobalTrackingEvent> eventList = new ArrayList<>();
+    queue.drainTo(eventList);
+    if (!eventList.isEmpty()) {
+      spill(eventList);
+    }
+  }
+
+  /** Writes back the spilled events, new events being spilled to a new file meanwhile. */
+  protected void replaySpillFile() {
+    try {
+      if (!spillFile.prepareReplay()) {
+        return;
+      }
+      int count = spillFile.replay(batchSize, this::writeInNewTransaction);
+      log.info("{} spilled global tracking logs written", count);
+    } catch (Exception e) {
+      log.error("Spilled global tracking logs could not be written, will retry later", e);
+    }
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.tracking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spill file of the write-behind global tracking, holding one event per line as JSON.
+ *
+ * <p>The file is kept in a directory only readable by the user running the application. Events
+ * are read back as plain values, no object is deserialized. While the file is replayed, the offset
+ * of the last event written is recorded after each batch, so that a replay resumed after a failure
+ * only writes again the batch which was being written when the failure occurred.
+ *
+ * <p>A batch which cannot be written is written again event by event, and the events still
+ * rejected are moved to a failed events file, in the same format, so that they never block the
+ * replay. Only failures which may not happen again, such as a lost database connection, stop the
+ * replay to resume it later.
+ */
+public class GlobalTrackingSpillFile {
+
+  protected static final String SPILL_FILE_NAME = "write-behind.spill";
+  protected static final String REPLAY_FILE_NAME = "write-behind.spill.replay";
+  protected static final String OFFSET_FILE_NAME = "write-behind.spill.replay.offset";
+  protected static final String FAILED_FILE_NAME = "write-behind.spill.failed";
+
+  protected static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS =
+      PosixFilePermissions.fromString("rwx------");
+  protected static final Set<PosixFilePermission> FILE_PERMISSIONS =
+      PosixFilePermissions.fromString("rw-------");
+
+  protected final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  protected final ObjectMapper objectMapper = new ObjectMapper();
+
+  protected final Path directory;
+  protected final Path spillFile;
+  protected final Path replayFile;
+  protected final Path offsetFile;
+  protected final Path failedFile;
+
+  public GlobalTrackingSpillFile(Path directory) {
+    this.directory = directory;
+    this.spillFile = directory.resolve(SPILL_FILE_NAME);
+    this.replayFile = directory.resolve(REPLAY_FILE_NAME);
+    this.offsetFile = directory.resolve(OFFSET_FILE_NAME);
+    this.failedFile = directory.resolve(FAILED_FILE_NAME);
+  }
+
+  /** Appends the events to the spill file and syncs it to disk. */
+  public void append(List<GlobalTrackingEvent> eventList) throws IOException {
+    append(spillFile, eventList);
+  }
+
+  protected synchronized void append(Path file, List<GlobalTrackingEvent> eventList)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (GlobalTrackingEvent event : eventList) {
+      bytes.write(objectMapper.writeValueAsBytes(toJson(event)));
+      bytes.write('\n');
+    }
+
+    createDirectory();
+    if (!Files.exists(file)) {
+      createFile(file);
+    }
+    try (FileOutputStream out = new FileOutputStream(file.toFile(), true)) {
+      bytes.writeTo(out);
+      out.flush();
+      out.getFD().sync();
+    }
+  }
+
+  /**
+   * Moves the spill file aside to be replayed, unless a previous replay is not finished, so that
+   * new events can be spilled during the replay.
+   *
+   * @return whether there is a file to replay
+   */
+  public synchronized boolean prepareReplay() throws IOException {
+    if (Files.exists(replayFile)) {
+      return true;
+    }
+    // An offset left by an interrupted cleanup must not apply to the next file
+    Files.deleteIfExists(offsetFile);
+    if (!Files.exists(spillFile)) {
+      return false;
+    }
+    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+    return true;
+  }
+
+  /**
+   * Writes back the events of the file being replayed by batches, starting after the last batch
+   * written, then deletes the file.
+   *
+   * @return the number of events written
+   */
+  public int replay(int batchSize, BatchWriter batchWriter) throws Exception {
+    long offset = readOffset();
+    int count = 0;
+    List<GlobalTrackingEvent> batch = new ArrayList<>(batchSize);
+    List<Long> batchOffsetList = new ArrayList<>(batchSize);
+
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(replayFile))) {
+      skipFully(in, offset);
+      ByteArrayOutputStream line = new ByteArrayOutputStream();
+      int b;
+      while ((b = in.read()) != -1) {
+        offset++;
+        if (b != '\n') {
+          line.write(b);
+          continue;
+        }
+        GlobalTrackingEvent event = parseLine(line);
+        line.reset();
+        if (event != null) {
+          batch.add(event);
+          batchOffsetList.add(offset);
+        }
+        if (batch.size() >= batchSize) {
+          count += writeBatch(batch, batchOffsetList, batchWriter);
+          batch.clear();
+          batchOffsetList.clear();
+        }
+      }
+      if (line.size() > 0) {
+        log.warn("Incomplete global tracking event ignored at the end of the spill file");
+      }
+      if (!batch.isEmpty()) {
+        count += writeBatch(batch, batchOffsetList, batchWriter);
+      }
+    }
+
+    Files.delete(replayFile);
+    Files.deleteIfExists(offsetFile);
+    return count;
+  }
+
+  /**
+   * Writes a batch of the replayed file, or its events one by one when the batch is rejected, the
+   * events still rejected being moved to the failed events file. The offset is recorded after each
+   * write, so that no event is written twice when the replay is resumed.
+   *
+   * @param offsetList the offset of the end of each event in the replayed file
+   * @return the number of events written
+   */
+  protected int writeBatch(
+      List<GlobalTrackingEvent> batch, List<Long> offsetList, BatchWriter batchWriter)
+      throws Exception {
+    try {
+      batchWriter.write(batch);
+      writeOffset(offsetList.get(offsetList.size() - 1));
+      return batch.size();
+    } catch (Exception e) {
+      if (isTransient(e)) {
+        throw e;
+      }
+      log.warn(
+          "{} spilled global tracking events could not be written at once, writing them one by one",
+          batch.size(),
+          e);
+    }
+
+    int count = 0;
+    for (int index = 0; index < batch.size(); index++) {
+      GlobalTrackingEvent event = batch.get(index);
+      try {
+        batchWriter.write(Collections.singletonList(event));
+        count++;
+      } catch (Exception e) {
+        if (isTransient(e)) {
+          throw e;
+        }
+        log.error("Spilled global tracking event rejected, moved to {}", failedFile, e);
+        append(failedFile, Collections.singletonList(event));
+      }
+      writeOffset(offsetList.get(index));
+    }
+    return count;
+  }
+
+  /**
+   * Whether the failure is not caused by the events themselves, such as a lost database
+   * connection, in which case the replay is stopped to be resumed later.
+   */
+  protected boolean isTransient(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLTransientException
+          || cause instanceof SQLRecoverableException
+          || cause instanceof SQLNonTransientConnectionException) {
+        return true;
+      }
+      if (cause instanceof SQLException) {
+        String sqlState = ((SQLException) cause).getSQLState();
+        // SQL state class 08 : connection exception
+        if (sqlState != null && sqlState.startsWith("08")) {
+          return true;
+        }
+      }
+      if (cause.getCause() == cause) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  protected GlobalTrackingEvent parseLine(ByteArrayOutputStream line) {
+    if (line.size() == 0) {
+      return null;
+    }
+    try {
+      return fromJson(objectMapper.readTree(line.toByteArray()));
+    } catch (Exception e) {
+      log.error(
+          "Invalid global tracking event ignored: {}",
+          new String(line.toByteArray(), StandardCharsets.UTF_8),
+          e);
+      return null;
+    }
+  }
+
+  protected ObjectNode toJson(GlobalTrackingEvent event) {
+    ObjectNode node = objectMapper.createObjectNode();
+    node.put("metaModelId", event.getMetaModelId());
+    node.put("relatedId", event.getRelatedId());
+    node.put("relatedReference", event.getRelatedReference());
+    node.put("typeSelect", event.getTypeSelect());
+    node.put("dateT", event.getDateT() == null ? null : event.getDateT().toString());
+    node.put("userId", event.getUserId());
+    ArrayNode fieldChangeArray = node.putArray("fieldChangeList");
+    for (GlobalTrackingEvent.FieldChange fieldChange : event.getFieldChangeList()) {
+      fieldChangeArray
+          .addObject()
+          .put("metaFieldId", fieldChange.getMetaFieldId())
+          .put("previousValue", fieldChange.getPreviousValue())
+          .put("newValue", fieldChange.getNewValue());
+    }
+    return node;
+  }
+
+  protected GlobalTrackingEvent fromJson(JsonNode node) {
+    List<GlobalTrackingEvent.FieldChange> fieldChangeList = new ArrayList<>();
+    for (JsonNode fieldChange : node.path("fieldChangeList")) {
+      fieldChangeList.add(
+          new GlobalTrackingEvent.FieldChange(
+              getLong(fieldChange, "metaFieldId"),
+              getText(fieldChange, "previousValue"),
+              getText(fieldChange, "newValue")));
+    }
+    String dateT = getText(node, "dateT");
+    return new GlobalTrackingEvent(
+        getLong(node, "metaModelId"),
+        getLong(node, "relatedId"),
+        getText(node, "relatedReference"),
+        node.path("typeSelect").asInt(),
+        dateT == null ? null : LocalDateTime.parse(dateT),
+        getLong(node, "userId"),
+        fieldChangeList);
+  }
+
+  protected Long getLong(JsonNode node, String fieldName) {
+    JsonNode value = node.get(fieldName);
+    return value == null || value.isNull() ? null : value.asLong();
+  }
+
+  protected String getText(JsonNode node, String fieldName) {
+    JsonNode value = node.get(fieldName);
+    return value == null || value.isNull() ? null : value.asText();
+  }
+
+  protected long readOffset() throws IOException {
+    if (!Files.exists(offsetFile)) {
+      return 0;
+    }
+    String offset = new String(Files.readAllBytes(offsetFile), StandardCharsets.UTF_8);
+    return Long.parseLong(offset.trim());
+  }
+
+  /** Replaces the offset file atomically, so that a failure never leaves a partial offset. */
+  protected void writeOffset(long offset) throws IOException {
+    Path tmpFile = directory.resolve(OFFSET_FILE_NAME + ".tmp");
+    Files.deleteIfExists(tmpFile);
+    createFile(tmpFile);
+    Files.write(tmpFile, Long.toString(offset).getBytes(StandardCharsets.UTF_8));
+    Files.move(
+        tmpFile, offsetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  protected void skipFully(InputStream in, long count) throws IOException {
+    long remaining = count;
+    while (remaining > 0) {
+      long skipped = in.skip(remaining);
+      if (skipped <= 0) {
+        throw new IOException("Spill file is shorter than its replay offset");
+      }
+      remaining -= skipped;
+    }
+  }
+
+  /** Creates the directory, or restricts it to the current user if it already exists. */
+  protected void createDirectory() throws IOException {
+    if (!isPosix()) {
+      Files.createDirectories(directory);
+      return;
+    }
+    if (Files.isSymbolicLink(directory)) {
+      throw new IOException("Global tracking spill directory must not be a symbolic link");
+    }
+    if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+      Files.createDirectories(
+          directory, PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+    }
+    Files.setPosixFilePermissions(directory, DIRECTORY_PERMISSIONS);
+  }
+
+  protected void createFile(Path file) throws IOException {
+    if (isPosix()) {
+      Files.createFile(file, PosixFilePermissions.asFileAttribute(FILE_PERMISSIONS));
+    } else {
+      Files.createFile(file);
+    }
+  }
+
+  protected boolean isPosix() {
+    return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+  }
+
+  @FunctionalInterface
+  public interface BatchWriter {
+    void write(List<GlobalTrackingEvent> batch) throws Exception;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.utils;
+
+import com.axelor.db.JPA;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+import org.hibernate.engine.spi.SessionImplementor;
+
+public class TransactionTools {
+
+  private TransactionTools() {}
+
+  /**
+   * Runs the given action once the current transaction is committed, or right away outside of a
+   * transaction. The action is not run if the transaction is rolled back.
+   *
+   * <p>Used to invalidate caches: invalidating them at flush time would let a concurrent
+   * transaction reload the values not yet committed, or the values of a transaction rolled back
+   * later on.
+   */
+  public static void runAfterCommit(Runnable action) {
+    EntityManager em = JPA.em();
+    if (!em.getTransaction().isActive()) {
+      action.run();
+      return;
+    }
+    em.unwrap(SessionImplementor.class)
+        .getActionQueue()
+        .registerProcess(
+            (success, session) -> {
+              if (success) {
+                action.run();
+              }
+            });
+  }
+
+  /**
+   * Runs the given action in a separate entity manager and transaction, committed when the action
+   * succeeds whatever the outcome of the current transaction. Used to create rows shared by
+   * concurrent transactions, which then lock and update them in their own transaction.
+   */
+  public static void runInNewTransaction(Consumer<EntityManager> action) {
+    EntityManager em = JPA.em().getEntityManagerFactory().createEntityManager();
+    EntityTransaction transaction = em.getTransaction();
+    try {
+      transaction.begin();
+      action.accept(em);
+      transaction.commit();
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+      em.close();
+    }
+  }
+
+  /**
+   * Reads data in a separate entity manager and transaction, so that the changes of the current
+   * transaction which are not committed yet are not read. Used to load shared caches, the returned
+   * value must not reference the entities read.
+   */
+  public static <T> T readInNewTransaction(Function<EntityManager, T> reader) {
+    EntityManager em = JPA.em().getEntityManagerFactory().createEntityManager();
+    EntityTransaction transaction = em.getTransaction();
+    try {
+      transaction.begin();
+      return reader.apply(em);
+    } finally {
+      if (transaction.isActive()) {
+        transaction.rollback();
+      }
+      em.close();
+    }
+  }
+}
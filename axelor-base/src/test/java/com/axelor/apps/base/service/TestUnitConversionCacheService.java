@@ -0,0 +1,95 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.repo.UnitConversionRepository;
+import groovy.lang.Binding;
+import groovy.lang.Script;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestUnitConversionCacheService {
+
+  private TestableUnitConversionCacheService unitConversionCacheService;
+
+  @BeforeEach
+  void prepare() {
+    unitConversionCacheService = new TestableUnitConversionCacheService();
+  }
+
+  @Test
+  void getGraph_loadsEachEntityOnce() {
+    UnitConversionGraph graph =
+        unitConversionCacheService.getGraph(UnitConversionRepository.ENTITY_ALL);
+
+    Assertions.assertSame(
+        graph, unitConversionCacheService.getGraph(UnitConversionRepository.ENTITY_ALL));
+    unitConversionCacheService.getGraph(1);
+    Assertions.assertEquals(
+        List.of(UnitConversionRepository.ENTITY_ALL, 1), unitConversionCacheService.loadedList);
+  }
+
+  @Test
+  void invalidate_reloadsGraphs() {
+    UnitConversionGraph graph =
+        unitConversionCacheService.getGraph(UnitConversionRepository.ENTITY_ALL);
+    unitConversionCacheService.invalidate();
+
+    Assertions.assertNotSame(
+        graph, unitConversionCacheService.getGraph(UnitConversionRepository.ENTITY_ALL));
+    Assertions.assertEquals(2, unitConversionCacheService.loadedList.size());
+  }
+
+  @Test
+  void compile_templateExpressions() {
+    Class<? extends Script> scriptClass =
+        unitConversionCacheService.compile("$Product.netMass$ * 2");
+    Product product = new Product();
+    product.setNetMass(new BigDecimal("1.5"));
+    Binding binding = new Binding();
+    binding.setVariable("Product", product);
+
+    Object result = InvokerHelper.createScript(scriptClass, binding).run();
+
+    Assertions.assertEquals(0, new BigDecimal("3").compareTo(new BigDecimal(result.toString())));
+  }
+
+  @Test
+  void compile_otherTemplateSyntax() {
+    Assertions.assertNull(
+        unitConversionCacheService.compile("$Product.netMass > 1 ? Product.netMass : 1$"));
+  }
+
+  private static class TestableUnitConversionCacheService extends UnitConversionCacheServiceImpl {
+
+    private final List<Integer> loadedList = new ArrayList<>();
+
+    @Override
+    protected UnitConversionGraph loadGraph(Integer entitySelect) {
+      loadedList.add(entitySelect);
+      return UnitConversionGraph.of(new ArrayList<>(), this::compile);
+    }
+  }
+}
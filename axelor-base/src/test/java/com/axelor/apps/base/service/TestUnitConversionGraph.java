@@ -0,0 +1,121 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service;
+
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.base.db.UnitConversion;
+import com.axelor.apps.base.db.repo.UnitConversionRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class TestUnitConversionGraph {
+
+  private static Unit kilogram;
+  private static Unit gram;
+  private static Unit ton;
+  private static Unit liter;
+  private static Unit box;
+  private static UnitConversionGraph graph;
+
+  @BeforeAll
+  static void prepare() {
+    kilogram = createUnit(1L);
+    gram = createUnit(2L);
+    ton = createUnit(3L);
+    liter = createUnit(4L);
+    box = createUnit(5L);
+
+    graph =
+        UnitConversionGraph.of(
+            List.of(
+                createCoefConversion(kilogram, gram, new BigDecimal("1000")),
+                createCoefConversion(ton, kilogram, new BigDecimal("1000")),
+                createFormulaConversion(liter, kilogram, "$Product.netMass$")),
+            formula -> null);
+  }
+
+  @Test
+  void findPath_direct() {
+    List<UnitConversionGraph.Edge> path =
+        graph.findPath(kilogram.getId(), gram.getId(), false, false);
+    Assertions.assertEquals(1, path.size());
+    Assertions.assertFalse(path.get(0).isReversed());
+  }
+
+  @Test
+  void findPath_reversed() {
+    List<UnitConversionGraph.Edge> path =
+        graph.findPath(gram.getId(), kilogram.getId(), false, false);
+    Assertions.assertEquals(1, path.size());
+    Assertions.assertTrue(path.get(0).isReversed());
+  }
+
+  @Test
+  void findPath_transitive() {
+    List<UnitConversionGraph.Edge> path = graph.findPath(ton.getId(), gram.getId(), false, true);
+    Assertions.assertEquals(2, path.size());
+    Assertions.assertEquals(ton.getId(), path.get(0).getStartUnitId());
+    Assertions.assertEquals(gram.getId(), path.get(1).getEndUnitId());
+  }
+
+  @Test
+  void findPath_transitive_when_chaining_disabled() {
+    Assertions.assertNull(graph.findPath(ton.getId(), gram.getId(), false, false));
+  }
+
+  @Test
+  void findPath_formula_without_model() {
+    Assertions.assertNull(graph.findPath(liter.getId(), gram.getId(), false, true));
+    Assertions.assertEquals(2, graph.findPath(liter.getId(), gram.getId(), true, true).size());
+  }
+
+  @Test
+  void findPath_unknown_unit() {
+    Assertions.assertNull(graph.findPath(box.getId(), gram.getId(), true, true));
+  }
+
+  private static Unit createUnit(Long id) {
+    Unit unit = new Unit();
+    unit.setId(id);
+    return unit;
+  }
+
+  private static UnitConversion createCoefConversion(
+      Unit startUnit, Unit endUnit, BigDecimal coef) {
+    UnitConversion unitConversion = new UnitConversion();
+    unitConversion.setStartUnit(startUnit);
+    unitConversion.setEndUnit(endUnit);
+    unitConversion.setTypeSelect(UnitConversionRepository.TYPE_COEFF);
+    unitConversion.setCoef(coef);
+    return unitConversion;
+  }
+
+  private static UnitConversion createFormulaConversion(
+      Unit startUnit, Unit endUnit, String formula) {
+    UnitConversion unitConversion = new UnitConversion();
+    unitConversion.setStartUnit(startUnit);
+    unitConversion.setEndUnit(endUnit);
+    unitConversion.setTypeSelect(UnitConversionRepository.TYPE_FORMULA);
+    unitConversion.setFormula(formula);
+    return unitConversion;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TestBatchPartitionExecutor {
+
+  @Test
+  void execute_runsPartitionsConcurrently() throws InterruptedException {
+    Map<Long, Long> partitionSizeMap = new LinkedHashMap<>();
+    partitionSizeMap.put(1L, 3L);
+    partitionSizeMap.put(2L, 5L);
+    CountDownLatch latch = new CountDownLatch(2);
+    RecordingListener listener = new RecordingListener();
+
+    new BatchPartitionExecutor(2)
+        .execute(
+            partitionSizeMap,
+            partitionKey -> {
+              latch.countDown();
+              try {
+                // both partitions must be running at the same time to get past the latch
+                if (!latch.await(5, TimeUnit.SECONDS)) {
+                  throw new PartitionException(partitionKey, 0, new IllegalStateException());
+                }
+              } catch (InterruptedException e) {
+                throw new PartitionException(partitionKey, 0, e);
+              }
+            },
+            listener);
+
+    Assertions.assertEquals(2, listener.processedKeyList.size());
+    Assertions.assertTrue(listener.failureList.isEmpty());
+  }
+
+  @Test
+  void execute_countsUnprocessedRecordsOfFailedPartition() throws InterruptedException {
+    Map<Long, Long> partitionSizeMap = new LinkedHashMap<>();
+    partitionSizeMap.put(1L, 10L);
+    partitionSizeMap.put(2L, 4L);
+    RecordingListener listener = new RecordingListener();
+    IllegalStateException error = new IllegalStateException("failure");
+
+    new BatchPartitionExecutor(2)
+        .execute(
+            partitionSizeMap,
+            partitionKey -> {
+              if (partitionKey == 1L) {
+                throw new PartitionException(partitionKey, 3, error);
+              }
+            },
+            listener);
+
+    Assertions.assertEquals(Collections.singletonList(2L), listener.processedKeyList);
+    Assertions.assertEquals(Collections.singletonList(7), listener.unprocessedCountList);
+    Assertions.assertSame(error, listener.failureList.get(0));
+  }
+
+  @Test
+  void execute_countsOneAnomalyAtLeast() throws InterruptedException {
+    RecordingListener listener = new RecordingListener();
+
+    new BatchPartitionExecutor(1)
+        .execute(
+            Collections.singletonMap(1L, 2L),
+            partitionKey -> {
+              throw new PartitionException(partitionKey, 2, new IllegalStateException());
+            },
+            listener);
+
+    Assertions.assertEquals(Collections.singletonList(1), listener.unprocessedCountList);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void execute_runsWorkersAsCurrentSubject() throws InterruptedException {
+    Subject subject = mock(Subject.class);
+    Map<Long, Subject> workerSubjectMap = new ConcurrentHashMap<>();
+    when(subject.associateWith(any(Callable.class)))
+        .thenAnswer(
+            invocation -> {
+              Callable<Long> callable = invocation.getArgument(0);
+              return (Callable<Long>)
+                  () -> {
+                    ThreadContext.bind(subject);
+                    try {
+                      return callable.call();
+                    } finally {
+                      ThreadContext.unbindSubject();
+                    }
+                  };
+            });
+
+    ThreadContext.bind(subject);
+    try {
+      new BatchPartitionExecutor(2)
+          .execute(
+              Collections.singletonMap(1L, 1L),
+              partitionKey -> workerSubjectMap.put(partitionKey, ThreadContext.getSubject()),
+              new RecordingListener());
+    } finally {
+      ThreadContext.unbindSubject();
+    }
+
+    verify(subject).associateWith(any(Callable.class));
+    Assertions.assertSame(subject, workerSubjectMap.get(1L));
+  }
+
+  private static class RecordingListener implements BatchPartitionExecutor.PartitionListener {
+
+    private final List<Long> processedKeyList = new ArrayList<>();
+    private final List<Throwable> failureList = new ArrayList<>();
+    private final List<Integer> unprocessedCountList = new ArrayList<>();
+
+    @Override
+    public void partitionProcessed(Long partitionKey) {
+      processedKeyList.add(partitionKey);
+    }
+
+    @Override
+    public void partitionFailed(Throwable cause, int unprocessedCount) {
+      failureList.add(cause);
+      unprocessedCountList.add(unprocessedCount);
+    }
+  }
+}
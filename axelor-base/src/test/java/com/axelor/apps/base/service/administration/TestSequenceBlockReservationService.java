@@ -0,0 +1,128 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.administration;
+
+import static org.mockito.Mockito.mock;
+
+import com.axelor.apps.base.db.Sequence;
+import com.axelor.apps.base.db.SequenceVersion;
+import com.google.inject.persist.UnitOfWork;
+import java.util.Deque;
+import java.util.LinkedList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestSequenceBlockReservationService {
+
+  private TestableSequenceBlockReservationService reservationService;
+  private SequenceVersion sequenceVersion;
+
+  @BeforeEach
+  void prepare() {
+    reservationService = new TestableSequenceBlockReservationService();
+
+    Sequence sequence = new Sequence();
+    sequence.setId(1L);
+    sequence.setToBeAdded(2);
+    sequence.setReservedBlockSize(3);
+
+    sequenceVersion = new SequenceVersion();
+    sequenceVersion.setId(10L);
+    sequenceVersion.setSequence(sequence);
+    sequenceVersion.setNextNum(1L);
+  }
+
+  @Test
+  void getNextNum_servesNumbersFromReservedBlock() throws Exception {
+    reservationService.reservedFirstNums.add(1L);
+    reservationService.reservedFirstNums.add(101L);
+
+    Assertions.assertEquals(1L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(3L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(5L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(101L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(2, reservationService.reservationCount);
+    Assertions.assertEquals(6L, reservationService.lastIncrement);
+  }
+
+  @Test
+  void getNextNum_whenVersionNotVisible_reservesInCurrentTransaction() throws Exception {
+    reservationService.reservedFirstNums.add(null);
+    reservationService.reservedFirstNums.add(51L);
+
+    Assertions.assertEquals(1L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(3L, sequenceVersion.getNextNum());
+    // No block is kept for a number reserved in the current transaction.
+    Assertions.assertEquals(51L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(2, reservationService.reservationCount);
+  }
+
+  @Test
+  void getNextNum_whenLockedByCurrentTransaction_doesNotReserveInNewTransaction()
+      throws Exception {
+    reservationService.locked = true;
+
+    Assertions.assertEquals(1L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(3L, reservationService.getNextNum(sequenceVersion));
+    Assertions.assertEquals(0, reservationService.reservationCount);
+  }
+
+  @Test
+  void invalidate_dropsBlocksOfSequence() throws Exception {
+    reservationService.reservedFirstNums.add(1L);
+    reservationService.reservedFirstNums.add(201L);
+
+    Assertions.assertEquals(1L, reservationService.getNextNum(sequenceVersion));
+    reservationService.invalidate(sequenceVersion.getSequence());
+    Assertions.assertEquals(201L, reservationService.getNextNum(sequenceVersion));
+  }
+
+  private static class TestableSequenceBlockReservationService
+      extends SequenceBlockReservationServiceImpl {
+
+    private final Deque<Long> reservedFirstNums = new LinkedList<>();
+    private boolean locked;
+    private int reservationCount;
+    private long lastIncrement;
+
+    private TestableSequenceBlockReservationService() {
+      super(mock(UnitOfWork.class));
+    }
+
+    @Override
+    protected boolean isLockedByCurrentTransaction(SequenceVersion sequenceVersion) {
+      return locked;
+    }
+
+    @Override
+    protected Long reserveBlock(Long sequenceVersionId, long increment) {
+      reservationCount++;
+      lastIncrement = increment;
+      return reservedFirstNums.poll();
+    }
+
+    @Override
+    protected long reserveInCurrentTransaction(SequenceVersion sequenceVersion) {
+      long nextNum = sequenceVersion.getNextNum();
+      sequenceVersion.setNextNum(nextNum + sequenceVersion.getSequence().getToBeAdded());
+      return nextNum;
+    }
+  }
+}
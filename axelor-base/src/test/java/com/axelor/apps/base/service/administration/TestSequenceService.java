@@ -45,13 +45,16 @@ class TestSequenceService extends BaseTest {
     SequenceRepository sequenceRepo = mock(SequenceRepository.class);
     SequenceVersionGeneratorService sequenceVersionGeneratorService =
         mock(SequenceVersionGeneratorService.class);
+    SequenceBlockReservationService sequenceBlockReservationService =
+        mock(SequenceBlockReservationService.class);
 
     sequenceService =
         new SequenceService(
             sequenceVersionRepository,
             appBaseService,
             sequenceRepo,
-            sequenceVersionGeneratorService);
+            sequenceVersionGeneratorService,
+            sequenceBlockReservationService);
   }
 
   @Test
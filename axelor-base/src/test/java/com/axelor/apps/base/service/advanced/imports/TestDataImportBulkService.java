@@ -0,0 +1,245 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.advanced.imports;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Country;
+import com.axelor.apps.base.db.FileField;
+import com.axelor.apps.base.db.FileTab;
+import com.axelor.apps.base.service.imports.listener.ImporterListener;
+import com.axelor.db.JpaRepository;
+import com.axelor.db.Model;
+import com.axelor.db.mapper.Mapper;
+import com.axelor.meta.db.MetaField;
+import com.axelor.meta.db.MetaModel;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.PersistenceException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+class TestDataImportBulkService {
+
+  private static final String DUPLICATE_CODE = "XX";
+
+  private TestableDataImportBulkService dataImportBulkService;
+  private Mapper mapper;
+  private List<DataImportBulkServiceImpl.BulkField> fieldList;
+  private FileTab fileTab;
+  private ImporterListener listener;
+  private AdvancedImportService advancedImportService;
+
+  @TempDir Path tempDir;
+
+  @BeforeEach
+  void prepare() {
+    advancedImportService = Mockito.mock(AdvancedImportService.class);
+    dataImportBulkService = new TestableDataImportBulkService(advancedImportService);
+    mapper = Mapper.of(Country.class);
+    fieldList =
+        Arrays.asList(
+            new DataImportBulkServiceImpl.BulkField(mapper.getProperty("name"), null, null),
+            new DataImportBulkServiceImpl.BulkField(mapper.getProperty("alpha2Code"), null, null));
+    fileTab = new FileTab();
+    fileTab.setName("Country");
+    listener = Mockito.mock(ImporterListener.class);
+  }
+
+  @Test
+  void importChunk_persistsValidChunkAtOnce() {
+    List<Long> idList = new ArrayList<>();
+
+    importChunk(idList, row("France", "FR"), row("Spain", "ES"), row("Italy", "IT"));
+
+    Assertions.assertEquals(List.of(3), dataImportBulkService.persistedSizeList);
+    Assertions.assertEquals(3, idList.size());
+    Mockito.verify(listener).imported(3, 3);
+    Mockito.verify(listener, Mockito.never()).handle(Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  void importChunk_reportsInvalidRecordWithoutRetry() {
+    List<Long> idList = new ArrayList<>();
+
+    importChunk(idList, row("France", "FR"), row("", "ES"), row("Italy", "ITA"));
+
+    Assertions.assertEquals(List.of(1), dataImportBulkService.persistedSizeList);
+    Assertions.assertEquals(1, idList.size());
+    Mockito.verify(listener).imported(3, 1);
+    String message = getHandledMessage();
+    Assertions.assertTrue(message.contains("Record 12:"), message);
+    Assertions.assertTrue(message.contains("Record 13:"), message);
+  }
+
+  @Test
+  void importChunk_fallsBackToRecordByRecordOnFlushFailure() {
+    List<Long> idList = new ArrayList<>();
+
+    importChunk(idList, row("France", "FR"), row("Spain", DUPLICATE_CODE), row("Italy", "IT"));
+
+    // the rejected chunk, then each record on its own
+    Assertions.assertEquals(List.of(3, 1, 1, 1), dataImportBulkService.persistedSizeList);
+    Assertions.assertEquals(2, idList.size());
+    Mockito.verify(listener).imported(3, 2);
+    String message = getHandledMessage();
+    Assertions.assertTrue(message.contains("Record 12: duplicate key"), message);
+    Assertions.assertFalse(message.contains("Record 11:"), message);
+    Assertions.assertFalse(message.contains("Record 13:"), message);
+  }
+
+  @Test
+  void importData_readsColumnsInSequenceOrder() throws Exception {
+    Mockito.when(advancedImportService.getMapper(Country.class.getName())).thenReturn(mapper);
+    MetaModel metaModel = new MetaModel();
+    metaModel.setFullName(Country.class.getName());
+    fileTab.setMetaModel(metaModel);
+    // the fields of a reloaded tab are not in sequence order
+    fileTab.addFileFieldListItem(fileField("alpha2Code", 2));
+    fileTab.addFileFieldListItem(fileField("name", 1));
+    File dataFile = tempDir.resolve("Country.csv").toFile();
+    Files.write(
+        dataFile.toPath(),
+        List.of("\"name\";\"alpha2Code\"", "\"France\";\"FR\""),
+        StandardCharsets.UTF_8);
+
+    dataImportBulkService.captureChunks = true;
+    dataImportBulkService.importData(fileTab, dataFile, listener);
+
+    Assertions.assertEquals(
+        List.of("name", "alpha2Code"),
+        dataImportBulkService.importedFieldList.stream()
+            .map(field -> field.getProperty().getName())
+            .collect(Collectors.toList()));
+    Assertions.assertEquals("France", dataImportBulkService.importedRowList.get(0)[0]);
+  }
+
+  @Test
+  void overridesSave_generatedRepository_false() {
+    Assertions.assertFalse(dataImportBulkService.overridesSave(CountryRepository.class));
+  }
+
+  @Test
+  void overridesSave_repositoryComputingValuesOnSave_true() {
+    Assertions.assertTrue(dataImportBulkService.overridesSave(CountrySaveRepository.class));
+    Assertions.assertTrue(dataImportBulkService.overridesSave(CountryModuleRepository.class));
+  }
+
+  private void importChunk(List<Long> idList, String[]... rows) {
+    dataImportBulkService.importChunk(
+        fileTab, mapper, fieldList, Arrays.asList(rows), 11, listener, idList);
+  }
+
+  private String getHandledMessage() {
+    ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+    Mockito.verify(listener).handle(Mockito.isNull(), captor.capture());
+    Assertions.assertTrue(captor.getValue() instanceof AxelorException);
+    return captor.getValue().getMessage();
+  }
+
+  private static String[] row(String... values) {
+    return values;
+  }
+
+  private static FileField fileField(String fieldName, int sequence) {
+    MetaField importField = new MetaField();
+    importField.setName(fieldName);
+    FileField fileField = new FileField();
+    fileField.setImportField(importField);
+    fileField.setIsMatchWithFile(true);
+    fileField.setSequence(sequence);
+    return fileField;
+  }
+
+  private static class CountryRepository extends JpaRepository<Country> {
+
+    CountryRepository() {
+      super(Country.class);
+    }
+  }
+
+  private static class CountrySaveRepository extends CountryRepository {
+
+    @Override
+    public Country save(Country country) {
+      country.setName(country.getName().trim());
+      return super.save(country);
+    }
+  }
+
+  private static class CountryModuleRepository extends CountrySaveRepository {}
+
+  private static class TestableDataImportBulkService extends DataImportBulkServiceImpl {
+
+    private final List<Integer> persistedSizeList = new ArrayList<>();
+    private final List<String[]> importedRowList = new ArrayList<>();
+    private List<BulkField> importedFieldList;
+    private boolean captureChunks;
+    private long nextId = 1;
+
+    TestableDataImportBulkService(AdvancedImportService advancedImportService) {
+      super(advancedImportService);
+    }
+
+    @Override
+    protected int getChunkSize() {
+      return DEFAULT_CHUNK_SIZE;
+    }
+
+    @Override
+    protected void importChunk(
+        FileTab fileTab,
+        Mapper mapper,
+        List<BulkField> fieldList,
+        List<String[]> rowList,
+        int firstRecord,
+        ImporterListener listener,
+        List<Long> idList) {
+      if (captureChunks) {
+        importedFieldList = fieldList;
+        importedRowList.addAll(rowList);
+        return;
+      }
+      super.importChunk(fileTab, mapper, fieldList, rowList, firstRecord, listener, idList);
+    }
+
+    @Override
+    protected void persist(List<Model> beanList) {
+      persistedSizeList.add(beanList.size());
+      List<String> codeList =
+          beanList.stream()
+              .map(bean -> ((Country) bean).getAlpha2Code())
+              .collect(Collectors.toList());
+      if (codeList.contains(DUPLICATE_CODE)) {
+        throw new PersistenceException(
+            "could not execute batch", new RuntimeException("duplicate key"));
+      }
+      beanList.forEach(bean -> bean.setId(nextId++));
+    }
+  }
+}
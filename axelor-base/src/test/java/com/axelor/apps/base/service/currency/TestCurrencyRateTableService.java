@@ -0,0 +1,129 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.currency;
+
+import com.axelor.apps.base.service.currency.CurrencyRateTableService.Rate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestCurrencyRateTableService {
+
+  private TestableCurrencyRateTableService currencyRateTableService;
+
+  @BeforeEach
+  void prepare() {
+    currencyRateTableService = new TestableCurrencyRateTableService();
+    currencyRateTableService.addRow(
+        "EUR", "USD", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "1.10");
+    currencyRateTableService.addRow("EUR", "USD", LocalDate.of(2024, 2, 1), null, "1.20");
+    currencyRateTableService.addRow(
+        "EUR", "GBP", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), "0.85");
+  }
+
+  @Test
+  void findRate_closedPeriod() {
+    Rate rate = currencyRateTableService.findRate("EUR", "USD", LocalDate.of(2024, 1, 31));
+    Assertions.assertEquals(new BigDecimal("1.10"), rate.getExchangeRate());
+  }
+
+  @Test
+  void findRate_openPeriod() {
+    Rate rate = currencyRateTableService.findRate("EUR", "USD", LocalDate.of(2025, 6, 1));
+    Assertions.assertEquals(new BigDecimal("1.20"), rate.getExchangeRate());
+  }
+
+  @Test
+  void findRate_earlierOpenPeriod() {
+    Rate rate = currencyRateTableService.findRate("EUR", "GBP", LocalDate.of(2024, 6, 1));
+    Assertions.assertEquals(new BigDecimal("0.85"), rate.getExchangeRate());
+  }
+
+  @Test
+  void findRate_noRate() {
+    Assertions.assertNull(
+        currencyRateTableService.findRate("EUR", "USD", LocalDate.of(2023, 12, 31)));
+    Assertions.assertNull(
+        currencyRateTableService.findRate("EUR", "GBP", LocalDate.of(2025, 1, 1)));
+    Assertions.assertNull(
+        currencyRateTableService.findRate("USD", "EUR", LocalDate.of(2024, 6, 1)));
+  }
+
+  @Test
+  void findRate_overlappingPeriods_latestFromDate() {
+    currencyRateTableService.addRow("EUR", "USD", LocalDate.of(2024, 1, 15), null, "1.15");
+
+    Rate rate = currencyRateTableService.findRate("EUR", "USD", LocalDate.of(2024, 1, 20));
+    Assertions.assertEquals(new BigDecimal("1.15"), rate.getExchangeRate());
+  }
+
+  @Test
+  void findRate_loadsTableOnce() {
+    currencyRateTableService.findRate("EUR", "USD", LocalDate.of(2024, 1, 1));
+    currencyRateTableService.findRate("EUR", "GBP", LocalDate.of(2024, 1, 1));
+
+    Assertions.assertEquals(1, currencyRateTableService.loadCount);
+    Assertions.assertEquals(1, currencyRateTableService.getMissCount());
+    Assertions.assertEquals(1, currencyRateTableService.getHitCount());
+  }
+
+  @Test
+  void invalidate_reloadsTable() {
+    currencyRateTableService.findRate("EUR", "USD", LocalDate.of(2024, 3, 1));
+    currencyRateTableService.addRow("EUR", "USD", LocalDate.of(2024, 3, 1), null, "1.30");
+
+    Assertions.assertEquals(
+        new BigDecimal("1.20"),
+        currencyRateTableService
+            .findRate("EUR", "USD", LocalDate.of(2024, 3, 1))
+            .getExchangeRate());
+
+    currencyRateTableService.invalidate();
+
+    Assertions.assertEquals(
+        new BigDecimal("1.30"),
+        currencyRateTableService
+            .findRate("EUR", "USD", LocalDate.of(2024, 3, 1))
+            .getExchangeRate());
+    Assertions.assertEquals(2, currencyRateTableService.loadCount);
+  }
+
+  private static class TestableCurrencyRateTableService extends CurrencyRateTableServiceImpl {
+
+    private final List<Object[]> rowList = new ArrayList<>();
+    private int loadCount;
+
+    private void addRow(
+        String startCode, String endCode, LocalDate fromDate, LocalDate toDate, String rate) {
+      rowList.add(new Object[] {startCode, endCode, fromDate, toDate, new BigDecimal(rate)});
+      // rows are read sorted by from date
+      rowList.sort((row1, row2) -> ((LocalDate) row1[2]).compareTo((LocalDate) row2[2]));
+    }
+
+    @Override
+    protected List<Object[]> fetchRateRowList() {
+      loadCount++;
+      return new ArrayList<>(rowList);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.service.pricing;
+
+import com.axelor.apps.base.db.Partner;
+import com.axelor.apps.base.db.PartnerCategory;
+import com.axelor.apps.base.db.PricingLine;
+import com.axelor.apps.base.db.PricingRule;
+import com.axelor.apps.base.db.Product;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestPricingRuleScriptService {
+
+  private PricingRuleScriptServiceImpl pricingRuleScriptService;
+
+  @BeforeEach
+  void prepare() {
+    pricingRuleScriptService = new PricingRuleScriptServiceImpl();
+  }
+
+  @Test
+  void eval_classificationFormula() {
+    PartnerCategory partnerCategory = new PartnerCategory();
+    partnerCategory.setCode("RETAIL");
+    Partner clientPartner = new Partner();
+    clientPartner.setPartnerCategory(partnerCategory);
+    Map<String, Object> saleOrder = new HashMap<>();
+    saleOrder.put("clientPartner", clientPartner);
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("saleOrder", saleOrder);
+
+    PricingRule pricingRule =
+        createPricingRule(1L, "saleOrder.clientPartner.partnerCategory.code");
+
+    Assertions.assertEquals("RETAIL", pricingRuleScriptService.eval(pricingRule, variables));
+  }
+
+  @Test
+  void eval_resultFormula() {
+    Product product = new Product();
+    product.setSalePrice(new BigDecimal("20"));
+    PricingLine pricingLine = new PricingLine();
+    pricingLine.setResultParam1(new BigDecimal("1.5"));
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("product", product);
+    variables.put("pricingLine", pricingLine);
+
+    PricingRule pricingRule =
+        createPricingRule(2L, "product.salePrice * pricingLine.resultParam1");
+
+    Assertions.assertEquals(
+        0,
+        new BigDecimal("30")
+            .compareTo((BigDecimal) pricingRuleScriptService.eval(pricingRule, variables)));
+  }
+
+  @Test
+  void eval_repositoryAlias() {
+    PricingRule pricingRule = createPricingRule(3L, "__repo__.getSimpleName()");
+
+    Assertions.assertEquals(
+        "JpaRepository", pricingRuleScriptService.eval(pricingRule, new HashMap<>()));
+  }
+
+  @Test
+  void getScriptClass_recompilesChangedVersionOnly() {
+    PricingRule pricingRule = createPricingRule(4L, "1 + 1");
+
+    Class<?> scriptClass = pricingRuleScriptService.getScriptClass(pricingRule);
+    Assertions.assertSame(scriptClass, pricingRuleScriptService.getScriptClass(pricingRule));
+
+    pricingRule.setFormula("2 + 2");
+    pricingRule.setVersion(1);
+    Assertions.assertNotSame(scriptClass, pricingRuleScriptService.getScriptClass(pricingRule));
+    Assertions.assertEquals(4, pricingRuleScriptService.eval(pricingRule, new HashMap<>()));
+  }
+
+  protected PricingRule createPricingRule(Long id, String formula) {
+    PricingRule pricingRule = new PricingRule();
+    pricingRule.setId(id);
+    pricingRule.setVersion(0);
+    pricingRule.setFormula(formula);
+    return pricingRule;
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.base.tracking;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestGlobalTrackingSpillFile {
+
+  @TempDir Path tempDir;
+
+  private Path directory;
+  private GlobalTrackingSpillFile spillFile;
+  private List<GlobalTrackingEvent> writtenList;
+
+  @BeforeEach
+  void prepare() {
+    directory = tempDir.resolve("global-tracking");
+    spillFile = new GlobalTrackingSpillFile(directory);
+    writtenList = new ArrayList<>();
+  }
+
+  @Test
+  void replay_writesBackSpilledEvents() throws Exception {
+    spillFile.append(List.of(createEvent(1L, "a\nb"), createEvent(2L, null)));
+    spillFile.append(List.of(createEvent(3L, "\"c\"")));
+
+    Assertions.assertTrue(spillFile.prepareReplay());
+    Assertions.assertEquals(3, spillFile.replay(2, writtenList::addAll));
+
+    Assertions.assertEquals(3, writtenList.size());
+    GlobalTrackingEvent event = writtenList.get(0);
+    Assertions.assertEquals(1L, event.getRelatedId());
+    Assertions.assertEquals(10L, event.getMetaModelId());
+    Assertions.assertEquals("REF-1", event.getRelatedReference());
+    Assertions.assertEquals(LocalDateTime.of(2024, 5, 1, 10, 30), event.getDateT());
+    Assertions.assertNull(event.getUserId());
+    Assertions.assertEquals("a\nb", event.getFieldChangeList().get(0).getNewValue());
+    Assertions.assertNull(writtenList.get(1).getFieldChangeList().get(0).getNewValue());
+    Assertions.assertEquals("\"c\"", writtenList.get(2).getFieldChangeList().get(0).getNewValue());
+    Assertions.assertFalse(spillFile.prepareReplay());
+  }
+
+  @Test
+  void replay_afterTransientFailure_resumesAfterLastWrittenBatch() throws Exception {
+    spillFile.append(List.of(createEvent(1L, "1"), createEvent(2L, "2"), createEvent(3L, "3")));
+    spillFile.prepareReplay();
+
+    Assertions.assertThrows(
+        IllegalStateException.class,
+        () ->
+            spillFile.replay(
+                1,
+                batch -> {
+                  if (batch.get(0).getRelatedId() == 2L) {
+                    throw new IllegalStateException(
+                        new SQLTransientConnectionException("Connection is not available"));
+                  }
+                  writtenList.addAll(batch);
+                }));
+
+    // events spilled meanwhile wait for the next replay
+    spillFile.append(List.of(createEvent(4L, "4")));
+
+    Assertions.assertTrue(spillFile.prepareReplay());
+    Assertions.assertEquals(2, spillFile.replay(1, writtenList::addAll));
+    Assertions.assertTrue(spillFile.prepareReplay());
+    Assertions.assertEquals(1, spillFile.replay(1, writtenList::addAll));
+
+    Assertions.assertEquals(
+        List.of(1L, 2L, 3L, 4L),
+        writtenList.stream()
+            .map(GlobalTrackingEvent::getRelatedId)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void replay_rejectedBatch_writesEventsOneByOneAndMovesRejectedOnesAside() throws Exception {
+    spillFile.append(List.of(createEvent(1L, "1"), createEvent(2L, "2"), createEvent(3L, "3")));
+    spillFile.prepareReplay();
+    List<Integer> batchSizeList = new ArrayList<>();
+
+    int count =
+        spillFile.replay(
+            10,
+            batch -> {
+              batchSizeList.add(batch.size());
+              if (batch.stream().anyMatch(event -> event.getRelatedId() == 2L)) {
+                throw new IllegalStateException("violates foreign key constraint");
+              }
+              writtenList.addAll(batch);
+            });
+
+    Assertions.assertEquals(2, count);
+    Assertions.assertEquals(List.of(3, 1, 1, 1), batchSizeList);
+    Assertions.assertEquals(
+        List.of(1L, 3L),
+        writtenList.stream()
+            .map(GlobalTrackingEvent::getRelatedId)
+            .collect(Collectors.toList()));
+
+    // the rejected event is kept aside and no longer blocks the next spill files
+    spillFile.append(List.of(createEvent(4L, "4")));
+    Assertions.assertTrue(spillFile.prepareReplay());
+    Assertions.assertEquals(1, spillFile.replay(10, writtenList::addAll));
+    Assertions.assertFalse(spillFile.prepareReplay());
+
+    List<String> failedLineList =
+        Files.readAllLines(directory.resolve(GlobalTrackingSpillFile.FAILED_FILE_NAME));
+    Assertions.assertEquals(1, failedLineList.size());
+    Assertions.assertTrue(failedLineList.get(0).contains("\"relatedId\":2,"));
+  }
+
+  @Test
+  void isTransient_connectionFailure() {
+    Assertions.assertTrue(
+        spillFile.isTransient(
+            new IllegalStateException(new SQLException("Connection refused", "08001"))));
+    Assertions.assertFalse(
+        spillFile.isTransient(
+            new IllegalStateException(new SQLException("Foreign key violation", "23503"))));
+  }
+
+  @Test
+  void replay_ignoresInvalidAndIncompleteLines() throws Exception {
+    spillFile.append(List.of(createEvent(1L, "1")));
+    Files.write(
+        directory.resolve(GlobalTrackingSpillFile.SPILL_FILE_NAME),
+        "{not json}\n{\"relatedId\":".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    spillFile.prepareReplay();
+
+    Assertions.assertEquals(1, spillFile.replay(10, writtenList::addAll));
+    Assertions.assertEquals(1L, writtenList.get(0).getRelatedId());
+  }
+
+  @Test
+  void append_restrictsPermissions() throws IOException {
+    spillFile.append(List.of(createEvent(1L, "1")));
+
+    if (spillFile.isPosix()) {
+      Assertions.assertEquals(
+          "rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+      Assertions.assertEquals(
+          "rw-------",
+          PosixFilePermissions.toString(
+              Files.getPosixFilePermissions(
+                  directory.resolve(GlobalTrackingSpillFile.SPILL_FILE_NAME))));
+    }
+  }
+
+  private GlobalTrackingEvent createEvent(Long relatedId, String newValue) {
+    return new GlobalTrackingEvent(
+        10L,
+        relatedId,
+        "REF-" + relatedId,
+        1,
+        LocalDateTime.of(2024, 5, 1, 10, 30),
+        null,
+        List.of(new GlobalTrackingEvent.FieldChange(20L, "old", newValue)));
+  }
+}
@@ -24,7 +24,6 @@ import com.axelor.apps.businessproject.exception.BusinessProjectExceptionMessage
 import com.axelor.apps.businessproject.service.ProjectBusinessService;
 import com.axelor.apps.project.db.Project;
 import com.axelor.apps.project.db.repo.ProjectRepository;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -68,8 +67,7 @@ public class BatchBackupToProjectHistoryService extends BatchStrategy {
               batch.getId());
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
@@ -26,7 +26,6 @@ import com.axelor.apps.businessproject.exception.BusinessProjectExceptionMessage
 import com.axelor.apps.businessproject.service.ProjectBusinessService;
 import com.axelor.apps.project.db.Project;
 import com.axelor.apps.project.db.repo.ProjectRepository;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -78,7 +77,7 @@ public class BatchTransitionBetweenPaidStatusService extends AbstractBatch {
               batch.getId());
         }
       }
-      JPA.clear();
+      clear();
     }
   }
 
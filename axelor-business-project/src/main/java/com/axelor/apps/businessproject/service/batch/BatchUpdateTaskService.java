@@ -29,7 +29,6 @@ import com.axelor.apps.hr.db.TimesheetLine;
 import com.axelor.apps.hr.db.repo.TimesheetLineRepository;
 import com.axelor.apps.project.db.ProjectTask;
 import com.axelor.apps.project.db.repo.ProjectTaskRepository;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.studio.db.AppBusinessProject;
 import com.axelor.utils.helpers.QueryBuilder;
@@ -113,8 +112,7 @@ public class BatchUpdateTaskService extends BatchStrategy {
             batch.getId());
       }
       if (offset % getFetchLimit() == 0) {
-        JPA.clear();
-        findBatch();
+        clear();
       }
     }
   }
@@ -160,8 +158,7 @@ public class BatchUpdateTaskService extends BatchStrategy {
             batch.getId());
       }
       if (offset % getFetchLimit() == 0) {
-        JPA.clear();
-        findBatch();
+        clear();
       }
       BusinessProjectBatchService.updateJsonObject(
           batch, updatedTaskList, "updatedTaskSet", contextValues);
@@ -209,8 +206,7 @@ public class BatchUpdateTaskService extends BatchStrategy {
             batch.getId());
       }
       if (offset % getFetchLimit() == 0) {
-        JPA.clear();
-        findBatch();
+        clear();
       }
     }
     BusinessProjectBatchService.updateJsonObject(
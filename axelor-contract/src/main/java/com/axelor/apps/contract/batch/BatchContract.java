@@ -23,7 +23,6 @@ import com.axelor.apps.contract.db.Contract;
 import com.axelor.apps.contract.db.repo.ContractBatchRepository;
 import com.axelor.apps.contract.db.repo.ContractRepository;
 import com.axelor.apps.contract.translation.ITranslation;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
@@ -78,8 +77,7 @@ public class BatchContract extends BatchStrategy {
             incrementAnomaly(contract);
           }
         }
-        JPA.clear();
-        findBatch();
+        clear();
       }
     } catch (Exception e) {
       TraceBackService.trace(e);
@@ -121,8 +121,7 @@ public class BatchContractInvoicing extends BatchStrategy {
         TraceBackService.trace(e, "Contract invoicing batch", batch.getId());
       }
       if (offset % getFetchLimit() == 0) {
-        JPA.clear();
-        findBatch();
+        clear();
       }
     }
   }
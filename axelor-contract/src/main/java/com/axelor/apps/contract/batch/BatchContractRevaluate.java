@@ -31,7 +31,6 @@ import com.axelor.apps.contract.service.ContractRevaluationService;
 import com.axelor.apps.contract.service.ContractService;
 import com.axelor.apps.contract.service.ContractVersionService;
 import com.axelor.apps.contract.translation.ITranslation;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
@@ -98,8 +97,7 @@ public class BatchContractRevaluate extends BatchStrategy {
       idsFail.addAll(ids.get("FAIL").stream().map(Contract::getId).collect(Collectors.toList()));
       idsReevaluated.addAll(
           ids.get("REEVALUATED").stream().map(Contract::getId).collect(Collectors.toList()));
-      JPA.clear();
-      findBatch();
+      clear();
     }
     LOG.debug("{} Reevaluated contracts : {}", idsReevaluated.size(), idsReevaluated);
   }
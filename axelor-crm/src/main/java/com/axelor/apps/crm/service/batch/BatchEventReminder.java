@@ -113,7 +113,7 @@ public class BatchEventReminder extends BatchStrategy {
         } finally {
 
           if (i % 1 == 0) {
-            JPA.clear();
+            clear();
           }
         }
       }
@@ -238,7 +238,7 @@ public class BatchEventReminder extends BatchStrategy {
         } finally {
 
           if (i % 1 == 0) {
-            JPA.clear();
+            clear();
           }
         }
       }
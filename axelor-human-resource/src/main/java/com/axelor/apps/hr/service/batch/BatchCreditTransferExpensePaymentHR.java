@@ -34,7 +34,6 @@ import com.axelor.apps.hr.db.Expense;
 import com.axelor.apps.hr.db.repo.ExpenseRepository;
 import com.axelor.apps.hr.exception.HumanResourceExceptionMessage;
 import com.axelor.apps.hr.service.expense.ExpensePaymentService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.google.common.collect.Lists;
@@ -163,8 +162,7 @@ public class BatchCreditTransferExpensePaymentHR extends BatchCreditTransferExpe
           break;
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
 
     return doneList;
@@ -26,7 +26,6 @@ import com.axelor.apps.hr.db.repo.EmployeeRepository;
 import com.axelor.apps.hr.db.repo.LeaveReasonRepository;
 import com.axelor.apps.hr.service.leave.IncrementLeaveService;
 import com.axelor.apps.hr.translation.ITranslation;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.utils.helpers.StringHelper;
@@ -88,8 +87,7 @@ public class BatchIncrementLeave extends BatchStrategy {
         employee = employeeRepository.find(employee.getId());
         incrementLeaveService.updateEmployeeLeaveLines(leaveReason, employee);
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
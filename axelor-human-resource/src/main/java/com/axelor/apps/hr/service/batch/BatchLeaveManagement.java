@@ -36,7 +36,6 @@ import com.axelor.apps.hr.service.employee.EmployeeFetchService;
 import com.axelor.apps.hr.service.employee.EmployeeService;
 import com.axelor.apps.hr.service.leave.LeaveLineService;
 import com.axelor.apps.hr.service.leave.management.LeaveManagementService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
@@ -129,7 +128,7 @@ public class BatchLeaveManagement extends BatchStrategy {
         }
       } finally {
         total++;
-        JPA.clear();
+        clear();
       }
     }
   }
@@ -35,7 +35,6 @@ import com.axelor.apps.hr.service.employee.EmployeeFetchService;
 import com.axelor.apps.hr.service.employee.EmployeeService;
 import com.axelor.apps.hr.service.leave.LeaveLineService;
 import com.axelor.apps.hr.service.leave.management.LeaveManagementService;
-import com.axelor.db.JPA;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import java.math.BigDecimal;
@@ -98,7 +97,7 @@ public class BatchLeaveManagementReset extends BatchLeaveManagement {
         }
       } finally {
         total++;
-        JPA.clear();
+        clear();
       }
     }
   }
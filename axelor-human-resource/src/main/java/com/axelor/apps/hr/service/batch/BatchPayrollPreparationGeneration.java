@@ -166,7 +166,7 @@ public class BatchPayrollPreparationGeneration extends BatchStrategy {
         }
       } finally {
         total++;
-        JPA.clear();
+        clear();
       }
     }
   }
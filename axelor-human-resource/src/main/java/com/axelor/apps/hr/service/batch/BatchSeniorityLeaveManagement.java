@@ -170,7 +170,7 @@ public class BatchSeniorityLeaveManagement extends BatchStrategy {
         }
       } finally {
         total++;
-        JPA.clear();
+        clear();
       }
     }
   }
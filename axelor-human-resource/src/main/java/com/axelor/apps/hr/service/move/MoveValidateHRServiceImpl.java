@@ -21,6 +21,7 @@ package com.axelor.apps.hr.service.move;
 import com.axelor.apps.account.db.Move;
 import com.axelor.apps.account.db.repo.AccountRepository;
 import com.axelor.apps.account.db.repo.MoveRepository;
+import com.axelor.apps.account.service.AccountBalanceService;
 import com.axelor.apps.account.service.TaxAccountService;
 import com.axelor.apps.account.service.app.AppAccountService;
 import com.axelor.apps.account.service.config.AccountConfigService;
@@ -80,7 +81,8 @@ public class MoveValidateHRServiceImpl extends MoveValidateServiceImpl
       MoveLineFinancialDiscountService moveLineFinancialDiscountService,
       ExpenseRepository expenseRepository,
       TaxAccountService taxAccountService,
-      UserService userService) {
+      UserService userService,
+      AccountBalanceService accountBalanceService) {
     super(
         moveLineControlService,
         moveLineToolService,
@@ -104,7 +106,8 @@ public class MoveValidateHRServiceImpl extends MoveValidateServiceImpl
         currencyScaleService,
         moveLineFinancialDiscountService,
         taxAccountService,
-        userService);
+        userService,
+        accountBalanceService);
     this.expenseRepository = expenseRepository;
   }
 
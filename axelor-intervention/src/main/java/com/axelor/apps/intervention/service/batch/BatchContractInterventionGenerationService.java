@@ -33,7 +33,6 @@ import com.axelor.apps.intervention.db.InterventionBatch;
 import com.axelor.apps.intervention.db.repo.InterventionRepository;
 import com.axelor.apps.intervention.repo.EquipmentRepository;
 import com.axelor.apps.intervention.service.InterventionService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
@@ -129,7 +128,7 @@ public class BatchContractInterventionGenerationService extends AbstractBatch {
           processed++;
         }
       }
-      JPA.clear();
+      clear();
       LOG.debug("Contract's interventions generation progress : {}%", processed * 100L / total);
     }
     LOG.debug("Interventions generated for {} Contracts.", idsOk.size() - 1);
@@ -68,16 +68,21 @@ import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.axelor.message.service.MailMessageService;
 import com.axelor.utils.helpers.StringHelper;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
@@ -184,6 +189,132 @@ public class MrpServiceProductionImpl extends MrpServiceImpl {
     }
   }
 
+  @Override
+  protected Set<Long> getNetChangeProductIdSet(Mrp mrp, LocalDateTime sinceDateTime) {
+    Set<Long> productIdSet = super.getNetChangeProductIdSet(mrp, sinceDateTime);
+    if (appProductionService.isApp("production")) {
+      productIdSet.addAll(
+          this.getChangedProductIdList("ManufOrder", "self.product.id", null, sinceDateTime));
+      productIdSet.addAll(
+          this.getChangedProductIdList("ProdProduct", "self.product.id", null, sinceDateTime));
+      productIdSet.addAll(
+          this.getChangedProductIdList("BillOfMaterial", "self.product.id", null, sinceDateTime));
+      productIdSet.addAll(
+          this.getChangedProductIdList(
+              "BillOfMaterialLine", "self.product.id", "billOfMaterialParent", sinceDateTime));
+    }
+    return productIdSet;
+  }
+
+  @Override
+  protected List<String> getNetChangeEntityList() {
+    List<String> entityList = super.getNetChangeEntityList();
+    if (appProductionService.isApp("production")) {
+      entityList.addAll(
+          Lists.newArrayList("ManufOrder", "ProdProduct", "BillOfMaterial", "BillOfMaterialLine"));
+    }
+    return entityList;
+  }
+
+  /**
+   * The components of the manufacturing orders are added to the MRP during the calculation, when
+   * they are not components of the bill of materials, so their lines are kept as well.
+   */
+  @Override
+  protected Set<Long> getNetChangeScopeProductIdSet(Mrp mrp) {
+    Set<Long> scopeProductIdSet = super.getNetChangeScopeProductIdSet(mrp);
+    if (!appProductionService.isApp("production")) {
+      return scopeProductIdSet;
+    }
+
+    Set<Long> addedProductIdSet = new HashSet<>(scopeProductIdSet);
+    while (!addedProductIdSet.isEmpty()) {
+      Set<Long> componentIdSet = new HashSet<>();
+      for (List<Long> productIdList :
+          Lists.partition(new ArrayList<>(addedProductIdSet), PRODUCT_FETCH_SIZE)) {
+        componentIdSet.addAll(
+            JPA.em()
+                .createQuery(
+                    "SELECT DISTINCT self.product.id FROM ProdProduct self "
+                        + "WHERE self.toConsumeManufOrder.product.id IN (:productIds)",
+                    Long.class)
+                .setParameter("productIds", productIdList)
+                .getResultList());
+      }
+      componentIdSet.removeAll(scopeProductIdSet);
+      scopeProductIdSet.addAll(componentIdSet);
+      addedProductIdSet = componentIdSet;
+    }
+    return scopeProductIdSet;
+  }
+
+  /**
+   * The proposals of a product create needs on its components, so the products linked through a
+   * bill of materials or a manufacturing order are computed again together.
+   */
+  @Override
+  protected void addNetChangeRelatedProducts(Set<Long> productIdSet, Set<Long> scopeProductIdSet) {
+    super.addNetChangeRelatedProducts(productIdSet, scopeProductIdSet);
+    if (!appProductionService.isApp("production")) {
+      return;
+    }
+
+    Set<Long> addedProductIdSet = new HashSet<>(productIdSet);
+    while (!addedProductIdSet.isEmpty()) {
+      Set<Long> relatedProductIdSet = new HashSet<>();
+      for (List<Long> productIdList :
+          Lists.partition(new ArrayList<>(addedProductIdSet), PRODUCT_FETCH_SIZE)) {
+        relatedProductIdSet.addAll(
+            this.getRelatedProductIdList(
+                "BillOfMaterialLine",
+                "self.billOfMaterialParent.product.id",
+                "self.product.id",
+                productIdList));
+        relatedProductIdSet.addAll(
+            this.getRelatedProductIdList(
+                "ProdProduct",
+                "self.toConsumeManufOrder.product.id",
+                "self.product.id",
+                productIdList));
+        relatedProductIdSet.addAll(
+            this.getRelatedProductIdList(
+                "ProdProduct",
+                "self.toConsumeOperationOrder.manufOrder.product.id",
+                "self.product.id",
+                productIdList));
+      }
+      relatedProductIdSet.retainAll(scopeProductIdSet);
+      relatedProductIdSet.removeAll(productIdSet);
+      productIdSet.addAll(relatedProductIdSet);
+      addedProductIdSet = relatedProductIdSet;
+    }
+  }
+
+  protected List<Long> getRelatedProductIdList(
+      String entityName,
+      String parentProductIdPath,
+      String childProductIdPath,
+      List<Long> productIdList) {
+
+    String query = "SELECT DISTINCT %1$s FROM %2$s self WHERE %3$s IN (:productIds)";
+    List<Long> relatedProductIdList = new ArrayList<>();
+    relatedProductIdList.addAll(
+        JPA.em()
+            .createQuery(
+                String.format(query, childProductIdPath, entityName, parentProductIdPath),
+                Long.class)
+            .setParameter("productIds", productIdList)
+            .getResultList());
+    relatedProductIdList.addAll(
+        JPA.em()
+            .createQuery(
+                String.format(query, parentProductIdPath, entityName, childProductIdPath),
+                Long.class)
+            .setParameter("productIds", productIdList)
+            .getResultList());
+    return relatedProductIdList;
+  }
+
   protected void createManufOrderMrpLines() throws AxelorException {
     this.createManufOrderMrpLines(this.productMap);
   }
@@ -39,6 +39,7 @@ import com.axelor.apps.stock.service.PartnerProductQualityRatingService;
 import com.axelor.apps.stock.service.PartnerStockSettingsService;
 import com.axelor.apps.stock.service.StockMoveLineService;
 import com.axelor.apps.stock.service.StockMoveToolService;
+import com.axelor.apps.stock.service.StockMovementSummaryService;
 import com.axelor.apps.stock.service.app.AppStockService;
 import com.axelor.apps.stock.service.config.StockConfigService;
 import com.axelor.apps.supplychain.service.PartnerSupplychainService;
@@ -64,6 +65,7 @@ public class StockMoveServiceProductionImpl extends StockMoveServiceSupplychainI
       StockConfigService stockConfigService,
       AppStockService appStockService,
       ProductCompanyService productCompanyService,
+      StockMovementSummaryService stockMovementSummaryService,
       AppSupplychainService appSupplyChainService,
       AppAccountService appAccountService,
       PurchaseOrderRepository purchaseOrderRepo,
@@ -87,6 +89,7 @@ public class StockMoveServiceProductionImpl extends StockMoveServiceSupplychainI
         stockConfigService,
         appStockService,
         productCompanyService,
+        stockMovementSummaryService,
         appSupplyChainService,
         appAccountService,
         purchaseOrderRepo,
@@ -30,7 +30,6 @@ import com.axelor.apps.production.db.repo.ManufOrderRepository;
 import com.axelor.apps.production.exceptions.ProductionExceptionMessage;
 import com.axelor.apps.production.service.costsheet.CostSheetService;
 import com.axelor.apps.stock.db.StockLocation;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
@@ -101,8 +100,7 @@ public class BatchComputeWorkInProgressValuation extends BatchStrategy {
           TraceBackService.trace(e, ExceptionOriginRepository.COST_SHEET, batch.getId());
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
@@ -93,7 +93,7 @@ public class BatchFillSopRealValues extends AbstractBatch {
           TraceBackService.trace(e, ExceptionOriginRepository.SOP, batch.getId());
         }
       }
-      JPA.clear();
+      clear();
     }
   }
 
@@ -120,8 +120,7 @@ public class BatchRemoveTaskStatusService extends BatchStrategy {
               batch.getId());
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
@@ -56,7 +56,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -283,11 +286,26 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
   @Transactional(rollbackOn = {Exception.class})
   public void updateCostPrice(PurchaseOrder purchaseOrder) throws AxelorException {
     if (purchaseOrder.getPurchaseOrderLineList() != null) {
+      Map<Product, Map<String, Object>> productFieldMap =
+          productCompanyService.get(
+              purchaseOrder.getPurchaseOrderLineList().stream()
+                  .map(PurchaseOrderLine::getProduct)
+                  .filter(Objects::nonNull)
+                  .collect(Collectors.toList()),
+              List.of(
+                  "inAti",
+                  "defShipCoefByPartner",
+                  "purchasesUnit",
+                  "unit",
+                  "costTypeSelect",
+                  "autoUpdateSalePrice"),
+              purchaseOrder.getCompany());
       for (PurchaseOrderLine purchaseOrderLine : purchaseOrder.getPurchaseOrderLineList()) {
         Product product = purchaseOrderLine.getProduct();
         if (product != null) {
+          Map<String, Object> fieldMap = productFieldMap.get(product);
           BigDecimal lastPurchasePrice =
-              (Boolean) productCompanyService.get(product, "inAti", purchaseOrder.getCompany())
+              (Boolean) fieldMap.get("inAti")
                   ? purchaseOrderLine.getInTaxPrice()
                   : purchaseOrderLine.getPrice();
           lastPurchasePrice =
@@ -309,16 +327,10 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
           productCompanyService.set(
               product, "lastPurchaseDate", lastPurchaseDate, purchaseOrder.getCompany());
 
-          if ((Boolean)
-              productCompanyService.get(
-                  product, "defShipCoefByPartner", purchaseOrder.getCompany())) {
-            Unit productPurchaseUnit =
-                (Unit)
-                    productCompanyService.get(product, "purchasesUnit", purchaseOrder.getCompany());
+          if ((Boolean) fieldMap.get("defShipCoefByPartner")) {
+            Unit productPurchaseUnit = (Unit) fieldMap.get("purchasesUnit");
             productPurchaseUnit =
-                productPurchaseUnit != null
-                    ? productPurchaseUnit
-                    : (Unit) productCompanyService.get(product, "unit", purchaseOrder.getCompany());
+                productPurchaseUnit != null ? productPurchaseUnit : (Unit) fieldMap.get("unit");
             BigDecimal convertedQty =
                 Beans.get(UnitConversionService.class)
                     .convert(
@@ -339,8 +351,7 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
                   product, "shippingCoef", shippingCoef, purchaseOrder.getCompany());
             }
           }
-          if ((Integer)
-                  productCompanyService.get(product, "costTypeSelect", purchaseOrder.getCompany())
+          if ((Integer) fieldMap.get("costTypeSelect")
               == ProductRepository.COST_TYPE_LAST_PURCHASE_PRICE) {
             productCompanyService.set(
                 product,
@@ -348,9 +359,7 @@ public class PurchaseOrderServiceImpl implements PurchaseOrderService {
                 productConversionService.convertFromPurchaseToStockUnitPrice(
                     product, lastPurchasePrice),
                 purchaseOrder.getCompany());
-            if ((Boolean)
-                productCompanyService.get(
-                    product, "autoUpdateSalePrice", purchaseOrder.getCompany())) {
+            if ((Boolean) fieldMap.get("autoUpdateSalePrice")) {
               Beans.get(ProductService.class).updateSalePrice(product, purchaseOrder.getCompany());
             }
           }
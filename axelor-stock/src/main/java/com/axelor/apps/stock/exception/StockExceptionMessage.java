@@ -349,4 +349,25 @@ public final class StockExceptionMessage {
 
   public static final String STOCK_MOVE_MASS_NO_FROM_STOCK_LOCATION_SELECTED = /*$$(*/
       "No stock location has been selected." /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_MOVEMENT_SUMMARIES_1 = /*$$(*/
+      "Batch recompute stock movement summaries :" /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_MOVEMENT_SUMMARIES_2 = /*$$(*/
+      "product(s) processed, %s summary(ies) computed" /*)*/;
+
+  public static final String BATCH_CHECK_FUTURE_QTY_1 = /*$$(*/
+      "Batch check of the future quantities :" /*)*/;
+
+  public static final String BATCH_CHECK_FUTURE_QTY_2 = /*$$(*/
+      "stock location line(s) checked, %s future quantity(ies) fixed" /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_LOCATION_LINE_QTY_1 = /*$$(*/
+      "Batch recompute stock location line quantities :" /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_LOCATION_LINE_QTY_2 = /*$$(*/
+      "stock location line(s) checked, %s line(s) with different quantities" /*)*/;
+
+  public static final String BATCH_RECOMPUTE_STOCK_LOCATION_LINE_QTY_DRY_RUN = /*$$(*/
+      "Dry run: no stock location line has been modified, see the attached file." /*)*/;
 }
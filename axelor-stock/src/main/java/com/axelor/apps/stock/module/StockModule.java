@@ -98,6 +98,8 @@ import com.axelor.apps.stock.service.StockMoveToolService;
 import com.axelor.apps.stock.service.StockMoveToolServiceImpl;
 import com.axelor.apps.stock.service.StockMoveUpdateService;
 import com.axelor.apps.stock.service.StockMoveUpdateServiceImpl;
+import com.axelor.apps.stock.service.StockMovementSummaryService;
+import com.axelor.apps.stock.service.StockMovementSummaryServiceImpl;
 import com.axelor.apps.stock.service.StockRulesService;
 import com.axelor.apps.stock.service.StockRulesServiceImpl;
 import com.axelor.apps.stock.service.TrackingNumberCompanyService;
@@ -110,6 +112,8 @@ import com.axelor.apps.stock.service.TrackingNumberCreateService;
 import com.axelor.apps.stock.service.TrackingNumberCreateServiceImpl;
 import com.axelor.apps.stock.service.TrackingNumberService;
 import com.axelor.apps.stock.service.TrackingNumberServiceImpl;
+import com.axelor.apps.stock.service.WapLedgerService;
+import com.axelor.apps.stock.service.WapLedgerServiceImpl;
 import com.axelor.apps.stock.service.WeightedAveragePriceService;
 import com.axelor.apps.stock.service.WeightedAveragePriceServiceImpl;
 import com.axelor.apps.stock.service.app.AppStockService;
@@ -185,6 +189,7 @@ public class StockModule extends AxelorModule {
     bind(StockHistoryLineRepository.class).to(StockHistoryLineManagementRepository.class);
     bind(StockMoveCheckWapService.class).to(StockMoveCheckWapServiceImpl.class);
     bind(StockLocationLineHistoryService.class).to(StockLocationLineHistoryServiceImpl.class);
+    bind(WapLedgerService.class).to(WapLedgerServiceImpl.class);
     bind(StockMoveMergingService.class).to(StockMoveMergingServiceImpl.class);
     bind(InventoryLineService.class).to(InventoryLineServiceImpl.class);
     bind(StockLocationPrintService.class).to(StockLocationPrintServiceImpl.class);
@@ -221,5 +226,6 @@ public class StockModule extends AxelorModule {
     bind(StoredProductService.class).to(StoredProductServiceImpl.class);
     bind(LogisticalFormSequenceService.class).to(LogisticalFormSequenceServiceImpl.class);
     bind(TrackingNumberCompanyService.class).to(TrackingNumberCompanyServiceImpl.class);
+    bind(StockMovementSummaryService.class).to(StockMovementSummaryServiceImpl.class);
   }
 }
@@ -284,10 +284,12 @@ public class InventoryLineServiceImpl implements InventoryLineService {
       return false;
     }
 
-    StockLocation stockLocation =
-        stockLocationRepository.find(inventoryLine.getStockLocation().getId());
-    return stockLocation.getStockLocationLineList().stream()
-        .map(StockLocationLine::getProduct)
-        .anyMatch(product -> inventoryLine.getProduct().equals(product));
+    return Beans.get(StockLocationLineRepository.class)
+            .all()
+            .filter("self.stockLocation.id = :stockLocationId AND self.product.id = :productId")
+            .bind("stockLocationId", inventoryLine.getStockLocation().getId())
+            .bind("productId", inventoryLine.getProduct().getId())
+            .count()
+        > 0;
   }
 }
@@ -48,6 +48,8 @@ import com.axelor.apps.stock.exception.StockExceptionMessage;
 import com.axelor.apps.stock.service.config.StockConfigService;
 import com.axelor.auth.AuthUtils;
 import com.axelor.common.ObjectUtils;
+import com.axelor.common.csv.CSVFile;
+import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.i18n.L10n;
@@ -66,6 +68,7 @@ import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -73,6 +76,7 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -83,6 +87,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -107,6 +112,7 @@ public class InventoryService {
   private final String X_MARK = "X";
 
   static final int INVENTORY_LINE_WITHOUT_STOCK_LOCATION_DISPLAY_LIMIT = 15;
+  protected static final int IMPORT_CHUNK_SIZE = 1000;
 
   protected InventoryLineRepository inventoryLineRepository;
   protected InventoryLineService inventoryLineService;
@@ -212,27 +218,242 @@ public class InventoryService {
     return ref;
   }
 
+  /**
+   * Imports the counted quantities of the inventory file. The file is read by chunks, each line
+   * being matched with an existing inventory line by product, tracking number and stock location,
+   * and the existing lines which are not in the file are removed.
+   */
   @Transactional(rollbackOn = {Exception.class})
   public Path importFile(Inventory inventory) throws AxelorException {
 
-    HashMap<String, InventoryLine> inventoryLineMap = this.getInventoryLines(inventory);
+    Long inventoryId = inventory.getId();
+    Map<List<String>, Long> inventoryLineIdMap = this.getInventoryLineIdMap(inventory);
+    Set<Long> importedLineIdSet = new HashSet<>();
 
     Path filePath = MetaFiles.getPath(inventory.getImportFile());
-    List<CSVRecord> data = this.getDatas(filePath);
-
-    inventory.clearInventoryLineList();
+    List<CSVRecord> recordList = new ArrayList<>(IMPORT_CHUNK_SIZE);
+    int recordCount = 0;
+
+    CSVFile csvFormat = CSVFile.DEFAULT.withDelimiter(';').withFirstRecordAsHeader();
+    try (CSVParser csvParser = csvFormat.parse(filePath.toFile(), StandardCharsets.UTF_8)) {
+      for (CSVRecord record : csvParser) {
+        recordList.add(record);
+        recordCount++;
+
+        if (recordList.size() == IMPORT_CHUNK_SIZE) {
+          importInventoryLines(inventoryId, inventoryLineIdMap, importedLineIdSet, recordList);
+          recordList.clear();
+        }
+      }
+    } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+      throw new AxelorException(
+          e.getCause(),
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(StockExceptionMessage.INVENTORY_5));
+    }
 
-    for (CSVRecord line : data) {
-      inventory.addInventoryLineListItem(createInventoryLine(inventory, inventoryLineMap, line));
+    if (recordCount == 0) {
+      throw new AxelorException(
+          new Throwable(I18n.get(StockExceptionMessage.INVENTORY_3_DATA_NULL_OR_EMPTY)),
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(StockExceptionMessage.INVENTORY_3));
     }
 
-    inventoryRepo.save(inventory);
+    importInventoryLines(inventoryId, inventoryLineIdMap, importedLineIdSet, recordList);
+
+    List<Long> removedLineIdList = new ArrayList<>(inventoryLineIdMap.values());
+    removedLineIdList.removeAll(importedLineIdSet);
+    removeInventoryLines(removedLineIdList);
+
+    inventoryRepo.save(inventoryRepo.find(inventoryId));
 
     return filePath;
   }
 
+  /**
+   * Indexes the ids of the lines of the inventory by product code, tracking number and stock
+   * location name, the columns identifying a line in the import file.
+   */
+  protected Map<List<String>, Long> getInventoryLineIdMap(Inventory inventory) {
+    List<Object[]> resultList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, product.code, trackingNumber.trackingNumberSeq, stockLocation.name"
+                    + " FROM InventoryLine self"
+                    + " LEFT JOIN self.product product"
+                    + " LEFT JOIN self.trackingNumber trackingNumber"
+                    + " LEFT JOIN self.stockLocation stockLocation"
+                    + " WHERE self.inventory.id = :inventoryId",
+                Object[].class)
+            .setParameter("inventoryId", inventory.getId())
+            .getResultList();
+
+    Map<List<String>, Long> inventoryLineIdMap = new HashMap<>();
+    for (Object[] result : resultList) {
+      inventoryLineIdMap.put(
+          getInventoryLineKey((String) result[1], (String) result[2], (String) result[3]),
+          (Long) result[0]);
+    }
+    return inventoryLineIdMap;
+  }
+
+  protected List<String> getInventoryLineKey(
+      String productCode, String trackingNumberSeq, String stockLocationName) {
+    return Arrays.asList(
+        Strings.nullToEmpty(productCode),
+        Strings.nullToEmpty(trackingNumberSeq),
+        Strings.nullToEmpty(stockLocationName));
+  }
+
+  /**
+   * Imports a chunk of lines of the inventory file, then clears the session so that the memory
+   * used does not depend on the size of the file.
+   */
+  protected void importInventoryLines(
+      Long inventoryId,
+      Map<List<String>, Long> inventoryLineIdMap,
+      Set<Long> importedLineIdSet,
+      List<CSVRecord> recordList)
+      throws AxelorException {
+    if (recordList.isEmpty()) {
+      return;
+    }
+
+    Inventory inventory = inventoryRepo.find(inventoryId);
+    Map<String, Product> productMap = getProductMap(recordList);
+    Map<String, StockLocation> stockLocationMap = getStockLocationMap(recordList);
+
+    List<Long> inventoryLineIdList = new ArrayList<>();
+    for (CSVRecord line : recordList) {
+      if (line.size() >= 6) {
+        Long inventoryLineId = inventoryLineIdMap.get(getInventoryLineKey(line));
+        if (inventoryLineId != null) {
+          inventoryLineIdList.add(inventoryLineId);
+        }
+      }
+    }
+    Map<Long, InventoryLine> inventoryLineMap = new HashMap<>();
+    if (!inventoryLineIdList.isEmpty()) {
+      for (InventoryLine inventoryLine :
+          inventoryLineRepository
+              .all()
+              .filter("self.id IN (:inventoryLineIdList)")
+              .bind("inventoryLineIdList", inventoryLineIdList)
+              .fetch()) {
+        inventoryLineMap.put(inventoryLine.getId(), inventoryLine);
+      }
+    }
+
+    for (CSVRecord line : recordList) {
+      InventoryLine existingInventoryLine = null;
+      if (line.size() >= 6) {
+        existingInventoryLine =
+            inventoryLineMap.get(inventoryLineIdMap.get(getInventoryLineKey(line)));
+      }
+
+      InventoryLine inventoryLine =
+          createInventoryLine(
+              inventory,
+              existingInventoryLine,
+              existingInventoryLine != null && importedLineIdSet.add(existingInventoryLine.getId()),
+              line,
+              productMap,
+              stockLocationMap);
+      inventoryLineRepository.save(inventoryLine);
+    }
+
+    JPA.flush();
+    JPA.clear();
+  }
+
+  protected List<String> getInventoryLineKey(CSVRecord line) {
+    return getInventoryLineKey(
+        line.get(PRODUCT_CODE).replace("\"", ""),
+        line.get(TRACKING_NUMBER).replace("\"", ""),
+        line.get(STOCK_LOCATION).replace("\"", ""));
+  }
+
+  protected Map<String, Product> getProductMap(List<CSVRecord> recordList) {
+    Set<String> codeSet = new HashSet<>();
+    for (CSVRecord line : recordList) {
+      if (line.size() >= 6) {
+        codeSet.add(line.get(PRODUCT_CODE).replace("\"", ""));
+      }
+    }
+
+    Map<String, Product> productMap = new HashMap<>();
+    if (codeSet.isEmpty()) {
+      return productMap;
+    }
+    for (Product product :
+        productRepo
+            .all()
+            .filter("self.code IN (:codeList) AND self.dtype = 'Product'")
+            .bind("codeList", new ArrayList<>(codeSet))
+            .fetch()) {
+      // a null value marks a code shared by several products
+      productMap.put(product.getCode(), productMap.containsKey(product.getCode()) ? null : product);
+    }
+    return productMap;
+  }
+
+  protected Map<String, StockLocation> getStockLocationMap(List<CSVRecord> recordList) {
+    Set<String> nameSet = new HashSet<>();
+    for (CSVRecord line : recordList) {
+      if (line.size() >= 6) {
+        nameSet.add(line.get(STOCK_LOCATION).replace("\"", ""));
+      }
+    }
+
+    Map<String, StockLocation> stockLocationMap = new HashMap<>();
+    if (nameSet.isEmpty()) {
+      return stockLocationMap;
+    }
+    for (StockLocation stockLocation :
+        stockLocationRepository
+            .all()
+            .filter("self.name IN (:nameList)")
+            .bind("nameList", new ArrayList<>(nameSet))
+            .order("id")
+            .fetch()) {
+      stockLocationMap.putIfAbsent(stockLocation.getName(), stockLocation);
+    }
+    return stockLocationMap;
+  }
+
+  protected void removeInventoryLines(List<Long> inventoryLineIdList) {
+    for (int i = 0; i < inventoryLineIdList.size(); i += IMPORT_CHUNK_SIZE) {
+      JPA.em()
+          .createQuery("DELETE FROM InventoryLine self WHERE self.id IN (:inventoryLineIdList)")
+          .setParameter(
+              "inventoryLineIdList",
+              inventoryLineIdList.subList(
+                  i, Math.min(i + IMPORT_CHUNK_SIZE, inventoryLineIdList.size())))
+          .executeUpdate();
+    }
+  }
+
+  /**
+   * Creates the inventory line of a line of the import file.
+   *
+   * @param inventory the imported inventory
+   * @param existingInventoryLine the line of the inventory with the same product, tracking number
+   *     and stock location, or null
+   * @param editExistingLine whether the existing line is updated, or copied when it already
+   *     matched a previous line of the file
+   * @param line the line of the import file
+   * @param productMap the products of the chunk by code
+   * @param stockLocationMap the stock locations of the chunk by name
+   * @return the inventory line
+   * @throws AxelorException
+   */
   protected InventoryLine createInventoryLine(
-      Inventory inventory, HashMap<String, InventoryLine> inventoryLineMap, CSVRecord line)
+      Inventory inventory,
+      InventoryLine existingInventoryLine,
+      boolean editExistingLine,
+      CSVRecord line,
+      Map<String, Product> productMap,
+      Map<String, StockLocation> stockLocationMap)
       throws AxelorException {
     if (line.size() < 6) {
       throw new AxelorException(
@@ -247,14 +468,10 @@ public class InventoryService {
     String trackingNumberSeq = line.get(TRACKING_NUMBER).replace("\"", "");
     String description = line.get(DESCRIPTION).replace("\"", "");
     String stockLocationName = line.get(STOCK_LOCATION).replace("\"", "");
-    StockLocation stockLocation = null;
-    if (stockLocationName != null) {
-      stockLocation = stockLocationRepository.findByName(stockLocationName);
-    }
-    String key = code + trackingNumberSeq + stockLocationName;
+    StockLocation stockLocation = stockLocationMap.get(stockLocationName);
     BigDecimal realQty = getRealQty(inventory, line);
     BigDecimal currentQty = getCurrentQty(inventory, line);
-    Product product = getProduct(inventory, code);
+    Product product = getProduct(inventory, code, productMap);
     BigDecimal price = getPrice(line.get(PRICE));
 
     if (product == null
@@ -266,9 +483,10 @@ public class InventoryService {
     }
 
     InventoryLine inventoryLine;
-    if (inventoryLineMap.containsKey(key)) {
-      inventoryLine =
-          copyAndEditInventoryLine(inventoryLineMap.get(key), description, realQty, price);
+    if (existingInventoryLine != null && editExistingLine) {
+      inventoryLine = editInventoryLine(existingInventoryLine, description, realQty, price);
+    } else if (existingInventoryLine != null) {
+      inventoryLine = copyAndEditInventoryLine(existingInventoryLine, description, realQty, price);
     } else {
       inventoryLine =
           createInventoryLine(
@@ -305,11 +523,17 @@ public class InventoryService {
 
     // There is not one to many for inventoryLine, so true or false is the same.
     InventoryLine inventoryLineResult = inventoryLineRepository.copy(inventoryLine, true);
-    inventoryLineResult.setRealQty(realQty);
-    inventoryLineResult.setDescription(description);
-    inventoryLineResult.setPrice(price);
-    inventoryLineService.compute(inventoryLineResult, inventoryLineResult.getInventory());
-    return inventoryLineResult;
+    return editInventoryLine(inventoryLineResult, description, realQty, price);
+  }
+
+  protected InventoryLine editInventoryLine(
+      InventoryLine inventoryLine, String description, BigDecimal realQty, BigDecimal price)
+      throws AxelorException {
+    inventoryLine.setRealQty(realQty);
+    inventoryLine.setDescription(description);
+    inventoryLine.setPrice(price);
+    inventoryLineService.compute(inventoryLine, inventoryLine.getInventory());
+    return inventoryLine;
   }
 
   protected InventoryLine createInventoryLine(
@@ -358,6 +582,25 @@ public class InventoryService {
     }
   }
 
+  protected Product getProduct(Inventory inventory, String code, Map<String, Product> productMap)
+      throws AxelorException {
+    if (!productMap.containsKey(code)) {
+      throw new AxelorException(
+          inventory,
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(StockExceptionMessage.INVENTORY_4) + " " + code);
+    }
+
+    Product product = productMap.get(code);
+    if (product == null) {
+      throw new AxelorException(
+          inventory,
+          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
+          I18n.get(StockExceptionMessage.INVENTORY_12) + " " + code);
+    }
+    return product;
+  }
+
   protected BigDecimal getCurrentQty(Inventory inventory, CSVRecord line) throws AxelorException {
     int qtyScale = appBaseService.getAppBase().getNbDecimalDigitForQty();
     try {
@@ -389,50 +632,6 @@ public class InventoryService {
     return null;
   }
 
-  public List<CSVRecord> getDatas(Path filePath) throws AxelorException {
-
-    List<CSVRecord> data;
-    char separator = ';';
-    try {
-      data = CsvHelper.csvFileReader(filePath.toString(), separator);
-    } catch (Exception e) {
-      throw new AxelorException(
-          e.getCause(),
-          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-          I18n.get(StockExceptionMessage.INVENTORY_5));
-    }
-
-    if (data == null || data.isEmpty()) {
-      throw new AxelorException(
-          new Throwable(I18n.get(StockExceptionMessage.INVENTORY_3_DATA_NULL_OR_EMPTY)),
-          TraceBackRepository.CATEGORY_CONFIGURATION_ERROR,
-          I18n.get(StockExceptionMessage.INVENTORY_3));
-    }
-
-    return data;
-  }
-
-  public HashMap<String, InventoryLine> getInventoryLines(Inventory inventory) {
-    HashMap<String, InventoryLine> inventoryLineMap = new HashMap<>();
-
-    for (InventoryLine line : inventory.getInventoryLineList()) {
-      StringBuilder key = new StringBuilder();
-      if (line.getProduct() != null) {
-        key.append(line.getProduct().getCode());
-      }
-      if (line.getTrackingNumber() != null) {
-        key.append(line.getTrackingNumber().getTrackingNumberSeq());
-      }
-      if (line.getStockLocation() != null) {
-        key.append(line.getStockLocation().getName());
-      }
-
-      inventoryLineMap.put(key.toString(), line);
-    }
-
-    return inventoryLineMap;
-  }
-
   public TrackingNumber getTrackingNumber(String sequence, Product product, BigDecimal realQty) {
 
     TrackingNumber trackingNumber = null;
@@ -718,9 +917,15 @@ public class InventoryService {
     stockMove.setInventory(inventory);
     stockMove.setOrigin(inventorySeq);
 
+    Map<Long, BigDecimal> avgPriceMap = getAvgPriceMap(toStockLocation);
     for (InventoryLine inventoryLine : inventoryLineList) {
       generateStockMoveLines(
-          inventoryLine, stockMove, isEnteringStock, fromStockLocation, toStockLocation);
+          inventoryLine,
+          stockMove,
+          isEnteringStock,
+          fromStockLocation,
+          toStockLocation,
+          avgPriceMap);
     }
     if (stockMove.getStockMoveLineList() != null && !stockMove.getStockMoveLineList().isEmpty()) {
 
@@ -738,6 +943,7 @@ public class InventoryService {
    * @param inventoryLine an inventory line
    * @param stockMove a stock move being created
    * @param isEnteringStock whether we are creating an incoming or outgoing stock move.
+   * @param avgPriceMap the WAP of the products in the destination stock location
    * @throws AxelorException
    */
   protected void generateStockMoveLines(
@@ -745,7 +951,8 @@ public class InventoryService {
       StockMove stockMove,
       boolean isEnteringStock,
       StockLocation fromStockLocation,
-      StockLocation toStockLocation)
+      StockLocation toStockLocation,
+      Map<Long, BigDecimal> avgPriceMap)
       throws AxelorException {
     Product product = inventoryLine.getProduct();
     TrackingNumber trackingNumber = inventoryLine.getTrackingNumber();
@@ -755,9 +962,7 @@ public class InventoryService {
     }
     if (diff.signum() > 0) {
 
-      StockLocationLine stockLocationLine =
-          stockLocationLineFetchService.getStockLocationLine(toStockLocation, product);
-      BigDecimal unitPrice = getAvgPrice(stockLocationLine);
+      BigDecimal unitPrice = avgPriceMap.getOrDefault(product.getId(), BigDecimal.ZERO);
       if (!inventoryLineService.isPresentInStockLocation(inventoryLine)) {
         unitPrice = inventoryLine.getPrice();
       }
@@ -791,14 +996,26 @@ public class InventoryService {
     }
   }
 
-  protected BigDecimal getAvgPrice(StockLocationLine stockLocationLine) {
-    BigDecimal avgPrice;
-    if (stockLocationLine != null) {
-      avgPrice = stockLocationLine.getAvgPrice();
-    } else {
-      avgPrice = BigDecimal.ZERO;
+  /**
+   * Returns the WAP of the stock managed products of the stock location, read in one query instead
+   * of fetching the stock location line of each inventory line.
+   */
+  protected Map<Long, BigDecimal> getAvgPriceMap(StockLocation stockLocation) {
+    List<Object[]> resultList =
+        JPA.em()
+            .createQuery(
+                "SELECT self.product.id, self.avgPrice FROM StockLocationLine self"
+                    + " WHERE self.stockLocation.id = :stockLocationId"
+                    + " AND self.product.stockManaged = true",
+                Object[].class)
+            .setParameter("stockLocationId", stockLocation.getId())
+            .getResultList();
+
+    Map<Long, BigDecimal> avgPriceMap = new HashMap<>();
+    for (Object[] result : resultList) {
+      avgPriceMap.put((Long) result[0], (BigDecimal) result[1]);
     }
-    return avgPrice;
+    return avgPriceMap;
   }
 
   @Transactional(rollbackOn = {Exception.class})
@@ -20,6 +20,7 @@ package com.axelor.apps.stock.service;
 
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Period;
 import com.axelor.apps.base.db.Product;
 import com.axelor.apps.base.db.repo.CompanyRepository;
 import com.axelor.apps.base.db.repo.ProductRepository;
@@ -28,11 +29,10 @@ import com.axelor.apps.base.service.PeriodService;
 import com.axelor.apps.base.service.UnitConversionService;
 import com.axelor.apps.base.service.app.AppBaseService;
 import com.axelor.apps.stock.db.StockHistoryLine;
-import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.StockMovementSummary;
 import com.axelor.apps.stock.db.repo.StockHistoryLineManagementRepository;
 import com.axelor.apps.stock.db.repo.StockLocationRepository;
 import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
-import com.axelor.apps.stock.db.repo.StockMoveRepository;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
 import com.axelor.meta.MetaFiles;
@@ -48,7 +48,9 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -58,17 +60,20 @@ public class StockHistoryServiceImpl implements StockHistoryService {
   protected UnitConversionService unitConversionService;
   protected StockLocationRepository stockLocationRepository;
   protected StockHistoryLineManagementRepository stockHistoryLineRepository;
+  protected StockMovementSummaryService stockMovementSummaryService;
 
   @Inject
   public StockHistoryServiceImpl(
       StockMoveLineRepository stockMoveLineRepository,
       UnitConversionService unitConversionService,
       StockLocationRepository stockLocationRepository,
-      StockHistoryLineManagementRepository stockHistoryLineRepository) {
+      StockHistoryLineManagementRepository stockHistoryLineRepository,
+      StockMovementSummaryService stockMovementSummaryService) {
     this.stockMoveLineRepository = stockMoveLineRepository;
     this.unitConversionService = unitConversionService;
     this.stockLocationRepository = stockLocationRepository;
     this.stockHistoryLineRepository = stockHistoryLineRepository;
+    this.stockMovementSummaryService = stockMovementSummaryService;
   }
 
   @Override
@@ -106,40 +111,40 @@ public class StockHistoryServiceImpl implements StockHistoryService {
       stockLocationIdList.add(stockLocationId);
     }
 
-    CompanyRepository companyRepo = Beans.get(CompanyRepository.class);
-    ProductRepository productRepo = Beans.get(ProductRepository.class);
+    Company company = Beans.get(CompanyRepository.class).find(companyId);
+    Product product = Beans.get(ProductRepository.class).find(productId);
+    PeriodService periodService = Beans.get(PeriodService.class);
+
+    // the 12 previous months are needed to compute the average outgoing quantity
+    Map<LocalDate, List<StockMovementSummary>> summaryMap =
+        stockMovementSummaryService
+            .getSummaryList(
+                productId,
+                companyId,
+                stockLocationIdList,
+                beginDate.withDayOfMonth(1).minusMonths(12),
+                endDate)
+            .stream()
+            .collect(Collectors.groupingBy(StockMovementSummary::getMonthDate));
 
     // one line per month
+    Period period = null;
     for (LocalDate periodBeginDate = beginDate.withDayOfMonth(1);
         periodBeginDate.isBefore(endDate);
         periodBeginDate = periodBeginDate.plusMonths(1)) {
-      LocalDate periodEndDate = periodBeginDate.plusMonths(1);
       StockHistoryLine stockHistoryLine = new StockHistoryLine();
-      Company company = companyRepo.find(companyId);
-      Product product = productRepo.find(productId);
       stockHistoryLine.setProduct(product);
       stockHistoryLine.setCompany(company);
       stockHistoryLine.setLabel(periodBeginDate.toString());
-      stockHistoryLine.setPeriod(
-          Beans.get(PeriodService.class)
-              .getActivePeriod(periodBeginDate, company, YearRepository.TYPE_CIVIL));
+      if (period == null || periodBeginDate.isAfter(period.getToDate())) {
+        period =
+            periodService.getActivePeriod(periodBeginDate, company, YearRepository.TYPE_CIVIL);
+      }
+      stockHistoryLine.setPeriod(period);
       if (!stockLocationIdList.isEmpty()) {
-        fetchAndFillResultForStockHistoryQuery(
-            stockHistoryLine,
-            productId,
-            companyId,
-            stockLocationIdList,
-            periodBeginDate,
-            periodEndDate,
-            true);
-        fetchAndFillResultForStockHistoryQuery(
-            stockHistoryLine,
-            productId,
-            companyId,
-            stockLocationIdList,
-            periodBeginDate,
-            periodEndDate,
-            false);
+        fillStockHistoryLineFields(
+            stockHistoryLine, summaryMap.getOrDefault(periodBeginDate, Collections.emptyList()));
+        computeAvgOutQtyOn12PastMonth(stockHistoryLine, summaryMap, periodBeginDate);
       }
       stockHistoryLineList.add(stockHistoryLine);
     }
@@ -206,42 +211,16 @@ public class StockHistoryServiceImpl implements StockHistoryService {
 
   protected void computeAvgOutQtyOn12PastMonth(
       StockHistoryLine stockHistoryLine,
-      Long productId,
-      Long companyId,
-      List<Long> stockLocationIdList,
-      LocalDate periodBeginDate)
-      throws AxelorException {
-    String filter =
-        "self.product.id = :productId "
-            + "AND self.stockMove.statusSelect = :realized "
-            + "AND self.stockMove.company.id = :companyId "
-            + "AND self.stockMove.realDate >= :beginDate "
-            + "AND self.stockMove.realDate < :endDate "
-            + "AND self.fromStockLocation.id IN :stockLocationIdList ";
-
-    List<StockMoveLine> stockMoveLineList =
-        stockMoveLineRepository
-            .all()
-            .filter(filter)
-            .bind("productId", productId)
-            .bind("companyId", companyId)
-            .bind("stockLocationIdList", stockLocationIdList)
-            .bind("realized", StockMoveRepository.STATUS_REALIZED)
-            .bind("beginDate", periodBeginDate.minusMonths(12))
-            .bind("endDate", periodBeginDate)
-            .fetch();
-
+      Map<LocalDate, List<StockMovementSummary>> summaryMap,
+      LocalDate periodBeginDate) {
     BigDecimal avgOutQtyOn12PastMonth = BigDecimal.ZERO;
-    for (StockMoveLine stockMoveLine : stockMoveLineList) {
-      // quantity in product unit
-      BigDecimal qtyConverted =
-          unitConversionService.convert(
-              stockMoveLine.getUnit(),
-              stockMoveLine.getProduct().getUnit(),
-              stockMoveLine.getRealQty(),
-              stockMoveLine.getRealQty().scale(),
-              stockMoveLine.getProduct());
-      avgOutQtyOn12PastMonth = avgOutQtyOn12PastMonth.add(qtyConverted);
+    for (LocalDate monthDate = periodBeginDate.minusMonths(12);
+        monthDate.isBefore(periodBeginDate);
+        monthDate = monthDate.plusMonths(1)) {
+      for (StockMovementSummary summary :
+          summaryMap.getOrDefault(monthDate, Collections.emptyList())) {
+        avgOutQtyOn12PastMonth = avgOutQtyOn12PastMonth.add(summary.getOutgoingQty());
+      }
     }
     avgOutQtyOn12PastMonth =
         avgOutQtyOn12PastMonth.divide(
@@ -251,100 +230,32 @@ public class StockHistoryServiceImpl implements StockHistoryService {
     stockHistoryLine.setAvgOutQtyOn12PastMonth(avgOutQtyOn12PastMonth);
   }
 
-  protected void fetchAndFillResultForStockHistoryQuery(
-      StockHistoryLine stockHistoryLine,
-      Long productId,
-      Long companyId,
-      List<Long> stockLocationIdList,
-      LocalDate periodBeginDate,
-      LocalDate periodEndDate,
-      boolean incoming)
-      throws AxelorException {
-    String filter =
-        "self.product.id = :productId "
-            + "AND self.stockMove.statusSelect = :realized "
-            + "AND self.stockMove.company.id = :companyId "
-            + "AND self.stockMove.realDate >= :beginDate "
-            + "AND self.stockMove.realDate < :endDate ";
-
-    if (incoming) {
-      filter += "AND self.toStockLocation.id IN :stockLocationIdList ";
-    } else {
-      filter += "AND self.fromStockLocation.id IN :stockLocationIdList ";
-    }
-
-    List<StockMoveLine> stockMoveLineList =
-        stockMoveLineRepository
-            .all()
-            .filter(filter)
-            .bind("productId", productId)
-            .bind("companyId", companyId)
-            .bind("stockLocationIdList", stockLocationIdList)
-            .bind("realized", StockMoveRepository.STATUS_REALIZED)
-            .bind("beginDate", periodBeginDate)
-            .bind("endDate", periodEndDate)
-            .fetch();
-    if (incoming) {
-      fillIncomingStockHistoryLineFields(stockHistoryLine, stockMoveLineList);
-    } else {
-      fillOutgoingStockHistoryLineFields(stockHistoryLine, stockMoveLineList);
-      computeAvgOutQtyOn12PastMonth(
-          stockHistoryLine, productId, companyId, stockLocationIdList, periodBeginDate);
-    }
-  }
-
-  protected void fillIncomingStockHistoryLineFields(
-      StockHistoryLine stockHistoryLine, List<StockMoveLine> stockMoveLineList)
-      throws AxelorException {
-
-    stockHistoryLine.setCountIncMvtStockPeriod(
-        Math.toIntExact(
-            stockMoveLineList.stream().map(StockMoveLine::getStockMove).distinct().count()));
+  /**
+   * Fill the incoming and outgoing fields of a line from the summaries of the stock locations for
+   * the month of the line.
+   */
+  protected void fillStockHistoryLineFields(
+      StockHistoryLine stockHistoryLine, List<StockMovementSummary> summaryList) {
+    int countIncMvtStockPeriod = 0;
     BigDecimal sumIncQtyPeriod = BigDecimal.ZERO;
-    for (StockMoveLine stockMoveLine : stockMoveLineList) {
-      // quantity in product unit
-      BigDecimal qtyConverted =
-          unitConversionService.convert(
-              stockMoveLine.getUnit(),
-              stockMoveLine.getProduct().getUnit(),
-              stockMoveLine.getRealQty(),
-              stockMoveLine.getRealQty().scale(),
-              stockMoveLine.getProduct());
-      sumIncQtyPeriod = sumIncQtyPeriod.add(qtyConverted);
-    }
-    stockHistoryLine.setSumIncQtyPeriod(sumIncQtyPeriod);
-    stockHistoryLine.setPriceIncStockMovePeriod(
-        stockMoveLineList.stream()
-            .map(StockMoveLine::getCompanyUnitPriceUntaxed)
-            .reduce(BigDecimal::add)
-            .orElse(BigDecimal.ZERO));
-  }
-
-  protected void fillOutgoingStockHistoryLineFields(
-      StockHistoryLine stockHistoryLine, List<StockMoveLine> stockMoveLineList)
-      throws AxelorException {
-
-    stockHistoryLine.setCountOutMvtStockPeriod(
-        Math.toIntExact(
-            stockMoveLineList.stream().map(StockMoveLine::getStockMove).distinct().count()));
+    BigDecimal priceIncStockMovePeriod = BigDecimal.ZERO;
+    int countOutMvtStockPeriod = 0;
     BigDecimal sumOutQtyPeriod = BigDecimal.ZERO;
-    for (StockMoveLine stockMoveLine : stockMoveLineList) {
-      // quantity in product unit
-      BigDecimal qtyConverted =
-          unitConversionService.convert(
-              stockMoveLine.getUnit(),
-              stockMoveLine.getProduct().getUnit(),
-              stockMoveLine.getRealQty(),
-              stockMoveLine.getRealQty().scale(),
-              stockMoveLine.getProduct());
-      sumOutQtyPeriod = sumOutQtyPeriod.add(qtyConverted);
+    BigDecimal priceOutStockMovePeriod = BigDecimal.ZERO;
+    for (StockMovementSummary summary : summaryList) {
+      countIncMvtStockPeriod += summary.getIncomingMoveCount();
+      sumIncQtyPeriod = sumIncQtyPeriod.add(summary.getIncomingQty());
+      priceIncStockMovePeriod = priceIncStockMovePeriod.add(summary.getIncomingAmount());
+      countOutMvtStockPeriod += summary.getOutgoingMoveCount();
+      sumOutQtyPeriod = sumOutQtyPeriod.add(summary.getOutgoingQty());
+      priceOutStockMovePeriod = priceOutStockMovePeriod.add(summary.getOutgoingAmount());
     }
+    stockHistoryLine.setCountIncMvtStockPeriod(countIncMvtStockPeriod);
+    stockHistoryLine.setSumIncQtyPeriod(sumIncQtyPeriod);
+    stockHistoryLine.setPriceIncStockMovePeriod(priceIncStockMovePeriod);
+    stockHistoryLine.setCountOutMvtStockPeriod(countOutMvtStockPeriod);
     stockHistoryLine.setSumOutQtyPeriod(sumOutQtyPeriod);
-    stockHistoryLine.setPriceOutStockMovePeriod(
-        stockMoveLineList.stream()
-            .map(StockMoveLine::getCompanyUnitPriceUntaxed)
-            .reduce(BigDecimal::add)
-            .orElse(BigDecimal.ZERO));
+    stockHistoryLine.setPriceOutStockMovePeriod(priceOutStockMovePeriod);
   }
 
   /**
@@ -21,8 +21,10 @@ package com.axelor.apps.stock.service;
 import com.axelor.apps.base.db.Product;
 import com.axelor.apps.stock.db.StockLocation;
 import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.apps.stock.db.TrackingNumber;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 public interface StockLocationLineFetchService {
@@ -79,6 +81,27 @@ public interface StockLocationLineFetchService {
    */
   List<StockLocationLine> getStockLocationLines(Product product);
 
+  /**
+   * Lock the location lines and detailed location lines of the given products in a given location
+   * until the end of the current transaction, so concurrent updates of the quantities of these
+   * lines wait for each other instead of failing on the version check. The lines are reloaded once
+   * locked.
+   *
+   * @param stockLocation A location
+   * @param productIdList The ids of the products
+   * @return The locked lines
+   */
+  List<StockLocationLine> lockStockLocationLines(
+      StockLocation stockLocation, Collection<Long> productIdList);
+
+  /**
+   * Lock the location lines updated by the given stock move lines, in their from and to locations,
+   * sorted by location and product so that two transactions always lock them in the same order.
+   *
+   * @param stockMoveLineList The stock move lines
+   */
+  void lockStockLocationLines(List<StockMoveLine> stockMoveLineList);
+
   /**
    * Create a query to find stock location line of a product of a specific/all company and a
    * specific/all stock location
@@ -21,14 +21,25 @@ package com.axelor.apps.stock.service;
 import com.axelor.apps.base.db.Product;
 import com.axelor.apps.stock.db.StockLocation;
 import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.apps.stock.db.TrackingNumber;
 import com.axelor.apps.stock.db.repo.StockLocationRepository;
 import com.axelor.db.JPA;
 import com.axelor.inject.Beans;
 import com.axelor.utils.helpers.StringHelper;
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 
 public class StockLocationLineFetchServiceImpl implements StockLocationLineFetchService {
 
@@ -114,6 +125,59 @@ public class StockLocationLineFetchServiceImpl implements StockLocationLineFetch
         .fetchOne();
   }
 
+  @Override
+  public List<StockLocationLine> lockStockLocationLines(
+      StockLocation stockLocation, Collection<Long> productIdList) {
+    if (stockLocation == null || productIdList == null || productIdList.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    EntityManager em = JPA.em();
+    List<StockLocationLine> stockLocationLineList =
+        em.createQuery(
+                "SELECT self FROM StockLocationLine self"
+                    + " WHERE (self.stockLocation.id = :stockLocationId"
+                    + " OR self.detailsStockLocation.id = :stockLocationId)"
+                    + " AND self.product.id IN (:productIdList)"
+                    + " ORDER BY self.product.id, self.id",
+                StockLocationLine.class)
+            .setParameter("stockLocationId", stockLocation.getId())
+            .setParameter("productIdList", productIdList)
+            .getResultList();
+
+    // a line already loaded in the session keeps its state when it is read again, so each line is
+    // reloaded once locked. Pending changes were flushed by the query above. Lines are locked by
+    // product then id to avoid deadlocks between two transactions.
+    for (StockLocationLine stockLocationLine : stockLocationLineList) {
+      em.refresh(stockLocationLine, LockModeType.PESSIMISTIC_WRITE);
+    }
+    return stockLocationLineList;
+  }
+
+  @Override
+  public void lockStockLocationLines(List<StockMoveLine> stockMoveLineList) {
+    if (stockMoveLineList == null) {
+      return;
+    }
+    Map<StockLocation, Set<Long>> productIdSetMap =
+        new TreeMap<>(Comparator.comparing(StockLocation::getId));
+    for (StockMoveLine stockMoveLine : stockMoveLineList) {
+      Product product = stockMoveLine.getProduct();
+      if (product == null || !product.getStockManaged()) {
+        continue;
+      }
+      for (StockLocation stockLocation :
+          Arrays.asList(stockMoveLine.getFromStockLocation(), stockMoveLine.getToStockLocation())) {
+        if (stockLocation != null) {
+          productIdSetMap
+              .computeIfAbsent(stockLocation, key -> new TreeSet<>())
+              .add(product.getId());
+        }
+      }
+    }
+    productIdSetMap.forEach(this::lockStockLocationLines);
+  }
+
   @Override
   public List<StockLocationLine> getStockLocationLines(Product product) {
     if (product != null && !product.getStockManaged()) {
@@ -21,6 +21,7 @@ package com.axelor.apps.stock.service;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.stock.db.StockLocationLine;
 import com.axelor.apps.stock.db.StockLocationLineHistory;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -40,4 +41,17 @@ public interface StockLocationLineHistoryService {
       throws AxelorException;
 
   List<StockLocationLineHistory> getStockLineHistoryLines(StockLocationLine stockLocationLine);
+
+  /**
+   * Get the quantity of a stock location line at a date: the quantity of its last history at this
+   * date, plus the realized stock move lines of the following days which did not write a history.
+   * The stock move lines are dated at the start of their realization day, as their history.
+   *
+   * @param stockLocationLine a stock location line, or a details stock location line
+   * @param dateT the date
+   * @return the quantity, in the unit of the stock location line
+   * @throws AxelorException if a stock move line quantity cannot be converted
+   */
+  BigDecimal getQtyAt(StockLocationLine stockLocationLine, LocalDateTime dateT)
+      throws AxelorException;
 }
@@ -21,13 +21,21 @@ package com.axelor.apps.stock.service;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
 import com.axelor.apps.base.service.ProductCompanyService;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.stock.db.StockLocation;
 import com.axelor.apps.stock.db.StockLocationLine;
 import com.axelor.apps.stock.db.StockLocationLineHistory;
+import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.apps.stock.db.repo.StockLocationLineHistoryRepository;
+import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.db.Query;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -35,13 +43,19 @@ public class StockLocationLineHistoryServiceImpl implements StockLocationLineHis
 
   protected StockLocationLineHistoryRepository stockLocationLineHistoryRepo;
   protected ProductCompanyService productCompanyService;
+  protected StockMoveLineRepository stockMoveLineRepository;
+  protected UnitConversionService unitConversionService;
 
   @Inject
   public StockLocationLineHistoryServiceImpl(
       StockLocationLineHistoryRepository stockLocationLineHistoryRepo,
-      ProductCompanyService productCompanyService) {
+      ProductCompanyService productCompanyService,
+      StockMoveLineRepository stockMoveLineRepository,
+      UnitConversionService unitConversionService) {
     this.stockLocationLineHistoryRepo = stockLocationLineHistoryRepo;
     this.productCompanyService = productCompanyService;
+    this.stockMoveLineRepository = stockMoveLineRepository;
+    this.unitConversionService = unitConversionService;
   }
 
   @Override
@@ -75,4 +89,98 @@ public class StockLocationLineHistoryServiceImpl implements StockLocationLineHis
         .bind("stockLocationLine", stockLocationLine)
         .fetch();
   }
+
+  @Override
+  public BigDecimal getQtyAt(StockLocationLine stockLocationLine, LocalDateTime dateT)
+      throws AxelorException {
+    StockLocationLineHistory lastHistory = getLastHistory(stockLocationLine, dateT);
+    BigDecimal qty = BigDecimal.ZERO;
+    LocalDate fromDate = null;
+    if (lastHistory != null) {
+      qty = lastHistory.getQty();
+      fromDate = lastHistory.getDateT().toLocalDate();
+    }
+
+    StockLocation stockLocation = getStockLocation(stockLocationLine);
+    for (StockMoveLine stockMoveLine :
+        getRealizedStockMoveLineList(stockLocationLine, fromDate, dateT.toLocalDate())) {
+      BigDecimal movedQty = getQtyInStockLocationLineUnit(stockLocationLine, stockMoveLine);
+      if (stockLocation.equals(stockMoveLine.getToStockLocation())) {
+        qty = qty.add(movedQty);
+      }
+      if (stockLocation.equals(stockMoveLine.getFromStockLocation())) {
+        qty = qty.subtract(movedQty);
+      }
+    }
+    return qty;
+  }
+
+  protected StockLocationLineHistory getLastHistory(
+      StockLocationLine stockLocationLine, LocalDateTime dateT) {
+    return stockLocationLineHistoryRepo
+        .all()
+        .filter("self.stockLocationLine = :stockLocationLine AND self.dateT <= :dateT")
+        .bind("stockLocationLine", stockLocationLine)
+        .bind("dateT", dateT)
+        .order("-dateT")
+        .order("-id")
+        .fetchOne();
+  }
+
+  /**
+   * Get the stock move lines realized in the stock location of the line after the given date, if
+   * any, until the to date included.
+   */
+  protected List<StockMoveLine> getRealizedStockMoveLineList(
+      StockLocationLine stockLocationLine, LocalDate fromDate, LocalDate toDate) {
+    boolean isDetailsStockLocationLine = stockLocationLine.getDetailsStockLocation() != null;
+    String filter =
+        "self.product = :product AND self.stockMove.statusSelect = :realized "
+            + "AND self.stockMove.realDate <= :toDate "
+            + "AND (self.toStockLocation = :stockLocation "
+            + "OR self.fromStockLocation = :stockLocation)";
+    if (fromDate != null) {
+      filter += " AND self.stockMove.realDate > :fromDate";
+    }
+    if (isDetailsStockLocationLine) {
+      filter += " AND self.trackingNumber = :trackingNumber";
+    }
+
+    Query<StockMoveLine> query =
+        stockMoveLineRepository
+            .all()
+            .filter(filter)
+            .bind("product", stockLocationLine.getProduct())
+            .bind("realized", StockMoveRepository.STATUS_REALIZED)
+            .bind("toDate", toDate)
+            .bind("stockLocation", getStockLocation(stockLocationLine));
+    if (fromDate != null) {
+      query.bind("fromDate", fromDate);
+    }
+    if (isDetailsStockLocationLine) {
+      query.bind("trackingNumber", stockLocationLine.getTrackingNumber());
+    }
+    return query.fetch();
+  }
+
+  protected StockLocation getStockLocation(StockLocationLine stockLocationLine) {
+    return stockLocationLine.getStockLocation() != null
+        ? stockLocationLine.getStockLocation()
+        : stockLocationLine.getDetailsStockLocation();
+  }
+
+  protected BigDecimal getQtyInStockLocationLineUnit(
+      StockLocationLine stockLocationLine, StockMoveLine stockMoveLine) throws AxelorException {
+    BigDecimal qty = stockMoveLine.getRealQty();
+    Unit stockLocationLineUnit = stockLocationLine.getUnit();
+    if (stockLocationLineUnit == null || stockLocationLineUnit.equals(stockMoveLine.getUnit())) {
+      return qty;
+    }
+    return unitConversionService.convert(
+        stockMoveLine.getUnit(),
+        stockLocationLineUnit,
+        qty,
+        qty.scale(),
+        stockLocationLine.getProduct());
+  }
 }
@@ -163,6 +163,15 @@ public interface StockLocationLineService {
    */
   BigDecimal computeFutureQty(StockLocationLine stockLocationLine) throws AxelorException;
 
+  /**
+   * Check the future quantity maintained on the stock location line against the one computed from
+   * the planned stock move lines, and fix it if they differ.
+   *
+   * @param stockLocationLine a stock location line with a product and a stock location.
+   * @return true if the future quantity was consistent, false if it has been fixed.
+   */
+  boolean checkFutureQty(StockLocationLine stockLocationLine) throws AxelorException;
+
   /**
    * Update avgPrice in stock location line and save wap history in the line.
    *
@@ -443,7 +443,13 @@ public class StockLocationLineServiceImpl implements StockLocationLineService {
       }
     }
     if (future) {
-      stockLocationLine.setFutureQty(computeFutureQty(stockLocationLine));
+      // every stock move line transition updates the future quantity by its real quantity, as
+      // counted by computeFutureQty, so it is maintained as a running total
+      if (isIncrement) {
+        stockLocationLine.setFutureQty(stockLocationLine.getFutureQty().add(qty));
+      } else {
+        stockLocationLine.setFutureQty(stockLocationLine.getFutureQty().subtract(qty));
+      }
       stockLocationLine.setLastFutureStockMoveDate(lastFutureStockMoveDate);
     }
 
@@ -634,6 +640,24 @@ public class StockLocationLineServiceImpl implements StockLocationLineService {
     return futureQty;
   }
 
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public boolean checkFutureQty(StockLocationLine stockLocationLine) throws AxelorException {
+    BigDecimal futureQty = computeFutureQty(stockLocationLine);
+    if (futureQty.compareTo(stockLocationLine.getFutureQty()) == 0) {
+      return true;
+    }
+
+    LOG.debug(
+        "Future quantity fix : Stock location line? {}, Future quantity? {}, Computed? {}",
+        stockLocationLine.getId(),
+        stockLocationLine.getFutureQty(),
+        futureQty);
+    stockLocationLine.setFutureQty(futureQty);
+    stockLocationLineRepo.save(stockLocationLine);
+    return false;
+  }
+
   protected List<StockMoveLine> findIncomingPlannedStockMoveLines(
       StockLocationLine stockLocationLine) {
     boolean isDetailsStockLocationLine = stockLocationLine.getDetailsStockLocation() != null;
@@ -613,6 +613,12 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
       throws AxelorException {
 
     stockMoveLineList = MoreObjects.firstNonNull(stockMoveLineList, Collections.emptyList());
+    lockStockLocationLines(stockMoveLineList);
+    if (fromStatus == StockMoveRepository.STATUS_REALIZED
+        || toStatus == StockMoveRepository.STATUS_REALIZED) {
+      // the WAP ledgers are only updated by realizations and their cancelation
+      weightedAveragePriceService.lockLedgers(stockMoveLineList);
+    }
 
     for (StockMoveLine stockMoveLine : stockMoveLineList) {
       StockLocation fromStockLocation = stockMoveLine.getFromStockLocation();
@@ -650,7 +656,6 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
             this.updateAveragePriceAndLocationLineHistory(
                 toStockLocation, stockMoveLine, fromStatus, toStatus, date, origin);
           }
-          weightedAveragePriceService.computeAvgPriceForProduct(stockMoveLine.getProduct());
         }
         if (fromStatus == StockMoveRepository.STATUS_REALIZED
             && toStatus == StockMoveRepository.STATUS_CANCELED) {
@@ -668,6 +673,14 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
     }
   }
 
+  /**
+   * Lock the stock location lines updated by the stock move lines until the end of the transaction,
+   * so that the stock moves of the same products are planned or realized one after the other.
+   */
+  protected void lockStockLocationLines(List<StockMoveLine> stockMoveLineList) {
+    stockLocationLineFetchService.lockStockLocationLines(stockMoveLineList);
+  }
+
   @Override
   public void updateAveragePriceAndLocationLineHistory(
       StockLocation stockLocation,
@@ -687,7 +700,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
     if (toStatus == StockMoveRepository.STATUS_REALIZED) {
       BigDecimal avgPrice =
           this.computeNewAveragePriceLocationLine(stockLocationLine, stockMoveLine);
-      setAvgPriceAndComputeForProduct(stockLocationLine, avgPrice);
+      setAvgPriceAndComputeForProduct(stockLocationLine, avgPrice, date);
 
       stockLocationLineService.updateHistory(
           stockLocationLine,
@@ -738,11 +751,12 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
     }
 
     if (toStatus == StockMoveRepository.STATUS_CANCELED) {
-      resetAvgPrice(stockLocationLine, origin);
+      resetAvgPrice(stockLocationLine, origin, date);
     } else {
       setAvgPriceAndComputeForProduct(
           stockLocationLine,
-          Optional.ofNullable(stockLocationLine.getAvgPrice()).orElse(BigDecimal.ZERO));
+          Optional.ofNullable(stockLocationLine.getAvgPrice()).orElse(BigDecimal.ZERO),
+          date);
     }
 
     stockLocationLineService.updateHistory(
@@ -753,7 +767,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
         getStockLocationLineHistoryTypeSelect(toStatus));
   }
 
-  protected void resetAvgPrice(StockLocationLine stockLocationLine, String origin)
+  protected void resetAvgPrice(StockLocationLine stockLocationLine, String origin, LocalDate date)
       throws AxelorException {
 
     // Sort by date.
@@ -784,15 +798,17 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
       if (i == 0 || i >= sortedHistoryLines.size()) {
         setAvgPriceAndComputeForProduct(
             stockLocationLine,
-            Optional.ofNullable(stockLocationLine.getAvgPrice()).orElse(BigDecimal.ZERO));
+            Optional.ofNullable(stockLocationLine.getAvgPrice()).orElse(BigDecimal.ZERO),
+            date);
       } else {
-        setAvgPriceAndComputeForProduct(stockLocationLine, lastHistoryLine.getWap());
+        setAvgPriceAndComputeForProduct(stockLocationLine, lastHistoryLine.getWap(), date);
       }
 
     } else {
       setAvgPriceAndComputeForProduct(
           stockLocationLine,
-          Optional.ofNullable(stockLocationLine.getAvgPrice()).orElse(BigDecimal.ZERO));
+          Optional.ofNullable(stockLocationLine.getAvgPrice()).orElse(BigDecimal.ZERO),
+          date);
     }
   }
 
@@ -850,9 +866,11 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
   }
 
   protected void setAvgPriceAndComputeForProduct(
-      StockLocationLine stockLocationLine, BigDecimal avgPrice) throws AxelorException {
+      StockLocationLine stockLocationLine, BigDecimal avgPrice, LocalDate date)
+      throws AxelorException {
     stockLocationLine.setAvgPrice(avgPrice);
-    weightedAveragePriceService.computeAvgPriceForProduct(stockLocationLine.getProduct());
+    weightedAveragePriceService.updateAvgPrice(
+        stockLocationLine, date != null ? date.atStartOfDay() : null);
   }
 
   @Override
@@ -1000,6 +1018,9 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
       boolean generateOrder)
       throws AxelorException {
     Unit stockMoveLineUnit = stockMoveLine.getUnit();
+    // a planned stock move line counts in the future quantity for its real quantity, the same way
+    // as in StockLocationLineService#computeFutureQty
+    BigDecimal plannedQty = stockMoveLine.getRealQty();
 
     switch (fromStatus) {
       case StockMoveRepository.STATUS_PLANNED:
@@ -1007,7 +1028,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
             stockMoveLine.getFromStockLocation(),
             product,
             stockMoveLineUnit,
-            qty,
+            plannedQty,
             false,
             true,
             true,
@@ -1018,7 +1039,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
             stockMoveLine.getToStockLocation(),
             product,
             stockMoveLineUnit,
-            qty,
+            plannedQty,
             false,
             true,
             false,
@@ -1062,7 +1083,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
             stockMoveLine.getFromStockLocation(),
             product,
             stockMoveLineUnit,
-            qty,
+            plannedQty,
             false,
             true,
             false,
@@ -1073,7 +1094,7 @@ public class StockMoveLineServiceImpl implements StockMoveLineService {
             stockMoveLine.getToStockLocation(),
             product,
             stockMoveLineUnit,
-            qty,
+            plannedQty,
             false,
             true,
             true,
@@ -94,6 +94,7 @@ public class StockMoveServiceImpl implements StockMoveService {
   protected StockConfigService stockConfigService;
   protected AppStockService appStockService;
   protected ProductCompanyService productCompanyService;
+  protected StockMovementSummaryService stockMovementSummaryService;
 
   @Inject
   public StockMoveServiceImpl(
@@ -107,7 +108,8 @@ public class StockMoveServiceImpl implements StockMoveService {
       PartnerStockSettingsService partnerStockSettingsService,
       StockConfigService stockConfigService,
       AppStockService appStockService,
-      ProductCompanyService productCompanyService) {
+      ProductCompanyService productCompanyService,
+      StockMovementSummaryService stockMovementSummaryService) {
     this.stockMoveLineService = stockMoveLineService;
     this.stockMoveToolService = stockMoveToolService;
     this.stockMoveLineRepo = stockMoveLineRepository;
@@ -119,6 +121,7 @@ public class StockMoveServiceImpl implements StockMoveService {
     this.stockConfigService = stockConfigService;
     this.appStockService = appStockService;
     this.productCompanyService = productCompanyService;
+    this.stockMovementSummaryService = stockMovementSummaryService;
   }
 
   /**
@@ -552,6 +555,7 @@ public class StockMoveServiceImpl implements StockMoveService {
     stockMoveLineService.storeCustomsCodes(stockMove.getStockMoveLineList());
 
     stockMove.setRealDate(appBaseService.getTodayDate(stockMove.getCompany()));
+    stockMovementSummaryService.updateSummaries(stockMove, stockMove.getRealDate(), false);
     resetMasses(stockMove);
 
     if (stockMove.getIsWithBackorder() && mustBeSplit(stockMove.getStockMoveLineList())) {
@@ -1007,6 +1011,7 @@ public class StockMoveServiceImpl implements StockMoveService {
           true,
           true);
 
+      stockMovementSummaryService.updateSummaries(stockMove, stockMove.getRealDate(), true);
       stockMove.setRealDate(appBaseService.getTodayDate(stockMove.getCompany()));
     }
 
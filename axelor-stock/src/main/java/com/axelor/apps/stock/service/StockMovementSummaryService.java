@@ -0,0 +1,76 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.stock.db.StockMove;
+import com.axelor.apps.stock.db.StockMovementSummary;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains the monthly summaries of the realized stock moves, per product, company and stock
+ * location, used to compute the stock history without reading the stock move lines.
+ */
+public interface StockMovementSummaryService {
+
+  /**
+   * Add the lines of a realized stock move to the summaries of the month of the given date, or
+   * remove them if the stock move is cancelled.
+   *
+   * @param stockMove the realized or cancelled stock move.
+   * @param realDate the date of the realization of the stock move.
+   * @param cancel true if the stock move is cancelled.
+   * @throws AxelorException
+   */
+  void updateSummaries(StockMove stockMove, LocalDate realDate, boolean cancel)
+      throws AxelorException;
+
+  /**
+   * Recompute the summaries of the given products from the realized stock moves, replacing the
+   * existing summaries in one transaction.
+   *
+   * @param productIdList ids of the products.
+   * @param company the company of the stock moves, or null for all companies.
+   * @return the number of computed summaries.
+   * @throws AxelorException
+   */
+  int recomputeSummaries(List<Long> productIdList, Company company) throws AxelorException;
+
+  /**
+   * Get the summaries of a product for the given stock locations, for the months between the two
+   * dates. Until the summaries have been computed by the stock batch, they are computed from the
+   * stock move lines and not saved.
+   *
+   * @param productId id of the product.
+   * @param companyId id of the company.
+   * @param stockLocationIdList ids of the stock locations.
+   * @param fromDate first month included.
+   * @param toDate first month excluded.
+   * @return the summaries ordered by month.
+   */
+  List<StockMovementSummary> getSummaryList(
+      Long productId,
+      Long companyId,
+      List<Long> stockLocationIdList,
+      LocalDate fromDate,
+      LocalDate toDate)
+      throws AxelorException;
+}
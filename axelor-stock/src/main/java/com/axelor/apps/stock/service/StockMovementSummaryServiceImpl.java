@@ -0,0 +1,396 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.base.utils.TransactionTools;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockMove;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.StockMovementSummary;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.db.repo.StockMovementSummaryRepository;
+import com.axelor.apps.stock.service.app.AppStockService;
+import com.axelor.db.JPA;
+import com.axelor.db.Query;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class StockMovementSummaryServiceImpl implements StockMovementSummaryService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  protected static final Comparator<StockMovementSummary> SUMMARY_KEY_COMPARATOR =
+      Comparator.<StockMovementSummary, Long>comparing(summary -> summary.getProduct().getId())
+          .thenComparing(summary -> summary.getCompany().getId())
+          .thenComparing(summary -> summary.getStockLocation().getId())
+          .thenComparing(StockMovementSummary::getMonthDate);
+
+  protected StockMovementSummaryRepository stockMovementSummaryRepository;
+  protected StockMoveRepository stockMoveRepository;
+  protected UnitConversionService unitConversionService;
+  protected AppStockService appStockService;
+
+  @Inject
+  public StockMovementSummaryServiceImpl(
+      StockMovementSummaryRepository stockMovementSummaryRepository,
+      StockMoveRepository stockMoveRepository,
+      UnitConversionService unitConversionService,
+      AppStockService appStockService) {
+    this.stockMovementSummaryRepository = stockMovementSummaryRepository;
+    this.stockMoveRepository = stockMoveRepository;
+    this.unitConversionService = unitConversionService;
+    this.appStockService = appStockService;
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public void updateSummaries(StockMove stockMove, LocalDate realDate, boolean cancel)
+      throws AxelorException {
+    if (realDate == null || stockMove.getCompany() == null) {
+      return;
+    }
+
+    // rows are locked in the order of their key, so that concurrent moves cannot deadlock
+    List<StockMovementSummary> deltaList =
+        new ArrayList<>(this.computeSummaries(stockMove, realDate, cancel ? -1 : 1).values());
+    deltaList.sort(SUMMARY_KEY_COMPARATOR);
+
+    for (StockMovementSummary delta : deltaList) {
+      StockMovementSummary summary = this.findSummary(delta);
+      if (summary == null) {
+        summary = this.createEmptySummary(delta);
+      }
+      this.addSummary(summary, delta);
+    }
+  }
+
+  /**
+   * Create the missing summary in its own transaction, so that concurrent moves of the same month
+   * do not fail on the unique constraint: the one which loses the race ignores the error, then
+   * both lock and update the same row.
+   *
+   * @return the summary, locked in the current transaction.
+   */
+  protected StockMovementSummary createEmptySummary(StockMovementSummary delta) {
+    try {
+      TransactionTools.runInNewTransaction(
+          em -> {
+            StockMovementSummary summary = new StockMovementSummary();
+            summary.setProduct(em.getReference(Product.class, delta.getProduct().getId()));
+            summary.setCompany(em.getReference(Company.class, delta.getCompany().getId()));
+            summary.setStockLocation(
+                em.getReference(StockLocation.class, delta.getStockLocation().getId()));
+            summary.setMonthDate(delta.getMonthDate());
+            em.persist(summary);
+          });
+    } catch (PersistenceException e) {
+      StockMovementSummary summary = this.findSummary(delta);
+      if (summary == null) {
+        throw e;
+      }
+      LOG.debug("Stock movement summary created by a concurrent transaction: {}", e.getMessage());
+      return summary;
+    }
+    return this.findSummary(delta);
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public int recomputeSummaries(List<Long> productIdList, Company company)
+      throws AxelorException {
+    Map<String, Object> params = new HashMap<>();
+    params.put("productIdList", productIdList);
+    String summaryFilter = "self.product.id IN (:productIdList)";
+    String stockMoveLineFilter = "self.product.id IN (:productIdList)";
+    if (company != null) {
+      params.put("company", company);
+      summaryFilter += " AND self.company = :company";
+      stockMoveLineFilter += " AND self.stockMove.company = :company";
+    }
+
+    // removed first, so that the moves realized meanwhile are either read below or wait
+    Query<StockMovementSummary> summaryQuery =
+        stockMovementSummaryRepository.all().filter(summaryFilter);
+    params.forEach(summaryQuery::bind);
+    summaryQuery.remove();
+
+    Map<List<Object>, StockMovementSummary> summaryMap =
+        this.computeSummaryMap(stockMoveLineFilter, params);
+    summaryMap.values().forEach(stockMovementSummaryRepository::save);
+    return summaryMap.size();
+  }
+
+  @Override
+  public List<StockMovementSummary> getSummaryList(
+      Long productId,
+      Long companyId,
+      List<Long> stockLocationIdList,
+      LocalDate fromDate,
+      LocalDate toDate)
+      throws AxelorException {
+    if (stockLocationIdList.isEmpty()) {
+      return new ArrayList<>();
+    }
+    if (!appStockService.getAppStock().getStockMovementSummariesOk()) {
+      return this.computeSummaryList(
+          productId, companyId, stockLocationIdList, fromDate, toDate);
+    }
+    return stockMovementSummaryRepository
+        .all()
+        .filter(
+            "self.product.id = :productId AND self.company.id = :companyId "
+                + "AND self.stockLocation.id IN (:stockLocationIdList) "
+                + "AND self.monthDate >= :fromDate AND self.monthDate < :toDate")
+        .bind("productId", productId)
+        .bind("companyId", companyId)
+        .bind("stockLocationIdList", stockLocationIdList)
+        .bind("fromDate", fromDate)
+        .bind("toDate", toDate)
+        .order("monthDate")
+        .fetch();
+  }
+
+  /**
+   * Compute the summaries of the stock locations of the history from the stock move lines, without
+   * saving them, as long as the summaries have not been computed by the stock batch.
+   */
+  protected List<StockMovementSummary> computeSummaryList(
+      Long productId,
+      Long companyId,
+      List<Long> stockLocationIdList,
+      LocalDate fromDate,
+      LocalDate toDate)
+      throws AxelorException {
+    Map<String, Object> params = new HashMap<>();
+    params.put("productId", productId);
+    params.put("companyId", companyId);
+    params.put("stockLocationIdList", stockLocationIdList);
+    params.put("fromDate", fromDate);
+    params.put("toDate", toDate);
+
+    return this
+        .computeSummaryMap(
+            "self.product.id = :productId AND self.stockMove.company.id = :companyId "
+                + "AND self.stockMove.realDate >= :fromDate "
+                + "AND self.stockMove.realDate < :toDate "
+                + "AND (self.toStockLocation.id IN (:stockLocationIdList) "
+                + "OR self.fromStockLocation.id IN (:stockLocationIdList))",
+            params)
+        .values()
+        .stream()
+        .filter(summary -> stockLocationIdList.contains(summary.getStockLocation().getId()))
+        .sorted(Comparator.comparing(StockMovementSummary::getMonthDate))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Compute the summaries of the realized stock move lines matching the given filter, grouping the
+   * lines by stock move so that each move is counted once per summary.
+   */
+  protected Map<List<Object>, StockMovementSummary> computeSummaryMap(
+      String filter, Map<String, Object> params) throws AxelorException {
+    TypedQuery<StockMoveLine> query =
+        JPA.em()
+            .createQuery(
+                "SELECT self FROM StockMoveLine self "
+                    + "WHERE self.stockMove.statusSelect = :realized "
+                    + "AND self.stockMove.realDate IS NOT NULL "
+                    + "AND self.stockMove.company IS NOT NULL AND "
+                    + filter
+                    + " ORDER BY self.stockMove.id",
+                StockMoveLine.class)
+            .setParameter("realized", StockMoveRepository.STATUS_REALIZED);
+    params.forEach(query::setParameter);
+
+    Map<StockMove, List<StockMoveLine>> stockMoveLineMap =
+        query.getResultList().stream()
+            .collect(
+                Collectors.groupingBy(
+                    StockMoveLine::getStockMove, LinkedHashMap::new, Collectors.toList()));
+
+    Map<List<Object>, StockMovementSummary> summaryMap = new HashMap<>();
+    for (Map.Entry<StockMove, List<StockMoveLine>> entry : stockMoveLineMap.entrySet()) {
+      StockMove stockMove = entry.getKey();
+      for (StockMovementSummary delta :
+          this.computeSummaries(stockMove, entry.getValue(), stockMove.getRealDate(), 1)
+              .values()) {
+        StockMovementSummary summary = summaryMap.putIfAbsent(this.getKey(delta), delta);
+        if (summary != null) {
+          this.addSummary(summary, delta);
+        }
+      }
+    }
+    return summaryMap;
+  }
+
+  /**
+   * Compute the summaries of the lines of a stock move, one per product and stock location, with
+   * the given sign.
+   */
+  protected Map<List<Object>, StockMovementSummary> computeSummaries(
+      StockMove stockMove, LocalDate realDate, int sign) throws AxelorException {
+    if (stockMove.getStockMoveLineList() == null) {
+      return new HashMap<>();
+    }
+    return this.computeSummaries(stockMove, stockMove.getStockMoveLineList(), realDate, sign);
+  }
+
+  protected Map<List<Object>, StockMovementSummary> computeSummaries(
+      StockMove stockMove, List<StockMoveLine> stockMoveLineList, LocalDate realDate, int sign)
+      throws AxelorException {
+    Map<List<Object>, StockMovementSummary> summaryMap = new HashMap<>();
+    LocalDate monthDate = realDate.withDayOfMonth(1);
+    for (StockMoveLine stockMoveLine : stockMoveLineList) {
+      Product product = stockMoveLine.getProduct();
+      if (product == null) {
+        continue;
+      }
+      // quantity in product unit
+      BigDecimal qty =
+          unitConversionService.convert(
+              stockMoveLine.getUnit(),
+              product.getUnit(),
+              stockMoveLine.getRealQty(),
+              stockMoveLine.getRealQty().scale(),
+              product);
+
+      if (stockMoveLine.getToStockLocation() != null) {
+        this.addStockMoveLine(
+            this.getSummary(
+                summaryMap,
+                product,
+                stockMove.getCompany(),
+                stockMoveLine.getToStockLocation(),
+                monthDate),
+            stockMoveLine,
+            qty,
+            true,
+            sign);
+      }
+      if (stockMoveLine.getFromStockLocation() != null) {
+        this.addStockMoveLine(
+            this.getSummary(
+                summaryMap,
+                product,
+                stockMove.getCompany(),
+                stockMoveLine.getFromStockLocation(),
+                monthDate),
+            stockMoveLine,
+            qty,
+            false,
+            sign);
+      }
+    }
+    return summaryMap;
+  }
+
+  protected StockMovementSummary getSummary(
+      Map<List<Object>, StockMovementSummary> summaryMap,
+      Product product,
+      Company company,
+      StockLocation stockLocation,
+      LocalDate monthDate) {
+    return summaryMap.computeIfAbsent(
+        Arrays.asList(product.getId(), company.getId(), stockLocation.getId(), monthDate),
+        key -> {
+          StockMovementSummary summary = new StockMovementSummary();
+          summary.setProduct(product);
+          summary.setCompany(company);
+          summary.setStockLocation(stockLocation);
+          summary.setMonthDate(monthDate);
+          return summary;
+        });
+  }
+
+  protected List<Object> getKey(StockMovementSummary summary) {
+    return Arrays.asList(
+        summary.getProduct().getId(),
+        summary.getCompany().getId(),
+        summary.getStockLocation().getId(),
+        summary.getMonthDate());
+  }
+
+  /** A stock move is counted once per summary, whatever its number of lines. */
+  protected void addStockMoveLine(
+      StockMovementSummary summary,
+      StockMoveLine stockMoveLine,
+      BigDecimal qty,
+      boolean incoming,
+      int sign) {
+    BigDecimal signedQty = qty.multiply(BigDecimal.valueOf(sign));
+    BigDecimal signedAmount =
+        stockMoveLine.getCompanyUnitPriceUntaxed().multiply(BigDecimal.valueOf(sign));
+    if (incoming) {
+      summary.setIncomingMoveCount(sign);
+      summary.setIncomingQty(summary.getIncomingQty().add(signedQty));
+      summary.setIncomingAmount(summary.getIncomingAmount().add(signedAmount));
+    } else {
+      summary.setOutgoingMoveCount(sign);
+      summary.setOutgoingQty(summary.getOutgoingQty().add(signedQty));
+      summary.setOutgoingAmount(summary.getOutgoingAmount().add(signedAmount));
+    }
+  }
+
+  protected void addSummary(StockMovementSummary summary, StockMovementSummary delta) {
+    summary.setIncomingMoveCount(summary.getIncomingMoveCount() + delta.getIncomingMoveCount());
+    summary.setIncomingQty(summary.getIncomingQty().add(delta.getIncomingQty()));
+    summary.setIncomingAmount(summary.getIncomingAmount().add(delta.getIncomingAmount()));
+    summary.setOutgoingMoveCount(summary.getOutgoingMoveCount() + delta.getOutgoingMoveCount());
+    summary.setOutgoingQty(summary.getOutgoingQty().add(delta.getOutgoingQty()));
+    summary.setOutgoingAmount(summary.getOutgoingAmount().add(delta.getOutgoingAmount()));
+  }
+
+  protected StockMovementSummary findSummary(StockMovementSummary delta) {
+    return JPA.em()
+        .createQuery(
+            "SELECT self FROM StockMovementSummary self "
+                + "WHERE self.product = :product AND self.company = :company "
+                + "AND self.stockLocation = :stockLocation AND self.monthDate = :monthDate",
+            StockMovementSummary.class)
+        .setParameter("product", delta.getProduct())
+        .setParameter("company", delta.getCompany())
+        .setParameter("stockLocation", delta.getStockLocation())
+        .setParameter("monthDate", delta.getMonthDate())
+        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+        .getResultList()
+        .stream()
+        .findFirst()
+        .orElse(null);
+  }
+}
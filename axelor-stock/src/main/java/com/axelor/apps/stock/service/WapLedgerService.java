@@ -0,0 +1,90 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMoveLine;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keeps, for each product and company, the running quantity and value of the stock location lines
+ * of the non virtual stock locations, so that the WAP of a product is read without summing its
+ * stock location lines.
+ */
+public interface WapLedgerService {
+
+  /**
+   * Applies to the ledger of the product and company of the line the change of its quantity and
+   * WAP since it was last recorded, and keeps the new state of the ledger in its history. Nothing
+   * is recorded while the ledgers of a product with stock have not been built.
+   *
+   * @param stockLocationLine the updated stock location line
+   * @param dateT the date of the change, the current date if null
+   */
+  void updateLedger(StockLocationLine stockLocationLine, LocalDateTime dateT);
+
+  /**
+   * Locks the ledgers updated by the given stock move lines until the end of the transaction,
+   * sorted by product and company, creating the missing ones. Called after the stock location
+   * lines are locked, so that all transactions lock the lines then the ledgers in the same order.
+   *
+   * @param stockMoveLineList the stock move lines
+   */
+  void lockLedgers(List<StockMoveLine> stockMoveLineList);
+
+  /**
+   * Recomputes the ledgers of the product from all its stock location lines.
+   *
+   * @param product the product
+   */
+  void rebuildLedgers(Product product);
+
+  /**
+   * Recomputes the history of the ledgers of the product from the given date, by replaying the
+   * history of its stock location lines, then ends the ledgers on the current state of its lines.
+   * Used after stock moves were realized or canceled at a past date.
+   *
+   * @param product the product
+   * @param fromDateT the date from which the history is recomputed
+   */
+  void recomputeLedgers(Product product, LocalDateTime fromDateT);
+
+  /**
+   * Returns the WAP of the product for the company.
+   *
+   * @param product the product
+   * @param company the company, or null for all the companies
+   * @return the WAP, or zero if there is no stock
+   */
+  BigDecimal getAvgPrice(Product product, Company company);
+
+  /**
+   * Returns the WAP of the product for the company as it was at the given date.
+   *
+   * @param product the product
+   * @param company the company
+   * @param dateT the date
+   * @return the WAP, or zero if the ledger has no state at this date
+   */
+  BigDecimal getAvgPriceAt(Product product, Company company, LocalDateTime dateT);
+}
@@ -0,0 +1,506 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.base.utils.TransactionTools;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockLocationLineHistory;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.WapLedger;
+import com.axelor.apps.stock.db.WapLedgerHistory;
+import com.axelor.apps.stock.db.repo.StockLocationLineHistoryRepository;
+import com.axelor.apps.stock.db.repo.StockLocationLineRepository;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.db.repo.WapLedgerHistoryRepository;
+import com.axelor.apps.stock.db.repo.WapLedgerRepository;
+import com.axelor.db.JPA;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.lang.invoke.MethodHandles;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class WapLedgerServiceImpl implements WapLedgerService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  protected static final int QTY = 0;
+  protected static final int VALUE = 1;
+
+  protected static final Comparator<Product> PRODUCT_COMPARATOR =
+      Comparator.comparing(Product::getId);
+  protected static final Comparator<Company> COMPANY_COMPARATOR =
+      Comparator.nullsFirst(Comparator.comparing(Company::getId));
+
+  protected WapLedgerRepository wapLedgerRepo;
+  protected WapLedgerHistoryRepository wapLedgerHistoryRepo;
+  protected StockLocationLineRepository stockLocationLineRepo;
+  protected StockLocationLineHistoryRepository stockLocationLineHistoryRepo;
+  protected AppBaseService appBaseService;
+
+  @Inject
+  public WapLedgerServiceImpl(
+      WapLedgerRepository wapLedgerRepo,
+      WapLedgerHistoryRepository wapLedgerHistoryRepo,
+      StockLocationLineRepository stockLocationLineRepo,
+      StockLocationLineHistoryRepository stockLocationLineHistoryRepo,
+      AppBaseService appBaseService) {
+    this.wapLedgerRepo = wapLedgerRepo;
+    this.wapLedgerHistoryRepo = wapLedgerHistoryRepo;
+    this.stockLocationLineRepo = stockLocationLineRepo;
+    this.stockLocationLineHistoryRepo = stockLocationLineHistoryRepo;
+    this.appBaseService = appBaseService;
+  }
+
+  @Override
+  @Transactional
+  public void updateLedger(StockLocationLine stockLocationLine, LocalDateTime dateT) {
+    if (stockLocationLine.getStockLocation() == null
+        || stockLocationLine.getStockLocation().getTypeSelect()
+            == StockLocationRepository.TYPE_VIRTUAL) {
+      return;
+    }
+
+    WapLedger wapLedger =
+        getLockedLedger(
+            stockLocationLine.getProduct(), stockLocationLine.getStockLocation().getCompany());
+    if (wapLedger == null) {
+      // the ledgers of the product are not built yet, its WAP is still read from its lines
+      return;
+    }
+
+    BigDecimal qty = getQty(stockLocationLine);
+    BigDecimal value = getValue(stockLocationLine);
+    BigDecimal qtyDelta =
+        qty.subtract(
+            Optional.ofNullable(stockLocationLine.getWapLedgerQty()).orElse(BigDecimal.ZERO));
+    BigDecimal valueDelta =
+        value.subtract(
+            Optional.ofNullable(stockLocationLine.getWapLedgerValue()).orElse(BigDecimal.ZERO));
+    if (qtyDelta.signum() == 0 && valueDelta.signum() == 0) {
+      return;
+    }
+
+    stockLocationLine.setWapLedgerQty(qty);
+    stockLocationLine.setWapLedgerValue(value);
+    setLedgerState(
+        wapLedger, wapLedger.getQty().add(qtyDelta), wapLedger.getValue().add(valueDelta));
+    createHistory(wapLedger, stockLocationLine, dateT);
+    wapLedgerRepo.save(wapLedger);
+  }
+
+  @Override
+  public void lockLedgers(List<StockMoveLine> stockMoveLineList) {
+    Map<Product, Set<Company>> companySetMap = new TreeMap<>(PRODUCT_COMPARATOR);
+    for (StockMoveLine stockMoveLine : stockMoveLineList) {
+      Product product = stockMoveLine.getProduct();
+      if (product == null || product.getId() == null || !product.getStockManaged()) {
+        continue;
+      }
+      for (StockLocation stockLocation :
+          Arrays.asList(stockMoveLine.getFromStockLocation(), stockMoveLine.getToStockLocation())) {
+        if (stockLocation != null
+            && stockLocation.getTypeSelect() != StockLocationRepository.TYPE_VIRTUAL) {
+          companySetMap
+              .computeIfAbsent(product, key -> new TreeSet<>(COMPANY_COMPARATOR))
+              .add(stockLocation.getCompany());
+        }
+      }
+    }
+    companySetMap.forEach(
+        (product, companySet) -> companySet.forEach(company -> getLockedLedger(product, company)));
+  }
+
+  @Override
+  @Transactional
+  public void rebuildLedgers(Product product) {
+    List<WapLedger> wapLedgerList = lockLedgers(product);
+
+    Map<Company, BigDecimal[]> totalMap = new HashMap<>();
+    for (StockLocationLine stockLocationLine : getStockLocationLines(product)) {
+      BigDecimal qty = getQty(stockLocationLine);
+      BigDecimal value = getValue(stockLocationLine);
+      stockLocationLine.setWapLedgerQty(qty);
+      stockLocationLine.setWapLedgerValue(value);
+
+      BigDecimal[] total =
+          totalMap.computeIfAbsent(
+              stockLocationLine.getStockLocation().getCompany(),
+              key -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+      total[QTY] = total[QTY].add(qty);
+      total[VALUE] = total[VALUE].add(value);
+    }
+
+    for (WapLedger wapLedger : wapLedgerList) {
+      BigDecimal[] total = totalMap.remove(wapLedger.getCompany());
+      updateLedger(wapLedger, total);
+    }
+    for (Map.Entry<Company, BigDecimal[]> entry : totalMap.entrySet()) {
+      WapLedger wapLedger = createLedgerInNewTransaction(product, entry.getKey());
+      lock(wapLedger);
+      updateLedger(wapLedger, entry.getValue());
+    }
+  }
+
+  @Override
+  @Transactional
+  public void recomputeLedgers(Product product, LocalDateTime fromDateT) {
+    removeHistory(product, fromDateT);
+    Map<Company, WapLedger> wapLedgerMap = new HashMap<>();
+    for (WapLedger wapLedger : lockLedgers(product)) {
+      wapLedgerMap.put(wapLedger.getCompany(), wapLedger);
+    }
+
+    // the contribution of each line is replayed from its history, the ledgers are only updated
+    // from the given date
+    Map<StockLocationLine, BigDecimal[]> contributionMap = new HashMap<>();
+    Map<Company, BigDecimal[]> totalMap = new HashMap<>();
+    try (Stream<StockLocationLineHistory> historyStream = getLineHistoryStream(product)) {
+      historyStream.forEach(
+          stockLocationLineHistory -> {
+            StockLocationLine stockLocationLine = stockLocationLineHistory.getStockLocationLine();
+            Company company = stockLocationLine.getStockLocation().getCompany();
+            BigDecimal qty =
+                Optional.ofNullable(stockLocationLineHistory.getQty()).orElse(BigDecimal.ZERO);
+            BigDecimal value =
+                qty.multiply(
+                    Optional.ofNullable(stockLocationLineHistory.getWap())
+                        .orElse(BigDecimal.ZERO));
+            BigDecimal[] contribution =
+                contributionMap.getOrDefault(
+                    stockLocationLine, new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+            BigDecimal[] total =
+                totalMap.computeIfAbsent(
+                    company, key -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+            total[QTY] = total[QTY].add(qty).subtract(contribution[QTY]);
+            total[VALUE] = total[VALUE].add(value).subtract(contribution[VALUE]);
+            contributionMap.put(stockLocationLine, new BigDecimal[] {qty, value});
+
+            if (stockLocationLineHistory.getDateT().isBefore(fromDateT)) {
+              return;
+            }
+            WapLedger wapLedger =
+                wapLedgerMap.computeIfAbsent(company, key -> getLockedLedger(product, key));
+            if (wapLedger != null) {
+              setLedgerState(wapLedger, total[QTY], total[VALUE]);
+              createHistory(wapLedger, stockLocationLine, stockLocationLineHistory.getDateT());
+            }
+          });
+    }
+
+    // the ledgers end on the current state of the lines
+    rebuildLedgers(product);
+  }
+
+  @Override
+  public BigDecimal getAvgPrice(Product product, Company company) {
+    if (product.getId() == null) {
+      return BigDecimal.ZERO;
+    }
+
+    if (company != null) {
+      WapLedger wapLedger = findLedger(product, company);
+      if (wapLedger != null) {
+        return wapLedger.getWap();
+      }
+    }
+
+    List<WapLedger> wapLedgerList = getLedgers(product);
+    if (wapLedgerList.isEmpty()) {
+      return computeAvgPriceFromLines(product, company);
+    }
+
+    BigDecimal qty = BigDecimal.ZERO;
+    BigDecimal value = BigDecimal.ZERO;
+    for (WapLedger wapLedger : wapLedgerList) {
+      if (company == null || company.equals(wapLedger.getCompany())) {
+        qty = qty.add(wapLedger.getQty());
+        value = value.add(wapLedger.getValue());
+      }
+    }
+    return computeWap(qty, value);
+  }
+
+  @Override
+  public BigDecimal getAvgPriceAt(Product product, Company company, LocalDateTime dateT) {
+    WapLedger wapLedger = findLedger(product, company);
+    if (wapLedger == null) {
+      return BigDecimal.ZERO;
+    }
+
+    return Optional.ofNullable(
+            wapLedgerHistoryRepo
+                .all()
+                .filter("self.wapLedger = :wapLedger AND self.dateT <= :dateT")
+                .bind("wapLedger", wapLedger)
+                .bind("dateT", dateT)
+                .order("-dateT")
+                .order("-id")
+                .fetchOne())
+        .map(WapLedgerHistory::getWap)
+        .orElse(BigDecimal.ZERO);
+  }
+
+  /**
+   * Computes the WAP from the stock location lines, for the products whose ledgers have not been
+   * built yet.
+   */
+  protected BigDecimal computeAvgPriceFromLines(Product product, Company company) {
+    StringBuilder filter =
+        new StringBuilder(
+            "self.product = :product AND self.stockLocation.typeSelect != :typeSelect");
+    if (company != null) {
+      filter.append(" AND self.stockLocation.company = :company");
+    }
+
+    List<StockLocationLine> stockLocationLineList =
+        stockLocationLineRepo
+            .all()
+            .filter(filter.toString())
+            .bind("product", product)
+            .bind("typeSelect", StockLocationRepository.TYPE_VIRTUAL)
+            .bind("company", company)
+            .fetch();
+
+    BigDecimal qty = BigDecimal.ZERO;
+    BigDecimal value = BigDecimal.ZERO;
+    for (StockLocationLine stockLocationLine : stockLocationLineList) {
+      qty = qty.add(getQty(stockLocationLine));
+      value = value.add(getValue(stockLocationLine));
+    }
+    return computeWap(qty, value);
+  }
+
+  /**
+   * Returns the ledger of the product and company, locked until the end of the transaction. A
+   * missing ledger is created in its own transaction, unless the ledgers of the product have not
+   * been built yet while it already has stock.
+   *
+   * @return the locked ledger, or null if the ledgers of the product are not built yet
+   */
+  protected WapLedger getLockedLedger(Product product, Company company) {
+    WapLedger wapLedger = findLedger(product, company);
+    if (wapLedger == null) {
+      if (!hasLedger(product) && hasStock(product)) {
+        return null;
+      }
+      wapLedger = createLedgerInNewTransaction(product, company);
+    }
+    lock(wapLedger);
+    return wapLedger;
+  }
+
+  /**
+   * Creates the ledger in its own transaction, so that concurrent transactions all lock and update
+   * the same row. A ledger created meanwhile by another transaction is used instead.
+   */
+  protected WapLedger createLedgerInNewTransaction(Product product, Company company) {
+    try {
+      TransactionTools.runInNewTransaction(
+          em ->
+              em.persist(
+                  createLedger(
+                      em.getReference(Product.class, product.getId()),
+                      company != null ? em.getReference(Company.class, company.getId()) : null)));
+    } catch (PersistenceException e) {
+      WapLedger wapLedger = findLedger(product, company);
+      if (wapLedger == null) {
+        throw e;
+      }
+      LOG.debug("WAP ledger created by a concurrent transaction: {}", e.getMessage());
+      return wapLedger;
+    }
+    return findLedger(product, company);
+  }
+
+  /** Locks the ledgers of the product, by company, and returns them. */
+  protected List<WapLedger> lockLedgers(Product product) {
+    List<WapLedger> wapLedgerList = getLedgers(product);
+    wapLedgerList.sort(Comparator.comparing(WapLedger::getCompany, COMPANY_COMPARATOR));
+    wapLedgerList.forEach(this::lock);
+    return wapLedgerList;
+  }
+
+  /**
+   * Locks the ledger until the end of the transaction and reloads it, unless it is already locked.
+   */
+  protected void lock(WapLedger wapLedger) {
+    EntityManager em = JPA.em();
+    if (em.getLockMode(wapLedger) != LockModeType.PESSIMISTIC_WRITE) {
+      em.refresh(wapLedger, LockModeType.PESSIMISTIC_WRITE);
+    }
+  }
+
+  protected List<StockLocationLine> getStockLocationLines(Product product) {
+    return stockLocationLineRepo
+        .all()
+        .filter("self.product = :product AND self.stockLocation.typeSelect != :typeSelect")
+        .bind("product", product)
+        .bind("typeSelect", StockLocationRepository.TYPE_VIRTUAL)
+        .fetch();
+  }
+
+  protected WapLedger findLedger(Product product, Company company) {
+    return wapLedgerRepo
+        .all()
+        .filter(
+            company != null
+                ? "self.product = :product AND self.company = :company"
+                : "self.product = :product AND self.company IS NULL")
+        .bind("product", product)
+        .bind("company", company)
+        .fetchOne();
+  }
+
+  protected List<WapLedger> getLedgers(Product product) {
+    return wapLedgerRepo.all().filter("self.product = :product").bind("product", product).fetch();
+  }
+
+  protected boolean hasLedger(Product product) {
+    return wapLedgerRepo.all().filter("self.product = :product").bind("product", product).count()
+        > 0;
+  }
+
+  /**
+   * Whether the product has committed stock in a non virtual location. Read in a separate
+   * transaction, so that the lines changed by the current transaction are ignored.
+   */
+  protected boolean hasStock(Product product) {
+    return TransactionTools.readInNewTransaction(
+        em ->
+            !em.createQuery(
+                    "SELECT self.id FROM StockLocationLine self"
+                        + " WHERE self.product.id = :productId"
+                        + " AND self.stockLocation.typeSelect != :typeSelect"
+                        + " AND self.currentQty != 0",
+                    Long.class)
+                .setParameter("productId", product.getId())
+                .setParameter("typeSelect", StockLocationRepository.TYPE_VIRTUAL)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty());
+  }
+
+  /** Streams the history of the lines of the product in non virtual locations, by date. */
+  protected Stream<StockLocationLineHistory> getLineHistoryStream(Product product) {
+    return stockLocationLineHistoryRepo
+        .all()
+        .filter(
+            "self.stockLocationLine.product = :product"
+                + " AND self.stockLocationLine.stockLocation.typeSelect != :typeSelect"
+                + " AND self.dateT IS NOT NULL")
+        .bind("product", product)
+        .bind("typeSelect", StockLocationRepository.TYPE_VIRTUAL)
+        .order("dateT")
+        .order("id")
+        .fetchStream();
+  }
+
+  protected void removeHistory(Product product, LocalDateTime fromDateT) {
+    JPA.em()
+        .createQuery(
+            "DELETE FROM WapLedgerHistory self"
+                + " WHERE self.wapLedger.id IN (SELECT wapLedger.id FROM WapLedger wapLedger"
+                + " WHERE wapLedger.product = :product)"
+                + " AND self.dateT >= :dateT")
+        .setParameter("product", product)
+        .setParameter("dateT", fromDateT)
+        .executeUpdate();
+  }
+
+  protected WapLedger createLedger(Product product, Company company) {
+    WapLedger wapLedger = new WapLedger();
+    wapLedger.setProduct(product);
+    wapLedger.setCompany(company);
+    wapLedger.setQty(BigDecimal.ZERO);
+    wapLedger.setValue(BigDecimal.ZERO);
+    wapLedger.setWap(BigDecimal.ZERO);
+    return wapLedger;
+  }
+
+  protected void updateLedger(WapLedger wapLedger, BigDecimal[] total) {
+    BigDecimal qty = total != null ? total[QTY] : BigDecimal.ZERO;
+    BigDecimal value = total != null ? total[VALUE] : BigDecimal.ZERO;
+    if (wapLedger.getId() != null
+        && qty.compareTo(wapLedger.getQty()) == 0
+        && value.compareTo(wapLedger.getValue()) == 0) {
+      return;
+    }
+
+    setLedgerState(wapLedger, qty, value);
+    createHistory(wapLedger, null, null);
+    wapLedgerRepo.save(wapLedger);
+  }
+
+  protected void setLedgerState(WapLedger wapLedger, BigDecimal qty, BigDecimal value) {
+    wapLedger.setQty(qty);
+    wapLedger.setValue(value);
+    wapLedger.setWap(computeWap(qty, value));
+  }
+
+  protected void createHistory(
+      WapLedger wapLedger, StockLocationLine stockLocationLine, LocalDateTime dateT) {
+    WapLedgerHistory wapLedgerHistory = new WapLedgerHistory();
+    wapLedgerHistory.setStockLocationLine(stockLocationLine);
+    wapLedgerHistory.setDateT(
+        dateT != null
+            ? dateT
+            : appBaseService.getTodayDateTime(wapLedger.getCompany()).toLocalDateTime());
+    wapLedgerHistory.setQty(wapLedger.getQty());
+    wapLedgerHistory.setValue(wapLedger.getValue());
+    wapLedgerHistory.setWap(wapLedger.getWap());
+    wapLedger.addWapLedgerHistoryListItem(wapLedgerHistory);
+  }
+
+  protected BigDecimal computeWap(BigDecimal qty, BigDecimal value) {
+    if (qty.signum() == 0) {
+      return BigDecimal.ZERO;
+    }
+    return value.divide(qty, appBaseService.getNbDecimalDigitForUnitPrice(), RoundingMode.HALF_UP);
+  }
+
+  protected BigDecimal getQty(StockLocationLine stockLocationLine) {
+    return Optional.ofNullable(stockLocationLine.getCurrentQty()).orElse(BigDecimal.ZERO);
+  }
+
+  protected BigDecimal getValue(StockLocationLine stockLocationLine) {
+    return getQty(stockLocationLine)
+        .multiply(Optional.ofNullable(stockLocationLine.getAvgPrice()).orElse(BigDecimal.ZERO));
+  }
+}
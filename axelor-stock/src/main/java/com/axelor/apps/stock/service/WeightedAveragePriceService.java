@@ -21,11 +21,42 @@ package com.axelor.apps.stock.service;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.Company;
 import com.axelor.apps.base.db.Product;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMoveLine;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface WeightedAveragePriceService {
 
   void computeAvgPriceForProduct(Product product) throws AxelorException;
 
+  /**
+   * Records the change of quantity or WAP of a stock location line in the WAP ledger of its product,
+   * then updates the WAP of the product from its ledgers.
+   *
+   * @param stockLocationLine the updated stock location line
+   * @param dateT the date of the change, the current date if null
+   * @throws AxelorException
+   */
+  void updateAvgPrice(StockLocationLine stockLocationLine, LocalDateTime dateT)
+      throws AxelorException;
+
+  /**
+   * Locks the WAP ledgers updated by the given stock move lines until the end of the transaction.
+   *
+   * @param stockMoveLineList the stock move lines
+   */
+  void lockLedgers(List<StockMoveLine> stockMoveLineList);
+
+  /**
+   * Updates the WAP of the product, and its cost and sale prices if they follow the WAP, from its
+   * WAP ledgers.
+   *
+   * @param product the product
+   * @throws AxelorException
+   */
+  void updateAvgPriceForProduct(Product product) throws AxelorException;
+
   BigDecimal computeAvgPriceForCompany(Product product, Company company);
 }
@@ -26,16 +26,15 @@ import com.axelor.apps.base.db.repo.ProductRepository;
 import com.axelor.apps.base.service.ProductCompanyService;
 import com.axelor.apps.base.service.ProductService;
 import com.axelor.apps.base.service.app.AppBaseService;
-import com.axelor.apps.stock.db.repo.StockLocationRepository;
-import com.axelor.db.JPA;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.inject.Beans;
-import com.axelor.meta.db.MetaField;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import com.google.inject.servlet.RequestScoped;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Set;
 
 @RequestScoped
 public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceService {
@@ -43,30 +42,46 @@ public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceServ
   protected ProductRepository productRepo;
   protected AppBaseService appBaseService;
   protected ProductCompanyService productCompanyService;
+  protected WapLedgerService wapLedgerService;
 
   @Inject
   public WeightedAveragePriceServiceImpl(
       ProductRepository productRepo,
       AppBaseService appBaseService,
-      ProductCompanyService productCompanyService) {
+      ProductCompanyService productCompanyService,
+      WapLedgerService wapLedgerService) {
     this.productRepo = productRepo;
     this.appBaseService = appBaseService;
     this.productCompanyService = productCompanyService;
+    this.wapLedgerService = wapLedgerService;
   }
 
   @Override
   @Transactional(rollbackOn = {Exception.class})
   public void computeAvgPriceForProduct(Product product) throws AxelorException {
+    wapLedgerService.rebuildLedgers(product);
+    updateAvgPriceForProduct(product);
+  }
 
-    Boolean avgPriceHandledByCompany = false;
-    Set<MetaField> companySpecificFields =
-        appBaseService.getAppBase().getCompanySpecificProductFieldsSet();
-    for (MetaField field : companySpecificFields) {
-      if (field.getName().equals("avgPrice")) {
-        avgPriceHandledByCompany = true;
-        break;
-      }
-    }
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public void updateAvgPrice(StockLocationLine stockLocationLine, LocalDateTime dateT)
+      throws AxelorException {
+    wapLedgerService.updateLedger(stockLocationLine, dateT);
+    updateAvgPriceForProduct(stockLocationLine.getProduct());
+  }
+
+  @Override
+  public void lockLedgers(List<StockMoveLine> stockMoveLineList) {
+    wapLedgerService.lockLedgers(stockMoveLineList);
+  }
+
+  @Override
+  @Transactional(rollbackOn = {Exception.class})
+  public void updateAvgPriceForProduct(Product product) throws AxelorException {
+
+    boolean avgPriceHandledByCompany =
+        productCompanyService.isCompanySpecificProductFields("avgPrice");
     if (avgPriceHandledByCompany
         && product.getProductCompanyList() != null
         && !product.getProductCompanyList().isEmpty()) {
@@ -106,35 +121,6 @@ public class WeightedAveragePriceServiceImpl implements WeightedAveragePriceServ
 
   @Override
   public BigDecimal computeAvgPriceForCompany(Product product, Company company) {
-    Long productId = product.getId();
-    String query =
-        "SELECT new list(self.id, self.avgPrice, self.currentQty) FROM StockLocationLine as self "
-            + "WHERE self.product.id = "
-            + productId
-            + " AND self.stockLocation.typeSelect != "
-            + StockLocationRepository.TYPE_VIRTUAL;
-
-    if (company != null) {
-      query += " AND self.stockLocation.company = " + company.getId();
-    }
-
-    int scale = appBaseService.getNbDecimalDigitForUnitPrice();
-    BigDecimal productAvgPrice = BigDecimal.ZERO;
-    BigDecimal qtyTot = BigDecimal.ZERO;
-    List<List<Object>> results = JPA.em().createQuery(query).getResultList();
-    if (results.isEmpty()) {
-      return BigDecimal.ZERO;
-    }
-    for (List<Object> result : results) {
-      BigDecimal avgPrice = (BigDecimal) result.get(1);
-      BigDecimal qty = (BigDecimal) result.get(2);
-      productAvgPrice = productAvgPrice.add(avgPrice.multiply(qty));
-      qtyTot = qtyTot.add(qty);
-    }
-    if (qtyTot.compareTo(BigDecimal.ZERO) == 0) {
-      return BigDecimal.ZERO;
-    }
-    productAvgPrice = productAvgPrice.divide(qtyTot, scale, BigDecimal.ROUND_HALF_UP);
-    return productAvgPrice;
+    return wapLedgerService.getAvgPrice(product, company);
   }
 }
@@ -0,0 +1,96 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.administration.AbstractBatch;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.repo.StockLocationLineRepository;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.apps.stock.service.StockLocationLineService;
+import com.axelor.db.Query;
+import com.axelor.i18n.I18n;
+import com.google.inject.Inject;
+import java.util.List;
+
+public class BatchCheckFutureQty extends AbstractBatch {
+
+  protected StockLocationLineRepository stockLocationLineRepository;
+  protected StockLocationLineService stockLocationLineService;
+
+  protected int fixedCount = 0;
+
+  @Inject
+  public BatchCheckFutureQty(
+      StockLocationLineRepository stockLocationLineRepository,
+      StockLocationLineService stockLocationLineService) {
+    this.stockLocationLineRepository = stockLocationLineRepository;
+    this.stockLocationLineService = stockLocationLineService;
+  }
+
+  @Override
+  protected void process() {
+    Company company = batch.getStockBatch().getCompany();
+
+    Query<StockLocationLine> query = stockLocationLineRepository.all().order("id");
+    if (company != null) {
+      query
+          .filter(
+              "self.stockLocation.company = :company"
+                  + " OR self.detailsStockLocation.company = :company")
+          .bind("company", company);
+    }
+    List<StockLocationLine> stockLocationLineList;
+    int offset = 0;
+
+    while (!(stockLocationLineList = query.fetch(getFetchLimit(), offset)).isEmpty()) {
+      for (StockLocationLine stockLocationLine : stockLocationLineList) {
+        offset++;
+        try {
+          if (!stockLocationLineService.checkFutureQty(stockLocationLine)) {
+            fixedCount++;
+          }
+          incrementDone();
+        } catch (Exception e) {
+          incrementAnomaly();
+          TraceBackService.trace(e, ExceptionOriginRepository.CHECK_FUTURE_QTY, batch.getId());
+        }
+      }
+      clear();
+    }
+  }
+
+  @Override
+  protected void stop() {
+    String comment = I18n.get(StockExceptionMessage.BATCH_CHECK_FUTURE_QTY_1) + " ";
+    comment +=
+        String.format(
+            "\t* %s " + I18n.get(StockExceptionMessage.BATCH_CHECK_FUTURE_QTY_2) + "\n",
+            batch.getDone(),
+            fixedCount);
+    comment +=
+        String.format("\t" + I18n.get(BaseExceptionMessage.BASE_BATCH_3), batch.getAnomaly());
+
+    super.stop();
+    addComment(comment);
+  }
+}
@@ -0,0 +1,450 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.base.service.administration.AbstractBatch;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.stock.db.StockBatch;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.TrackingNumber;
+import com.axelor.apps.stock.db.repo.StockLocationLineRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.apps.stock.service.StockLocationLineService;
+import com.axelor.common.csv.CSVFile;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.axelor.meta.MetaFiles;
+import com.axelor.meta.db.MetaFile;
+import com.google.inject.Inject;
+import com.google.inject.persist.Transactional;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.persistence.TypedQuery;
+import org.apache.commons.csv.CSVPrinter;
+
+/**
+ * Recomputes the current and future quantities of the stock location lines from grouped sums of
+ * the stock move lines, and only updates the lines whose quantities differ. Unlike {@link
+ * BatchRecomputeStockLocationLines}, the stock moves are not replayed, so the WAP and the history
+ * of the lines are left untouched.
+ */
+public class BatchRecomputeStockLocationLineQty extends AbstractBatch {
+
+  protected static final int CURRENT_QTY = 0;
+  protected static final int FUTURE_QTY = 1;
+
+  protected StockLocationLineRepository stockLocationLineRepository;
+  protected StockLocationLineService stockLocationLineService;
+  protected UnitConversionService unitConversionService;
+  protected MetaFiles metaFiles;
+
+  protected boolean dryRun;
+  protected int checkedCount = 0;
+  protected int differenceCount = 0;
+
+  @Inject
+  public BatchRecomputeStockLocationLineQty(
+      StockLocationLineRepository stockLocationLineRepository,
+      StockLocationLineService stockLocationLineService,
+      UnitConversionService unitConversionService,
+      MetaFiles metaFiles) {
+    this.stockLocationLineRepository = stockLocationLineRepository;
+    this.stockLocationLineService = stockLocationLineService;
+    this.unitConversionService = unitConversionService;
+    this.metaFiles = metaFiles;
+  }
+
+  @Override
+  protected void process() {
+    StockBatch stockBatch = batch.getStockBatch();
+    Company company = stockBatch.getCompany();
+    dryRun = stockBatch.getDryRun();
+
+    File reportFile = MetaFiles.createTempFile(null, ".csv").toFile();
+    try (CSVPrinter printer = CSVFile.DEFAULT.withDelimiter(';').withQuoteAll().write(reportFile)) {
+      printer.printRecord(createReportHeader());
+
+      Map<List<Long>, BigDecimal[]> expectedQtyMap = computeExpectedQtyMap(company);
+      clear();
+      updateExistingLines(expectedQtyMap, company, printer);
+      createMissingLines(expectedQtyMap, printer);
+    } catch (Exception e) {
+      incrementAnomaly();
+      TraceBackService.trace(
+          e, ExceptionOriginRepository.RECOMPUTE_STOCK_LOCATION_LINE_QTY, batch.getId());
+      return;
+    }
+
+    try {
+      MetaFile reportMetaFile =
+          metaFiles.upload(
+              new FileInputStream(reportFile),
+              I18n.get("Stock location line quantities") + ".csv");
+      findBatch().setMetaFile(reportMetaFile);
+      checkPoint();
+    } catch (IOException e) {
+      incrementAnomaly();
+      TraceBackService.trace(
+          e, ExceptionOriginRepository.RECOMPUTE_STOCK_LOCATION_LINE_QTY, batch.getId());
+    }
+  }
+
+  /**
+   * Sums the realized and planned stock move lines by stock location, product, tracking number and
+   * unit in two grouped queries, one per direction, and converts the sums in the product unit.
+   *
+   * @return the current and future quantities by stock location id, product id and tracking
+   *     number id, the tracking number id being null for the lines without details.
+   */
+  protected Map<List<Long>, BigDecimal[]> computeExpectedQtyMap(Company company)
+      throws AxelorException {
+    Map<List<Long>, BigDecimal[]> expectedQtyMap = new HashMap<>();
+    addStockMoveLineSums(expectedQtyMap, "toStockLocation", BigDecimal.ONE, company);
+    addStockMoveLineSums(expectedQtyMap, "fromStockLocation", BigDecimal.ONE.negate(), company);
+    return expectedQtyMap;
+  }
+
+  protected void addStockMoveLineSums(
+      Map<List<Long>, BigDecimal[]> expectedQtyMap,
+      String stockLocationField,
+      BigDecimal sign,
+      Company company)
+      throws AxelorException {
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(
+                "SELECT stockLocation.id, product.id, trackingNumber.id, unit.id,"
+                    + " productUnit.id, stockMove.statusSelect, SUM(self.realQty)"
+                    + " FROM StockMoveLine self"
+                    + " JOIN self.stockMove stockMove"
+                    + " JOIN self."
+                    + stockLocationField
+                    + " stockLocation"
+                    + " JOIN self.product product"
+                    + " LEFT JOIN product.unit productUnit"
+                    + " LEFT JOIN self.unit unit"
+                    + " LEFT JOIN self.trackingNumber trackingNumber"
+                    + " WHERE stockMove.statusSelect IN (:planned, :realized)"
+                    + " AND (stockMove.archived IS NULL OR self.archived IS FALSE)"
+                    + " AND product.productTypeSelect = :storable"
+                    + " AND product.stockManaged IS TRUE"
+                    + (company != null ? " AND stockLocation.company = :company" : "")
+                    + " GROUP BY stockLocation.id, product.id, trackingNumber.id, unit.id,"
+                    + " productUnit.id, stockMove.statusSelect",
+                Object[].class)
+            .setParameter("planned", StockMoveRepository.STATUS_PLANNED)
+            .setParameter("realized", StockMoveRepository.STATUS_REALIZED)
+            .setParameter("storable", ProductRepository.PRODUCT_TYPE_STORABLE);
+    if (company != null) {
+      query.setParameter("company", company);
+    }
+
+    for (Object[] result : query.getResultList()) {
+      Long stockLocationId = (Long) result[0];
+      Long productId = (Long) result[1];
+      Long trackingNumberId = (Long) result[2];
+      BigDecimal qty =
+          convert((Long) result[3], (Long) result[4], productId, (BigDecimal) result[6])
+              .multiply(sign);
+      boolean realized = (Integer) result[5] == StockMoveRepository.STATUS_REALIZED;
+
+      addExpectedQty(
+          expectedQtyMap, Arrays.asList(stockLocationId, productId, null), qty, realized);
+      if (trackingNumberId != null) {
+        addExpectedQty(
+            expectedQtyMap,
+            Arrays.asList(stockLocationId, productId, trackingNumberId),
+            qty,
+            realized);
+      }
+    }
+  }
+
+  protected void addExpectedQty(
+      Map<List<Long>, BigDecimal[]> expectedQtyMap,
+      List<Long> key,
+      BigDecimal qty,
+      boolean realized) {
+    BigDecimal[] expectedQty =
+        expectedQtyMap.computeIfAbsent(
+            key, k -> new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO});
+    if (realized) {
+      expectedQty[CURRENT_QTY] = expectedQty[CURRENT_QTY].add(qty);
+    }
+    expectedQty[FUTURE_QTY] = expectedQty[FUTURE_QTY].add(qty);
+  }
+
+  /**
+   * Walks the existing stock location lines by id ranges, reading only their keys and quantities,
+   * and updates the lines whose quantities differ from the expected ones. The compared lines are
+   * removed from the map, which then only holds the lines to create.
+   */
+  protected void updateExistingLines(
+      Map<List<Long>, BigDecimal[]> expectedQtyMap, Company company, CSVPrinter printer) {
+    Long lastId = 0L;
+    List<Object[]> resultList;
+
+    while (!(resultList = fetchStockLocationLines(company, lastId)).isEmpty()) {
+      Map<Long, BigDecimal[]> fixedQtyMap = new HashMap<>();
+
+      for (Object[] result : resultList) {
+        lastId = (Long) result[0];
+        checkedCount++;
+        try {
+          BigDecimal[] fixedQty = compareStockLocationLine(expectedQtyMap, result, printer);
+          if (fixedQty != null) {
+            fixedQtyMap.put(lastId, fixedQty);
+          }
+        } catch (Exception e) {
+          incrementAnomaly();
+          TraceBackService.trace(
+              e, ExceptionOriginRepository.RECOMPUTE_STOCK_LOCATION_LINE_QTY, batch.getId());
+        }
+      }
+
+      if (!fixedQtyMap.isEmpty()) {
+        if (!dryRun) {
+          updateStockLocationLines(fixedQtyMap);
+        }
+        differenceCount += fixedQtyMap.size();
+        incrementDone();
+      }
+      clear();
+    }
+  }
+
+  protected List<Object[]> fetchStockLocationLines(Company company, Long lastId) {
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(
+                "SELECT self.id, stockLocation.id, detailsStockLocation.id, product.id,"
+                    + " trackingNumber.id, unit.id, productUnit.id, self.currentQty,"
+                    + " self.futureQty, stockLocation.name, detailsStockLocation.name,"
+                    + " product.code, trackingNumber.trackingNumberSeq"
+                    + " FROM StockLocationLine self"
+                    + " JOIN self.product product"
+                    + " LEFT JOIN product.unit productUnit"
+                    + " LEFT JOIN self.unit unit"
+                    + " LEFT JOIN self.stockLocation stockLocation"
+                    + " LEFT JOIN self.detailsStockLocation detailsStockLocation"
+                    + " LEFT JOIN self.trackingNumber trackingNumber"
+                    + " WHERE self.id > :lastId"
+                    + (company != null
+                        ? " AND (stockLocation.company = :company"
+                            + " OR detailsStockLocation.company = :company)"
+                        : "")
+                    + " ORDER BY self.id",
+                Object[].class)
+            .setParameter("lastId", lastId)
+            .setMaxResults(getFetchLimit());
+    if (company != null) {
+      query.setParameter("company", company);
+    }
+    return query.getResultList();
+  }
+
+  /**
+   * @return the quantities to set on the line, or null if it is up to date.
+   */
+  protected BigDecimal[] compareStockLocationLine(
+      Map<List<Long>, BigDecimal[]> expectedQtyMap, Object[] result, CSVPrinter printer)
+      throws AxelorException, IOException {
+    Long stockLocationId = result[1] != null ? (Long) result[1] : (Long) result[2];
+    Long productId = (Long) result[3];
+    Long trackingNumberId = result[2] != null ? (Long) result[4] : null;
+    BigDecimal currentQty = (BigDecimal) result[7];
+    BigDecimal futureQty = (BigDecimal) result[8];
+
+    BigDecimal[] expectedQty =
+        expectedQtyMap.remove(Arrays.asList(stockLocationId, productId, trackingNumberId));
+    if (expectedQty == null) {
+      expectedQty = new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO};
+    } else if (result[5] != null && !result[5].equals(result[6])) {
+      // the line is not in the product unit
+      expectedQty =
+          new BigDecimal[] {
+            convert((Long) result[6], (Long) result[5], productId, expectedQty[CURRENT_QTY]),
+            convert((Long) result[6], (Long) result[5], productId, expectedQty[FUTURE_QTY])
+          };
+    }
+
+    if (expectedQty[CURRENT_QTY].compareTo(currentQty) == 0
+        && expectedQty[FUTURE_QTY].compareTo(futureQty) == 0) {
+      return null;
+    }
+    printer.printRecord(
+        result[1] != null ? result[9] : result[10],
+        result[11],
+        result[12],
+        currentQty,
+        expectedQty[CURRENT_QTY],
+        futureQty,
+        expectedQty[FUTURE_QTY]);
+    return expectedQty;
+  }
+
+  @Transactional(rollbackOn = {Exception.class})
+  protected void updateStockLocationLines(Map<Long, BigDecimal[]> fixedQtyMap) {
+    List<StockLocationLine> stockLocationLineList =
+        stockLocationLineRepository
+            .all()
+            .filter("self.id IN (:ids)")
+            .bind("ids", new ArrayList<>(fixedQtyMap.keySet()))
+            .fetch();
+    for (StockLocationLine stockLocationLine : stockLocationLineList) {
+      BigDecimal[] fixedQty = fixedQtyMap.get(stockLocationLine.getId());
+      stockLocationLine.setCurrentQty(fixedQty[CURRENT_QTY]);
+      stockLocationLine.setFutureQty(fixedQty[FUTURE_QTY]);
+      stockLocationLineRepository.save(stockLocationLine);
+    }
+  }
+
+  /** Creates, by chunks, the lines of the stock move lines that have no stock location line. */
+  protected void createMissingLines(
+      Map<List<Long>, BigDecimal[]> expectedQtyMap, CSVPrinter printer) throws IOException {
+    List<Entry<List<Long>, BigDecimal[]>> missingLineList = new ArrayList<>();
+
+    for (Entry<List<Long>, BigDecimal[]> entry : expectedQtyMap.entrySet()) {
+      BigDecimal[] expectedQty = entry.getValue();
+      if (expectedQty[CURRENT_QTY].signum() == 0 && expectedQty[FUTURE_QTY].signum() == 0) {
+        continue;
+      }
+      List<Long> key = entry.getKey();
+      printer.printRecord(
+          JPA.em().find(StockLocation.class, key.get(0)).getName(),
+          JPA.em().find(Product.class, key.get(1)).getCode(),
+          key.get(2) != null
+              ? JPA.em().find(TrackingNumber.class, key.get(2)).getTrackingNumberSeq()
+              : null,
+          null,
+          expectedQty[CURRENT_QTY],
+          null,
+          expectedQty[FUTURE_QTY]);
+      missingLineList.add(entry);
+
+      if (missingLineList.size() >= getFetchLimit()) {
+        createStockLocationLines(missingLineList);
+        missingLineList.clear();
+      }
+    }
+    createStockLocationLines(missingLineList);
+  }
+
+  protected void createStockLocationLines(List<Entry<List<Long>, BigDecimal[]>> missingLineList) {
+    if (missingLineList.isEmpty()) {
+      return;
+    }
+    try {
+      if (!dryRun) {
+        saveStockLocationLines(missingLineList);
+      }
+      differenceCount += missingLineList.size();
+      incrementDone();
+    } catch (Exception e) {
+      incrementAnomaly();
+      TraceBackService.trace(
+          e, ExceptionOriginRepository.RECOMPUTE_STOCK_LOCATION_LINE_QTY, batch.getId());
+    }
+    clear();
+  }
+
+  @Transactional(rollbackOn = {Exception.class})
+  protected void saveStockLocationLines(List<Entry<List<Long>, BigDecimal[]>> missingLineList) {
+    for (Entry<List<Long>, BigDecimal[]> entry : missingLineList) {
+      List<Long> key = entry.getKey();
+      StockLocation stockLocation = JPA.em().find(StockLocation.class, key.get(0));
+      Product product = JPA.em().find(Product.class, key.get(1));
+
+      StockLocationLine stockLocationLine =
+          key.get(2) == null
+              ? stockLocationLineService.createLocationLine(stockLocation, product)
+              : stockLocationLineService.createDetailLocationLine(
+                  stockLocation, product, JPA.em().find(TrackingNumber.class, key.get(2)));
+      stockLocationLine.setCurrentQty(entry.getValue()[CURRENT_QTY]);
+      stockLocationLine.setFutureQty(entry.getValue()[FUTURE_QTY]);
+      stockLocationLineRepository.save(stockLocationLine);
+    }
+  }
+
+  protected BigDecimal convert(Long fromUnitId, Long toUnitId, Long productId, BigDecimal qty)
+      throws AxelorException {
+    if (fromUnitId == null || toUnitId == null || fromUnitId.equals(toUnitId)) {
+      return qty;
+    }
+    return unitConversionService.convert(
+        JPA.em().find(Unit.class, fromUnitId),
+        JPA.em().find(Unit.class, toUnitId),
+        qty,
+        qty.scale(),
+        JPA.em().find(Product.class, productId));
+  }
+
+  protected List<String> createReportHeader() {
+    return Arrays.asList(
+        I18n.get("Stock location"),
+        I18n.get("Product"),
+        I18n.get("Tracking number"),
+        I18n.get("Current quantity"),
+        I18n.get("Recomputed current quantity"),
+        I18n.get("Future quantity"),
+        I18n.get("Recomputed future quantity"));
+  }
+
+  @Override
+  protected void stop() {
+    String comment =
+        I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINE_QTY_1) + " ";
+    comment +=
+        String.format(
+            "\t* %s "
+                + I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINE_QTY_2)
+                + "\n",
+            checkedCount,
+            differenceCount);
+    if (dryRun) {
+      comment +=
+          "\t"
+              + I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_LOCATION_LINE_QTY_DRY_RUN)
+              + "\n";
+    }
+    comment +=
+        String.format("\t" + I18n.get(BaseExceptionMessage.BASE_BATCH_3), batch.getAnomaly());
+
+    super.stop();
+    addComment(comment);
+  }
+}
@@ -88,7 +88,7 @@ public class BatchRecomputeStockLocationLines extends AbstractBatch {
                 TraceBackService.trace(
                     e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVE_LINES, batch.getId());
               } finally {
-                JPA.clear();
+                clear();
               }
             });
 
@@ -118,7 +118,9 @@ public class BatchRecomputeStockLocationLines extends AbstractBatch {
                 "UPDATE stock_stock_location_line SET "
                     + " avg_price = 0, "
                     + " current_qty = 0, "
-                    + " future_qty = 0 ");
+                    + " future_qty = 0, "
+                    + " wap_ledger_qty = 0, "
+                    + " wap_ledger_value = 0 ");
 
     JPA.runInTransaction(clearWapHistoryLinesQuery::executeUpdate);
   }
@@ -141,7 +143,7 @@ public class BatchRecomputeStockLocationLines extends AbstractBatch {
       }
 
       offSet += FETCH_LIMIT;
-      JPA.clear();
+      clear();
     }
   }
 
@@ -208,6 +210,12 @@ public class BatchRecomputeStockLocationLines extends AbstractBatch {
         JPA.em().createNativeQuery("Delete FROM stock_stock_location_line_history");
 
     JPA.runInTransaction(clearStockLocationsHistoryLinesQuery::executeUpdate);
+
+    javax.persistence.Query clearWapLedgersQuery =
+        JPA.em().createNativeQuery("Delete FROM stock_wap_ledger_history");
+    JPA.runInTransaction(clearWapLedgersQuery::executeUpdate);
+    clearWapLedgersQuery = JPA.em().createNativeQuery("Delete FROM stock_wap_ledger");
+    JPA.runInTransaction(clearWapLedgersQuery::executeUpdate);
   }
 
   protected Query<StockMove> buildQueryFetchStockMoveFromGroup(StockMoveGroup stockMoveGroup) {
@@ -0,0 +1,121 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service.batch;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
+import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.administration.AbstractBatch;
+import com.axelor.apps.base.service.exception.TraceBackService;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.exception.StockExceptionMessage;
+import com.axelor.apps.stock.service.StockMovementSummaryService;
+import com.axelor.apps.stock.service.app.AppStockService;
+import com.axelor.db.JPA;
+import com.axelor.i18n.I18n;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import java.util.List;
+import javax.persistence.TypedQuery;
+
+/**
+ * Recomputes the stock movement summaries from the realized stock moves, by chunks of products.
+ * The summaries of a chunk are replaced in one transaction, so that the stock history never reads
+ * the summaries of a product while they are rebuilt. Once all the summaries have been computed,
+ * the stock history is read from them instead of the stock move lines.
+ */
+public class BatchRecomputeStockMovementSummaries extends AbstractBatch {
+
+  protected StockMovementSummaryService stockMovementSummaryService;
+  protected AppStockService appStockService;
+
+  protected int summaryCount = 0;
+
+  @Inject
+  public BatchRecomputeStockMovementSummaries(
+      StockMovementSummaryService stockMovementSummaryService, AppStockService appStockService) {
+    this.stockMovementSummaryService = stockMovementSummaryService;
+    this.appStockService = appStockService;
+  }
+
+  @Override
+  protected void process() {
+    Company company = batch.getStockBatch().getCompany();
+
+    for (List<Long> productIdList : Lists.partition(getProductIdList(company), getFetchLimit())) {
+      try {
+        summaryCount += stockMovementSummaryService.recomputeSummaries(productIdList, company);
+        for (int i = 0; i < productIdList.size(); i++) {
+          incrementDone();
+        }
+      } catch (Exception e) {
+        incrementAnomaly();
+        TraceBackService.trace(
+            e, ExceptionOriginRepository.RECOMPUTE_STOCK_MOVEMENT_SUMMARIES, batch.getId());
+      }
+      clear();
+    }
+
+    // the summaries of some companies only do not replace the stock move lines
+    if (company == null && batch.getAnomaly() == 0) {
+      JPA.runInTransaction(
+          () -> appStockService.getAppStock().setStockMovementSummariesOk(true));
+    }
+  }
+
+  /** Products having realized stock moves or summaries, the latter being removed if obsolete. */
+  protected List<Long> getProductIdList(Company company) {
+    TypedQuery<Long> query =
+        JPA.em()
+            .createQuery(
+                "SELECT DISTINCT product.id FROM Product product "
+                    + "WHERE EXISTS (SELECT 1 FROM StockMoveLine stockMoveLine "
+                    + "WHERE stockMoveLine.product = product "
+                    + "AND stockMoveLine.stockMove.statusSelect = :realized"
+                    + (company != null ? " AND stockMoveLine.stockMove.company = :company" : "")
+                    + ") OR EXISTS (SELECT 1 FROM StockMovementSummary summary "
+                    + "WHERE summary.product = product"
+                    + (company != null ? " AND summary.company = :company" : "")
+                    + ") ORDER BY product.id",
+                Long.class)
+            .setParameter("realized", StockMoveRepository.STATUS_REALIZED);
+    if (company != null) {
+      query.setParameter("company", company);
+    }
+    return query.getResultList();
+  }
+
+  @Override
+  protected void stop() {
+    String comment =
+        I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_MOVEMENT_SUMMARIES_1) + " ";
+    comment +=
+        String.format(
+            "\t* %s "
+                + I18n.get(StockExceptionMessage.BATCH_RECOMPUTE_STOCK_MOVEMENT_SUMMARIES_2)
+                + "\n",
+            batch.getDone(),
+            summaryCount);
+    comment +=
+        String.format("\t" + I18n.get(BaseExceptionMessage.BASE_BATCH_3), batch.getAnomaly());
+
+    super.stop();
+    addComment(comment);
+  }
+}
@@ -46,6 +46,15 @@ public class StockBatchService extends AbstractBatchService {
       case StockBatchRepository.ACTION_RECOMPUTE_STOCK_LOCATION_LINE:
         batch = recomputeStockLocationLines(stockBatch);
         break;
+      case StockBatchRepository.ACTION_CHECK_FUTURE_QTY:
+        batch = checkFutureQty(stockBatch);
+        break;
+      case StockBatchRepository.ACTION_RECOMPUTE_STOCK_LOCATION_LINE_QTY:
+        batch = recomputeStockLocationLineQty(stockBatch);
+        break;
+      case StockBatchRepository.ACTION_RECOMPUTE_STOCK_MOVEMENT_SUMMARIES:
+        batch = recomputeStockMovementSummaries(stockBatch);
+        break;
       default:
         throw new AxelorException(
             TraceBackRepository.CATEGORY_INCONSISTENCY,
@@ -60,4 +69,19 @@ public class StockBatchService extends AbstractBatchService {
 
     return Beans.get(BatchRecomputeStockLocationLines.class).run(stockBatch);
   }
+
+  protected Batch checkFutureQty(StockBatch stockBatch) {
+
+    return Beans.get(BatchCheckFutureQty.class).run(stockBatch);
+  }
+
+  protected Batch recomputeStockLocationLineQty(StockBatch stockBatch) {
+
+    return Beans.get(BatchRecomputeStockLocationLineQty.class).run(stockBatch);
+  }
+
+  protected Batch recomputeStockMovementSummaries(StockBatch stockBatch) {
+
+    return Beans.get(BatchRecomputeStockMovementSummaries.class).run(stockBatch);
+  }
 }
@@ -0,0 +1,165 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMoveLine;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestStockLocationLineFetchService {
+
+  private StockLocation stockLocation1;
+  private StockLocation stockLocation2;
+  private Product product1;
+  private Product product2;
+  private Product product3;
+
+  @BeforeEach
+  void prepare() {
+    stockLocation1 = createStockLocation(1L);
+    stockLocation2 = createStockLocation(2L);
+    product1 = createProduct(1L);
+    product2 = createProduct(2L);
+    product3 = createProduct(3L);
+  }
+
+  @Test
+  void lockStockLocationLines_sortedByLocationAndProduct() {
+    TestableStockLocationLineFetchService fetchService =
+        new TestableStockLocationLineFetchService();
+
+    fetchService.lockStockLocationLines(
+        Arrays.asList(
+            createStockMoveLine(stockLocation2, null, product3),
+            createStockMoveLine(stockLocation2, stockLocation1, product1),
+            createStockMoveLine(stockLocation1, null, product2)));
+
+    Assertions.assertEquals(
+        Arrays.asList("1-1", "1-2", "2-1", "2-3"), fetchService.lockedKeyList);
+  }
+
+  @Test
+  void lockStockLocationLines_concurrentMovesInReverseOrder() throws Exception {
+    TestableStockLocationLineFetchService fetchService =
+        new TestableStockLocationLineFetchService();
+    List<StockMoveLine> stockMoveLineList =
+        Arrays.asList(
+            createStockMoveLine(stockLocation1, stockLocation2, product1),
+            createStockMoveLine(stockLocation1, stockLocation2, product2),
+            createStockMoveLine(stockLocation1, stockLocation2, product3));
+    List<StockMoveLine> reversedStockMoveLineList = new ArrayList<>(stockMoveLineList);
+    Collections.reverse(reversedStockMoveLineList);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> future1 =
+          executorService.submit(() -> fetchService.runTransaction(stockMoveLineList));
+      Future<?> future2 =
+          executorService.submit(() -> fetchService.runTransaction(reversedStockMoveLineList));
+
+      // a deadlock would make one of the transactions give up waiting for its next line
+      future1.get(30, TimeUnit.SECONDS);
+      future2.get(30, TimeUnit.SECONDS);
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  protected StockLocation createStockLocation(Long id) {
+    StockLocation stockLocation = new StockLocation();
+    stockLocation.setId(id);
+    return stockLocation;
+  }
+
+  protected Product createProduct(Long id) {
+    Product product = new Product();
+    product.setId(id);
+    product.setStockManaged(true);
+    return product;
+  }
+
+  protected StockMoveLine createStockMoveLine(
+      StockLocation fromStockLocation, StockLocation toStockLocation, Product product) {
+    StockMoveLine stockMoveLine = new StockMoveLine();
+    stockMoveLine.setFromStockLocation(fromStockLocation);
+    stockMoveLine.setToStockLocation(toStockLocation);
+    stockMoveLine.setProduct(product);
+    return stockMoveLine;
+  }
+
+  /**
+   * Takes an in-memory lock per location and product instead of the database row locks, and
+   * releases the locks of the current thread at the end of its transaction.
+   */
+  private static class TestableStockLocationLineFetchService
+      extends StockLocationLineFetchServiceImpl {
+
+    protected final Map<String, ReentrantLock> lockMap = new ConcurrentHashMap<>();
+    protected final List<String> lockedKeyList = Collections.synchronizedList(new ArrayList<>());
+    protected final ThreadLocal<List<ReentrantLock>> heldLockList =
+        ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public List<StockLocationLine> lockStockLocationLines(
+        StockLocation stockLocation, Collection<Long> productIdList) {
+      for (Long productId : productIdList) {
+        String key = stockLocation.getId() + "-" + productId;
+        ReentrantLock lock = lockMap.computeIfAbsent(key, k -> new ReentrantLock());
+        try {
+          if (!lock.tryLock(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Deadlock on the stock location line " + key);
+          }
+          // give the other transaction the time to lock its own first line
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException(e);
+        }
+        heldLockList.get().add(lock);
+        lockedKeyList.add(key);
+      }
+      return Collections.emptyList();
+    }
+
+    protected void runTransaction(List<StockMoveLine> stockMoveLineList) {
+      try {
+        lockStockLocationLines(stockMoveLineList);
+      } finally {
+        heldLockList.get().forEach(ReentrantLock::unlock);
+        heldLockList.get().clear();
+      }
+    }
+  }
+}
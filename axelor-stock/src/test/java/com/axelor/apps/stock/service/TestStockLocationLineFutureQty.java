@@ -0,0 +1,323 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.base.db.repo.ProductRepository;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockMove;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.TrackingNumber;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestStockLocationLineFutureQty {
+
+  private static final LocalDate ESTIMATED_DATE = LocalDate.of(2026, 3, 12);
+
+  private TestableStockLocationLineService stockLocationLineService;
+  private TestableStockMoveLineService stockMoveLineService;
+
+  private StockLocation fromStockLocation;
+  private StockLocation toStockLocation;
+  private StockMove stockMove;
+  private StockMoveLine stockMoveLine;
+
+  @BeforeEach
+  void prepare() throws AxelorException {
+    UnitConversionService unitConversionService = mock(UnitConversionService.class);
+    when(unitConversionService.convert(any(), any(), any(), anyInt(), any()))
+        .thenAnswer(invocation -> invocation.getArgument(2));
+    stockLocationLineService = new TestableStockLocationLineService(unitConversionService);
+    stockMoveLineService =
+        new TestableStockMoveLineService(
+            stockLocationLineService, mock(StockLocationLineFetchService.class));
+
+    Unit unit = new Unit();
+    Product product = new Product();
+    product.setId(1L);
+    product.setCode("PRODUCT");
+    product.setUnit(unit);
+    product.setProductTypeSelect(ProductRepository.PRODUCT_TYPE_STORABLE);
+    product.setStockManaged(true);
+
+    fromStockLocation = createStockLocation(1L);
+    toStockLocation = createStockLocation(2L);
+    stockLocationLineService.addStockLocationLine(fromStockLocation, product, new BigDecimal(20));
+    stockLocationLineService.addStockLocationLine(toStockLocation, product, BigDecimal.ZERO);
+
+    stockMove = new StockMove();
+    stockMove.setStatusSelect(StockMoveRepository.STATUS_DRAFT);
+    stockMoveLine = new StockMoveLine();
+    stockMoveLine.setStockMove(stockMove);
+    stockMoveLine.setProduct(product);
+    stockMoveLine.setUnit(unit);
+    stockMoveLine.setFromStockLocation(fromStockLocation);
+    stockMoveLine.setToStockLocation(toStockLocation);
+    stockMoveLine.setQty(new BigDecimal(10));
+    stockMoveLine.setRealQty(new BigDecimal(8));
+    stockLocationLineService.stockMoveLineList.add(stockMoveLine);
+  }
+
+  @Test
+  void planCheckRealize_realQtyDifferentFromQty() throws AxelorException {
+    List<StockMoveLine> plannedStockMoveLineList = plan();
+
+    assertFutureQty(fromStockLocation, new BigDecimal(12));
+    assertFutureQty(toStockLocation, new BigDecimal(8));
+
+    realize(plannedStockMoveLineList);
+
+    assertQty(fromStockLocation, new BigDecimal(12), new BigDecimal(12));
+    assertQty(toStockLocation, new BigDecimal(8), new BigDecimal(8));
+  }
+
+  @Test
+  void planUpdateRealize_realQtyChangedOnPlannedMove() throws AxelorException {
+    stockMoveLine.setRealQty(new BigDecimal(10));
+    List<StockMoveLine> plannedStockMoveLineList = plan();
+    assertFutureQty(fromStockLocation, new BigDecimal(10));
+
+    stockMoveLine.setRealQty(new BigDecimal(7));
+    stockMoveLineService.updateLocations(
+        StockMoveRepository.STATUS_PLANNED,
+        StockMoveRepository.STATUS_CANCELED,
+        plannedStockMoveLineList,
+        ESTIMATED_DATE,
+        false,
+        false);
+    stockMoveLineService.updateLocations(
+        StockMoveRepository.STATUS_DRAFT,
+        StockMoveRepository.STATUS_PLANNED,
+        Collections.singletonList(stockMoveLine),
+        ESTIMATED_DATE,
+        true,
+        false);
+    plannedStockMoveLineList = Collections.singletonList(copy(stockMoveLine));
+
+    assertFutureQty(fromStockLocation, new BigDecimal(13));
+    assertFutureQty(toStockLocation, new BigDecimal(7));
+
+    realize(plannedStockMoveLineList);
+
+    assertQty(fromStockLocation, new BigDecimal(13), new BigDecimal(13));
+    assertQty(toStockLocation, new BigDecimal(7), new BigDecimal(7));
+  }
+
+  protected List<StockMoveLine> plan() throws AxelorException {
+    List<StockMoveLine> plannedStockMoveLineList = Collections.singletonList(copy(stockMoveLine));
+    stockMove.setStatusSelect(StockMoveRepository.STATUS_PLANNED);
+    stockMoveLineService.updateLocations(
+        StockMoveRepository.STATUS_DRAFT,
+        StockMoveRepository.STATUS_PLANNED,
+        plannedStockMoveLineList,
+        ESTIMATED_DATE,
+        false,
+        false);
+    return plannedStockMoveLineList;
+  }
+
+  protected void realize(List<StockMoveLine> plannedStockMoveLineList) throws AxelorException {
+    stockMove.setStatusSelect(StockMoveRepository.STATUS_REALIZED);
+    stockMoveLineService.updateLocations(
+        StockMoveRepository.STATUS_PLANNED,
+        StockMoveRepository.STATUS_CANCELED,
+        plannedStockMoveLineList,
+        ESTIMATED_DATE,
+        false,
+        false);
+    stockMoveLineService.updateLocations(
+        StockMoveRepository.STATUS_DRAFT,
+        StockMoveRepository.STATUS_REALIZED,
+        Collections.singletonList(stockMoveLine),
+        ESTIMATED_DATE,
+        true,
+        false);
+  }
+
+  protected void assertFutureQty(StockLocation stockLocation, BigDecimal expectedFutureQty)
+      throws AxelorException {
+    StockLocationLine stockLocationLine =
+        stockLocationLineService.stockLocationLineMap.get(stockLocation);
+    Assertions.assertEquals(0, expectedFutureQty.compareTo(stockLocationLine.getFutureQty()));
+    Assertions.assertEquals(
+        0,
+        stockLocationLineService
+            .computeFutureQty(stockLocationLine)
+            .compareTo(stockLocationLine.getFutureQty()));
+  }
+
+  protected void assertQty(
+      StockLocation stockLocation, BigDecimal expectedCurrentQty, BigDecimal expectedFutureQty)
+      throws AxelorException {
+    StockLocationLine stockLocationLine =
+        stockLocationLineService.stockLocationLineMap.get(stockLocation);
+    Assertions.assertEquals(0, expectedCurrentQty.compareTo(stockLocationLine.getCurrentQty()));
+    assertFutureQty(stockLocation, expectedFutureQty);
+  }
+
+  protected StockMoveLine copy(StockMoveLine stockMoveLine) {
+    StockMoveLine copy = new StockMoveLine();
+    copy.setProduct(stockMoveLine.getProduct());
+    copy.setUnit(stockMoveLine.getUnit());
+    copy.setFromStockLocation(stockMoveLine.getFromStockLocation());
+    copy.setToStockLocation(stockMoveLine.getToStockLocation());
+    copy.setQty(stockMoveLine.getQty());
+    copy.setRealQty(stockMoveLine.getRealQty());
+    copy.setArchived(true);
+    return copy;
+  }
+
+  protected StockLocation createStockLocation(Long id) {
+    StockLocation stockLocation = new StockLocation();
+    stockLocation.setId(id);
+    stockLocation.setName("Stock location " + id);
+    stockLocation.setTypeSelect(StockLocationRepository.TYPE_INTERNAL);
+    return stockLocation;
+  }
+
+  /** Keeps the stock location lines in memory and reads the planned lines from a list. */
+  private static class TestableStockLocationLineService extends StockLocationLineServiceImpl {
+
+    protected final Map<StockLocation, StockLocationLine> stockLocationLineMap = new HashMap<>();
+    protected final List<StockMoveLine> stockMoveLineList = new ArrayList<>();
+
+    TestableStockLocationLineService(UnitConversionService unitConversionService) {
+      super(null, null, null, null, unitConversionService, null, null);
+    }
+
+    protected void addStockLocationLine(
+        StockLocation stockLocation, Product product, BigDecimal qty) {
+      StockLocationLine stockLocationLine = new StockLocationLine();
+      stockLocationLine.setStockLocation(stockLocation);
+      stockLocationLine.setProduct(product);
+      stockLocationLine.setUnit(product.getUnit());
+      stockLocationLine.setCurrentQty(qty);
+      stockLocationLine.setFutureQty(qty);
+      stockLocationLineMap.put(stockLocation, stockLocationLine);
+    }
+
+    @Override
+    public void updateLocation(
+        StockLocation stockLocation,
+        Product product,
+        Unit stockMoveLineUnit,
+        BigDecimal qty,
+        boolean current,
+        boolean future,
+        boolean isIncrement,
+        LocalDate lastFutureStockMoveDate,
+        TrackingNumber trackingNumber,
+        boolean generateOrder)
+        throws AxelorException {
+      updateLocation(
+          stockLocationLineMap.get(stockLocation),
+          stockMoveLineUnit,
+          product,
+          qty,
+          current,
+          future,
+          isIncrement,
+          lastFutureStockMoveDate);
+    }
+
+    @Override
+    protected List<StockMoveLine> findIncomingPlannedStockMoveLines(
+        StockLocationLine stockLocationLine) {
+      return stockMoveLineList.stream()
+          .filter(line -> line.getToStockLocation() == stockLocationLine.getStockLocation())
+          .filter(this::isPlanned)
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    protected List<StockMoveLine> findOutgoingPlannedStockMoveLines(
+        StockLocationLine stockLocationLine) {
+      return stockMoveLineList.stream()
+          .filter(line -> line.getFromStockLocation() == stockLocationLine.getStockLocation())
+          .filter(this::isPlanned)
+          .collect(Collectors.toList());
+    }
+
+    protected boolean isPlanned(StockMoveLine stockMoveLine) {
+      return stockMoveLine.getStockMove().getStatusSelect() == StockMoveRepository.STATUS_PLANNED;
+    }
+  }
+
+  /** Skips the average price, the WAP ledgers and the history, not part of the future quantity. */
+  private static class TestableStockMoveLineService extends StockMoveLineServiceImpl {
+
+    TestableStockMoveLineService(
+        StockLocationLineService stockLocationLineService,
+        StockLocationLineFetchService stockLocationLineFetchService) {
+      super(
+          null,
+          null,
+          null,
+          null,
+          null,
+          stockLocationLineService,
+          null,
+          mock(WeightedAveragePriceService.class),
+          null,
+          null,
+          null,
+          null,
+          stockLocationLineFetchService,
+          null);
+    }
+
+    @Override
+    public void updateAveragePriceAndLocationLineHistory(
+        StockLocation stockLocation,
+        StockMoveLine stockMoveLine,
+        int fromStatus,
+        int toStatus,
+        LocalDate date,
+        String origin) {}
+
+    @Override
+    protected void updateStockLocationLineHistory(
+        StockLocation stockLocation,
+        StockMoveLine stockMoveLine,
+        LocalDate date,
+        String origin,
+        int toStatus) {}
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.AxelorException;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.db.Unit;
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockLocationLineHistory;
+import com.axelor.apps.stock.db.StockMove;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.repo.StockLocationLineHistoryRepository;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestStockLocationLineHistoryService {
+
+  private TestableStockLocationLineHistoryService stockLocationLineHistoryService;
+  private StockLocation stockLocation;
+  private StockLocation otherStockLocation;
+  private StockLocationLine stockLocationLine;
+  private Unit unit;
+  private Unit box;
+  private Product product;
+
+  @BeforeEach
+  void prepare() throws AxelorException {
+    unit = new Unit();
+    box = new Unit();
+    // a box holds 10 units
+    UnitConversionService unitConversionService = mock(UnitConversionService.class);
+    when(unitConversionService.convert(any(), any(), any(), anyInt(), any()))
+        .thenAnswer(
+            invocation ->
+                invocation.getArgument(0) == box
+                    ? ((BigDecimal) invocation.getArgument(2)).multiply(BigDecimal.TEN)
+                    : invocation.getArgument(2));
+    stockLocationLineHistoryService =
+        new TestableStockLocationLineHistoryService(unitConversionService);
+
+    product = new Product();
+    product.setUnit(unit);
+    stockLocation = new StockLocation();
+    stockLocation.setId(1L);
+    otherStockLocation = new StockLocation();
+    otherStockLocation.setId(2L);
+    stockLocationLine = new StockLocationLine();
+    stockLocationLine.setStockLocation(stockLocation);
+    stockLocationLine.setProduct(product);
+    stockLocationLine.setUnit(unit);
+
+    realize(LocalDate.of(2026, 1, 5), null, stockLocation, 100, unit);
+    realize(LocalDate.of(2026, 1, 10), stockLocation, otherStockLocation, 30, unit);
+    realize(LocalDate.of(2026, 1, 10), otherStockLocation, stockLocation, 2, box);
+    realize(LocalDate.of(2026, 1, 20), stockLocation, null, 15, unit);
+    realize(LocalDate.of(2026, 2, 3), null, stockLocation, 5, unit);
+    StockMoveLine canceledStockMoveLine =
+        realize(LocalDate.of(2026, 1, 25), stockLocation, null, 40, unit);
+    canceledStockMoveLine.getStockMove().setStatusSelect(StockMoveRepository.STATUS_CANCELED);
+  }
+
+  @Test
+  void getQtyAt_withoutHistory_replaysTheStockMoveLines() throws AxelorException {
+    assertQtyAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+    assertQtyAt(LocalDateTime.of(2026, 1, 10, 0, 0));
+    assertQtyAt(LocalDateTime.of(2026, 1, 31, 23, 59));
+    assertQtyAt(LocalDateTime.of(2026, 3, 1, 0, 0));
+    Assertions.assertEquals(
+        0,
+        new BigDecimal(80)
+            .compareTo(
+                stockLocationLineHistoryService.getQtyAt(
+                    stockLocationLine, LocalDateTime.of(2026, 3, 1, 0, 0))));
+  }
+
+  @Test
+  void getQtyAt_fromLastHistory_addsTheFollowingStockMoveLines() throws AxelorException {
+    // history written by the moves of January 10, the following moves did not write any
+    stockLocationLineHistoryService.historyList.add(
+        createHistory(LocalDateTime.of(2026, 1, 10, 0, 0), replay(LocalDate.of(2026, 1, 10))));
+
+    assertQtyAt(LocalDateTime.of(2026, 1, 5, 12, 0));
+    assertQtyAt(LocalDateTime.of(2026, 1, 10, 12, 0));
+    assertQtyAt(LocalDateTime.of(2026, 1, 20, 0, 0));
+    assertQtyAt(LocalDateTime.of(2026, 3, 1, 0, 0));
+  }
+
+  @Test
+  void getQtyAt_historyDifferentFromTheMoves_historyIsTheCheckpoint() throws AxelorException {
+    // an inventory corrected the quantity on January 15
+    stockLocationLineHistoryService.historyList.add(
+        createHistory(LocalDateTime.of(2026, 1, 15, 9, 30), new BigDecimal(80)));
+
+    Assertions.assertEquals(
+        0,
+        new BigDecimal(65)
+            .compareTo(
+                stockLocationLineHistoryService.getQtyAt(
+                    stockLocationLine, LocalDateTime.of(2026, 1, 31, 0, 0))));
+  }
+
+  protected void assertQtyAt(LocalDateTime dateT) throws AxelorException {
+    BigDecimal expectedQty = replay(dateT.toLocalDate());
+    BigDecimal qty = stockLocationLineHistoryService.getQtyAt(stockLocationLine, dateT);
+    Assertions.assertEquals(0, expectedQty.compareTo(qty), dateT + ": " + qty);
+  }
+
+  /** The quantity of the stock location at a date, replaying every realized stock move line. */
+  protected BigDecimal replay(LocalDate date) {
+    BigDecimal qty = BigDecimal.ZERO;
+    for (StockMoveLine stockMoveLine : stockLocationLineHistoryService.stockMoveLineList) {
+      StockMove stockMove = stockMoveLine.getStockMove();
+      if (stockMove.getStatusSelect() != StockMoveRepository.STATUS_REALIZED
+          || stockMove.getRealDate().isAfter(date)) {
+        continue;
+      }
+      BigDecimal movedQty =
+          stockMoveLine.getUnit() == box
+              ? stockMoveLine.getRealQty().multiply(BigDecimal.TEN)
+              : stockMoveLine.getRealQty();
+      if (stockMoveLine.getToStockLocation() == stockLocation) {
+        qty = qty.add(movedQty);
+      }
+      if (stockMoveLine.getFromStockLocation() == stockLocation) {
+        qty = qty.subtract(movedQty);
+      }
+    }
+    return qty;
+  }
+
+  protected StockMoveLine realize(
+      LocalDate realDate,
+      StockLocation fromStockLocation,
+      StockLocation toStockLocation,
+      int realQty,
+      Unit stockMoveLineUnit) {
+    StockMove stockMove = new StockMove();
+    stockMove.setStatusSelect(StockMoveRepository.STATUS_REALIZED);
+    stockMove.setRealDate(realDate);
+    StockMoveLine stockMoveLine = new StockMoveLine();
+    stockMoveLine.setStockMove(stockMove);
+    stockMoveLine.setProduct(product);
+    stockMoveLine.setUnit(stockMoveLineUnit);
+    stockMoveLine.setFromStockLocation(fromStockLocation);
+    stockMoveLine.setToStockLocation(toStockLocation);
+    stockMoveLine.setRealQty(new BigDecimal(realQty));
+    stockLocationLineHistoryService.stockMoveLineList.add(stockMoveLine);
+    return stockMoveLine;
+  }
+
+  protected StockLocationLineHistory createHistory(LocalDateTime dateT, BigDecimal qty) {
+    return new StockLocationLineHistory(
+        stockLocationLine,
+        StockLocationLineHistoryRepository.TYPE_SELECT_STOCK_MOVE,
+        dateT,
+        "",
+        BigDecimal.ZERO,
+        qty,
+        unit,
+        BigDecimal.ZERO,
+        BigDecimal.ZERO,
+        BigDecimal.ZERO);
+  }
+
+  private static class TestableStockLocationLineHistoryService
+      extends StockLocationLineHistoryServiceImpl {
+
+    protected final List<StockLocationLineHistory> historyList = new ArrayList<>();
+    protected final List<StockMoveLine> stockMoveLineList = new ArrayList<>();
+
+    TestableStockLocationLineHistoryService(UnitConversionService unitConversionService) {
+      super(null, null, null, unitConversionService);
+    }
+
+    @Override
+    protected StockLocationLineHistory getLastHistory(
+        StockLocationLine stockLocationLine, LocalDateTime dateT) {
+      return historyList.stream()
+          .filter(history -> !history.getDateT().isAfter(dateT))
+          .max(Comparator.comparing(StockLocationLineHistory::getDateT))
+          .orElse(null);
+    }
+
+    @Override
+    protected List<StockMoveLine> getRealizedStockMoveLineList(
+        StockLocationLine stockLocationLine, LocalDate fromDate, LocalDate toDate) {
+      StockLocation stockLocation = getStockLocation(stockLocationLine);
+      return stockMoveLineList.stream()
+          .filter(
+              stockMoveLine ->
+                  stockMoveLine.getStockMove().getStatusSelect()
+                      == StockMoveRepository.STATUS_REALIZED)
+          .filter(stockMoveLine -> !stockMoveLine.getStockMove().getRealDate().isAfter(toDate))
+          .filter(
+              stockMoveLine ->
+                  fromDate == null || stockMoveLine.getStockMove().getRealDate().isAfter(fromDate))
+          .filter(
+              stockMoveLine ->
+                  stockLocation.equals(stockMoveLine.getToStockLocation())
+                      || stockLocation.equals(stockMoveLine.getFromStockLocation()))
+          .collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.stock.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.db.Product;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.stock.db.StockLocationLine;
+import com.axelor.apps.stock.db.StockLocationLineHistory;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.WapLedger;
+import com.axelor.apps.stock.db.WapLedgerHistory;
+import com.axelor.apps.stock.db.repo.StockLocationRepository;
+import com.axelor.apps.stock.db.repo.WapLedgerRepository;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestWapLedgerService {
+
+  private static final LocalDateTime DAY_1 = LocalDateTime.of(2026, 3, 10, 0, 0);
+  private static final LocalDateTime DAY_2 = DAY_1.plusDays(1);
+  private static final LocalDateTime DAY_3 = DAY_1.plusDays(2);
+
+  private TestableWapLedgerService wapLedgerService;
+  private Company company1;
+  private Company company2;
+  private Product product1;
+  private Product product2;
+  private StockLocation stockLocation1;
+  private StockLocation stockLocation2;
+  private StockLocationLine stockLocationLine1;
+  private StockLocationLine stockLocationLine2;
+
+  @BeforeEach
+  void prepare() {
+    AppBaseService appBaseService = mock(AppBaseService.class);
+    when(appBaseService.getNbDecimalDigitForUnitPrice()).thenReturn(2);
+    when(appBaseService.getTodayDateTime(any()))
+        .thenReturn(DAY_3.plusDays(1).atZone(ZoneId.systemDefault()));
+    wapLedgerService = new TestableWapLedgerService(appBaseService);
+
+    company1 = createCompany(1L);
+    company2 = createCompany(2L);
+    product1 = createProduct(1L);
+    product2 = createProduct(2L);
+    stockLocation1 = createStockLocation(1L, company1, StockLocationRepository.TYPE_INTERNAL);
+    stockLocation2 = createStockLocation(2L, company1, StockLocationRepository.TYPE_INTERNAL);
+    stockLocationLine1 = createStockLocationLine(stockLocation1, product1);
+    stockLocationLine2 = createStockLocationLine(stockLocation2, product1);
+    wapLedgerService.stockLocationLineList.addAll(
+        Arrays.asList(stockLocationLine1, stockLocationLine2));
+  }
+
+  @Test
+  void updateLedger_appliesTheChangeOfTheLine() {
+    WapLedger wapLedger = wapLedgerService.addLedger(product1, company1);
+
+    setState(stockLocationLine1, 10, 5);
+    wapLedgerService.updateLedger(stockLocationLine1, DAY_1);
+    assertLedger(wapLedger, 10, 50, 5);
+
+    setState(stockLocationLine2, 10, 8);
+    wapLedgerService.updateLedger(stockLocationLine2, DAY_2);
+    assertLedger(wapLedger, 20, 130, 6.5);
+
+    setState(stockLocationLine1, 4, 5);
+    wapLedgerService.updateLedger(stockLocationLine1, DAY_3);
+    assertLedger(wapLedger, 14, 100, 7.14);
+    assertDecimal(4, stockLocationLine1.getWapLedgerQty());
+    assertDecimal(20, stockLocationLine1.getWapLedgerValue());
+    Assertions.assertEquals(3, wapLedger.getWapLedgerHistoryList().size());
+  }
+
+  @Test
+  void updateLedger_productWithStockAndNoLedger_notBuiltDuringTheRealization() {
+    wapLedgerService.stock = true;
+
+    setState(stockLocationLine1, 10, 5);
+    wapLedgerService.updateLedger(stockLocationLine1, DAY_1);
+
+    Assertions.assertTrue(wapLedgerService.wapLedgerMap.isEmpty());
+    Assertions.assertTrue(wapLedgerService.eventList.isEmpty());
+    Assertions.assertNull(stockLocationLine1.getWapLedgerQty());
+  }
+
+  @Test
+  void updateLedger_productWithoutStock_createsItsLedger() {
+    setState(stockLocationLine1, 10, 5);
+    wapLedgerService.updateLedger(stockLocationLine1, DAY_1);
+
+    Assertions.assertEquals(Arrays.asList("create 1-1", "lock 1-1"), wapLedgerService.eventList);
+    assertLedger(wapLedgerService.wapLedgerMap.get("1-1"), 10, 50, 5);
+  }
+
+  @Test
+  void lockLedgers_sortedByProductAndCompany() {
+    StockLocation stockLocation3 =
+        createStockLocation(3L, company2, StockLocationRepository.TYPE_INTERNAL);
+    StockLocation virtualStockLocation =
+        createStockLocation(4L, company1, StockLocationRepository.TYPE_VIRTUAL);
+
+    wapLedgerService.lockLedgers(
+        Arrays.asList(
+            createStockMoveLine(product2, stockLocation3, stockLocation1),
+            createStockMoveLine(product1, stockLocation3, virtualStockLocation)));
+
+    Assertions.assertEquals(
+        Arrays.asList(
+            "create 1-2", "lock 1-2", "create 2-1", "lock 2-1", "create 2-2", "lock 2-2"),
+        wapLedgerService.eventList);
+  }
+
+  @Test
+  void recomputeLedgers_replaysTheLineHistoryFromTheDate() {
+    WapLedger wapLedger = wapLedgerService.addLedger(product1, company1);
+    setLedgerHistory(wapLedger, DAY_1, 10, 5);
+    setLedgerHistory(wapLedger, DAY_2, 10, 9);
+    setLedgerHistory(wapLedger, DAY_3, 10, 9);
+    wapLedger.setQty(new BigDecimal(10));
+    wapLedger.setValue(new BigDecimal(90));
+
+    wapLedgerService.lineHistoryList.addAll(
+        Arrays.asList(
+            createLineHistory(stockLocationLine1, DAY_1, 10, 5),
+            createLineHistory(stockLocationLine2, DAY_2, 10, 8),
+            createLineHistory(stockLocationLine1, DAY_3, 4, 5)));
+    setState(stockLocationLine1, 4, 5);
+    setState(stockLocationLine2, 10, 8);
+
+    wapLedgerService.recomputeLedgers(product1, DAY_2);
+
+    List<WapLedgerHistory> wapLedgerHistoryList = wapLedger.getWapLedgerHistoryList();
+    Assertions.assertEquals(
+        Arrays.asList(DAY_1, DAY_2, DAY_3),
+        wapLedgerHistoryList.stream().map(WapLedgerHistory::getDateT).collect(Collectors.toList()));
+    assertDecimal(5, wapLedgerHistoryList.get(0).getWap());
+    assertDecimal(6.5, wapLedgerHistoryList.get(1).getWap());
+    assertDecimal(7.14, wapLedgerHistoryList.get(2).getWap());
+    assertLedger(wapLedger, 14, 100, 7.14);
+    assertDecimal(10, stockLocationLine2.getWapLedgerQty());
+  }
+
+  protected void assertLedger(WapLedger wapLedger, double qty, double value, double wap) {
+    assertDecimal(qty, wapLedger.getQty());
+    assertDecimal(value, wapLedger.getValue());
+    assertDecimal(wap, wapLedger.getWap());
+  }
+
+  protected void assertDecimal(double expected, BigDecimal actual) {
+    Assertions.assertEquals(0, BigDecimal.valueOf(expected).compareTo(actual), actual::toString);
+  }
+
+  protected void setState(StockLocationLine stockLocationLine, int qty, int avgPrice) {
+    stockLocationLine.setCurrentQty(new BigDecimal(qty));
+    stockLocationLine.setAvgPrice(new BigDecimal(avgPrice));
+  }
+
+  protected void setLedgerHistory(WapLedger wapLedger, LocalDateTime dateT, int qty, int wap) {
+    WapLedgerHistory wapLedgerHistory = new WapLedgerHistory();
+    wapLedgerHistory.setDateT(dateT);
+    wapLedgerHistory.setQty(new BigDecimal(qty));
+    wapLedgerHistory.setValue(new BigDecimal(qty * wap));
+    wapLedgerHistory.setWap(new BigDecimal(wap));
+    wapLedger.addWapLedgerHistoryListItem(wapLedgerHistory);
+  }
+
+  protected StockLocationLineHistory createLineHistory(
+      StockLocationLine stockLocationLine, LocalDateTime dateT, int qty, int wap) {
+    StockLocationLineHistory stockLocationLineHistory = new StockLocationLineHistory();
+    stockLocationLineHistory.setStockLocationLine(stockLocationLine);
+    stockLocationLineHistory.setDateT(dateT);
+    stockLocationLineHistory.setQty(new BigDecimal(qty));
+    stockLocationLineHistory.setWap(new BigDecimal(wap));
+    return stockLocationLineHistory;
+  }
+
+  protected Company createCompany(Long id) {
+    Company company = new Company();
+    company.setId(id);
+    return company;
+  }
+
+  protected Product createProduct(Long id) {
+    Product product = new Product();
+    product.setId(id);
+    product.setStockManaged(true);
+    return product;
+  }
+
+  protected StockLocation createStockLocation(Long id, Company company, int typeSelect) {
+    StockLocation stockLocation = new StockLocation();
+    stockLocation.setId(id);
+    stockLocation.setCompany(company);
+    stockLocation.setTypeSelect(typeSelect);
+    return stockLocation;
+  }
+
+  protected StockLocationLine createStockLocationLine(
+      StockLocation stockLocation, Product product) {
+    StockLocationLine stockLocationLine = new StockLocationLine();
+    stockLocationLine.setStockLocation(stockLocation);
+    stockLocationLine.setProduct(product);
+    return stockLocationLine;
+  }
+
+  protected StockMoveLine createStockMoveLine(
+      Product product, StockLocation fromStockLocation, StockLocation toStockLocation) {
+    StockMoveLine stockMoveLine = new StockMoveLine();
+    stockMoveLine.setProduct(product);
+    stockMoveLine.setFromStockLocation(fromStockLocation);
+    stockMoveLine.setToStockLocation(toStockLocation);
+    return stockMoveLine;
+  }
+
+  /** Keeps the ledgers, lines and history in memory and records the creations and locks. */
+  private static class TestableWapLedgerService extends WapLedgerServiceImpl {
+
+    protected final Map<String, WapLedger> wapLedgerMap = new LinkedHashMap<>();
+    protected final List<StockLocationLine> stockLocationLineList = new ArrayList<>();
+    protected final List<StockLocationLineHistory> lineHistoryList = new ArrayList<>();
+    protected final List<String> eventList = new ArrayList<>();
+    protected boolean stock;
+
+    TestableWapLedgerService(AppBaseService appBaseService) {
+      super(mock(WapLedgerRepository.class), null, null, null, appBaseService);
+    }
+
+    protected WapLedger addLedger(Product product, Company company) {
+      WapLedger wapLedger = createLedger(product, company);
+      wapLedger.setId((long) wapLedgerMap.size() + 1);
+      wapLedger.setWapLedgerHistoryList(new ArrayList<>());
+      wapLedgerMap.put(getKey(product, company), wapLedger);
+      return wapLedger;
+    }
+
+    protected String getKey(Product product, Company company) {
+      return product.getId() + "-" + company.getId();
+    }
+
+    @Override
+    protected WapLedger createLedgerInNewTransaction(Product product, Company company) {
+      eventList.add("create " + getKey(product, company));
+      return addLedger(product, company);
+    }
+
+    @Override
+    protected void lock(WapLedger wapLedger) {
+      eventList.add("lock " + getKey(wapLedger.getProduct(), wapLedger.getCompany()));
+    }
+
+    @Override
+    protected WapLedger findLedger(Product product, Company company) {
+      return wapLedgerMap.get(getKey(product, company));
+    }
+
+    @Override
+    protected List<WapLedger> getLedgers(Product product) {
+      return wapLedgerMap.values().stream()
+          .filter(wapLedger -> wapLedger.getProduct() == product)
+          .collect(Collectors.toList());
+    }
+
+    @Override
+    protected boolean hasLedger(Product product) {
+      return !getLedgers(product).isEmpty();
+    }
+
+    @Override
+    protected boolean hasStock(Product product) {
+      return stock;
+    }
+
+    @Override
+    protected List<StockLocationLine> getStockLocationLines(Product product) {
+      return stockLocationLineList;
+    }
+
+    @Override
+    protected Stream<StockLocationLineHistory> getLineHistoryStream(Product product) {
+      return lineHistoryList.stream();
+    }
+
+    @Override
+    protected void removeHistory(Product product, LocalDateTime fromDateT) {
+      for (WapLedger wapLedger : getLedgers(product)) {
+        wapLedger
+            .getWapLedgerHistoryList()
+            .removeIf(wapLedgerHistory -> !wapLedgerHistory.getDateT().isBefore(fromDateT));
+      }
+    }
+  }
+}
@@ -65,6 +65,7 @@ import com.axelor.apps.supplychain.db.repo.MrpLineTypeRepository;
 import com.axelor.apps.supplychain.db.repo.MrpRepository;
 import com.axelor.apps.supplychain.exception.SupplychainExceptionMessage;
 import com.axelor.auth.AuthUtils;
+import com.axelor.common.StringUtils;
 import com.axelor.db.JPA;
 import com.axelor.db.Model;
 import com.axelor.db.Query;
@@ -85,6 +86,7 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -93,6 +95,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -103,6 +106,7 @@ public class MrpServiceImpl implements MrpService {
 
   private final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private static final Integer ITERATIONS = 100;
+  protected static final int PRODUCT_FETCH_SIZE = 1000;
 
   protected MrpRepository mrpRepository;
   protected StockLocationRepository stockLocationRepository;
@@ -133,6 +137,7 @@ public class MrpServiceImpl implements MrpService {
   protected Integer currentLevel;
   protected Mrp mrp;
   protected LocalDate today;
+  protected LocalDateTime netChangeSinceDateTime;
 
   @Inject
   public MrpServiceImpl(
@@ -189,12 +194,155 @@ public class MrpServiceImpl implements MrpService {
   @Override
   public void runCalculation(Mrp mrp) throws AxelorException {
 
+    if (this.isNetChangeRun(mrpRepository.find(mrp.getId()))) {
+      this.runNetChangeCalculation(mrpRepository.find(mrp.getId()));
+      return;
+    }
+
     this.reset(mrpRepository.find(mrp.getId()));
 
     this.startMrp(mrpRepository.find(mrp.getId()));
     this.completeMrp(mrpRepository.find(mrp.getId()));
     this.doCalculation(mrpRepository.find(mrp.getId()));
     this.finish(mrpRepository.find(mrp.getId()));
+    this.saveNetChangeSnapshot(mrpRepository.find(mrp.getId()));
+  }
+
+  /**
+   * A net change run only recomputes the products impacted by an event since the start of the
+   * previous run. It requires a previous run ended the same day, otherwise the lines computed
+   * relatively to the date of the day must all be regenerated. It also requires the MRP to be
+   * unchanged and no record read by the calculation to be deleted since the previous run, as such
+   * changes cannot be traced back to products.
+   */
+  protected boolean isNetChangeRun(Mrp mrp) {
+    if (!mrp.getNetChangeOk()) {
+      return false;
+    }
+    if (mrp.getStatusSelect() != MrpRepository.STATUS_CALCULATION_ENDED
+        || mrp.getStartDateTime() == null
+        || !mrp.getStartDateTime()
+            .toLocalDate()
+            .equals(appBaseService.getTodayDate(mrp.getStockLocation().getCompany()))) {
+      log.debug("No previous run today for MRP {}, full calculation", mrp.getMrpSeq());
+      return false;
+    }
+    if (!Objects.equals(mrp.getVersion(), mrp.getNetChangeVersion())) {
+      log.debug("MRP {} modified since its previous run, full calculation", mrp.getMrpSeq());
+      return false;
+    }
+    if (this.hasDeletionSince(mrp.getNetChangeSnapshot())) {
+      log.debug(
+          "Records deleted since the previous run of MRP {}, full calculation", mrp.getMrpSeq());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Entities read by the calculation, whose deletions force a full calculation. For each of them,
+   * the snapshot keeps the greatest id and the number of records up to this id, so that a lower
+   * number of records up to this id reveals a deletion.
+   */
+  protected List<String> getNetChangeEntityList() {
+    return Lists.newArrayList(
+        "Product",
+        "SaleOrderLine",
+        "PurchaseOrderLine",
+        "StockMoveLine",
+        "StockLocationLine",
+        "StockRules",
+        "MrpForecast");
+  }
+
+  /**
+   * Keep the version of the MRP and the snapshot of the entities read by the calculation at the
+   * end of a run. The update does not change the version of the MRP, so that the next run can
+   * tell whether the MRP has been modified since.
+   */
+  @Transactional
+  protected void saveNetChangeSnapshot(Mrp mrp) {
+    if (!mrp.getNetChangeOk()) {
+      return;
+    }
+    JPA.em()
+        .createQuery(
+            "UPDATE Mrp self SET self.netChangeSnapshot = :snapshot, "
+                + "self.netChangeVersion = self.version WHERE self.id = :mrpId")
+        .setParameter("snapshot", this.computeNetChangeSnapshot())
+        .setParameter("mrpId", mrp.getId())
+        .executeUpdate();
+  }
+
+  protected String computeNetChangeSnapshot() {
+    List<String> entitySnapshotList = new ArrayList<>();
+    for (String entityName : this.getNetChangeEntityList()) {
+      long maxId = this.getMaxId(entityName);
+      entitySnapshotList.add(
+          entityName + "=" + maxId + ":" + this.countRecordsUpTo(entityName, maxId));
+    }
+    return String.join(";", entitySnapshotList);
+  }
+
+  protected boolean hasDeletionSince(String snapshot) {
+    if (StringUtils.isBlank(snapshot)) {
+      return true;
+    }
+    Map<String, String> entitySnapshotMap = new HashMap<>();
+    for (String entitySnapshot : snapshot.split(";")) {
+      String[] values = entitySnapshot.split("=", 2);
+      if (values.length == 2) {
+        entitySnapshotMap.put(values[0], values[1]);
+      }
+    }
+
+    for (String entityName : this.getNetChangeEntityList()) {
+      String entitySnapshot = entitySnapshotMap.get(entityName);
+      if (entitySnapshot == null || !entitySnapshot.contains(":")) {
+        return true;
+      }
+      String[] values = entitySnapshot.split(":");
+      long maxId = Long.parseLong(values[0]);
+      long count = Long.parseLong(values[1]);
+      if (this.countRecordsUpTo(entityName, maxId) < count) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected long getMaxId(String entityName) {
+    Long maxId =
+        JPA.em()
+            .createQuery(String.format("SELECT MAX(self.id) FROM %s self", entityName), Long.class)
+            .getSingleResult();
+    return maxId != null ? maxId : 0L;
+  }
+
+  protected long countRecordsUpTo(String entityName, long maxId) {
+    return JPA.em()
+        .createQuery(
+            String.format("SELECT COUNT(self) FROM %s self WHERE self.id <= :maxId", entityName),
+            Long.class)
+        .setParameter("maxId", maxId)
+        .getSingleResult();
+  }
+
+  protected void runNetChangeCalculation(Mrp mrp) throws AxelorException {
+
+    LocalDateTime sinceDateTime = mrp.getStartDateTime();
+    today = appBaseService.getTodayDate(mrp.getStockLocation().getCompany());
+
+    this.startMrp(mrpRepository.find(mrp.getId()));
+    this.netChangeSinceDateTime = sinceDateTime;
+    try {
+      this.completeMrp(mrpRepository.find(mrp.getId()));
+      this.doCalculation(mrpRepository.find(mrp.getId()));
+    } finally {
+      this.netChangeSinceDateTime = null;
+    }
+    this.finish(mrpRepository.find(mrp.getId()));
+    this.saveNetChangeSnapshot(mrpRepository.find(mrp.getId()));
   }
 
   @Override
@@ -259,6 +407,9 @@ public class MrpServiceImpl implements MrpService {
           TraceBackRepository.CATEGORY_NO_VALUE,
           I18n.get(SupplychainExceptionMessage.MRP_MISSING_STOCK_LOCATION_VALID));
     }
+    if (netChangeSinceDateTime != null) {
+      this.restrictToNetChangeProducts(mrp);
+    }
     // Get the stock for each product on each stock location
     this.createAvailableStockMrpLines();
 
@@ -271,6 +422,166 @@ public class MrpServiceImpl implements MrpService {
     this.createStockHistoryMrpLines();
   }
 
+  /**
+   * Restrict the product map to the products impacted since the previous run and remove their
+   * lines, as well as the lines of the products which left the scope of the MRP. The lines of the
+   * other products are kept as they are.
+   */
+  protected void restrictToNetChangeProducts(Mrp mrp) {
+
+    Set<Long> mrpLineProductIdSet = this.getMrpLineProductIdSet(mrp);
+    Set<Long> scopeProductIdSet = this.getNetChangeScopeProductIdSet(mrp);
+
+    Set<Long> productIdSet = this.getNetChangeProductIdSet(mrp, netChangeSinceDateTime);
+    productIdSet.retainAll(scopeProductIdSet);
+    // products added to the scope of the MRP since the previous run
+    for (Long productId : productMap.keySet()) {
+      if (!mrpLineProductIdSet.contains(productId)) {
+        productIdSet.add(productId);
+      }
+    }
+    this.addNetChangeRelatedProducts(productIdSet, scopeProductIdSet);
+
+    // products removed from the scope of the MRP since the previous run
+    Set<Long> resetProductIdSet = new HashSet<>(mrpLineProductIdSet);
+    resetProductIdSet.removeAll(scopeProductIdSet);
+    log.debug(
+        "Net change MRP: {} of {} products to compute, {} products out of scope",
+        productIdSet.size(),
+        productMap.size(),
+        resetProductIdSet.size());
+    resetProductIdSet.addAll(productIdSet);
+
+    for (List<Long> productIdList :
+        Lists.partition(new ArrayList<>(resetProductIdSet), PRODUCT_FETCH_SIZE)) {
+      this.resetMrpLines(mrp, productIdList);
+    }
+    productMap.keySet().retainAll(productIdSet);
+  }
+
+  /** Get the products which can have lines in the MRP, the lines of the others are removed. */
+  protected Set<Long> getNetChangeScopeProductIdSet(Mrp mrp) {
+    return new HashSet<>(productMap.keySet());
+  }
+
+  protected Set<Long> getMrpLineProductIdSet(Mrp mrp) {
+    return new HashSet<>(
+        JPA.em()
+            .createQuery(
+                "SELECT DISTINCT self.product.id FROM MrpLine self WHERE self.mrp.id = :mrpId",
+                Long.class)
+            .setParameter("mrpId", mrp.getId())
+            .getResultList());
+  }
+
+  @Transactional
+  protected void resetMrpLines(Mrp mrp, List<Long> productIdList) {
+    mrpLineRepository
+        .all()
+        .filter(
+            "self.mrp.id = :mrpId AND self.product.id IN (:productIds) "
+                + "AND self.isEditedByUser = false")
+        .bind("mrpId", mrp.getId())
+        .bind("productIds", productIdList)
+        .remove();
+    mrpLineRepository
+        .all()
+        .filter(
+            "self.mrp.id = :mrpId AND self.product.id IN (:productIds) "
+                + "AND self.isEditedByUser = true AND self.maturityDate < :today")
+        .bind("mrpId", mrp.getId())
+        .bind("productIds", productIdList)
+        .bind("today", today)
+        .update("maturityDate", today);
+  }
+
+  /**
+   * Get the products having a demand, supply or stock event since the given date time, including
+   * the products of the lines whose origin has been deleted.
+   */
+  protected Set<Long> getNetChangeProductIdSet(Mrp mrp, LocalDateTime sinceDateTime) {
+
+    Set<Long> productIdSet = new HashSet<>();
+    productIdSet.addAll(this.getChangedProductIdList("Product", "self.id", null, sinceDateTime));
+    productIdSet.addAll(
+        this.getChangedProductIdList(
+            "SaleOrderLine", "self.product.id", "saleOrder", sinceDateTime));
+    productIdSet.addAll(
+        this.getChangedProductIdList(
+            "PurchaseOrderLine", "self.product.id", "purchaseOrder", sinceDateTime));
+    productIdSet.addAll(
+        this.getChangedProductIdList(
+            "StockMoveLine", "self.product.id", "stockMove", sinceDateTime));
+    productIdSet.addAll(
+        this.getChangedProductIdList("StockLocationLine", "self.product.id", null, sinceDateTime));
+    productIdSet.addAll(
+        this.getChangedProductIdList("StockRules", "self.product.id", null, sinceDateTime));
+    productIdSet.addAll(
+        this.getChangedProductIdList("MrpForecast", "self.product.id", null, sinceDateTime));
+    productIdSet.addAll(this.getDeletedOriginProductIdList(mrp));
+    return productIdSet;
+  }
+
+  /**
+   * Get the products of the records of the given entity created or updated since the given date
+   * time, or whose parent record has been.
+   */
+  protected List<Long> getChangedProductIdList(
+      String entityName, String productIdPath, String parentField, LocalDateTime sinceDateTime) {
+
+    String filter = "self.createdOn >= :since OR self.updatedOn >= :since";
+    if (parentField != null) {
+      filter +=
+          String.format(
+              " OR self.%1$s.createdOn >= :since OR self.%1$s.updatedOn >= :since", parentField);
+    }
+    return JPA.em()
+        .createQuery(
+            String.format(
+                "SELECT DISTINCT %s FROM %s self WHERE %s IS NOT NULL AND (%s)",
+                productIdPath, entityName, productIdPath, filter),
+            Long.class)
+        .setParameter("since", sinceDateTime)
+        .getResultList();
+  }
+
+  protected List<Long> getDeletedOriginProductIdList(Mrp mrp) {
+
+    List<String> relatedToSelectList =
+        JPA.em()
+            .createQuery(
+                "SELECT DISTINCT self.relatedToSelect FROM MrpLineOrigin self "
+                    + "WHERE self.mrpLine.mrp.id = :mrpId AND self.relatedToSelect IS NOT NULL",
+                String.class)
+            .setParameter("mrpId", mrp.getId())
+            .getResultList();
+
+    List<Long> productIdList = new ArrayList<>();
+    for (String relatedToSelect : relatedToSelectList) {
+      String entityName = relatedToSelect.substring(relatedToSelect.lastIndexOf('.') + 1);
+      productIdList.addAll(
+          JPA.em()
+              .createQuery(
+                  "SELECT DISTINCT self.mrpLine.product.id FROM MrpLineOrigin self "
+                      + "WHERE self.mrpLine.mrp.id = :mrpId "
+                      + "AND self.relatedToSelect = :relatedToSelect "
+                      + "AND NOT EXISTS (SELECT 1 FROM "
+                      + entityName
+                      + " origin WHERE origin.id = self.relatedToSelectId)",
+                  Long.class)
+              .setParameter("mrpId", mrp.getId())
+              .setParameter("relatedToSelect", relatedToSelect)
+              .getResultList());
+    }
+    return productIdList;
+  }
+
+  /**
+   * Add to the given set the products of the scope whose lines depend on the lines of the products
+   * of the set, or that the lines of the products of the set depend on.
+   */
+  protected void addNetChangeRelatedProducts(Set<Long> productIdSet, Set<Long> scopeProductIdSet) {}
+
   protected void fillMrpLinesForProductMap(Map<Long, Integer> productMap) throws AxelorException {
     // Get the stock for each product on each stock location
     this.createAvailableStockMrpLines(productMap);
@@ -324,15 +635,27 @@ public class MrpServiceImpl implements MrpService {
    */
   protected List<Product> getProductList(int level) {
 
-    List<Product> productList = Lists.newArrayList();
+    List<Long> productIdList = Lists.newArrayList();
 
     for (Long productId : this.productMap.keySet()) {
 
       if (this.productMap.get(productId) == level) {
-        productList.add(productRepository.find(productId));
+        productIdList.add(productId);
       }
     }
 
+    List<Product> productList = Lists.newArrayList();
+
+    for (List<Long> productIdSubList : Lists.partition(productIdList, PRODUCT_FETCH_SIZE)) {
+      productList.addAll(
+          productRepository
+              .all()
+              .filter("self.id IN (:productIds)")
+              .bind("productIds", productIdSubList)
+              .order("id")
+              .fetch());
+    }
+
     return productList;
   }
 
@@ -354,49 +677,58 @@ public class MrpServiceImpl implements MrpService {
     checkInsufficientCumulativeQty(product, 0);
   }
 
+  /**
+   * Net the lines of the product, starting at the given pass. A new pass is made each time a
+   * proposal is created, as the proposal changes the cumulative quantities of the following lines.
+   *
+   * @param product
+   * @param counter the number of passes already made
+   */
   protected void checkInsufficientCumulativeQty(Product product, int counter)
       throws AxelorException {
 
     final int MAX_ITERATION = 1000;
 
-    if (counter > MAX_ITERATION) {
-      throw new AxelorException(
-          TraceBackRepository.CATEGORY_INCONSISTENCY,
-          I18n.get(SupplychainExceptionMessage.MRP_TOO_MANY_ITERATIONS));
-    }
+    Long productId = product.getId();
+    boolean doASecondPass;
 
-    boolean doASecondPass = false;
+    do {
+      if (counter > MAX_ITERATION) {
+        throw new AxelorException(
+            TraceBackRepository.CATEGORY_INCONSISTENCY,
+            I18n.get(SupplychainExceptionMessage.MRP_TOO_MANY_ITERATIONS));
+      }
 
-    this.computeCumulativeQty(productRepository.find(product.getId()));
+      doASecondPass = this.netMrpLines(productId, counter == 0);
+      JPA.clear();
+      counter++;
+    } while (doASecondPass);
+  }
 
-    JPA.clear();
+  /**
+   * Make one netting pass on the lines of the product: the lines are loaded once, their cumulative
+   * quantities are computed and checked in memory, and the pass stops at the first line for which
+   * a proposal is created.
+   *
+   * @param productId
+   * @param firstPass
+   * @return true if a proposal has been created and a new pass is needed
+   */
+  @Transactional(rollbackOn = {Exception.class})
+  protected boolean netMrpLines(Long productId, boolean firstPass) throws AxelorException {
 
-    List<MrpLine> mrpLineList =
-        mrpLineRepository
-            .all()
-            .filter("self.mrp.id = ?1 AND self.product.id = ?2", mrp.getId(), product.getId())
-            .order("maturityDate")
-            .order("mrpLineType.typeSelect")
-            .order("mrpLineType.sequence")
-            .order("id")
-            .fetch();
-    for (MrpLine mrpLine : mrpLineList) {
+    Product product = productRepository.find(productId);
+    List<MrpLine> mrpLineList = this.getSortedMrpLineList(productId);
 
-      doASecondPass =
-          this.checkInsufficientCumulativeQty(
-              mrpLineRepository.find(mrpLine.getId()),
-              productRepository.find(product.getId()),
-              counter == 0);
-      JPA.clear();
-      if (doASecondPass) {
-        break;
+    this.computeCumulativeQty(mrpLineList);
+
+    for (MrpLine mrpLine : mrpLineList) {
+      if (this.checkInsufficientCumulativeQty(mrpLine, product, firstPass)) {
+        return true;
       }
     }
 
-    if (doASecondPass) {
-
-      this.checkInsufficientCumulativeQty(product, counter + 1);
-    }
+    return false;
   }
 
   @Transactional(rollbackOn = {Exception.class})
@@ -733,15 +1065,28 @@ public class MrpServiceImpl implements MrpService {
   @Transactional
   protected void computeCumulativeQty(Product product) {
 
-    List<MrpLine> mrpLineList =
-        mrpLineRepository
-            .all()
-            .filter("self.mrp.id = ?1 AND self.product.id = ?2", mrp.getId(), product.getId())
-            .order("maturityDate")
-            .order("mrpLineType.typeSelect")
-            .order("mrpLineType.sequence")
-            .order("id")
-            .fetch();
+    this.computeCumulativeQty(this.getSortedMrpLineList(product.getId()));
+  }
+
+  protected List<MrpLine> getSortedMrpLineList(Long productId) {
+
+    return mrpLineRepository
+        .all()
+        .filter("self.mrp.id = ?1 AND self.product.id = ?2", mrp.getId(), productId)
+        .order("maturityDate")
+        .order("mrpLineType.typeSelect")
+        .order("mrpLineType.sequence")
+        .order("id")
+        .fetch();
+  }
+
+  /**
+   * Compute the cumulative quantities of the lines of a product, sorted by {@link
+   * #getSortedMrpLineList(Long)}.
+   *
+   * @param mrpLineList
+   */
+  protected void computeCumulativeQty(List<MrpLine> mrpLineList) {
 
     BigDecimal previousCumulativeQty = BigDecimal.ZERO;
     for (MrpLine mrpLine : mrpLineList) {
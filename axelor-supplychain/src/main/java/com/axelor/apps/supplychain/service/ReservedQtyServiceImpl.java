@@ -46,6 +46,7 @@ import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -87,6 +88,8 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
               .filter(
                   smLine -> smLine.getProduct() != null && smLine.getProduct().getStockManaged())
               .collect(Collectors.toList());
+      // lock every updated location line first, in the same order as any other transaction
+      stockLocationLineFetchService.lockStockLocationLines(stockMoveLineList);
       // check quantities in stock move lines
       for (StockMoveLine stockMoveLine : stockMoveLineList) {
         if (status == StockMoveRepository.STATUS_PLANNED) {
@@ -133,8 +136,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
       stockMoveLine.setRequestedReservedQty(qty);
       // update in stock location line
       StockLocationLine stockLocationLine =
-          stockLocationLineService.getOrCreateStockLocationLine(
-              stockMoveLine.getFromStockLocation(), product);
+          getOrCreateLockedStockLocationLine(stockMoveLine.getFromStockLocation(), product);
       BigDecimal diffRequestedQuantityLocation =
           convertUnitWithProduct(
               stockMoveLine.getUnit(), stockLocationLine.getUnit(), diffRequestedQty, product);
@@ -245,8 +247,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
     }
     Unit stockMoveLineUnit = stockMoveLine.getUnit();
 
-    StockLocationLine stockLocationLine =
-        stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
+    StockLocationLine stockLocationLine = getLockedStockLocationLine(stockLocation, product);
     if (stockLocationLine == null) {
       return;
     }
@@ -354,8 +355,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
     if (product == null || !product.getStockManaged()) {
       return;
     }
-    StockLocationLine stockLocationLine =
-        stockLocationLineFetchService.getStockLocationLine(stockLocation, product);
+    StockLocationLine stockLocationLine = getLockedStockLocationLine(stockLocation, product);
     if (stockLocationLine == null) {
       return;
     }
@@ -650,7 +650,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
     }
 
     StockLocationLine stockLocationLine =
-        stockLocationLineService.getOrCreateStockLocationLine(
+        getOrCreateLockedStockLocationLine(
             stockMoveLine.getFromStockLocation(), stockMoveLine.getProduct());
     BigDecimal availableQtyToBeReserved =
         stockLocationLine.getCurrentQty().subtract(stockLocationLine.getReservedQty());
@@ -704,7 +704,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
             saleOrderLine, stockMoveLine.getProduct(), newReservedQty);
 
     StockLocationLine stockLocationLine =
-        stockLocationLineService.getOrCreateStockLocationLine(
+        getOrCreateLockedStockLocationLine(
             stockMoveLine.getFromStockLocation(), stockMoveLine.getProduct());
 
     Product product = stockMoveLine.getProduct();
@@ -726,7 +726,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
   public void updateReservedQty(StockMoveLine stockMoveLine, BigDecimal newReservedQty)
       throws AxelorException {
     StockLocationLine stockLocationLine =
-        stockLocationLineService.getOrCreateStockLocationLine(
+        getOrCreateLockedStockLocationLine(
             stockMoveLine.getFromStockLocation(), stockMoveLine.getProduct());
     updateReservedQty(stockLocationLine, stockMoveLine, newReservedQty);
   }
@@ -777,7 +777,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
   public void updateRequestedReservedQty(StockMoveLine stockMoveLine, BigDecimal newReservedQty)
       throws AxelorException {
     StockLocationLine stockLocationLine =
-        stockLocationLineService.getOrCreateStockLocationLine(
+        getOrCreateLockedStockLocationLine(
             stockMoveLine.getFromStockLocation(), stockMoveLine.getProduct());
     updateRequestedReservedQty(stockLocationLine, stockMoveLine, newReservedQty);
   }
@@ -858,7 +858,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
     // deallocate in stock location line
     if (stockMoveLine.getStockMove() != null) {
       StockLocationLine stockLocationLine =
-          stockLocationLineFetchService.getStockLocationLine(
+          getLockedStockLocationLine(
               stockMoveLine.getFromStockLocation(), stockMoveLine.getProduct());
       if (stockLocationLine != null) {
         updateReservedQty(stockLocationLine);
@@ -876,6 +876,33 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
         .fetchOne();
   }
 
+  /**
+   * Get the stock location line of the product, locked until the end of the transaction so that
+   * concurrent reservations of the product in the same location are done one after the other.
+   */
+  protected StockLocationLine getLockedStockLocationLine(
+      StockLocation stockLocation, Product product) {
+    if (product == null || !product.getStockManaged() || stockLocation == null) {
+      return null;
+    }
+    return stockLocationLineFetchService
+        .lockStockLocationLines(stockLocation, Collections.singletonList(product.getId()))
+        .stream()
+        .filter(stockLocationLine -> stockLocation.equals(stockLocationLine.getStockLocation()))
+        .findFirst()
+        .orElse(null);
+  }
+
+  protected StockLocationLine getOrCreateLockedStockLocationLine(
+      StockLocation stockLocation, Product product) {
+    StockLocationLine stockLocationLine = getLockedStockLocationLine(stockLocation, product);
+    if (stockLocationLine == null) {
+      stockLocationLine =
+          stockLocationLineService.getOrCreateStockLocationLine(stockLocation, product);
+    }
+    return stockLocationLine;
+  }
+
   /** Convert but with null check. Return start value if one unit is null. */
   protected BigDecimal convertUnitWithProduct(
       Unit startUnit, Unit endUnit, BigDecimal qtyToConvert, Product product)
@@ -989,7 +1016,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
     }
     // search for the maximum quantity that can be allocated.
     StockLocationLine stockLocationLine =
-        stockLocationLineService.getOrCreateStockLocationLine(
+        getOrCreateLockedStockLocationLine(
             stockMoveLine.getFromStockLocation(), stockMoveLine.getProduct());
     BigDecimal availableQtyToBeReserved =
         stockLocationLine.getCurrentQty().subtract(stockLocationLine.getReservedQty());
@@ -1020,7 +1047,7 @@ public class ReservedQtyServiceImpl implements ReservedQtyService {
     } else {
       // search for the maximum quantity that can be allocated in the stock move line.
       StockLocationLine stockLocationLine =
-          stockLocationLineService.getOrCreateStockLocationLine(
+          getOrCreateLockedStockLocationLine(
               stockMoveLine.getFromStockLocation(), stockMoveLine.getProduct());
       BigDecimal availableQtyToBeReserved =
           stockLocationLine.getCurrentQty().subtract(stockLocationLine.getReservedQty());
@@ -18,14 +18,14 @@
  */
 package com.axelor.apps.supplychain.service;
 
-import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.service.UnitConversionService;
 import com.axelor.apps.stock.db.StockHistoryLine;
-import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.StockMovementSummary;
 import com.axelor.apps.stock.db.repo.StockHistoryLineManagementRepository;
 import com.axelor.apps.stock.db.repo.StockLocationRepository;
 import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
 import com.axelor.apps.stock.service.StockHistoryServiceImpl;
+import com.axelor.apps.stock.service.StockMovementSummaryService;
 import com.google.inject.Inject;
 import java.math.BigDecimal;
 import java.util.List;
@@ -37,40 +37,29 @@ public class StockHistoryServiceSupplyChainImpl extends StockHistoryServiceImpl
       StockMoveLineRepository stockMoveLineRepository,
       UnitConversionService unitConversionService,
       StockLocationRepository stockLocationRepository,
-      StockHistoryLineManagementRepository stockHistoryLineRepository) {
+      StockHistoryLineManagementRepository stockHistoryLineRepository,
+      StockMovementSummaryService stockMovementSummaryService) {
     super(
         stockMoveLineRepository,
         unitConversionService,
         stockLocationRepository,
-        stockHistoryLineRepository);
+        stockHistoryLineRepository,
+        stockMovementSummaryService);
   }
 
   @Override
-  protected void fillOutgoingStockHistoryLineFields(
-      StockHistoryLine stockHistoryLine, List<StockMoveLine> stockMoveLineList)
-      throws AxelorException {
+  protected void fillStockHistoryLineFields(
+      StockHistoryLine stockHistoryLine, List<StockMovementSummary> summaryList) {
 
-    super.fillOutgoingStockHistoryLineFields(stockHistoryLine, stockMoveLineList);
+    super.fillStockHistoryLineFields(stockHistoryLine, summaryList);
 
-    BigDecimal sumOutQtyPeriod = BigDecimal.ZERO;
-    BigDecimal sumOneoffSaleOutQtyPeriod = BigDecimal.ZERO;
-    BigDecimal qtyConverted = BigDecimal.ZERO;
-    for (StockMoveLine stockMoveLine : stockMoveLineList) {
-      qtyConverted =
-          unitConversionService.convert(
-              stockMoveLine.getUnit(),
-              stockMoveLine.getProduct().getUnit(),
-              stockMoveLine.getRealQty(),
-              stockMoveLine.getRealQty().scale(),
-              stockMoveLine.getProduct());
-      if (stockMoveLine.getSaleOrderLine() != null
-          && stockMoveLine.getSaleOrderLine().getSaleOrder().getOneoffSale()) {
-        sumOneoffSaleOutQtyPeriod = sumOneoffSaleOutQtyPeriod.add(qtyConverted);
-      } else {
-        sumOutQtyPeriod = sumOutQtyPeriod.add(qtyConverted);
-      }
-    }
-    stockHistoryLine.setSumOutQtyPeriod(sumOutQtyPeriod);
+    BigDecimal sumOneoffSaleOutQtyPeriod =
+        summaryList.stream()
+            .map(StockMovementSummary::getOneoffSaleOutgoingQty)
+            .reduce(BigDecimal::add)
+            .orElse(BigDecimal.ZERO);
+    stockHistoryLine.setSumOutQtyPeriod(
+        stockHistoryLine.getSumOutQtyPeriod().subtract(sumOneoffSaleOutQtyPeriod));
     stockHistoryLine.setSumOneoffSaleOutQtyPeriod(sumOneoffSaleOutQtyPeriod);
   }
 }
@@ -0,0 +1,69 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.supplychain.service;
+
+import com.axelor.apps.base.service.UnitConversionService;
+import com.axelor.apps.stock.db.StockMoveLine;
+import com.axelor.apps.stock.db.StockMovementSummary;
+import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.db.repo.StockMovementSummaryRepository;
+import com.axelor.apps.stock.service.StockMovementSummaryServiceImpl;
+import com.axelor.apps.stock.service.app.AppStockService;
+import com.google.inject.Inject;
+import java.math.BigDecimal;
+
+public class StockMovementSummaryServiceSupplychainImpl extends StockMovementSummaryServiceImpl {
+
+  @Inject
+  public StockMovementSummaryServiceSupplychainImpl(
+      StockMovementSummaryRepository stockMovementSummaryRepository,
+      StockMoveRepository stockMoveRepository,
+      UnitConversionService unitConversionService,
+      AppStockService appStockService) {
+    super(
+        stockMovementSummaryRepository,
+        stockMoveRepository,
+        unitConversionService,
+        appStockService);
+  }
+
+  @Override
+  protected void addStockMoveLine(
+      StockMovementSummary summary,
+      StockMoveLine stockMoveLine,
+      BigDecimal qty,
+      boolean incoming,
+      int sign) {
+    super.addStockMoveLine(summary, stockMoveLine, qty, incoming, sign);
+
+    if (!incoming
+        && stockMoveLine.getSaleOrderLine() != null
+        && stockMoveLine.getSaleOrderLine().getSaleOrder().getOneoffSale()) {
+      summary.setOneoffSaleOutgoingQty(
+          summary.getOneoffSaleOutgoingQty().add(qty.multiply(BigDecimal.valueOf(sign))));
+    }
+  }
+
+  @Override
+  protected void addSummary(StockMovementSummary summary, StockMovementSummary delta) {
+    super.addSummary(summary, delta);
+    summary.setOneoffSaleOutgoingQty(
+        summary.getOneoffSaleOutgoingQty().add(delta.getOneoffSaleOutgoingQty()));
+  }
+}
@@ -36,7 +36,6 @@ import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
 import com.axelor.apps.stock.db.repo.StockMoveRepository;
 import com.axelor.apps.supplychain.exception.SupplychainExceptionMessage;
 import com.axelor.apps.supplychain.service.AccountingCutOffSupplyChainService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
@@ -125,8 +124,7 @@ public class BatchAccountingCutOffSupplyChain extends BatchAccountingCutOff {
         }
       }
 
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
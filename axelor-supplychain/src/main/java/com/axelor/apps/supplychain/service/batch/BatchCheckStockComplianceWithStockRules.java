@@ -74,8 +74,7 @@ public class BatchCheckStockComplianceWithStockRules extends BatchStrategy {
         != null) {
       if (ObjectUtils.isEmpty(stockLocationLinesByStockRules)) {
         offset += getFetchLimit();
-        JPA.clear();
-        findBatch();
+        clear();
         continue;
       }
       for (Map.Entry<StockRules, List<StockLocationLine>> stockLocationsByStockRule :
@@ -92,8 +91,7 @@ public class BatchCheckStockComplianceWithStockRules extends BatchStrategy {
           }
         }
         offset += getFetchLimit();
-        JPA.clear();
-        findBatch();
+        clear();
       }
     }
   }
@@ -22,25 +22,28 @@ import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.base.db.repo.BatchRepository;
 import com.axelor.apps.base.db.repo.ExceptionOriginRepository;
 import com.axelor.apps.base.exceptions.BaseExceptionMessage;
+import com.axelor.apps.base.service.administration.PartitionedBatch;
 import com.axelor.apps.base.service.exception.TraceBackService;
 import com.axelor.apps.sale.db.SaleOrder;
 import com.axelor.apps.supplychain.exception.SupplychainExceptionMessage;
 import com.axelor.apps.supplychain.service.invoice.SubscriptionInvoiceService;
 import com.axelor.apps.supplychain.service.saleorder.SaleOrderInvoiceService;
-import com.axelor.db.JPA;
 import com.axelor.i18n.I18n;
 import com.google.inject.Inject;
 import java.lang.invoke.MethodHandles;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class BatchInvoicing extends BatchStrategy {
+public class BatchInvoicing extends BatchStrategy implements PartitionedBatch {
 
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   @Inject private SubscriptionInvoiceService subscriptionInvoiceService;
 
+  protected Integer fetchLimit;
+
   @Inject
   public BatchInvoicing(SaleOrderInvoiceService saleOrderInvoiceService) {
 
@@ -49,8 +52,29 @@ public class BatchInvoicing extends BatchStrategy {
 
   @Override
   protected void process() {
+    fetchLimit = getFetchLimit();
+    invoiceSubscriptionOrders(null);
+  }
+
+  @Override
+  public Map<Long, Long> getPartitionSizeMap() {
+    return subscriptionInvoiceService.getSubscriptionOrderCountByClientPartner();
+  }
+
+  @Override
+  public void preparePartitions() {
+    fetchLimit = getFetchLimit();
+  }
+
+  @Override
+  public void processPartition(Long clientPartnerId) {
+    invoiceSubscriptionOrders(clientPartnerId);
+  }
+
+  protected void invoiceSubscriptionOrders(Long clientPartnerId) {
 
-    List<SaleOrder> saleOrders = subscriptionInvoiceService.getSubscriptionOrders(getFetchLimit());
+    List<SaleOrder> saleOrders =
+        subscriptionInvoiceService.getSubscriptionOrders(clientPartnerId, fetchLimit);
 
     while (!saleOrders.isEmpty()) {
       for (SaleOrder saleOrder : saleOrders) {
@@ -74,9 +98,8 @@ public class BatchInvoicing extends BatchStrategy {
           LOG.error("Bug(Anomalie) généré(e) pour le devis {}", saleOrder.getSaleOrderSeq());
         }
       }
-      JPA.clear();
-      findBatch();
-      saleOrders = subscriptionInvoiceService.getSubscriptionOrders(getFetchLimit());
+      clear();
+      saleOrders = subscriptionInvoiceService.getSubscriptionOrders(clientPartnerId, fetchLimit);
     }
   }
 
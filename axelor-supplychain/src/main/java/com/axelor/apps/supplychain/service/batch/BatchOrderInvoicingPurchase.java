@@ -27,7 +27,6 @@ import com.axelor.apps.purchase.db.PurchaseOrder;
 import com.axelor.apps.purchase.db.repo.PurchaseOrderRepository;
 import com.axelor.apps.supplychain.db.SupplychainBatch;
 import com.axelor.apps.supplychain.service.PurchaseOrderInvoiceService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.inject.Beans;
 import com.axelor.utils.helpers.StringHelper;
@@ -134,8 +133,7 @@ public class BatchOrderInvoicingPurchase extends BatchOrderInvoicing {
           break;
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 }
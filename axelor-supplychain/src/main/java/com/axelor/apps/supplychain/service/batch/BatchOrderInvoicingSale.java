@@ -27,7 +27,6 @@ import com.axelor.apps.sale.db.SaleOrder;
 import com.axelor.apps.sale.db.repo.SaleOrderRepository;
 import com.axelor.apps.supplychain.db.SupplychainBatch;
 import com.axelor.apps.supplychain.service.saleorder.SaleOrderInvoiceService;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.inject.Beans;
 import com.axelor.utils.helpers.StringHelper;
@@ -135,8 +134,7 @@ public class BatchOrderInvoicingSale extends BatchOrderInvoicing {
           break;
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 }
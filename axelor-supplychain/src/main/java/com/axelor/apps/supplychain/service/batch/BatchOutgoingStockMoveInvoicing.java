@@ -90,8 +90,7 @@ public class BatchOutgoingStockMoveInvoicing extends BatchStrategy {
           break;
         }
       }
-      JPA.clear();
-      findBatch();
+      clear();
     }
   }
 
@@ -31,7 +31,6 @@ import com.axelor.apps.stock.db.StockHistoryLine;
 import com.axelor.apps.stock.service.StockHistoryService;
 import com.axelor.apps.supplychain.db.SupplychainBatch;
 import com.axelor.apps.supplychain.exception.SupplychainExceptionMessage;
-import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.axelor.i18n.I18n;
 import com.axelor.inject.Beans;
@@ -100,8 +99,7 @@ public class BatchUpdateStockHistory extends BatchStrategy {
                 e, ExceptionOriginRepository.UPDATE_STOCK_HISTORY, batch.getId());
           }
         }
-        JPA.clear();
-        findBatch();
+        clear();
       }
     } catch (AxelorException e) {
       TraceBackService.trace(
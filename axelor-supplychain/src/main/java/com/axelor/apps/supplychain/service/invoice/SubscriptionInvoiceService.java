@@ -22,6 +22,7 @@ import com.axelor.apps.account.db.Invoice;
 import com.axelor.apps.base.AxelorException;
 import com.axelor.apps.sale.db.SaleOrder;
 import java.util.List;
+import java.util.Map;
 
 public interface SubscriptionInvoiceService {
 
@@ -29,5 +30,9 @@ public interface SubscriptionInvoiceService {
 
   public List<SaleOrder> getSubscriptionOrders(Integer limit);
 
+  public List<SaleOrder> getSubscriptionOrders(Long clientPartnerId, Integer limit);
+
+  public Map<Long, Long> getSubscriptionOrderCountByClientPartner();
+
   public Invoice generateSubscriptionInvoice(SaleOrder saleOrder) throws AxelorException;
 }
@@ -27,6 +27,7 @@ import com.axelor.apps.sale.db.repo.SaleOrderRepository;
 import com.axelor.apps.supplychain.service.saleorder.SaleOrderInvoiceService;
 import com.axelor.auth.AuthUtils;
 import com.axelor.auth.db.User;
+import com.axelor.db.JPA;
 import com.axelor.db.Query;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
@@ -34,8 +35,12 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import javax.persistence.TypedQuery;
 
 public class SubscriptionInvoiceServiceImpl implements SubscriptionInvoiceService {
 
@@ -60,23 +65,22 @@ public class SubscriptionInvoiceServiceImpl implements SubscriptionInvoiceServic
 
   @Override
   public List<SaleOrder> getSubscriptionOrders(Integer limit) {
+    return getSubscriptionOrders(null, limit);
+  }
+
+  @Override
+  public List<SaleOrder> getSubscriptionOrders(Long clientPartnerId, Integer limit) {
+
+    String filter = getSubscriptionOrderFilter();
+    if (clientPartnerId != null) {
+      filter += " AND self.clientPartner.id = :clientPartnerId";
+    }
+
+    Query<SaleOrder> query = saleOrderRepo.all().filter(filter).bind(getSubscriptionOrderParams());
 
-    Query<SaleOrder> query =
-        saleOrderRepo
-            .all()
-            .filter(
-                "self.saleOrderTypeSelect = :saleOrderType "
-                    + "AND self.statusSelect = :saleOrderStatus "
-                    + "AND :subScriptionDate >= self.nextInvoicingDate "
-                    + "AND (self.contractEndDate IS NULL OR self.contractEndDate >= :subScriptionDate)")
-            .bind("saleOrderType", SaleOrderRepository.SALE_ORDER_TYPE_SUBSCRIPTION)
-            .bind("saleOrderStatus", SaleOrderRepository.STATUS_ORDER_CONFIRMED)
-            .bind(
-                "subScriptionDate",
-                appBaseService.getTodayDate(
-                    Optional.ofNullable(AuthUtils.getUser())
-                        .map(User::getActiveCompany)
-                        .orElse(null)));
+    if (clientPartnerId != null) {
+      query.bind("clientPartnerId", clientPartnerId);
+    }
 
     if (limit != null) {
       return query.fetch(limit);
@@ -85,6 +89,42 @@ public class SubscriptionInvoiceServiceImpl implements SubscriptionInvoiceServic
     return query.fetch();
   }
 
+  @Override
+  public Map<Long, Long> getSubscriptionOrderCountByClientPartner() {
+    TypedQuery<Object[]> query =
+        JPA.em()
+            .createQuery(
+                "SELECT self.clientPartner.id, COUNT(self) FROM SaleOrder self WHERE "
+                    + getSubscriptionOrderFilter()
+                    + " GROUP BY self.clientPartner.id",
+                Object[].class);
+    getSubscriptionOrderParams().forEach(query::setParameter);
+
+    Map<Long, Long> orderCountMap = new LinkedHashMap<>();
+    for (Object[] result : query.getResultList()) {
+      orderCountMap.put((Long) result[0], (Long) result[1]);
+    }
+    return orderCountMap;
+  }
+
+  protected String getSubscriptionOrderFilter() {
+    return "self.saleOrderTypeSelect = :saleOrderType "
+        + "AND self.statusSelect = :saleOrderStatus "
+        + "AND :subScriptionDate >= self.nextInvoicingDate "
+        + "AND (self.contractEndDate IS NULL OR self.contractEndDate >= :subScriptionDate)";
+  }
+
+  protected Map<String, Object> getSubscriptionOrderParams() {
+    Map<String, Object> params = new HashMap<>();
+    params.put("saleOrderType", SaleOrderRepository.SALE_ORDER_TYPE_SUBSCRIPTION);
+    params.put("saleOrderStatus", SaleOrderRepository.STATUS_ORDER_CONFIRMED);
+    params.put(
+        "subScriptionDate",
+        appBaseService.getTodayDate(
+            Optional.ofNullable(AuthUtils.getUser()).map(User::getActiveCompany).orElse(null)));
+    return params;
+  }
+
   @Override
   @Transactional(rollbackOn = {Exception.class})
   public Invoice generateSubscriptionInvoice(SaleOrder saleOrder) throws AxelorException {
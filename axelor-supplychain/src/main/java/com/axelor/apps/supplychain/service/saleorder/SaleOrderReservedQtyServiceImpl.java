@@ -24,6 +24,7 @@ import com.axelor.apps.sale.db.SaleOrderLine;
 import com.axelor.apps.stock.db.StockMoveLine;
 import com.axelor.apps.stock.db.repo.StockMoveLineRepository;
 import com.axelor.apps.stock.db.repo.StockMoveRepository;
+import com.axelor.apps.stock.service.StockLocationLineFetchService;
 import com.axelor.apps.supplychain.service.ReservedQtyService;
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
@@ -36,18 +37,24 @@ public class SaleOrderReservedQtyServiceImpl implements SaleOrderReservedQtyServ
 
   protected ReservedQtyService reservedQtyService;
   protected StockMoveLineRepository stockMoveLineRepository;
+  protected StockLocationLineFetchService stockLocationLineFetchService;
 
   @Inject
   public SaleOrderReservedQtyServiceImpl(
-      ReservedQtyService reservedQtyService, StockMoveLineRepository stockMoveLineRepository) {
+      ReservedQtyService reservedQtyService,
+      StockMoveLineRepository stockMoveLineRepository,
+      StockLocationLineFetchService stockLocationLineFetchService) {
     this.reservedQtyService = reservedQtyService;
     this.stockMoveLineRepository = stockMoveLineRepository;
+    this.stockLocationLineFetchService = stockLocationLineFetchService;
   }
 
   @Override
   @Transactional(rollbackOn = {Exception.class})
   public void allocateAll(SaleOrder saleOrder) throws AxelorException {
-    for (SaleOrderLine saleOrderLine : getNonDeliveredLines(saleOrder)) {
+    List<SaleOrderLine> saleOrderLineList = getNonDeliveredLines(saleOrder);
+    lockStockLocationLines(saleOrderLineList);
+    for (SaleOrderLine saleOrderLine : saleOrderLineList) {
       reservedQtyService.allocateAll(saleOrderLine);
     }
   }
@@ -55,7 +62,9 @@ public class SaleOrderReservedQtyServiceImpl implements SaleOrderReservedQtyServ
   @Override
   @Transactional(rollbackOn = {Exception.class})
   public void deallocateAll(SaleOrder saleOrder) throws AxelorException {
-    for (SaleOrderLine saleOrderLine : getNonDeliveredLines(saleOrder)) {
+    List<SaleOrderLine> saleOrderLineList = getNonDeliveredLines(saleOrder);
+    lockStockLocationLines(saleOrderLineList);
+    for (SaleOrderLine saleOrderLine : saleOrderLineList) {
       reservedQtyService.updateReservedQty(saleOrderLine, BigDecimal.ZERO);
     }
   }
@@ -63,7 +72,9 @@ public class SaleOrderReservedQtyServiceImpl implements SaleOrderReservedQtyServ
   @Override
   @Transactional(rollbackOn = {Exception.class})
   public void reserveAll(SaleOrder saleOrder) throws AxelorException {
-    for (SaleOrderLine saleOrderLine : getNonDeliveredLines(saleOrder)) {
+    List<SaleOrderLine> saleOrderLineList = getNonDeliveredLines(saleOrder);
+    lockStockLocationLines(saleOrderLineList);
+    for (SaleOrderLine saleOrderLine : saleOrderLineList) {
       reservedQtyService.requestQty(saleOrderLine);
     }
   }
@@ -71,7 +82,9 @@ public class SaleOrderReservedQtyServiceImpl implements SaleOrderReservedQtyServ
   @Override
   @Transactional(rollbackOn = {Exception.class})
   public void cancelReservation(SaleOrder saleOrder) throws AxelorException {
-    for (SaleOrderLine saleOrderLine : getNonDeliveredLines(saleOrder)) {
+    List<SaleOrderLine> saleOrderLineList = getNonDeliveredLines(saleOrder);
+    lockStockLocationLines(saleOrderLineList);
+    for (SaleOrderLine saleOrderLine : saleOrderLineList) {
       reservedQtyService.cancelReservation(saleOrderLine);
     }
   }
@@ -86,6 +99,15 @@ public class SaleOrderReservedQtyServiceImpl implements SaleOrderReservedQtyServ
         .collect(Collectors.toList());
   }
 
+  /**
+   * Lock the location lines of all the lines before updating any of them, so that two transactions
+   * updating the same products lock them in the same order.
+   */
+  protected void lockStockLocationLines(List<SaleOrderLine> saleOrderLineList) {
+    stockLocationLineFetchService.lockStockLocationLines(
+        saleOrderLineList.stream().map(this::getPlannedStockMoveLine).collect(Collectors.toList()));
+  }
+
   protected StockMoveLine getPlannedStockMoveLine(SaleOrderLine saleOrderLine) {
     return stockMoveLineRepository
         .all()
@@ -0,0 +1,163 @@
+/*
+ * Axelor Business Solutions
+ *
+ * Copyright (C) 2005-2025 Axelor (<http://axelor.com>).
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.axelor.apps.supplychain.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.axelor.apps.base.db.Company;
+import com.axelor.apps.base.service.app.AppBaseService;
+import com.axelor.apps.stock.db.StockLocation;
+import com.axelor.apps.supplychain.db.Mrp;
+import com.axelor.apps.supplychain.db.repo.MrpRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestMrpNetChange {
+
+  private static final LocalDate TODAY = LocalDate.of(2026, 3, 12);
+
+  private TestableMrpService mrpService;
+  private Mrp mrp;
+
+  @BeforeEach
+  void prepare() {
+    AppBaseService appBaseService = mock(AppBaseService.class);
+    when(appBaseService.getTodayDate(any(Company.class))).thenReturn(TODAY);
+    mrpService = new TestableMrpService(appBaseService);
+
+    StockLocation stockLocation = new StockLocation();
+    stockLocation.setCompany(new Company());
+    mrp = new Mrp();
+    mrp.setId(1L);
+    mrp.setStockLocation(stockLocation);
+    mrp.setNetChangeOk(true);
+    mrp.setStatusSelect(MrpRepository.STATUS_CALCULATION_ENDED);
+    mrp.setStartDateTime(TODAY.atTime(8, 0));
+    mrp.setVersion(3);
+    mrp.setNetChangeVersion(3);
+    mrpService.recordCountMap.put("Product", 10L);
+    mrpService.recordCountMap.put("StockRules", 4L);
+    mrp.setNetChangeSnapshot(mrpService.computeNetChangeSnapshot());
+  }
+
+  @Test
+  void isNetChangeRun_unchangedMrpRunToday() {
+    Assertions.assertTrue(mrpService.isNetChangeRun(mrp));
+  }
+
+  @Test
+  void isNetChangeRun_previousRunOnAnotherDay() {
+    mrp.setStartDateTime(TODAY.minusDays(1).atTime(8, 0));
+    Assertions.assertFalse(mrpService.isNetChangeRun(mrp));
+  }
+
+  @Test
+  void isNetChangeRun_mrpModifiedSincePreviousRun() {
+    mrp.setVersion(4);
+    Assertions.assertFalse(mrpService.isNetChangeRun(mrp));
+  }
+
+  @Test
+  void isNetChangeRun_recordDeletedSincePreviousRun() {
+    mrpService.recordCountMap.put("StockRules", 3L);
+    Assertions.assertFalse(mrpService.isNetChangeRun(mrp));
+  }
+
+  @Test
+  void isNetChangeRun_recordCreatedSincePreviousRun() {
+    mrpService.maxIdMap.put("StockRules", 120L);
+    Assertions.assertTrue(mrpService.isNetChangeRun(mrp));
+  }
+
+  @Test
+  void isNetChangeRun_withoutSnapshot() {
+    mrp.setNetChangeSnapshot(null);
+    Assertions.assertFalse(mrpService.isNetChangeRun(mrp));
+  }
+
+  @Test
+  void restrictToNetChangeProducts_purgesProductsOutOfScope() {
+    // products 1 and 2 had lines, product 3 left the scope and product 4 entered it
+    mrpService.mrpLineProductIdSet = Set.of(1L, 2L, 3L);
+    mrpService.changedProductIdSet = Set.of(2L, 3L);
+    mrpService.productMap = new HashMap<>(Map.of(1L, 0, 2L, 0, 4L, 0));
+
+    mrpService.restrictToNetChangeProducts(mrp);
+
+    Assertions.assertEquals(Set.of(2L, 4L), mrpService.productMap.keySet());
+    Assertions.assertEquals(Set.of(2L, 3L, 4L), mrpService.resetProductIdSet);
+  }
+
+  private static class TestableMrpService extends MrpServiceImpl {
+
+    private final Map<String, Long> recordCountMap = new HashMap<>();
+    private final Map<String, Long> maxIdMap = new HashMap<>();
+    private Set<Long> mrpLineProductIdSet = new HashSet<>();
+    private Set<Long> changedProductIdSet = new HashSet<>();
+    private final Set<Long> resetProductIdSet = new HashSet<>();
+
+    TestableMrpService(AppBaseService appBaseService) {
+      super(
+          null, null, null, null, null, null, null, null, null, null, null, null, null, null, null,
+          appBaseService, null, null, null, null, null);
+    }
+
+    @Override
+    protected List<String> getNetChangeEntityList() {
+      return new ArrayList<>(List.of("Product", "StockRules"));
+    }
+
+    @Override
+    protected long getMaxId(String entityName) {
+      return maxIdMap.getOrDefault(entityName, 100L);
+    }
+
+    // records created after the snapshot have a greater id and are not counted
+    @Override
+    protected long countRecordsUpTo(String entityName, long maxId) {
+      return recordCountMap.getOrDefault(entityName, 0L);
+    }
+
+    @Override
+    protected Set<Long> getMrpLineProductIdSet(Mrp mrp) {
+      return mrpLineProductIdSet;
+    }
+
+    @Override
+    protected Set<Long> getNetChangeProductIdSet(Mrp mrp, LocalDateTime sinceDateTime) {
+      return new HashSet<>(changedProductIdSet);
+    }
+
+    @Override
+    protected void resetMrpLines(Mrp mrp, List<Long> productIdList) {
+      resetProductIdSet.addAll(productIdList);
+    }
+  }
+}